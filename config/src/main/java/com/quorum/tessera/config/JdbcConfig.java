@@ -22,6 +22,9 @@ public class JdbcConfig extends ConfigItem {
 
   @XmlElement private int fetchSize;
 
+  /** Maximum total size in bytes of decoded transaction payloads to cache, 0 to disable */
+  @XmlElement private long payloadCacheSize;
+
   public JdbcConfig(String username, String password, String url) {
     this.username = username;
     this.password = password;
@@ -71,4 +74,12 @@ public class JdbcConfig extends ConfigItem {
   public void setFetchSize(int fetchSize) {
     this.fetchSize = fetchSize;
   }
+
+  public long getPayloadCacheSize() {
+    return payloadCacheSize;
+  }
+
+  public void setPayloadCacheSize(long payloadCacheSize) {
+    this.payloadCacheSize = payloadCacheSize;
+  }
 }
@@ -41,6 +41,59 @@ public class IntervalPropertyHelper {
     }
   }
 
+  /** How long a peer's key stays trusted after it passes remote key validation */
+  public long keyValidationTtl() {
+    try {
+      return Long.parseLong(properties.getOrDefault("keyValidationTtl", "600000")); // 10 minutes
+    } catch (NumberFormatException ex) {
+      LOGGER.warn("Not able to parse configured property. Will use default value instead");
+      return 600000L;
+    }
+  }
+
+  /** How long a remote enclave's keys are used before they are fetched again */
+  public long enclaveKeyRefreshInterval() {
+    try {
+      return Long.parseLong(properties.getOrDefault("enclaveKeyRefreshInterval", "30000"));
+    } catch (NumberFormatException ex) {
+      LOGGER.warn("Not able to parse configured property. Will use default value instead");
+      return 30000L;
+    }
+  }
+
+  /**
+   * How long a client waits to connect to a remote server, which defaults to three quarters of the
+   * partyinfo interval so that an unreachable peer does not hold up the next round
+   */
+  public long clientConnectTimeout() {
+    return clientTimeout("clientConnectTimeout");
+  }
+
+  /** How long a client waits for a response, with the same default as the connect timeout */
+  public long clientRequestTimeout() {
+    return clientTimeout("clientRequestTimeout");
+  }
+
+  /** How long a pooled client connection may sit unused before it is closed */
+  public long clientIdleTimeout() {
+    try {
+      return Long.parseLong(properties.getOrDefault("clientIdleTimeout", "30000"));
+    } catch (NumberFormatException ex) {
+      LOGGER.warn("Not able to parse configured property. Will use default value instead");
+      return 30000L;
+    }
+  }
+
+  private long clientTimeout(final String property) {
+    final long defaultTimeout = Math.round(Math.ceil(partyInfoInterval() * 0.75));
+    try {
+      return Long.parseLong(properties.getOrDefault(property, Long.toString(defaultTimeout)));
+    } catch (NumberFormatException ex) {
+      LOGGER.warn("Not able to parse configured property. Will use default value instead");
+      return defaultTimeout;
+    }
+  }
+
   public String resendWaitTime() {
     try {
       return Long.toString(
@@ -17,6 +17,20 @@ public class IntervalPropertyHelperTest {
     assertThat(util.enclaveKeySyncInterval()).isEqualTo(2000);
     assertThat(util.syncInterval()).isEqualTo(60000);
     assertThat(util.resendWaitTime()).isEqualTo("7200000");
+    assertThat(util.keyValidationTtl()).isEqualTo(600000);
+    assertThat(util.enclaveKeyRefreshInterval()).isEqualTo(30000);
+    assertThat(util.clientConnectTimeout()).isEqualTo(3750);
+    assertThat(util.clientRequestTimeout()).isEqualTo(3750);
+    assertThat(util.clientIdleTimeout()).isEqualTo(30000);
+  }
+
+  @Test
+  public void clientTimeoutsDefaultFromPartyInfoInterval() {
+    final IntervalPropertyHelper util =
+        new IntervalPropertyHelper(Map.of("partyInfoInterval", "20000"));
+
+    assertThat(util.clientConnectTimeout()).isEqualTo(15000);
+    assertThat(util.clientRequestTimeout()).isEqualTo(15000);
   }
 
   @Test
@@ -26,6 +40,11 @@ public class IntervalPropertyHelperTest {
     props.put("enclaveKeySyncInterval", "3000");
     props.put("syncInterval", "4000");
     props.put("resendWaitTime", "4000");
+    props.put("keyValidationTtl", "5000");
+    props.put("enclaveKeyRefreshInterval", "6000");
+    props.put("clientConnectTimeout", "7000");
+    props.put("clientRequestTimeout", "8000");
+    props.put("clientIdleTimeout", "9000");
 
     final IntervalPropertyHelper util = new IntervalPropertyHelper(props);
 
@@ -33,6 +52,11 @@ public class IntervalPropertyHelperTest {
     assertThat(util.enclaveKeySyncInterval()).isEqualTo(3000);
     assertThat(util.syncInterval()).isEqualTo(4000);
     assertThat(util.resendWaitTime()).isEqualTo("4000");
+    assertThat(util.keyValidationTtl()).isEqualTo(5000);
+    assertThat(util.enclaveKeyRefreshInterval()).isEqualTo(6000);
+    assertThat(util.clientConnectTimeout()).isEqualTo(7000);
+    assertThat(util.clientRequestTimeout()).isEqualTo(8000);
+    assertThat(util.clientIdleTimeout()).isEqualTo(9000);
   }
 
   @Test
@@ -42,6 +66,11 @@ public class IntervalPropertyHelperTest {
     props.put("enclaveKeySyncInterval", "abc");
     props.put("syncInterval", "4000L");
     props.put("resendWaitTime", "4000L");
+    props.put("keyValidationTtl", "ten minutes");
+    props.put("enclaveKeyRefreshInterval", "-");
+    props.put("clientConnectTimeout", "1s");
+    props.put("clientRequestTimeout", "");
+    props.put("clientIdleTimeout", "idle");
 
     final IntervalPropertyHelper util = new IntervalPropertyHelper(props);
 
@@ -49,5 +78,10 @@ public class IntervalPropertyHelperTest {
     assertThat(util.enclaveKeySyncInterval()).isEqualTo(2000);
     assertThat(util.syncInterval()).isEqualTo(60000);
     assertThat(util.resendWaitTime()).isEqualTo("7200000");
+    assertThat(util.keyValidationTtl()).isEqualTo(600000);
+    assertThat(util.enclaveKeyRefreshInterval()).isEqualTo(30000);
+    assertThat(util.clientConnectTimeout()).isEqualTo(3750);
+    assertThat(util.clientRequestTimeout()).isEqualTo(3750);
+    assertThat(util.clientIdleTimeout()).isEqualTo(30000);
   }
 }
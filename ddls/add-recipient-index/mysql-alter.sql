@@ -0,0 +1,2 @@
+CREATE TABLE ENCRYPTED_TRANSACTION_RECIPIENT(HASH VARBINARY(100) NOT NULL, RECIPIENT_KEY VARBINARY(256) NOT NULL, PRIMARY KEY (HASH, RECIPIENT_KEY));
+ALTER TABLE ENCRYPTED_TRANSACTION_RECIPIENT ADD INDEX ENCRYPTED_TRANSACTION_RECIPIENT_KEY (RECIPIENT_KEY);
@@ -0,0 +1,2 @@
+CREATE TABLE ENCRYPTED_TRANSACTION_RECIPIENT(HASH RAW(100) NOT NULL, RECIPIENT_KEY RAW(256) NOT NULL, PRIMARY KEY (HASH, RECIPIENT_KEY));
+CREATE INDEX ENCRYPTED_TRANSACTION_RECIPIENT_KEY ON ENCRYPTED_TRANSACTION_RECIPIENT(RECIPIENT_KEY);
@@ -0,0 +1,2 @@
+CREATE TABLE ENCRYPTED_TRANSACTION_RECIPIENT(HASH BLOB NOT NULL, RECIPIENT_KEY BLOB NOT NULL, PRIMARY KEY (HASH, RECIPIENT_KEY));
+CREATE INDEX IF NOT EXISTS ENCRYPTED_TRANSACTION_RECIPIENT_KEY ON ENCRYPTED_TRANSACTION_RECIPIENT(RECIPIENT_KEY);
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS ENCRYPTED_TRANSACTION_TIMESTAMP ON ENCRYPTED_TRANSACTION(TIMESTAMP, HASH);
+CREATE INDEX IF NOT EXISTS ENCRYPTED_RAW_TRANSACTION_TIMESTAMP ON ENCRYPTED_RAW_TRANSACTION(TIMESTAMP, HASH);
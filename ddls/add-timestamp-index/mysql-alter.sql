@@ -0,0 +1,2 @@
+ALTER TABLE ENCRYPTED_TRANSACTION ADD INDEX ENCRYPTED_TRANSACTION_TIMESTAMP (TIMESTAMP, HASH);
+ALTER TABLE ENCRYPTED_RAW_TRANSACTION ADD INDEX ENCRYPTED_RAW_TRANSACTION_TIMESTAMP (TIMESTAMP, HASH);
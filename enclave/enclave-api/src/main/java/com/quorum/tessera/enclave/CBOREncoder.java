@@ -1,23 +1,68 @@
 package com.quorum.tessera.enclave;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
 import com.fasterxml.jackson.dataformat.cbor.CBORParser;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.LatencyHistogram;
+import com.quorum.tessera.metrics.LatencyMetrics;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.*;
 
 public class CBOREncoder implements PayloadEncoder {
 
-  final CBORFactory cborFactory = new CBORFactory();
+  /**
+   * Shared by every encoder, as a factory is thread safe and recycles the buffers of the parsers
+   * and generators it creates. Streams passed in are left open for the caller to close.
+   */
+  private static final CBORFactory CBOR_FACTORY =
+      CBORFactory.builder()
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+          .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+          .build();
+
+  private static final LatencyHistogram ENCODE_LATENCY =
+      LatencyMetrics.histogram(LatencyMetrics.PAYLOAD_ENCODE);
+
+  private static final LatencyHistogram DECODE_LATENCY =
+      LatencyMetrics.histogram(LatencyMetrics.PAYLOAD_DECODE);
+
+  final CBORFactory cborFactory = CBOR_FACTORY;
 
   @Override
   public byte[] encode(EncodedPayload payload) {
+    final long start = System.nanoTime();
+    try {
+      ByteArrayOutputStream output = new ByteArrayOutputStream(estimateSize(payload));
+      write(payload, output);
+      return output.toByteArray();
+    } catch (Exception ex) {
+      throw new RuntimeException("Unable to encode payload. ", ex);
+    } finally {
+      ENCODE_LATENCY.recordSince(start);
+    }
+  }
 
-    ByteArrayOutputStream output = new ByteArrayOutputStream();
+  /** Writes the payload to the stream as it is encoded, without holding the encoded bytes */
+  @Override
+  public void encode(EncodedPayload payload, OutputStream outputStream) throws IOException {
+    final long start = System.nanoTime();
+    try {
+      write(payload, outputStream);
+    } finally {
+      ENCODE_LATENCY.recordSince(start);
+    }
+  }
+
+  private void write(EncodedPayload payload, OutputStream outputStream) throws IOException {
 
-    try (CBORGenerator generator = cborFactory.createGenerator(output)) {
+    try (CBORGenerator generator = cborFactory.createGenerator(outputStream)) {
 
       generator.writeStartObject(11);
       generator.writeBinaryField("sender", payload.getSenderKey().getKeyBytes());
@@ -67,122 +112,144 @@ public class CBOREncoder implements PayloadEncoder {
       generator.writeEndObject();
 
       generator.flush();
+    }
+  }
 
+  @Override
+  public EncodedPayload decode(byte[] input) {
+    final long start = System.nanoTime();
+    try (final CBORParser parser = cborFactory.createParser(input)) {
+      return decode(parser);
     } catch (Exception ex) {
-      throw new RuntimeException("Unable to encode payload. ", ex);
+      throw new RuntimeException("Unable to decode payload data. ", ex);
+    } finally {
+      DECODE_LATENCY.recordSince(start);
     }
-
-    return output.toByteArray();
   }
 
+  /** Reads the payload from the stream as it is decoded, without first reading all of it */
   @Override
-  public EncodedPayload decode(byte[] input) {
+  public EncodedPayload decode(InputStream inputStream) {
+    final long start = System.nanoTime();
+    try (final CBORParser parser = cborFactory.createParser(inputStream)) {
+      return decode(parser);
+    } catch (Exception ex) {
+      throw new RuntimeException("Unable to decode payload data. ", ex);
+    } finally {
+      DECODE_LATENCY.recordSince(start);
+    }
+  }
 
-    EncodedPayload.Builder payloadBuilder = EncodedPayload.Builder.create();
+  private EncodedPayload decode(CBORParser parser) throws IOException {
 
-    try (final CBORParser parser = cborFactory.createParser(input)) {
+    EncodedPayload.Builder payloadBuilder = EncodedPayload.Builder.create();
 
-      validateToken(JsonToken.START_OBJECT, parser.nextToken());
+    validateToken(JsonToken.START_OBJECT, parser.nextToken());
 
-      while (parser.nextFieldName() != null) {
+    while (parser.nextFieldName() != null) {
 
-        if (parser.getCurrentName().equals("sender")) {
-          validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
-          final byte[] senderKey = parser.getBinaryValue();
-          payloadBuilder.withSenderKey(PublicKey.from(senderKey));
-          continue;
-        }
-
-        if (parser.getCurrentName().equals("cipherText")) {
-          validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
-          final byte[] cipherText = parser.getBinaryValue();
-          payloadBuilder.withCipherText(cipherText);
-          continue;
-        }
+      if (parser.getCurrentName().equals("sender")) {
+        validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
+        final byte[] senderKey = parser.getBinaryValue();
+        payloadBuilder.withSenderKey(PublicKey.from(senderKey));
+        continue;
+      }
 
-        if (parser.getCurrentName().equals("nonce")) {
-          validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
-          final byte[] nonceBytes = parser.getBinaryValue();
-          payloadBuilder.withCipherTextNonce(nonceBytes);
-          continue;
-        }
+      if (parser.getCurrentName().equals("cipherText")) {
+        validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
+        final byte[] cipherText = parser.getBinaryValue();
+        payloadBuilder.withCipherText(cipherText);
+        continue;
+      }
 
-        if (parser.getCurrentName().equals("recipientNonce")) {
-          validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
-          final byte[] recipientNonceBytes = parser.getBinaryValue();
-          payloadBuilder.withRecipientNonce(recipientNonceBytes);
-          continue;
-        }
+      if (parser.getCurrentName().equals("nonce")) {
+        validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
+        final byte[] nonceBytes = parser.getBinaryValue();
+        payloadBuilder.withCipherTextNonce(nonceBytes);
+        continue;
+      }
 
-        if (parser.getCurrentName().equals("recipients")) {
-          validateToken(JsonToken.START_ARRAY, parser.nextToken());
-          while (parser.nextToken() != JsonToken.END_ARRAY) {
-            final byte[] recipientBytes = parser.getBinaryValue();
-            payloadBuilder.withRecipientKey(PublicKey.from(recipientBytes));
-          }
-          continue;
-        }
+      if (parser.getCurrentName().equals("recipientNonce")) {
+        validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
+        final byte[] recipientNonceBytes = parser.getBinaryValue();
+        payloadBuilder.withRecipientNonce(recipientNonceBytes);
+        continue;
+      }
 
-        if (parser.getCurrentName().equals("recipientBoxes")) {
-          validateToken(JsonToken.START_ARRAY, parser.nextToken());
-          while (parser.nextToken() != JsonToken.END_ARRAY) {
-            final byte[] box = parser.getBinaryValue();
-            payloadBuilder.withRecipientBox(box);
-          }
-          continue;
+      if (parser.getCurrentName().equals("recipients")) {
+        validateToken(JsonToken.START_ARRAY, parser.nextToken());
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          final byte[] recipientBytes = parser.getBinaryValue();
+          payloadBuilder.withRecipientKey(PublicKey.from(recipientBytes));
         }
+        continue;
+      }
 
-        if (parser.getCurrentName().equals("privacyFlag")) {
-          final int flag = parser.nextIntValue(0);
-          payloadBuilder.withPrivacyFlag(flag);
-          continue;
+      if (parser.getCurrentName().equals("recipientBoxes")) {
+        validateToken(JsonToken.START_ARRAY, parser.nextToken());
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          final byte[] box = parser.getBinaryValue();
+          payloadBuilder.withRecipientBox(box);
         }
+        continue;
+      }
 
-        if (parser.getCurrentName().equals("affected")) {
-          validateToken(JsonToken.START_OBJECT, parser.nextToken());
-          final Map<TxHash, byte[]> affectedTxs = new HashMap<>();
-          while (parser.nextToken() != JsonToken.END_OBJECT) {
-            final TxHash txHash = new TxHash(parser.currentName());
-            validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
-            final byte[] securityHashBytes = parser.getBinaryValue();
-            affectedTxs.put(txHash, securityHashBytes);
-          }
-          payloadBuilder.withAffectedContractTransactions(affectedTxs);
-          continue;
-        }
+      if (parser.getCurrentName().equals("privacyFlag")) {
+        final int flag = parser.nextIntValue(0);
+        payloadBuilder.withPrivacyFlag(flag);
+        continue;
+      }
 
-        if (parser.getCurrentName().equals("execHash")) {
+      if (parser.getCurrentName().equals("affected")) {
+        validateToken(JsonToken.START_OBJECT, parser.nextToken());
+        final Map<TxHash, byte[]> affectedTxs = new HashMap<>();
+        while (parser.nextToken() != JsonToken.END_OBJECT) {
+          final TxHash txHash = new TxHash(parser.currentName());
           validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
-          final byte[] execHash = parser.getBinaryValue();
-          payloadBuilder.withExecHash(execHash);
-          continue;
+          final byte[] securityHashBytes = parser.getBinaryValue();
+          affectedTxs.put(txHash, securityHashBytes);
         }
+        payloadBuilder.withAffectedContractTransactions(affectedTxs);
+        continue;
+      }
 
-        if (parser.getCurrentName().equals("mandatoryFor")) {
-          validateToken(JsonToken.START_ARRAY, parser.nextToken());
-          final Set<PublicKey> mandatoryRecipients = new HashSet<>();
-          while (parser.nextToken() != JsonToken.END_ARRAY) {
-            final byte[] recipient = parser.getBinaryValue();
-            mandatoryRecipients.add(PublicKey.from(recipient));
-          }
-          payloadBuilder.withMandatoryRecipients(mandatoryRecipients);
-          continue;
-        }
+      if (parser.getCurrentName().equals("execHash")) {
+        validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
+        final byte[] execHash = parser.getBinaryValue();
+        payloadBuilder.withExecHash(execHash);
+        continue;
+      }
 
-        if (parser.getCurrentName().equals("privacyGroupId")) {
-          validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
-          final byte[] groupId = parser.getBinaryValue();
-          if (groupId.length > 0)
-            payloadBuilder.withPrivacyGroupId(PrivacyGroup.Id.fromBytes(groupId));
+      if (parser.getCurrentName().equals("mandatoryFor")) {
+        validateToken(JsonToken.START_ARRAY, parser.nextToken());
+        final Set<PublicKey> mandatoryRecipients = new HashSet<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          final byte[] recipient = parser.getBinaryValue();
+          mandatoryRecipients.add(PublicKey.from(recipient));
         }
+        payloadBuilder.withMandatoryRecipients(mandatoryRecipients);
+        continue;
+      }
+
+      if (parser.getCurrentName().equals("privacyGroupId")) {
+        validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
+        final byte[] groupId = parser.getBinaryValue();
+        if (groupId.length > 0)
+          payloadBuilder.withPrivacyGroupId(PrivacyGroup.Id.fromBytes(groupId));
       }
-    } catch (Exception ex) {
-      throw new RuntimeException("Unable to decode payload data. ", ex);
     }
 
     return payloadBuilder.build();
   }
 
+  /** Roughly the encoded size, so the output buffer rarely has to grow */
+  private static int estimateSize(EncodedPayload payload) {
+    return 256
+        + payload.getCipherText().length
+        + payload.getRecipientKeys().size() * 40
+        + payload.getRecipientBoxes().size() * 56;
+  }
+
   @Override
   public EncodedPayloadCodec encodedPayloadCodec() {
     return EncodedPayloadCodec.CBOR;
@@ -70,7 +70,17 @@ public class EnclaveFactoryImpl {
 
     LOGGER.debug("Creating enclave");
 
-    Enclave enclave = new EnclaveImpl(encryptor, new KeyManagerImpl(keys, forwardKeys));
+    final SharedKeyCache sharedKeyCache = SharedKeyCache.create(encryptorConfig.getProperties());
+    sharedKeyCache.register();
+    final RecipientBoxSealer recipientBoxSealer =
+        RecipientBoxSealer.create(encryptorConfig.getProperties());
+
+    Enclave enclave =
+        new EnclaveImpl(
+            encryptor,
+            new KeyManagerImpl(keys, forwardKeys),
+            sharedKeyCache,
+            recipientBoxSealer);
 
     LOGGER.debug("Created enclave {}", enclave);
 
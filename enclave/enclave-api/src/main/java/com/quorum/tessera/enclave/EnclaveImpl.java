@@ -1,6 +1,8 @@
 package com.quorum.tessera.enclave;
 
 import com.quorum.tessera.encryption.*;
+import com.quorum.tessera.metrics.LatencyHistogram;
+import com.quorum.tessera.metrics.LatencyMetrics;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -12,13 +14,33 @@ public class EnclaveImpl implements Enclave {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(EnclaveImpl.class);
 
+  private static final LatencyHistogram ENCRYPT_LATENCY =
+      LatencyMetrics.histogram(LatencyMetrics.ENCLAVE_ENCRYPT);
+
+  private static final LatencyHistogram DECRYPT_LATENCY =
+      LatencyMetrics.histogram(LatencyMetrics.ENCLAVE_DECRYPT);
+
   private final Encryptor encryptor;
 
   private final KeyManager keyManager;
 
+  private final SharedKeyCache sharedKeyCache;
+
+  private final RecipientBoxSealer recipientBoxSealer;
+
   public EnclaveImpl(Encryptor encryptor, KeyManager keyManager) {
+    this(encryptor, keyManager, SharedKeyCache.disabled(), RecipientBoxSealer.sequential());
+  }
+
+  public EnclaveImpl(
+      Encryptor encryptor,
+      KeyManager keyManager,
+      SharedKeyCache sharedKeyCache,
+      RecipientBoxSealer recipientBoxSealer) {
     this.encryptor = Objects.requireNonNull(encryptor);
     this.keyManager = Objects.requireNonNull(keyManager);
+    this.sharedKeyCache = Objects.requireNonNull(sharedKeyCache);
+    this.recipientBoxSealer = Objects.requireNonNull(recipientBoxSealer);
   }
 
   @Override
@@ -27,6 +49,19 @@ public class EnclaveImpl implements Enclave {
       final PublicKey senderPublicKey,
       final List<PublicKey> recipientPublicKeys,
       final PrivacyMetadata privacyMetadata) {
+    final long start = System.nanoTime();
+    try {
+      return encrypt(message, senderPublicKey, recipientPublicKeys, privacyMetadata);
+    } finally {
+      ENCRYPT_LATENCY.recordSince(start);
+    }
+  }
+
+  private EncodedPayload encrypt(
+      final byte[] message,
+      final PublicKey senderPublicKey,
+      final List<PublicKey> recipientPublicKeys,
+      final PrivacyMetadata privacyMetadata) {
 
     final MasterKey masterKey = encryptor.createMasterKey();
     final Nonce nonce = encryptor.randomNonce();
@@ -115,6 +150,18 @@ public class EnclaveImpl implements Enclave {
       final RawTransaction rawTransaction,
       final List<PublicKey> recipientPublicKeys,
       final PrivacyMetadata privacyMetadata) {
+    final long start = System.nanoTime();
+    try {
+      return encrypt(rawTransaction, recipientPublicKeys, privacyMetadata);
+    } finally {
+      ENCRYPT_LATENCY.recordSince(start);
+    }
+  }
+
+  private EncodedPayload encrypt(
+      final RawTransaction rawTransaction,
+      final List<PublicKey> recipientPublicKeys,
+      final PrivacyMetadata privacyMetadata) {
 
     final MasterKey masterKey =
         this.getMasterKey(
@@ -186,13 +233,17 @@ public class EnclaveImpl implements Enclave {
       final MasterKey masterKey) {
     final PrivateKey privateKey = keyManager.getPrivateKeyForPublicKey(senderPublicKey);
 
-    return recipientPublicKeys.stream()
-        .map(publicKey -> encryptor.computeSharedKey(publicKey, privateKey))
-        .map(
-            sharedKey ->
-                encryptor.sealAfterPrecomputation(
-                    masterKey.getKeyBytes(), recipientNonce, sharedKey))
-        .collect(Collectors.toList());
+    return recipientBoxSealer.seal(
+        recipientPublicKeys,
+        publicKey -> {
+          final SharedKey sharedKey =
+              sharedKeyCache.get(
+                  senderPublicKey,
+                  publicKey,
+                  () -> encryptor.computeSharedKey(publicKey, privateKey));
+          return encryptor.sealAfterPrecomputation(
+              masterKey.getKeyBytes(), recipientNonce, sharedKey);
+        });
   }
 
   @Override
@@ -202,9 +253,7 @@ public class EnclaveImpl implements Enclave {
 
     final byte[] cipherText = encryptor.sealAfterPrecomputation(message, nonce, masterKey);
 
-    final PrivateKey privateKey = keyManager.getPrivateKeyForPublicKey(sender);
-
-    final SharedKey sharedKey = encryptor.computeSharedKey(sender, privateKey);
+    final SharedKey sharedKey = computeSharedKey(sender, sender);
     final byte[] encryptedMasterKey =
         encryptor.sealAfterPrecomputation(masterKey.getKeyBytes(), nonce, sharedKey);
 
@@ -214,6 +263,15 @@ public class EnclaveImpl implements Enclave {
   @Override
   public byte[] unencryptTransaction(
       final EncodedPayload payload, final PublicKey publicToFindPrivateFor) {
+    final long start = System.nanoTime();
+    try {
+      return unencrypt(payload, publicToFindPrivateFor);
+    } finally {
+      DECRYPT_LATENCY.recordSince(start);
+    }
+  }
+
+  private byte[] unencrypt(final EncodedPayload payload, final PublicKey publicToFindPrivateFor) {
     PublicKey senderPublicKey = payload.getSenderKey();
     final RecipientBox recipientBox;
 
@@ -281,8 +339,7 @@ public class EnclaveImpl implements Enclave {
       }
     }
 
-    final PrivateKey privateKey = keyManager.getPrivateKeyForPublicKey(publicToFindPrivateFor);
-    final SharedKey sharedKey = encryptor.computeSharedKey(senderPublicKey, privateKey);
+    final SharedKey sharedKey = computeSharedKey(publicToFindPrivateFor, senderPublicKey);
 
     final Nonce recipientNonce = payload.getRecipientNonce();
 
@@ -300,9 +357,7 @@ public class EnclaveImpl implements Enclave {
   @Override
   public byte[] unencryptRawPayload(RawTransaction payload) {
 
-    final PrivateKey senderPrivateKey = keyManager.getPrivateKeyForPublicKey(payload.getFrom());
-
-    final SharedKey sharedKey = encryptor.computeSharedKey(payload.getFrom(), senderPrivateKey);
+    final SharedKey sharedKey = computeSharedKey(payload.getFrom(), payload.getFrom());
 
     final byte[] recipientBox = payload.getEncryptedKey();
 
@@ -322,14 +377,22 @@ public class EnclaveImpl implements Enclave {
   private MasterKey getMasterKey(
       PublicKey recipient, PublicKey sender, Nonce nonce, byte[] encryptedKey) {
 
-    final SharedKey sharedKey =
-        encryptor.computeSharedKey(recipient, keyManager.getPrivateKeyForPublicKey(sender));
+    final SharedKey sharedKey = computeSharedKey(sender, recipient);
 
     final byte[] masterKeyBytes = encryptor.openAfterPrecomputation(encryptedKey, nonce, sharedKey);
 
     return MasterKey.from(masterKeyBytes);
   }
 
+  private SharedKey computeSharedKey(final PublicKey localKey, final PublicKey remoteKey) {
+    return sharedKeyCache.get(
+        localKey,
+        remoteKey,
+        () ->
+            encryptor.computeSharedKey(
+                remoteKey, keyManager.getPrivateKeyForPublicKey(localKey)));
+  }
+
   private MasterKey getMasterKey(
       PublicKey recipient, PublicKey sender, Nonce nonce, RecipientBox encryptedKey) {
     return getMasterKey(recipient, sender, nonce, encryptedKey.getData());
@@ -1,5 +1,9 @@
 package com.quorum.tessera.enclave;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 /** Encodes and decodes a {@link EncodedPayload} to and from its binary representation */
@@ -13,6 +17,18 @@ public interface PayloadEncoder {
    */
   byte[] encode(EncodedPayload payload);
 
+  /**
+   * Encodes the payload to a stream. Encoders that can write each field straight to the stream
+   * should override this, to save building the whole encoded payload in memory first.
+   *
+   * @param payload the payload to encode
+   * @param outputStream the stream to write the encoded payload to, which is left open
+   * @throws IOException if the payload could not be written to the stream
+   */
+  default void encode(EncodedPayload payload, OutputStream outputStream) throws IOException {
+    outputStream.write(encode(payload));
+  }
+
   /**
    * Decodes a byte array back into an encrypted payload
    *
@@ -21,6 +37,21 @@ public interface PayloadEncoder {
    */
   EncodedPayload decode(byte[] input);
 
+  /**
+   * Decodes an encrypted payload read from a stream. Encoders that can read each field straight
+   * from the stream should override this, to save reading the whole encoded payload first.
+   *
+   * @param inputStream the stream to read the encoded payload from, which is left open
+   * @return the decoded payload
+   */
+  default EncodedPayload decode(InputStream inputStream) {
+    try {
+      return decode(inputStream.readAllBytes());
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
   EncodedPayloadCodec encodedPayloadCodec();
 
   static PayloadEncoder create(EncodedPayloadCodec encodedPayloadCodec) {
@@ -1,128 +1,256 @@
 package com.quorum.tessera.enclave;
 
 import static java.util.Collections.*;
-import static java.util.stream.Collectors.toList;
 
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.LatencyHistogram;
+import com.quorum.tessera.metrics.LatencyMetrics;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Encodes payloads in the legacy binary format, in which every field is written as its length, as
+ * an 8 byte big-endian number, followed by its bytes.
+ *
+ * <p>The size of the encoded payload is worked out before anything is written, so each field is
+ * copied once, straight into the output.
+ */
 public class PayloadEncoderImpl implements PayloadEncoder, BinaryEncoder {
 
+  private static final byte[] EMPTY = new byte[0];
+
+  private static final int PRIVACY_FLAG_SIZE = 1;
+
+  private static final LatencyHistogram ENCODE_LATENCY =
+      LatencyMetrics.histogram(LatencyMetrics.PAYLOAD_ENCODE);
+
+  private static final LatencyHistogram DECODE_LATENCY =
+      LatencyMetrics.histogram(LatencyMetrics.PAYLOAD_DECODE);
+
   @Override
   public byte[] encode(final EncodedPayload payload) {
+    final long start = System.nanoTime();
+    try {
+      final List<byte[]> recipientBoxes = recipientBoxes(payload);
+      final ByteBuffer buffer = ByteBuffer.allocate(encodedSize(payload, recipientBoxes));
+      writeToBuffer(payload, recipientBoxes, buffer);
+      return buffer.array();
+    } finally {
+      ENCODE_LATENCY.recordSince(start);
+    }
+  }
+
+  /**
+   * Encodes the payload into the buffer, starting at its position and leaving the position after
+   * the last byte written
+   *
+   * @param payload the payload to encode
+   * @param buffer the buffer to write to, which must have at least {@link
+   *     #encodedSize(EncodedPayload)} bytes remaining
+   * @throws java.nio.BufferOverflowException if there is not enough room in the buffer
+   */
+  public void encode(final EncodedPayload payload, final ByteBuffer buffer) {
+    final long start = System.nanoTime();
+    try {
+      writeToBuffer(payload, recipientBoxes(payload), buffer);
+    } finally {
+      ENCODE_LATENCY.recordSince(start);
+    }
+  }
+
+  @Override
+  public void encode(final EncodedPayload payload, final OutputStream outputStream)
+      throws IOException {
+    final long start = System.nanoTime();
+    try {
+      writeTo(payload, recipientBoxes(payload), new StreamSink(outputStream));
+      outputStream.flush();
+    } finally {
+      ENCODE_LATENCY.recordSince(start);
+    }
+  }
+
+  /**
+   * @param payload the payload to encode
+   * @return the number of bytes the encoded payload takes
+   */
+  public int encodedSize(final EncodedPayload payload) {
+    return encodedSize(payload, recipientBoxes(payload));
+  }
+
+  private static int encodedSize(final EncodedPayload payload, final List<byte[]> recipientBoxes) {
+    long size =
+        fieldSize(payload.getSenderKey().getKeyBytes())
+            + fieldSize(payload.getCipherText())
+            + fieldSize(payload.getCipherTextNonce().getNonceBytes())
+            + arraySize(recipientBoxes)
+            + fieldSize(payload.getRecipientNonce().getNonceBytes())
+            + keysSize(payload.getRecipientKeys())
+            + fieldSize(PRIVACY_FLAG_SIZE)
+            + Long.BYTES; // the number of affected contract transactions
+
+    for (Map.Entry<TxHash, SecurityHash> entry :
+        payload.getAffectedContractTransactions().entrySet()) {
+      size += fieldSize(entry.getKey().getBytes()) + fieldSize(entry.getValue().getData());
+    }
+
+    if (Objects.nonNull(payload.getExecHash()) && payload.getExecHash().length > 0) {
+      size += fieldSize(payload.getExecHash());
+    }
+
+    if (payload.getPrivacyMode() == PrivacyMode.MANDATORY_RECIPIENTS) {
+      size += keysSize(payload.getMandatoryRecipients());
+    }
+
+    final Optional<PrivacyGroup.Id> privacyGroupId = payload.getPrivacyGroupId();
+    if (privacyGroupId.isPresent()) {
+      size += fieldSize(privacyGroupId.get().getBytes());
+    }
+
+    return Math.toIntExact(size);
+  }
+
+  private static void writeToBuffer(
+      final EncodedPayload payload, final List<byte[]> recipientBoxes, final ByteBuffer buffer) {
+    try {
+      writeTo(payload, recipientBoxes, new BufferSink(buffer));
+    } catch (IOException ex) {
+      // a buffer is never closed, so writing to it cannot fail this way
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static void writeTo(
+      final EncodedPayload payload, final List<byte[]> recipientBoxes, final Sink sink)
+      throws IOException {
+    writeField(sink, payload.getSenderKey().getKeyBytes());
+    writeField(sink, payload.getCipherText());
+    writeField(sink, payload.getCipherTextNonce().getNonceBytes());
+
+    sink.putLong(recipientBoxes.size());
+    for (byte[] box : recipientBoxes) {
+      writeField(sink, box);
+    }
+
+    writeField(sink, payload.getRecipientNonce().getNonceBytes());
+    writeKeys(sink, payload.getRecipientKeys());
 
-    final byte[] senderKey = encodeField(payload.getSenderKey().getKeyBytes());
-    final byte[] cipherText = encodeField(payload.getCipherText());
-    final byte[] nonce = encodeField(payload.getCipherTextNonce().getNonceBytes());
-    final byte[] recipientNonce = encodeField(payload.getRecipientNonce().getNonceBytes());
-    final byte[] recipients =
-        encodeArray(
-            payload.getRecipientBoxes().stream()
-                .map(RecipientBox::getData)
-                .collect(Collectors.toUnmodifiableList()));
-    final byte[] recipientBytes =
-        encodeArray(
-            payload.getRecipientKeys().stream().map(PublicKey::getKeyBytes).collect(toList()));
     final PrivacyMode privacyMode =
         Optional.ofNullable(payload.getPrivacyMode()).orElse(PrivacyMode.STANDARD_PRIVATE);
-    final byte[] privacyModeByte = encodeField(new byte[] {(byte) privacyMode.getPrivacyFlag()});
-
-    final int affectedContractsPayloadLength =
-        payload.getAffectedContractTransactions().entrySet().stream()
-                .mapToInt(
-                    entry -> entry.getKey().getBytes().length + entry.getValue().getData().length)
-                .sum() // total size of all keys and values
-            + Long.BYTES
-            + // the number of entries in the map
-            payload.getAffectedContractTransactions().size()
-                * 2
-                * Long.BYTES; // sizes of key and value lengths (for each entry)
-    final ByteBuffer affectedContractTxs = ByteBuffer.allocate(affectedContractsPayloadLength);
-    affectedContractTxs.putLong(payload.getAffectedContractTransactions().size());
+    sink.putLong(PRIVACY_FLAG_SIZE);
+    sink.put((byte) privacyMode.getPrivacyFlag());
+
+    sink.putLong(payload.getAffectedContractTransactions().size());
     for (Map.Entry<TxHash, SecurityHash> entry :
         payload.getAffectedContractTransactions().entrySet()) {
-      affectedContractTxs.putLong(entry.getKey().getBytes().length);
-      affectedContractTxs.put(entry.getKey().getBytes());
-      affectedContractTxs.putLong(entry.getValue().getData().length);
-      affectedContractTxs.put(entry.getValue().getData());
+      writeField(sink, entry.getKey().getBytes());
+      writeField(sink, entry.getValue().getData());
     }
-    byte[] executionHash = new byte[0];
+
     if (Objects.nonNull(payload.getExecHash()) && payload.getExecHash().length > 0) {
-      executionHash = encodeField(payload.getExecHash());
+      writeField(sink, payload.getExecHash());
     }
 
-    byte[] mandatoryRecipients = new byte[0];
     if (payload.getPrivacyMode() == PrivacyMode.MANDATORY_RECIPIENTS) {
-      mandatoryRecipients =
-          encodeArray(
-              payload.getMandatoryRecipients().stream()
-                  .map(PublicKey::getKeyBytes)
-                  .collect(Collectors.toUnmodifiableList()));
-    }
-
-    byte[] privacyGroupId =
-        payload
-            .getPrivacyGroupId()
-            .map(PrivacyGroup.Id::getBytes)
-            .map(this::encodeField)
-            .orElse(new byte[0]);
-
-    return ByteBuffer.allocate(
-            senderKey.length
-                + cipherText.length
-                + nonce.length
-                + recipients.length
-                + recipientNonce.length
-                + recipientBytes.length
-                + privacyModeByte.length
-                + affectedContractsPayloadLength
-                + executionHash.length
-                + mandatoryRecipients.length
-                + privacyGroupId.length)
-        .put(senderKey)
-        .put(cipherText)
-        .put(nonce)
-        .put(recipients)
-        .put(recipientNonce)
-        .put(recipientBytes)
-        .put(privacyModeByte)
-        .put(affectedContractTxs.array())
-        .put(executionHash)
-        .put(mandatoryRecipients)
-        .put(privacyGroupId)
-        .array();
+      writeKeys(sink, payload.getMandatoryRecipients());
+    }
+
+    final Optional<PrivacyGroup.Id> privacyGroupId = payload.getPrivacyGroupId();
+    if (privacyGroupId.isPresent()) {
+      writeField(sink, privacyGroupId.get().getBytes());
+    }
+  }
+
+  private static void writeField(final Sink sink, final byte[] data) throws IOException {
+    sink.putLong(data.length);
+    sink.put(data);
+  }
+
+  private static void writeKeys(final Sink sink, final Collection<PublicKey> keys)
+      throws IOException {
+    sink.putLong(keys.size());
+    for (PublicKey key : keys) {
+      writeField(sink, key.getKeyBytes());
+    }
+  }
+
+  private static List<byte[]> recipientBoxes(final EncodedPayload payload) {
+    final List<RecipientBox> boxes = payload.getRecipientBoxes();
+    final List<byte[]> data = new ArrayList<>(boxes.size());
+    for (RecipientBox box : boxes) {
+      data.add(box.getData());
+    }
+    return data;
+  }
+
+  private static long fieldSize(final byte[] data) {
+    return fieldSize(data.length);
+  }
+
+  private static long fieldSize(final int length) {
+    return Long.BYTES + length;
+  }
+
+  private static long arraySize(final List<byte[]> data) {
+    long size = Long.BYTES;
+    for (byte[] element : data) {
+      size += fieldSize(element);
+    }
+    return size;
+  }
+
+  private static long keysSize(final Collection<PublicKey> keys) {
+    long size = Long.BYTES;
+    for (PublicKey key : keys) {
+      size += fieldSize(key.getKeyBytes());
+    }
+    return size;
   }
 
   @Override
   public EncodedPayload decode(final byte[] input) {
-    final ByteBuffer buffer = ByteBuffer.wrap(input);
+    return decode(ByteBuffer.wrap(input));
+  }
 
-    final long senderSize = buffer.getLong();
-    final byte[] senderKey = new byte[Math.toIntExact(senderSize)];
-    buffer.get(senderKey);
+  /**
+   * Decodes the payload held between the position and the limit of the buffer, which is left with
+   * no bytes remaining.
+   *
+   * <p>The buffer is read in place, so a payload can be decoded from a slice of a larger buffer, or
+   * from a direct buffer, without first copying it to an array. Each field is copied once, into
+   * the array the decoded payload holds.
+   *
+   * @param input the buffer holding the encoded payload
+   * @return the decoded payload
+   */
+  public EncodedPayload decode(final ByteBuffer input) {
+    final long start = System.nanoTime();
+    try {
+      return read(input);
+    } finally {
+      DECODE_LATENCY.recordSince(start);
+    }
+  }
 
-    final long cipherTextSize = buffer.getLong();
-    final byte[] cipherText = new byte[Math.toIntExact(cipherTextSize)];
-    buffer.get(cipherText);
+  private static EncodedPayload read(final ByteBuffer input) {
+    final ByteBuffer buffer = input.slice().order(ByteOrder.BIG_ENDIAN);
+    input.position(input.limit());
 
-    final long nonceSize = buffer.getLong();
-    final byte[] nonce = new byte[Math.toIntExact(nonceSize)];
-    buffer.get(nonce);
+    final byte[] senderKey = readField(buffer);
+    final byte[] cipherText = readField(buffer);
+    final byte[] nonce = readField(buffer);
 
-    final long numberOfRecipients = buffer.getLong();
-    final List<byte[]> recipientBoxes = new ArrayList<>();
-    for (long i = 0; i < numberOfRecipients; i++) {
-      final long boxSize = buffer.getLong();
-      final byte[] box = new byte[Math.toIntExact(boxSize)];
-      buffer.get(box);
-      recipientBoxes.add(box);
+    final int numberOfRecipients = readCount(buffer);
+    final List<byte[]> recipientBoxes = new ArrayList<>(numberOfRecipients);
+    for (int i = 0; i < numberOfRecipients; i++) {
+      recipientBoxes.add(readField(buffer));
     }
 
-    final long recipientNonceSize = buffer.getLong();
-    final byte[] recipientNonce = new byte[Math.toIntExact(recipientNonceSize)];
-    buffer.get(recipientNonce);
+    final byte[] recipientNonce = readField(buffer);
 
     EncodedPayload.Builder payloadBuilder = EncodedPayload.Builder.create();
 
@@ -140,56 +268,41 @@ public class PayloadEncoderImpl implements PayloadEncoder, BinaryEncoder {
           .withRecipientKeys(emptyList())
           .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
           .withAffectedContractTransactions(emptyMap())
-          .withExecHash(new byte[0])
+          .withExecHash(EMPTY)
           .build();
     }
 
-    final long recipientLength = buffer.getLong();
-
-    final List<byte[]> recipientKeys = new ArrayList<>();
-    for (long i = 0; i < recipientLength; i++) {
-      final long boxSize = buffer.getLong();
-      final byte[] box = new byte[Math.toIntExact(boxSize)];
-      buffer.get(box);
-      recipientKeys.add(box);
-    }
-
-    payloadBuilder.withRecipientKeys(recipientKeys.stream().map(PublicKey::from).collect(toList()));
+    payloadBuilder.withRecipientKeys(readKeys(buffer, new ArrayList<>()));
 
     if (!buffer.hasRemaining()) {
       return payloadBuilder
           .withPrivacyMode(PrivacyMode.STANDARD_PRIVATE)
           .withAffectedContractTransactions(emptyMap())
-          .withExecHash(new byte[0])
+          .withExecHash(EMPTY)
           .build();
     }
 
-    final long privacyFlagLength = buffer.getLong();
-    final byte[] privacyFlag = new byte[Math.toIntExact(privacyFlagLength)];
-    buffer.get(privacyFlag);
-
-    final long affectedContractTransactionsLength = buffer.getLong();
-    final Map<TxHash, byte[]> affectedContractTransactions = new HashMap<>();
-    for (long i = 0; i < affectedContractTransactionsLength; i++) {
-      final long txHashSize = buffer.getLong();
-      final byte[] txHash = new byte[Math.toIntExact(txHashSize)];
-      buffer.get(txHash);
-
-      final long txSecHashSize = buffer.getLong();
-      final byte[] txSecHash = new byte[Math.toIntExact(txSecHashSize)];
-      buffer.get(txSecHash);
-
+    // the flag is a field of its own, of which only the first byte is used
+    final int privacyFlagLength = Math.toIntExact(buffer.getLong());
+    if (privacyFlagLength < 1) {
+      throw new IllegalArgumentException("Payload has an empty privacy flag");
+    }
+    final PrivacyMode privacyMode = PrivacyMode.fromFlag(buffer.get());
+    buffer.position(buffer.position() + privacyFlagLength - 1);
+
+    final int affectedContractTransactionsLength = readCount(buffer);
+    final Map<TxHash, byte[]> affectedContractTransactions =
+        new HashMap<>(affectedContractTransactionsLength * 2);
+    for (int i = 0; i < affectedContractTransactionsLength; i++) {
+      final byte[] txHash = readField(buffer);
+      final byte[] txSecHash = readField(buffer);
       affectedContractTransactions.put(new TxHash(txHash), txSecHash);
     }
 
-    final PrivacyMode privacyMode = PrivacyMode.fromFlag(privacyFlag[0]);
-
-    byte[] executionHash = new byte[0];
+    byte[] executionHash = EMPTY;
     if (buffer.hasRemaining()) {
       if (privacyMode == PrivacyMode.PRIVATE_STATE_VALIDATION) {
-        final long executionHashSize = buffer.getLong();
-        executionHash = new byte[Math.toIntExact(executionHashSize)];
-        buffer.get(executionHash);
+        executionHash = readField(buffer);
       }
     }
 
@@ -200,17 +313,7 @@ public class PayloadEncoderImpl implements PayloadEncoder, BinaryEncoder {
 
     if (buffer.hasRemaining()) {
       if (privacyMode == PrivacyMode.MANDATORY_RECIPIENTS) {
-        final long mandatoryRecipientLength = buffer.getLong();
-
-        final List<byte[]> mandatoryRecipients = new ArrayList<>();
-        for (long i = 0; i < mandatoryRecipientLength; i++) {
-          final long boxSize = buffer.getLong();
-          final byte[] box = new byte[Math.toIntExact(boxSize)];
-          buffer.get(box);
-          mandatoryRecipients.add(box);
-        }
-        payloadBuilder.withMandatoryRecipients(
-            mandatoryRecipients.stream().map(PublicKey::from).collect(Collectors.toSet()));
+        payloadBuilder.withMandatoryRecipients(readKeys(buffer, new HashSet<>()));
       }
     }
 
@@ -218,9 +321,7 @@ public class PayloadEncoderImpl implements PayloadEncoder, BinaryEncoder {
       return payloadBuilder.build();
     }
 
-    final long privacyGroupIdSize = buffer.getLong();
-    final byte[] privacyGroupId = new byte[Math.toIntExact(privacyGroupIdSize)];
-    buffer.get(privacyGroupId);
+    final byte[] privacyGroupId = readField(buffer);
 
     if (privacyGroupId.length > 0) {
       payloadBuilder.withPrivacyGroupId(PrivacyGroup.Id.fromBytes(privacyGroupId));
@@ -229,6 +330,103 @@ public class PayloadEncoderImpl implements PayloadEncoder, BinaryEncoder {
     return payloadBuilder.build();
   }
 
+  private static byte[] readField(final ByteBuffer buffer) {
+    final int length = Math.toIntExact(buffer.getLong());
+    if (length == 0) {
+      return EMPTY;
+    }
+    final byte[] field = new byte[length];
+    buffer.get(field);
+    return field;
+  }
+
+  /**
+   * Reads the number of elements in an array. Every element takes at least 8 bytes, which bounds
+   * the count by what is left in the buffer, so a corrupt count cannot cause a huge allocation.
+   */
+  private static int readCount(final ByteBuffer buffer) {
+    final long count = buffer.getLong();
+    if (count < 0 || count > buffer.remaining() / Long.BYTES) {
+      throw new IllegalArgumentException("Payload has an invalid number of elements " + count);
+    }
+    return (int) count;
+  }
+
+  private static <C extends Collection<PublicKey>> C readKeys(
+      final ByteBuffer buffer, final C keys) {
+    final int count = readCount(buffer);
+    for (int i = 0; i < count; i++) {
+      keys.add(PublicKey.from(readField(buffer)));
+    }
+    return keys;
+  }
+
+  /** Where the encoder writes the payload to */
+  private interface Sink {
+
+    void putLong(long value) throws IOException;
+
+    void put(byte value) throws IOException;
+
+    void put(byte[] data) throws IOException;
+  }
+
+  private static final class BufferSink implements Sink {
+
+    private final ByteBuffer buffer;
+
+    private final boolean bigEndian;
+
+    BufferSink(final ByteBuffer buffer) {
+      this.buffer = buffer;
+      this.bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+    }
+
+    @Override
+    public void putLong(final long value) {
+      buffer.putLong(bigEndian ? value : Long.reverseBytes(value));
+    }
+
+    @Override
+    public void put(final byte value) {
+      buffer.put(value);
+    }
+
+    @Override
+    public void put(final byte[] data) {
+      buffer.put(data);
+    }
+  }
+
+  private static final class StreamSink implements Sink {
+
+    private final OutputStream outputStream;
+
+    private final byte[] scratch = new byte[Long.BYTES];
+
+    StreamSink(final OutputStream outputStream) {
+      this.outputStream = outputStream;
+    }
+
+    @Override
+    public void putLong(final long value) throws IOException {
+      for (int i = Long.BYTES - 1, shift = 0; i >= 0; i--, shift += Byte.SIZE) {
+        scratch[i] = (byte) (value >>> shift);
+      }
+      outputStream.write(scratch);
+    }
+
+    @Override
+    public void put(final byte value) throws IOException {
+      outputStream.write(value);
+    }
+
+    @Override
+    public void put(final byte[] data) throws IOException {
+      outputStream.write(data);
+    }
+  }
+
   @Override
   public EncodedPayloadCodec encodedPayloadCodec() {
     return EncodedPayloadCodec.LEGACY;
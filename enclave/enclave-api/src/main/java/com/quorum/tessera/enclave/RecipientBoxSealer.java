@@ -0,0 +1,116 @@
+package com.quorum.tessera.enclave;
+
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Seals the master key of a transaction for each of its recipients.
+ *
+ * <p>Recipient lists at or above the configured threshold are sealed concurrently on a fixed pool
+ * of crypto workers; smaller lists are sealed on the calling thread. The returned boxes are always
+ * in the same order as the recipient list.
+ */
+public class RecipientBoxSealer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RecipientBoxSealer.class);
+
+  public static final String THRESHOLD_PROPERTY = "parallelSealingThreshold";
+
+  public static final String THREADS_PROPERTY = "parallelSealingThreads";
+
+  private final int threshold;
+
+  private final ExecutorService executorService;
+
+  RecipientBoxSealer(int threshold, ExecutorService executorService) {
+    this.threshold = threshold;
+    this.executorService = executorService;
+  }
+
+  /**
+   * Creates a sealer from the encryptor properties. Parallel sealing is disabled unless a positive
+   * threshold is configured; the worker count defaults to the number of available processors.
+   */
+  public static RecipientBoxSealer create(Map<String, String> properties) {
+    final Map<String, String> props =
+        Optional.ofNullable(properties).orElse(Collections.emptyMap());
+    final int threshold = Integer.parseInt(props.getOrDefault(THRESHOLD_PROPERTY, "0"));
+    if (threshold <= 0) {
+      return sequential();
+    }
+    final int threads =
+        Integer.parseInt(
+            props.getOrDefault(
+                THREADS_PROPERTY, String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+    LOGGER.debug(
+        "Sealing recipient boxes in parallel for {} or more recipients using {} threads",
+        threshold,
+        threads);
+
+    return parallel(threshold, threads);
+  }
+
+  public static RecipientBoxSealer sequential() {
+    return new RecipientBoxSealer(0, null);
+  }
+
+  public static RecipientBoxSealer parallel(int threshold, int threads) {
+    if (threshold <= 0 || threads <= 0) {
+      throw new IllegalArgumentException("Parallel sealing threshold and threads must be positive");
+    }
+    final AtomicInteger counter = new AtomicInteger();
+    final ExecutorService executorService =
+        Executors.newFixedThreadPool(
+            threads,
+            r -> {
+              final Thread thread = new Thread(r, "enclave-sealer-" + counter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    return new RecipientBoxSealer(threshold, executorService);
+  }
+
+  public List<byte[]> seal(
+      final List<PublicKey> recipientPublicKeys, final Function<PublicKey, byte[]> sealer) {
+    if (!isParallel(recipientPublicKeys.size())) {
+      return recipientPublicKeys.stream().map(sealer).collect(Collectors.toList());
+    }
+
+    final List<CompletableFuture<byte[]>> boxes =
+        recipientPublicKeys.stream()
+            .map(key -> CompletableFuture.supplyAsync(() -> sealer.apply(key), executorService))
+            .collect(Collectors.toList());
+
+    try {
+      return boxes.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    } catch (CompletionException ex) {
+      boxes.forEach(f -> f.cancel(false));
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  boolean isParallel(int recipientCount) {
+    return Objects.nonNull(executorService) && recipientCount >= threshold;
+  }
+
+  public void shutdown() {
+    Optional.ofNullable(executorService).ifPresent(ExecutorService::shutdown);
+  }
+}
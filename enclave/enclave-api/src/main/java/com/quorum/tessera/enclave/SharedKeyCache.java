@@ -0,0 +1,232 @@
+package com.quorum.tessera.enclave;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.encryption.SharedKey;
+import com.quorum.tessera.metrics.MBeanRegistry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded, thread-safe cache of precomputed {@link SharedKey}s, keyed on the (local public key,
+ * remote public key) pair used to derive them.
+ *
+ * <p>Entries are evicted in least-recently-used order once the cache is full, or once they are
+ * older than the configured expiry. Evicted keys have their bytes zeroed. Callers are always
+ * handed a copy of the cached key so that eviction never affects a key that is in use.
+ *
+ * <p>The hit, miss and eviction counts are reported as an MBean named {@code
+ * com.quorum.tessera:type=SharedKeyCache} once the cache is registered.
+ */
+public class SharedKeyCache implements SharedKeyCacheMXBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SharedKeyCache.class);
+
+  public static final String SIZE_PROPERTY = "sharedKeyCacheSize";
+
+  public static final String EXPIRY_PROPERTY = "sharedKeyCacheExpirySeconds";
+
+  static final String MBEAN_TYPE = "SharedKeyCache";
+
+  static final int DEFAULT_SIZE = 1024;
+
+  private final int maxSize;
+
+  private final long expiryNanos;
+
+  private final LongSupplier ticker;
+
+  private final Map<CacheKey, Entry> entries;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  public SharedKeyCache(int maxSize, long expirySeconds) {
+    this(maxSize, expirySeconds, System::nanoTime);
+  }
+
+  SharedKeyCache(int maxSize, long expirySeconds, LongSupplier ticker) {
+    if (maxSize < 0 || expirySeconds < 0) {
+      throw new IllegalArgumentException("Shared key cache size and expiry must not be negative");
+    }
+    this.maxSize = maxSize;
+    this.expiryNanos = TimeUnit.SECONDS.toNanos(expirySeconds);
+    this.ticker = Objects.requireNonNull(ticker);
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Creates a cache from the encryptor properties, falling back to the default size and no expiry
+   * when the properties are not set. A size of zero disables caching.
+   */
+  public static SharedKeyCache create(Map<String, String> properties) {
+    final Map<String, String> props =
+        Optional.ofNullable(properties).orElse(Collections.emptyMap());
+    final int size =
+        Integer.parseInt(props.getOrDefault(SIZE_PROPERTY, String.valueOf(DEFAULT_SIZE)));
+    final long expiry = Long.parseLong(props.getOrDefault(EXPIRY_PROPERTY, "0"));
+
+    LOGGER.debug("Creating shared key cache with size {} and expiry {}s", size, expiry);
+    return new SharedKeyCache(size, expiry);
+  }
+
+  public static SharedKeyCache disabled() {
+    return new SharedKeyCache(0, 0);
+  }
+
+  /**
+   * Returns the shared key for the given key pair, computing it with the supplied function if it
+   * is not already cached. The computation is done outside the cache lock, so two threads missing
+   * on the same pair concurrently may both compute the key.
+   */
+  public SharedKey get(
+      final PublicKey localKey, final PublicKey remoteKey, final Supplier<SharedKey> compute) {
+    if (maxSize == 0) {
+      return compute.get();
+    }
+
+    final CacheKey cacheKey = new CacheKey(localKey, remoteKey);
+    final long now = ticker.getAsLong();
+
+    synchronized (entries) {
+      final Entry entry = entries.get(cacheKey);
+      if (entry != null) {
+        if (!entry.isExpired(now)) {
+          hits.increment();
+          return entry.copy();
+        }
+        entries.remove(cacheKey);
+        entry.destroy();
+        evictions.increment();
+      }
+    }
+
+    misses.increment();
+    final SharedKey sharedKey = compute.get();
+    final Entry computed = new Entry(sharedKey.getKeyBytes().clone(), now);
+
+    synchronized (entries) {
+      final Entry previous = entries.put(cacheKey, computed);
+      if (previous != null) {
+        previous.destroy();
+      }
+      evictEldest();
+    }
+
+    return sharedKey;
+  }
+
+  /** Removes every entry from the cache, zeroing all cached key material. */
+  public void clear() {
+    synchronized (entries) {
+      entries.values().forEach(Entry::destroy);
+      entries.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  @Override
+  public int getSize() {
+    return size();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /** Registers this cache with the platform MBean server, replacing any previously registered */
+  void register() {
+    MBeanRegistry.register(this, MBEAN_TYPE, null);
+  }
+
+  private void evictEldest() {
+    final Iterator<Entry> iterator = entries.values().iterator();
+    while (entries.size() > maxSize && iterator.hasNext()) {
+      iterator.next().destroy();
+      iterator.remove();
+      evictions.increment();
+    }
+  }
+
+  private final class Entry {
+
+    private final byte[] keyBytes;
+
+    private final long createdAt;
+
+    private Entry(byte[] keyBytes, long createdAt) {
+      this.keyBytes = keyBytes;
+      this.createdAt = createdAt;
+    }
+
+    private boolean isExpired(long now) {
+      return expiryNanos > 0 && now - createdAt >= expiryNanos;
+    }
+
+    private SharedKey copy() {
+      return SharedKey.from(keyBytes.clone());
+    }
+
+    private void destroy() {
+      Arrays.fill(keyBytes, (byte) 0);
+    }
+  }
+
+  private static final class CacheKey {
+
+    private final PublicKey localKey;
+
+    private final PublicKey remoteKey;
+
+    private CacheKey(PublicKey localKey, PublicKey remoteKey) {
+      this.localKey = Objects.requireNonNull(localKey);
+      this.remoteKey = Objects.requireNonNull(remoteKey);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      final CacheKey other = (CacheKey) o;
+      return localKey.equals(other.localKey) && remoteKey.equals(other.remoteKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(localKey, remoteKey);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package com.quorum.tessera.enclave;
+
+/** Counters exposed over JMX for the {@link SharedKeyCache} */
+public interface SharedKeyCacheMXBean {
+
+  /** The number of shared keys currently cached */
+  int getSize();
+
+  /** The number of lookups that found an unexpired key in the cache */
+  long getHitCount();
+
+  /** The number of lookups that had to compute the shared key */
+  long getMissCount();
+
+  /** The number of keys removed because the cache was full or they had expired */
+  long getEvictionCount();
+}
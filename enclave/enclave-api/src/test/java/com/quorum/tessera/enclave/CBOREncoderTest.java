@@ -6,6 +6,9 @@ import static org.mockito.Mockito.mock;
 
 import com.quorum.tessera.encryption.Nonce;
 import com.quorum.tessera.encryption.PublicKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Base64;
 import java.util.List;
 import java.util.Map;
@@ -182,6 +185,23 @@ public class CBOREncoderTest {
     assertThat(result.getPrivacyGroupId()).isPresent().get().isEqualTo(groupId);
   }
 
+  @Test
+  public void testEncodeDecodeStream() throws IOException {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    encoder.encode(standardPayload, outputStream);
+
+    assertThat(outputStream.toByteArray()).isEqualTo(encoder.encode(standardPayload));
+
+    final ByteArrayInputStream inputStream =
+        new ByteArrayInputStream(outputStream.toByteArray());
+
+    final EncodedPayload result = encoder.decode(inputStream);
+
+    assertThat(result).isEqualTo(standardPayload);
+    assertThat(inputStream.available()).isZero();
+  }
+
   @Test
   public void encodeError() {
     EncodedPayload payload = mock(EncodedPayload.class);
@@ -199,6 +219,14 @@ public class CBOREncoderTest {
         .withMessageContaining("Unable to decode payload data");
   }
 
+  @Test
+  public void decodeStreamError() {
+    byte[] raw = Base64.getDecoder().decode("oWZzZW5kZXKA");
+    assertThatExceptionOfType(RuntimeException.class)
+        .isThrownBy(() -> encoder.decode(new ByteArrayInputStream(raw)))
+        .withMessageContaining("Unable to decode payload data");
+  }
+
   @Test
   public void codec() {
     assertThat(encoder.encodedPayloadCodec()).isEqualTo(EncodedPayloadCodec.CBOR);
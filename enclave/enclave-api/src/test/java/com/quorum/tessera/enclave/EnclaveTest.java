@@ -606,6 +606,57 @@ public class EnclaveTest {
     verify(keyManager).getPrivateKeyForPublicKey(senderPublicKey);
   }
 
+  @Test
+  public void repeatedEncryptPayloadUsesCachedSharedKey() {
+    final SharedKeyCache sharedKeyCache = new SharedKeyCache(10, 0);
+    final Enclave cachingEnclave =
+        new EnclaveImpl(nacl, keyManager, sharedKeyCache, RecipientBoxSealer.sequential());
+
+    byte[] message = "MESSAGE".getBytes();
+
+    PublicKey senderPublicKey = PublicKey.from("sender".getBytes());
+    PublicKey recipientPublicKey = PublicKey.from("recipient".getBytes());
+
+    byte[] masterKeyBytes = "masterKeyBytes".getBytes();
+    MasterKey masterKey = MasterKey.from(masterKeyBytes);
+    Nonce nonce = mock(Nonce.class);
+
+    when(nacl.createMasterKey()).thenReturn(masterKey);
+    when(nacl.randomNonce()).thenReturn(nonce);
+    when(nacl.sealAfterPrecomputation(message, nonce, masterKey))
+        .thenReturn("cipherText".getBytes());
+
+    PrivateKey senderPrivateKey = mock(PrivateKey.class);
+    when(keyManager.getPrivateKeyForPublicKey(senderPublicKey)).thenReturn(senderPrivateKey);
+
+    SharedKey sharedKey = SharedKey.from("sharedKey".getBytes());
+    when(nacl.computeSharedKey(recipientPublicKey, senderPrivateKey)).thenReturn(sharedKey);
+    when(nacl.sealAfterPrecomputation(masterKeyBytes, nonce, sharedKey))
+        .thenReturn("encryptedMasterKey".getBytes());
+
+    final PrivacyMetadata metaData =
+        PrivacyMetadata.Builder.create().withPrivacyMode(PrivacyMode.STANDARD_PRIVATE).build();
+
+    for (int i = 0; i < 2; i++) {
+      EncodedPayload result =
+          cachingEnclave.encryptPayload(
+              message, senderPublicKey, List.of(recipientPublicKey), metaData);
+      assertThat(result.getRecipientBoxes())
+          .containsExactly(RecipientBox.from("encryptedMasterKey".getBytes()));
+    }
+
+    assertThat(sharedKeyCache.getMissCount()).isEqualTo(1);
+    assertThat(sharedKeyCache.getHitCount()).isEqualTo(1);
+    assertThat(sharedKeyCache.getSize()).isEqualTo(1);
+
+    verify(nacl, times(2)).createMasterKey();
+    verify(nacl, times(4)).randomNonce();
+    verify(nacl, times(2)).sealAfterPrecomputation(message, nonce, masterKey);
+    verify(nacl, times(2)).sealAfterPrecomputation(masterKeyBytes, nonce, sharedKey);
+    verify(nacl).computeSharedKey(recipientPublicKey, senderPrivateKey);
+    verify(keyManager, times(2)).getPrivateKeyForPublicKey(senderPublicKey);
+  }
+
   @Test
   public void encryptPayloadWithAffectedTransactions() {
 
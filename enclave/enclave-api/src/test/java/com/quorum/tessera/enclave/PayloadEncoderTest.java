@@ -2,6 +2,7 @@ package com.quorum.tessera.enclave;
 
 import static java.util.Collections.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.mockito.Mockito.*;
 
@@ -9,6 +10,14 @@ import com.quorum.tessera.enclave.encoder.LegacyEncodedPayload;
 import com.quorum.tessera.enclave.encoder.LegacyPayloadEncoder;
 import com.quorum.tessera.encryption.Nonce;
 import com.quorum.tessera.encryption.PublicKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.*;
 import java.util.stream.Stream;
 import org.junit.Test;
@@ -2159,6 +2168,131 @@ public class PayloadEncoderTest {
     assertThat(result.getMandatoryRecipients()).isEmpty();
   }
 
+  @Test
+  public void encodeToBufferWritesSameBytesAsEncode() {
+    final PayloadEncoderImpl encoder = new PayloadEncoderImpl();
+    final EncodedPayload payload = mandatoryRecipientsPayload();
+    final byte[] expected = encoder.encode(payload);
+
+    assertThat(encoder.encodedSize(payload)).isEqualTo(expected.length);
+
+    final ByteBuffer buffer = ByteBuffer.allocate(expected.length + 6).position(3);
+    encoder.encode(payload, buffer);
+
+    assertThat(buffer.position()).isEqualTo(expected.length + 3);
+    assertThat(Arrays.copyOfRange(buffer.array(), 3, expected.length + 3)).isEqualTo(expected);
+  }
+
+  @Test
+  public void encodeToLittleEndianBufferStillWritesBigEndianLengths() {
+    final PayloadEncoderImpl encoder = new PayloadEncoderImpl();
+    final EncodedPayload payload = mandatoryRecipientsPayload();
+    final byte[] expected = encoder.encode(payload);
+
+    final ByteBuffer buffer =
+        ByteBuffer.allocate(encoder.encodedSize(payload)).order(ByteOrder.LITTLE_ENDIAN);
+    encoder.encode(payload, buffer);
+
+    assertThat(buffer.array()).isEqualTo(expected);
+  }
+
+  @Test
+  public void encodeToStreamWritesSameBytesAsEncode() throws IOException {
+    final EncodedPayload payload = mandatoryRecipientsPayload();
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    payloadEncoder.encode(payload, outputStream);
+
+    assertThat(outputStream.toByteArray()).isEqualTo(payloadEncoder.encode(payload));
+  }
+
+  @Test
+  public void defaultEncodeToStreamWritesEncodedPayload() throws IOException {
+    final PayloadEncoder encoder = mock(PayloadEncoder.class);
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    when(encoder.encode(payload)).thenReturn("ENCODED".getBytes());
+    doCallRealMethod().when(encoder).encode(same(payload), any(OutputStream.class));
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    encoder.encode(payload, outputStream);
+
+    assertThat(outputStream.toByteArray()).isEqualTo("ENCODED".getBytes());
+  }
+
+  @Test
+  public void defaultDecodeFromStreamReadsWholeStream() {
+    final PayloadEncoder encoder = mock(PayloadEncoder.class);
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    when(encoder.decode("ENCODED".getBytes())).thenReturn(payload);
+    doCallRealMethod().when(encoder).decode(any(InputStream.class));
+
+    final EncodedPayload result = encoder.decode(new ByteArrayInputStream("ENCODED".getBytes()));
+
+    assertThat(result).isSameAs(payload);
+  }
+
+  @Test
+  public void defaultDecodeFromStreamWrapsReadFailures() throws IOException {
+    final PayloadEncoder encoder = mock(PayloadEncoder.class);
+    doCallRealMethod().when(encoder).decode(any(InputStream.class));
+    final InputStream inputStream = mock(InputStream.class);
+    when(inputStream.readAllBytes()).thenThrow(new IOException("OUCH"));
+
+    final Throwable ex = catchThrowable(() -> encoder.decode(inputStream));
+
+    assertThat(ex).isExactlyInstanceOf(UncheckedIOException.class).hasMessageContaining("OUCH");
+  }
+
+  @Test
+  public void decodeFromSliceOfLargerBuffer() {
+    final PayloadEncoderImpl encoder = new PayloadEncoderImpl();
+    final EncodedPayload payload = mandatoryRecipientsPayload();
+    final byte[] encoded = encoder.encode(payload);
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.length + 8);
+    buffer.putInt(7).put(encoded).putInt(7).flip();
+    buffer.position(Integer.BYTES).limit(Integer.BYTES + encoded.length);
+
+    final EncodedPayload result = encoder.decode(buffer);
+
+    assertThat(buffer.hasRemaining()).isFalse();
+    assertThat(encoder.encode(result)).isEqualTo(encoded);
+    assertThat(result.getMandatoryRecipients()).isEqualTo(payload.getMandatoryRecipients());
+    assertThat(result.getPrivacyGroupId()).isEqualTo(payload.getPrivacyGroupId());
+  }
+
+  @Test
+  public void decodeRejectsImpossibleNumberOfRecipients() {
+    final byte[] encoded = payloadEncoder.encode(mandatoryRecipientsPayload());
+    final int recipientCountOffset =
+        (Long.BYTES + "SENDER".length())
+            + (Long.BYTES + "CIPHER_TEXT".length())
+            + (Long.BYTES + "NONCE".length());
+    ByteBuffer.wrap(encoded).putLong(recipientCountOffset, Long.MAX_VALUE);
+
+    final Throwable ex = catchThrowable(() -> payloadEncoder.decode(encoded));
+
+    assertThat(ex)
+        .isExactlyInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("invalid number of elements");
+  }
+
+  private static EncodedPayload mandatoryRecipientsPayload() {
+    return EncodedPayload.Builder.create()
+        .withSenderKey(PublicKey.from("SENDER".getBytes()))
+        .withCipherText("CIPHER_TEXT".getBytes())
+        .withCipherTextNonce(new Nonce("NONCE".getBytes()))
+        .withRecipientBoxes(List.of("box1".getBytes(), "box2".getBytes()))
+        .withRecipientNonce(new Nonce("recipientNonce".getBytes()))
+        .withRecipientKeys(
+            List.of(PublicKey.from("KEY1".getBytes()), PublicKey.from("KEY2".getBytes())))
+        .withPrivacyMode(PrivacyMode.MANDATORY_RECIPIENTS)
+        .withAffectedContractTransactions(Map.of(TxHash.from("hash1".getBytes()), "1".getBytes()))
+        .withMandatoryRecipients(Set.of(PublicKey.from("KEY1".getBytes())))
+        .withPrivacyGroupId(PrivacyGroup.Id.fromBytes("group".getBytes()))
+        .build();
+  }
+
   @Test
   public void encodedPayloadCodec() {
     assertThat(payloadEncoder.encodedPayloadCodec()).isEqualTo(EncodedPayloadCodec.LEGACY);
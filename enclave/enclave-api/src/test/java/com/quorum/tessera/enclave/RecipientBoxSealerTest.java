@@ -0,0 +1,125 @@
+package com.quorum.tessera.enclave;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.quorum.tessera.encryption.EncryptorException;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Test;
+
+public class RecipientBoxSealerTest {
+
+  private RecipientBoxSealer sealer;
+
+  @After
+  public void onTearDown() {
+    if (sealer != null) {
+      sealer.shutdown();
+    }
+  }
+
+  @Test
+  public void parallelSealingKeepsRecipientOrder() {
+    sealer = RecipientBoxSealer.parallel(2, 4);
+    final List<PublicKey> recipients = recipients(50);
+    final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+    final List<byte[]> boxes =
+        sealer.seal(
+            recipients,
+            key -> {
+              threadNames.add(Thread.currentThread().getName());
+              return key.getKeyBytes();
+            });
+
+    assertThat(boxes).hasSameSizeAs(recipients);
+    IntStream.range(0, recipients.size())
+        .forEach(i -> assertThat(boxes.get(i)).isEqualTo(recipients.get(i).getKeyBytes()));
+    assertThat(threadNames).allMatch(name -> name.startsWith("enclave-sealer-"));
+  }
+
+  @Test
+  public void belowThresholdSealsOnCallingThread() {
+    sealer = RecipientBoxSealer.parallel(10, 2);
+    final String caller = Thread.currentThread().getName();
+    final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+    sealer.seal(
+        recipients(3),
+        key -> {
+          threadNames.add(Thread.currentThread().getName());
+          return key.getKeyBytes();
+        });
+
+    assertThat(threadNames).containsExactly(caller);
+    assertThat(sealer.isParallel(9)).isFalse();
+    assertThat(sealer.isParallel(10)).isTrue();
+  }
+
+  @Test
+  public void sequentialSealerNeverGoesParallel() {
+    sealer = RecipientBoxSealer.sequential();
+
+    final List<byte[]> boxes = sealer.seal(recipients(2), PublicKey::getKeyBytes);
+
+    assertThat(boxes).hasSize(2);
+    assertThat(sealer.isParallel(1000)).isFalse();
+  }
+
+  @Test
+  public void sealingFailureIsRethrown() {
+    sealer = RecipientBoxSealer.parallel(1, 2);
+
+    final Throwable ex =
+        catchThrowable(
+            () ->
+                sealer.seal(
+                    recipients(5),
+                    key -> {
+                      throw new EncryptorException("OUCH");
+                    }));
+
+    assertThat(ex).isExactlyInstanceOf(EncryptorException.class).hasMessage("OUCH");
+  }
+
+  @Test
+  public void createFromProperties() {
+    sealer =
+        RecipientBoxSealer.create(
+            Map.of(
+                RecipientBoxSealer.THRESHOLD_PROPERTY,
+                "20",
+                RecipientBoxSealer.THREADS_PROPERTY,
+                "2"));
+
+    assertThat(sealer.isParallel(19)).isFalse();
+    assertThat(sealer.isParallel(20)).isTrue();
+  }
+
+  @Test
+  public void createWithoutThresholdIsSequential() {
+    sealer = RecipientBoxSealer.create(null);
+
+    assertThat(sealer.isParallel(Integer.MAX_VALUE)).isFalse();
+  }
+
+  @Test
+  public void invalidParallelSettingsAreRejected() {
+    final Throwable ex = catchThrowable(() -> RecipientBoxSealer.parallel(1, 0));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static List<PublicKey> recipients(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> PublicKey.from(("recipient" + i).getBytes()))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,161 @@
+package com.quorum.tessera.enclave;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.encryption.SharedKey;
+import com.quorum.tessera.metrics.MBeanRegistry;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Test;
+
+public class SharedKeyCacheTest {
+
+  private final PublicKey localKey = PublicKey.from("local".getBytes());
+
+  private final PublicKey remoteKey = PublicKey.from("remote".getBytes());
+
+  private final PublicKey otherRemoteKey = PublicKey.from("otherRemote".getBytes());
+
+  @Test
+  public void secondLookupIsServedFromCache() {
+    final SharedKeyCache cache = new SharedKeyCache(10, 0);
+    final AtomicInteger computations = new AtomicInteger();
+
+    final SharedKey first =
+        cache.get(
+            localKey,
+            remoteKey,
+            () -> {
+              computations.incrementAndGet();
+              return SharedKey.from("shared".getBytes());
+            });
+    final SharedKey second =
+        cache.get(
+            localKey,
+            remoteKey,
+            () -> {
+              computations.incrementAndGet();
+              return SharedKey.from("other".getBytes());
+            });
+
+    assertThat(computations).hasValue(1);
+    assertThat(second).isEqualTo(first).isNotSameAs(first);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void keysAreDirectional() {
+    final SharedKeyCache cache = new SharedKeyCache(10, 0);
+
+    cache.get(localKey, remoteKey, () -> SharedKey.from("one".getBytes()));
+    final SharedKey reversed =
+        cache.get(remoteKey, localKey, () -> SharedKey.from("two".getBytes()));
+
+    assertThat(reversed.getKeyBytes()).isEqualTo("two".getBytes());
+    assertThat(cache.getMissCount()).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvictedAndZeroed() {
+    final SharedKeyCache cache = new SharedKeyCache(1, 0);
+
+    final SharedKey first = cache.get(localKey, remoteKey, () -> SharedKey.from(new byte[] {1, 2}));
+    cache.get(localKey, otherRemoteKey, () -> SharedKey.from(new byte[] {3, 4}));
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.getEvictionCount()).isEqualTo(1);
+    // the caller's copy is untouched by eviction
+    assertThat(first.getKeyBytes()).containsExactly(1, 2);
+
+    final SharedKey recomputed =
+        cache.get(localKey, remoteKey, () -> SharedKey.from(new byte[] {5, 6}));
+    assertThat(recomputed.getKeyBytes()).containsExactly(5, 6);
+  }
+
+  @Test
+  public void expiredEntryIsRecomputed() {
+    final AtomicLong clock = new AtomicLong();
+    final SharedKeyCache cache = new SharedKeyCache(10, 5, clock::get);
+
+    cache.get(localKey, remoteKey, () -> SharedKey.from(new byte[] {1}));
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+    final SharedKey result = cache.get(localKey, remoteKey, () -> SharedKey.from(new byte[] {2}));
+
+    assertThat(result.getKeyBytes()).containsExactly(2);
+    assertThat(cache.getMissCount()).isEqualTo(2);
+    assertThat(cache.getEvictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void disabledCacheAlwaysComputes() {
+    final SharedKeyCache cache = SharedKeyCache.disabled();
+    final SharedKey sharedKey = SharedKey.from("shared".getBytes());
+
+    assertThat(cache.get(localKey, remoteKey, () -> sharedKey)).isSameAs(sharedKey);
+    assertThat(cache.get(localKey, remoteKey, () -> sharedKey)).isSameAs(sharedKey);
+    assertThat(cache.size()).isZero();
+    assertThat(cache.getHitCount()).isZero();
+  }
+
+  @Test
+  public void clearRemovesAllEntries() {
+    final SharedKeyCache cache = new SharedKeyCache(10, 0);
+    cache.get(localKey, remoteKey, () -> SharedKey.from(new byte[] {1}));
+
+    cache.clear();
+
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void createFromProperties() {
+    final SharedKeyCache cache = SharedKeyCache.create(Map.of(SharedKeyCache.SIZE_PROPERTY, "1"));
+    cache.get(localKey, remoteKey, () -> SharedKey.from(new byte[] {1}));
+    cache.get(localKey, otherRemoteKey, () -> SharedKey.from(new byte[] {2}));
+
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void createWithNullPropertiesUsesDefaults() {
+    final SharedKeyCache cache = SharedKeyCache.create(null);
+    cache.get(localKey, remoteKey, () -> SharedKey.from(new byte[] {1}));
+
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void negativeSizeIsRejected() {
+    final Throwable ex = catchThrowable(() -> new SharedKeyCache(-1, 0));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void registeredCacheReportsCounters() throws Exception {
+    final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    final ObjectName objectName = MBeanRegistry.objectName(SharedKeyCache.MBEAN_TYPE, null);
+    final SharedKeyCache cache = new SharedKeyCache(10, 0);
+
+    cache.register();
+    try {
+      cache.get(localKey, remoteKey, () -> SharedKey.from(new byte[] {1}));
+      cache.get(localKey, remoteKey, () -> SharedKey.from(new byte[] {1}));
+
+      assertThat(mBeanServer.getAttribute(objectName, "HitCount")).isEqualTo(1L);
+      assertThat(mBeanServer.getAttribute(objectName, "MissCount")).isEqualTo(1L);
+      assertThat(mBeanServer.getAttribute(objectName, "Size")).isEqualTo(1);
+    } finally {
+      MBeanRegistry.unregister(SharedKeyCache.MBEAN_TYPE, null);
+    }
+  }
+}
@@ -0,0 +1,317 @@
+package com.quorum.tessera.enclave.rest;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import com.quorum.tessera.enclave.*;
+import com.quorum.tessera.encryption.PublicKey;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Reads and writes the CBOR bodies of the enclave batch endpoint.
+ *
+ * <p>A request is an array of operations, each a map with an {@code op} field naming the call and
+ * the call's arguments as byte strings. Payloads, both those being decrypted and those of affected
+ * transactions, are embedded in their CBOR encoding. A response is an array with one map per
+ * operation, in the same order, holding either the {@code result} bytes or an {@code error}
+ * message; encrypted payloads are returned in their CBOR encoding.
+ */
+final class EnclaveBatchCodec {
+
+  static final String MEDIA_TYPE = "application/cbor";
+
+  private final CBORFactory cborFactory = new CBORFactory();
+
+  private final PayloadEncoder payloadEncoder = PayloadEncoder.create(EncodedPayloadCodec.CBOR);
+
+  EncodedPayload decodePayload(byte[] data) {
+    return payloadEncoder.decode(data);
+  }
+
+  byte[] encodePayload(EncodedPayload payload) {
+    return payloadEncoder.encode(payload);
+  }
+
+  byte[] encodeRequest(List<EnclaveOperation> operations) {
+    return write(
+        generator -> {
+          generator.writeStartArray(operations.size());
+          for (EnclaveOperation operation : operations) {
+            writeOperation(generator, operation);
+          }
+          generator.writeEndArray();
+        });
+  }
+
+  List<EnclaveOperation> decodeRequest(byte[] body) {
+    try (CBORParser parser = cborFactory.createParser(body)) {
+      validateToken(JsonToken.START_ARRAY, parser.nextToken());
+      final List<EnclaveOperation> operations = new ArrayList<>();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        operations.add(readOperation(parser));
+      }
+      return operations;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  byte[] encodeResponse(List<Result> results) {
+    return write(
+        generator -> {
+          generator.writeStartArray(results.size());
+          for (Result result : results) {
+            generator.writeStartObject(1);
+            if (Objects.isNull(result.error)) {
+              generator.writeBinaryField("result", result.value);
+            } else {
+              generator.writeStringField("error", result.error);
+            }
+            generator.writeEndObject();
+          }
+          generator.writeEndArray();
+        });
+  }
+
+  List<Result> decodeResponse(byte[] body) {
+    try (CBORParser parser = cborFactory.createParser(body)) {
+      validateToken(JsonToken.START_ARRAY, parser.nextToken());
+      final List<Result> results = new ArrayList<>();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        validateToken(JsonToken.START_OBJECT, parser.currentToken());
+        Result result = null;
+        while (parser.nextFieldName() != null) {
+          if (parser.getCurrentName().equals("result")) {
+            result = Result.of(readBinary(parser));
+          } else if (parser.getCurrentName().equals("error")) {
+            result = Result.failed(parser.nextTextValue());
+          } else {
+            parser.nextToken();
+            parser.skipChildren();
+          }
+        }
+        results.add(Objects.requireNonNull(result, "Batch result has no result or error"));
+      }
+      return results;
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private void writeOperation(CBORGenerator generator, EnclaveOperation operation)
+      throws IOException {
+    switch (operation.getType()) {
+      case ENCRYPT:
+        final PrivacyMetadata privacyMetadata = operation.getPrivacyMetadata();
+        generator.writeStartObject(9);
+        generator.writeStringField("op", "encrypt");
+        generator.writeBinaryField("message", operation.getMessage());
+        generator.writeBinaryField("sender", operation.getSenderKey().getKeyBytes());
+        writeKeys(generator, "recipients", operation.getRecipientPublicKeys());
+        generator.writeNumberField(
+            "privacyFlag", privacyMetadata.getPrivacyMode().getPrivacyFlag());
+
+        generator.writeFieldName("affected");
+        generator.writeStartObject(privacyMetadata.getAffectedContractTransactions().size());
+        for (AffectedTransaction affected : privacyMetadata.getAffectedContractTransactions()) {
+          generator.writeFieldName(affected.getHash().encodeToBase64());
+          generator.writeBinary(payloadEncoder.encode(affected.getPayload()));
+        }
+        generator.writeEndObject();
+
+        generator.writeBinaryField(
+            "execHash", Objects.requireNonNullElse(privacyMetadata.getExecHash(), new byte[0]));
+        writeKeys(generator, "mandatoryFor", privacyMetadata.getMandatoryRecipients());
+        generator.writeBinaryField(
+            "privacyGroupId",
+            privacyMetadata.getPrivacyGroupId().map(PrivacyGroup.Id::getBytes).orElse(new byte[0]));
+        generator.writeEndObject();
+        break;
+      case UNENCRYPT:
+      case ADD_RECIPIENT:
+        final boolean hasKey = Objects.nonNull(operation.getKey());
+        generator.writeStartObject(hasKey ? 3 : 2);
+        final boolean unencrypt = operation.getType() == EnclaveOperation.Type.UNENCRYPT;
+        generator.writeStringField("op", unencrypt ? "unencrypt" : "addRecipient");
+        generator.writeBinaryField("payload", payloadEncoder.encode(operation.getPayload()));
+        if (hasKey) {
+          generator.writeBinaryField("key", operation.getKey().getKeyBytes());
+        }
+        generator.writeEndObject();
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported operation " + operation.getType());
+    }
+  }
+
+  private EnclaveOperation readOperation(CBORParser parser) throws IOException {
+    validateToken(JsonToken.START_OBJECT, parser.currentToken());
+
+    String op = null;
+    byte[] message = null;
+    PublicKey sender = null;
+    List<PublicKey> recipients = List.of();
+    PrivacyMode privacyMode = PrivacyMode.STANDARD_PRIVATE;
+    final List<AffectedTransaction> affected = new ArrayList<>();
+    byte[] execHash = new byte[0];
+    Set<PublicKey> mandatoryRecipients = Set.of();
+    byte[] privacyGroupId = new byte[0];
+    EncodedPayload payload = null;
+    PublicKey key = null;
+
+    while (parser.nextFieldName() != null) {
+      switch (parser.getCurrentName()) {
+        case "op":
+          op = parser.nextTextValue();
+          break;
+        case "message":
+          message = readBinary(parser);
+          break;
+        case "sender":
+          sender = PublicKey.from(readBinary(parser));
+          break;
+        case "recipients":
+          recipients = readKeys(parser);
+          break;
+        case "privacyFlag":
+          privacyMode = PrivacyMode.fromFlag(parser.nextIntValue(0));
+          break;
+        case "affected":
+          validateToken(JsonToken.START_OBJECT, parser.nextToken());
+          while (parser.nextToken() != JsonToken.END_OBJECT) {
+            final TxHash hash = new TxHash(parser.currentName());
+            affected.add(
+                AffectedTransaction.Builder.create()
+                    .withHash(hash.getBytes())
+                    .withPayload(payloadEncoder.decode(readBinary(parser)))
+                    .build());
+          }
+          break;
+        case "execHash":
+          execHash = readBinary(parser);
+          break;
+        case "mandatoryFor":
+          mandatoryRecipients = new HashSet<>(readKeys(parser));
+          break;
+        case "privacyGroupId":
+          privacyGroupId = readBinary(parser);
+          break;
+        case "payload":
+          payload = payloadEncoder.decode(readBinary(parser));
+          break;
+        case "key":
+          key = PublicKey.from(readBinary(parser));
+          break;
+        default:
+          parser.nextToken();
+          parser.skipChildren();
+      }
+    }
+
+    if ("encrypt".equals(op)) {
+      final PrivacyMetadata.Builder privacyMetadata =
+          PrivacyMetadata.Builder.create()
+              .withPrivacyMode(privacyMode)
+              .withAffectedTransactions(affected)
+              .withExecHash(execHash)
+              .withMandatoryRecipients(mandatoryRecipients);
+      if (privacyGroupId.length > 0) {
+        privacyMetadata.withPrivacyGroupId(PrivacyGroup.Id.fromBytes(privacyGroupId));
+      }
+      return EnclaveOperation.encrypt(message, sender, recipients, privacyMetadata.build());
+    }
+    if ("unencrypt".equals(op)) {
+      return EnclaveOperation.unencrypt(payload, key);
+    }
+    if ("addRecipient".equals(op)) {
+      return EnclaveOperation.addRecipient(payload, key);
+    }
+    throw new IllegalArgumentException("Unsupported operation " + op);
+  }
+
+  private static void writeKeys(CBORGenerator generator, String name, Collection<PublicKey> keys)
+      throws IOException {
+    generator.writeFieldName(name);
+    generator.writeStartArray(keys.size());
+    for (PublicKey key : keys) {
+      generator.writeBinary(key.getKeyBytes());
+    }
+    generator.writeEndArray();
+  }
+
+  private static List<PublicKey> readKeys(CBORParser parser) throws IOException {
+    validateToken(JsonToken.START_ARRAY, parser.nextToken());
+    final List<PublicKey> keys = new ArrayList<>();
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      keys.add(PublicKey.from(parser.getBinaryValue()));
+    }
+    return keys;
+  }
+
+  private static byte[] readBinary(CBORParser parser) throws IOException {
+    validateToken(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
+    return parser.getBinaryValue();
+  }
+
+  private static void validateToken(JsonToken expected, JsonToken current) {
+    if (current != expected) {
+      throw new IllegalArgumentException("Invalid batch body. Expected " + expected);
+    }
+  }
+
+  private byte[] write(Writer writer) {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    try (CBORGenerator generator = cborFactory.createGenerator(output)) {
+      writer.write(generator);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return output.toByteArray();
+  }
+
+  private interface Writer {
+    void write(CBORGenerator generator) throws IOException;
+  }
+
+  /** The outcome of one operation: either its result bytes or the error that it failed with */
+  static final class Result {
+
+    private final byte[] value;
+
+    private final String error;
+
+    private Result(byte[] value, String error) {
+      this.value = value;
+      this.error = error;
+    }
+
+    static Result of(byte[] value) {
+      return new Result(Objects.requireNonNull(value), null);
+    }
+
+    static Result failed(String error) {
+      return new Result(null, Objects.requireNonNullElse(error, "Unknown error"));
+    }
+
+    byte[] getValue() {
+      return value;
+    }
+
+    String getError() {
+      return error;
+    }
+
+    boolean isFailed() {
+      return Objects.nonNull(error);
+    }
+  }
+}
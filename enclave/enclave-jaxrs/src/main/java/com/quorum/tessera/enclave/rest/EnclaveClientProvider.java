@@ -1,10 +1,14 @@
 package com.quorum.tessera.enclave.rest;
 
 import com.quorum.tessera.config.*;
+import com.quorum.tessera.config.util.IntervalPropertyHelper;
 import com.quorum.tessera.enclave.EnclaveClient;
 import com.quorum.tessera.jaxrs.client.ClientFactory;
 import jakarta.ws.rs.client.Client;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,6 +32,38 @@ public class EnclaveClientProvider {
 
     Client client = clientFactory.buildFrom(serverConfig);
     LOGGER.info("Creating remoted enclave for {}", serverConfig.getServerUri());
-    return new RestfulEnclaveClient(client, serverConfig.getServerUri());
+    final Map<String, String> properties =
+        Objects.requireNonNullElse(serverConfig.getProperties(), Map.of());
+    final long keyRefreshInterval =
+        new IntervalPropertyHelper(properties).enclaveKeyRefreshInterval();
+    return new RestfulEnclaveClient(
+        client,
+        serverConfig.getServerUri(),
+        Executors.newSingleThreadExecutor(),
+        keyRefreshInterval,
+        intProperty(
+            properties,
+            RestfulEnclaveClient.MAX_BATCH_SIZE,
+            RestfulEnclaveClient.DEFAULT_MAX_BATCH_SIZE),
+        intProperty(
+            properties,
+            RestfulEnclaveClient.MAX_IN_FLIGHT_BATCHES,
+            RestfulEnclaveClient.DEFAULT_MAX_IN_FLIGHT_BATCHES));
+  }
+
+  static int intProperty(
+      final Map<String, String> properties, final String property, final int defaultValue) {
+    try {
+      final int value =
+          Integer.parseInt(properties.getOrDefault(property, String.valueOf(defaultValue)));
+      if (value >= 0) {
+        return value;
+      }
+    } catch (NumberFormatException ex) {
+      // fall through to the warning below
+    }
+    LOGGER.warn(
+        "Not able to parse configured property {}. Will use default value instead", property);
+    return defaultValue;
   }
 }
@@ -0,0 +1,111 @@
+package com.quorum.tessera.enclave.rest;
+
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.PrivacyMetadata;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.List;
+import java.util.Objects;
+
+/** A single enclave call carried in a batch request, see {@link EnclaveBatchCodec} */
+final class EnclaveOperation {
+
+  enum Type {
+    ENCRYPT,
+    UNENCRYPT,
+    ADD_RECIPIENT
+  }
+
+  private final Type type;
+
+  private final byte[] message;
+
+  private final PublicKey senderKey;
+
+  private final List<PublicKey> recipientPublicKeys;
+
+  private final PrivacyMetadata privacyMetadata;
+
+  private final EncodedPayload payload;
+
+  private final PublicKey key;
+
+  private EnclaveOperation(
+      Type type,
+      byte[] message,
+      PublicKey senderKey,
+      List<PublicKey> recipientPublicKeys,
+      PrivacyMetadata privacyMetadata,
+      EncodedPayload payload,
+      PublicKey key) {
+    this.type = Objects.requireNonNull(type);
+    this.message = message;
+    this.senderKey = senderKey;
+    this.recipientPublicKeys = recipientPublicKeys;
+    this.privacyMetadata = privacyMetadata;
+    this.payload = payload;
+    this.key = key;
+  }
+
+  static EnclaveOperation encrypt(
+      byte[] message,
+      PublicKey senderKey,
+      List<PublicKey> recipientPublicKeys,
+      PrivacyMetadata privacyMetadata) {
+    return new EnclaveOperation(
+        Type.ENCRYPT,
+        Objects.requireNonNull(message),
+        Objects.requireNonNull(senderKey),
+        List.copyOf(recipientPublicKeys),
+        Objects.requireNonNull(privacyMetadata),
+        null,
+        null);
+  }
+
+  /**
+   * @param providedKey the key to decrypt with, or null to use the sender key or the only recipient
+   *     key of the payload
+   */
+  static EnclaveOperation unencrypt(EncodedPayload payload, PublicKey providedKey) {
+    return new EnclaveOperation(
+        Type.UNENCRYPT, null, null, null, null, Objects.requireNonNull(payload), providedKey);
+  }
+
+  static EnclaveOperation addRecipient(EncodedPayload payload, PublicKey recipientKey) {
+    return new EnclaveOperation(
+        Type.ADD_RECIPIENT,
+        null,
+        null,
+        null,
+        null,
+        Objects.requireNonNull(payload),
+        Objects.requireNonNull(recipientKey));
+  }
+
+  Type getType() {
+    return type;
+  }
+
+  byte[] getMessage() {
+    return message;
+  }
+
+  PublicKey getSenderKey() {
+    return senderKey;
+  }
+
+  List<PublicKey> getRecipientPublicKeys() {
+    return recipientPublicKeys;
+  }
+
+  PrivacyMetadata getPrivacyMetadata() {
+    return privacyMetadata;
+  }
+
+  EncodedPayload getPayload() {
+    return payload;
+  }
+
+  PublicKey getKey() {
+    return key;
+  }
+}
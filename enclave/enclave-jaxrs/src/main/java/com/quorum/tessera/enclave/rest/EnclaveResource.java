@@ -6,23 +6,34 @@ import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.service.Service;
 import jakarta.json.Json;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
 import jakarta.ws.rs.core.StreamingOutput;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @Path("/")
 public class EnclaveResource {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(EnclaveResource.class);
+
   private final Enclave enclave;
 
   private final PayloadEncoder payloadEncoder;
 
+  private final EnclaveBatchCodec batchCodec = new EnclaveBatchCodec();
+
   public EnclaveResource(Enclave enclave) {
     this.enclave = Objects.requireNonNull(enclave);
     payloadEncoder = PayloadEncoder.create(EncodedPayloadCodec.LEGACY);
@@ -80,6 +91,33 @@ public class EnclaveResource {
         .build();
   }
 
+  /**
+   * Returns the default, public and forwarding keys in one response, tagged with an ETag so that
+   * clients can cache them and cheaply check whether they have changed
+   */
+  @GET
+  @Produces("application/json")
+  @Path("keys")
+  public Response getKeys(@HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+
+    final String body =
+        Json.createObjectBuilder()
+            .add("default", enclave.defaultPublicKey().encodeToBase64())
+            .add("public", Json.createArrayBuilder(sortedBase64(enclave.getPublicKeys())))
+            .add("forwarding", Json.createArrayBuilder(sortedBase64(enclave.getForwardingKeys())))
+            .build()
+            .toString();
+
+    final String etag = etag(body);
+    if (etag.equals(ifNoneMatch)) {
+      return Response.notModified().header(HttpHeaders.ETAG, etag).build();
+    }
+
+    return Response.ok(body, MediaType.APPLICATION_JSON_TYPE)
+        .header(HttpHeaders.ETAG, etag)
+        .build();
+  }
+
   @POST
   @Path("encrypt")
   @Consumes(MediaType.APPLICATION_JSON)
@@ -262,6 +300,49 @@ public class EnclaveResource {
     return Response.ok(streamingOutput).build();
   }
 
+  /**
+   * Runs several encrypt, decrypt and add recipient calls sent in one CBOR request. A failing call
+   * does not fail the others; its error message is returned in its place.
+   */
+  @POST
+  @Path("batch")
+  @Consumes(EnclaveBatchCodec.MEDIA_TYPE)
+  @Produces(EnclaveBatchCodec.MEDIA_TYPE)
+  public Response batch(byte[] body) {
+
+    final List<EnclaveBatchCodec.Result> results =
+        batchCodec.decodeRequest(body).stream().map(this::execute).collect(Collectors.toList());
+
+    return Response.ok(batchCodec.encodeResponse(results), EnclaveBatchCodec.MEDIA_TYPE).build();
+  }
+
+  private EnclaveBatchCodec.Result execute(EnclaveOperation operation) {
+    try {
+      switch (operation.getType()) {
+        case ENCRYPT:
+          final EncodedPayload outcome =
+              enclave.encryptPayload(
+                  operation.getMessage(),
+                  operation.getSenderKey(),
+                  operation.getRecipientPublicKeys(),
+                  operation.getPrivacyMetadata());
+          return EnclaveBatchCodec.Result.of(batchCodec.encodePayload(outcome));
+        case UNENCRYPT:
+          return EnclaveBatchCodec.Result.of(
+              enclave.unencryptTransaction(operation.getPayload(), operation.getKey()));
+        case ADD_RECIPIENT:
+          return EnclaveBatchCodec.Result.of(
+              enclave.createNewRecipientBox(operation.getPayload(), operation.getKey()));
+        default:
+          throw new IllegalArgumentException("Unsupported operation " + operation.getType());
+      }
+    } catch (RuntimeException ex) {
+      LOGGER.error("Batched {} operation failed: {}", operation.getType(), ex.getMessage());
+      LOGGER.debug(null, ex);
+      return EnclaveBatchCodec.Result.failed(ex.getMessage());
+    }
+  }
+
   private List<AffectedTransaction> convertToAffectedTransactions(
       final List<KeyValuePair> keyValuePairs) {
     return keyValuePairs.stream()
@@ -273,4 +354,18 @@ public class EnclaveResource {
                     .build())
         .collect(Collectors.toUnmodifiableList());
   }
+
+  private static List<String> sortedBase64(Set<PublicKey> keys) {
+    return keys.stream().map(PublicKey::encodeToBase64).sorted().collect(Collectors.toList());
+  }
+
+  private static String etag(String body) {
+    try {
+      final byte[] hash =
+          MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+      return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
 }
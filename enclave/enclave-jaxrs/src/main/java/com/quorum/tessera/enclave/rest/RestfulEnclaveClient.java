@@ -4,15 +4,23 @@ import com.quorum.tessera.enclave.*;
 import com.quorum.tessera.encryption.Nonce;
 import com.quorum.tessera.encryption.PublicKey;
 import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.slf4j.Logger;
@@ -23,6 +31,16 @@ public class RestfulEnclaveClient implements EnclaveClient {
   private static final Logger LOGGER = LoggerFactory.getLogger(RestfulEnclaveClient.class);
   public static final int TIMEOUT = 2;
 
+  public static final long DEFAULT_KEY_REFRESH_INTERVAL = 30000L;
+
+  public static final String MAX_BATCH_SIZE = "enclaveMaxBatchSize";
+
+  public static final String MAX_IN_FLIGHT_BATCHES = "enclaveMaxInFlightBatches";
+
+  public static final int DEFAULT_MAX_BATCH_SIZE = 32;
+
+  public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+
   private final Client client;
 
   private final URI uri;
@@ -31,66 +49,192 @@ public class RestfulEnclaveClient implements EnclaveClient {
 
   private final PayloadEncoder payloadEncoder;
 
+  private final long keyRefreshInterval;
+
+  private final Object keyLock = new Object();
+
+  private final AtomicBoolean refreshingKeys = new AtomicBoolean();
+
+  private volatile EnclaveKeys keys;
+
+  private volatile long keysFetchedAt;
+
+  private final EnclaveBatchCodec batchCodec = new EnclaveBatchCodec();
+
+  private final int maxBatchSize;
+
+  private final Semaphore batchPermits;
+
+  private final Queue<PendingOperation> pendingOperations = new ConcurrentLinkedQueue<>();
+
+  private volatile boolean batchSupported;
+
   public RestfulEnclaveClient(Client client, URI uri) {
     this(client, uri, Executors.newSingleThreadExecutor());
   }
 
   public RestfulEnclaveClient(Client client, URI uri, ExecutorService executorService) {
+    this(client, uri, executorService, DEFAULT_KEY_REFRESH_INTERVAL);
+  }
+
+  /**
+   * @param keyRefreshInterval how long, in milliseconds, fetched keys are used before they are
+   *     fetched again; zero checks with the enclave on every call
+   */
+  public RestfulEnclaveClient(
+      Client client, URI uri, ExecutorService executorService, long keyRefreshInterval) {
+    this(
+        client,
+        uri,
+        executorService,
+        keyRefreshInterval,
+        DEFAULT_MAX_BATCH_SIZE,
+        DEFAULT_MAX_IN_FLIGHT_BATCHES);
+  }
+
+  /**
+   * @param keyRefreshInterval how long, in milliseconds, fetched keys are used before they are
+   *     fetched again; zero checks with the enclave on every call
+   * @param maxBatchSize the most encrypt, decrypt and add recipient calls sent to the enclave in
+   *     one binary batch request; zero sends each call on its own as JSON
+   * @param maxInFlightBatches the most batch requests sent to the enclave at the same time
+   */
+  public RestfulEnclaveClient(
+      Client client,
+      URI uri,
+      ExecutorService executorService,
+      long keyRefreshInterval,
+      int maxBatchSize,
+      int maxInFlightBatches) {
     this.client = Objects.requireNonNull(client);
     this.uri = Objects.requireNonNull(uri);
     this.payloadEncoder = PayloadEncoder.create(EncodedPayloadCodec.LEGACY);
     this.executorService = executorService;
+    this.keyRefreshInterval = TimeUnit.MILLISECONDS.toNanos(keyRefreshInterval);
+    this.maxBatchSize = maxBatchSize;
+    this.batchPermits = new Semaphore(Math.max(1, maxInFlightBatches));
+    this.batchSupported = maxBatchSize > 0;
   }
 
   @Override
   public PublicKey defaultPublicKey() {
+    return keys().defaultPublicKey;
+  }
 
-    return ClientCallback.execute(
-        () -> {
-          Response response = client.target(uri).path("default").request().get();
+  @Override
+  public Set<PublicKey> getForwardingKeys() {
+    return keys().forwardingKeys;
+  }
 
-          validateResponseIsOk(response);
+  @Override
+  public Set<PublicKey> getPublicKeys() {
+    return keys().publicKeys;
+  }
 
-          byte[] data = response.readEntity(byte[].class);
+  /**
+   * The enclave's keys only change when it is restarted with a different configuration, so they
+   * are cached and only fetched again once the refresh interval has passed. Refreshes send the ETag
+   * of the cached keys, so an unchanged key set costs a bodiless 304 response.
+   *
+   * <p>Only the first fetch blocks other callers. Once keys are cached a single caller refreshes
+   * them, without holding the lock, while the others carry on with the cached keys.
+   */
+  private EnclaveKeys keys() {
+    final EnclaveKeys cached = keys;
+    if (Objects.isNull(cached)) {
+      synchronized (keyLock) {
+        if (Objects.isNull(keys)) {
+          final long now = System.nanoTime();
+          final EnclaveKeys fetched = fetchKeys(null);
+          keysFetchedAt = now;
+          keys = fetched;
+        }
+        return keys;
+      }
+    }
 
-          return PublicKey.from(data);
-        });
+    if (System.nanoTime() - keysFetchedAt < keyRefreshInterval
+        || !refreshingKeys.compareAndSet(false, true)) {
+      return cached;
+    }
+    try {
+      final long now = System.nanoTime();
+      final EnclaveKeys fetched = fetchKeys(cached);
+      keysFetchedAt = now;
+      keys = fetched;
+      return fetched;
+    } finally {
+      refreshingKeys.set(false);
+    }
   }
 
-  @Override
-  public Set<PublicKey> getForwardingKeys() {
+  private EnclaveKeys fetchKeys(EnclaveKeys cached) {
     return ClientCallback.execute(
         () -> {
-          Response response = client.target(uri).path("forwarding").request().get();
+          Invocation.Builder request = client.target(uri).path("keys").request();
+          if (Objects.nonNull(cached) && Objects.nonNull(cached.etag)) {
+            request = request.header(HttpHeaders.IF_NONE_MATCH, cached.etag);
+          }
 
-          validateResponseIsOk(response);
+          try (Response response = request.get()) {
+            if (response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+              return cached;
+            }
 
-          JsonArray results = response.readEntity(JsonArray.class);
+            if (!isMissingEndpoint(response)) {
+              validateResponseIsOk(response);
 
-          return IntStream.range(0, results.size())
-              .mapToObj(results::getString)
-              .map(s -> Base64.getDecoder().decode(s))
-              .map(PublicKey::from)
-              .collect(Collectors.toSet());
+              JsonObject results = response.readEntity(JsonObject.class);
+
+              return new EnclaveKeys(
+                  PublicKey.from(Base64.getDecoder().decode(results.getString("default"))),
+                  toPublicKeys(results.getJsonArray("public")),
+                  toPublicKeys(results.getJsonArray("forwarding")),
+                  response.getHeaderString(HttpHeaders.ETAG));
+            }
+          }
+
+          // enclave servers from before the combined endpoint only serve the keys separately
+          return new EnclaveKeys(
+              fetchDefaultPublicKey(), fetchPublicKeys(), fetchForwardingKeys(), null);
         });
   }
 
-  @Override
-  public Set<PublicKey> getPublicKeys() {
-    return ClientCallback.execute(
-        () -> {
-          Response response = client.target(uri).path("public").request().get();
+  private PublicKey fetchDefaultPublicKey() {
+    try (Response response = client.target(uri).path("default").request().get()) {
 
-          validateResponseIsOk(response);
+      validateResponseIsOk(response);
 
-          JsonArray results = response.readEntity(JsonArray.class);
+      byte[] data = response.readEntity(byte[].class);
 
-          return IntStream.range(0, results.size())
-              .mapToObj(results::getString)
-              .map(s -> Base64.getDecoder().decode(s))
-              .map(PublicKey::from)
-              .collect(Collectors.toSet());
-        });
+      return PublicKey.from(data);
+    }
+  }
+
+  private Set<PublicKey> fetchForwardingKeys() {
+    try (Response response = client.target(uri).path("forwarding").request().get()) {
+
+      validateResponseIsOk(response);
+
+      return toPublicKeys(response.readEntity(JsonArray.class));
+    }
+  }
+
+  private Set<PublicKey> fetchPublicKeys() {
+    try (Response response = client.target(uri).path("public").request().get()) {
+
+      validateResponseIsOk(response);
+
+      return toPublicKeys(response.readEntity(JsonArray.class));
+    }
+  }
+
+  private static Set<PublicKey> toPublicKeys(JsonArray results) {
+    return IntStream.range(0, results.size())
+        .mapToObj(results::getString)
+        .map(s -> Base64.getDecoder().decode(s))
+        .map(PublicKey::from)
+        .collect(Collectors.toUnmodifiableSet());
   }
 
   @Override
@@ -100,6 +244,16 @@ public class RestfulEnclaveClient implements EnclaveClient {
       final List<PublicKey> recipientPublicKeys,
       final PrivacyMetadata privacyMetaData) {
 
+    if (batchSupported) {
+      final Optional<byte[]> result =
+          submit(
+              EnclaveOperation.encrypt(
+                  message, senderPublicKey, recipientPublicKeys, privacyMetaData));
+      if (result.isPresent()) {
+        return batchCodec.decodePayload(result.get());
+      }
+    }
+
     return ClientCallback.execute(
         () -> {
           EnclavePayload enclavePayload = new EnclavePayload();
@@ -217,6 +371,13 @@ public class RestfulEnclaveClient implements EnclaveClient {
   @Override
   public byte[] unencryptTransaction(EncodedPayload payload, PublicKey providedKey) {
 
+    if (batchSupported) {
+      final Optional<byte[]> result = submit(EnclaveOperation.unencrypt(payload, providedKey));
+      if (result.isPresent()) {
+        return result.get();
+      }
+    }
+
     return ClientCallback.execute(
         () -> {
           EnclaveUnencryptPayload dto = new EnclaveUnencryptPayload();
@@ -262,6 +423,13 @@ public class RestfulEnclaveClient implements EnclaveClient {
   @Override
   public byte[] createNewRecipientBox(final EncodedPayload payload, final PublicKey recipientKey) {
 
+    if (batchSupported) {
+      final Optional<byte[]> result = submit(EnclaveOperation.addRecipient(payload, recipientKey));
+      if (result.isPresent()) {
+        return result.get();
+      }
+    }
+
     return ClientCallback.execute(
         () -> {
           final byte[] body = payloadEncoder.encode(payload);
@@ -288,19 +456,20 @@ public class RestfulEnclaveClient implements EnclaveClient {
     requestPayload.setAffectedContractTransactions(
         convertAffectedContractTransactions(affectedContractTransactions));
 
-    Response response =
+    try (Response response =
         client
             .target(uri)
             .path("findinvalidsecurityhashes")
             .request()
-            .post(Entity.json(requestPayload));
+            .post(Entity.json(requestPayload))) {
 
-    EnclaveFindInvalidSecurityHashesResponsePayload responsePayload =
-        response.readEntity(EnclaveFindInvalidSecurityHashesResponsePayload.class);
+      EnclaveFindInvalidSecurityHashesResponsePayload responsePayload =
+          response.readEntity(EnclaveFindInvalidSecurityHashesResponsePayload.class);
 
-    return responsePayload.getInvalidSecurityHashes().stream()
-        .map(TxHash::new)
-        .collect(Collectors.toSet());
+      return responsePayload.getInvalidSecurityHashes().stream()
+          .map(TxHash::new)
+          .collect(Collectors.toSet());
+    }
   }
 
   /**
@@ -315,12 +484,12 @@ public class RestfulEnclaveClient implements EnclaveClient {
     Future<Status> outcome =
         executorService.submit(
             () -> {
-              Response response = client.target(uri).path("ping").request().get();
-
-              if (response.getStatus() == 200) {
-                return Status.STARTED;
+              try (Response response = client.target(uri).path("ping").request().get()) {
+                if (response.getStatus() == 200) {
+                  return Status.STARTED;
+                }
+                return Status.STOPPED;
               }
-              return Status.STOPPED;
             });
 
     try {
@@ -331,6 +500,130 @@ public class RestfulEnclaveClient implements EnclaveClient {
     }
   }
 
+  /**
+   * Queues an operation to be sent to the enclave in a batch and waits for its result.
+   *
+   * <p>There is no dedicated sender thread. Whichever caller finds a free batch permit sends the
+   * operations queued so far, its own and those of other callers, until its own operation is done.
+   * Callers that find no free permit wait for one of the senders to pick their operation up, so
+   * under load calls are grouped into fewer, larger requests.
+   *
+   * @return the result of the operation, or empty if the enclave does not support batches
+   */
+  private Optional<byte[]> submit(EnclaveOperation operation) {
+    final PendingOperation pending = new PendingOperation(operation);
+    pendingOperations.add(pending);
+
+    boolean interrupted = false;
+    while (!pending.result.isDone()) {
+      if (!pendingOperations.isEmpty() && batchPermits.tryAcquire()) {
+        try {
+          final List<PendingOperation> batch = new ArrayList<>();
+          PendingOperation next;
+          while (batch.size() < maxBatchSize && (next = pendingOperations.poll()) != null) {
+            batch.add(next);
+          }
+          if (!batch.isEmpty()) {
+            sendBatch(batch);
+          }
+        } finally {
+          batchPermits.release();
+        }
+      } else {
+        // woken once the operation is done, or when a sender hands the queue over
+        LockSupport.park(this);
+        interrupted |= Thread.interrupted();
+      }
+    }
+
+    // the queue is re-checked after the permit is released: a caller leaving with operations
+    // still queued wakes the caller of the next one to send them, so none is stranded
+    final PendingOperation next = pendingOperations.peek();
+    if (Objects.nonNull(next)) {
+      LockSupport.unpark(next.caller);
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    try {
+      return pending.result.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  private void sendBatch(List<PendingOperation> batch) {
+    try {
+      final byte[] body =
+          batchCodec.encodeRequest(
+              batch.stream().map(pending -> pending.operation).collect(Collectors.toList()));
+
+      final List<EnclaveBatchCodec.Result> results;
+      try (Response response =
+          ClientCallback.execute(
+              () ->
+                  client
+                      .target(uri)
+                      .path("batch")
+                      .request(EnclaveBatchCodec.MEDIA_TYPE)
+                      .post(Entity.entity(body, EnclaveBatchCodec.MEDIA_TYPE)))) {
+
+        if (isMissingEndpoint(response)) {
+          LOGGER.info("Remote enclave {} does not support batches, sending calls separately", uri);
+          batchSupported = false;
+          batch.forEach(pending -> pending.result.complete(Optional.empty()));
+          return;
+        }
+
+        validateResponseIsOk(response);
+
+        results = batchCodec.decodeResponse(response.readEntity(byte[].class));
+      }
+      if (results.size() != batch.size()) {
+        throw new EnclaveNotAvailableException(
+            String.format(
+                "Remote enclave returned %d results for %d operations",
+                results.size(), batch.size()));
+      }
+
+      for (int i = 0; i < batch.size(); i++) {
+        final EnclaveBatchCodec.Result result = results.get(i);
+        if (result.isFailed()) {
+          batch
+              .get(i)
+              .result
+              .completeExceptionally(
+                  new EnclaveNotAvailableException(
+                      "Remote enclave instance threw an error " + result.getError()));
+        } else {
+          batch.get(i).result.complete(Optional.of(result.getValue()));
+        }
+      }
+    } catch (RuntimeException ex) {
+      batch.forEach(pending -> pending.result.completeExceptionally(ex));
+    } finally {
+      batch.forEach(pending -> LockSupport.unpark(pending.caller));
+    }
+  }
+
+  /**
+   * Whether the enclave server does not serve the requested path. Older servers map every
+   * exception to a 500 response with the exception message as the body, including the not found
+   * exception for an unknown path.
+   */
+  private static boolean isMissingEndpoint(Response response) {
+    if (response.getStatus() == Response.Status.NOT_FOUND.getStatusCode()) {
+      return true;
+    }
+    return response.getStatus() == Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()
+        && response.hasEntity()
+        && "HTTP 404 Not Found".equals(response.readEntity(String.class));
+  }
+
   private static void validateResponseIsOk(Response response) {
     if (response.getStatus() != 200) {
       Response.StatusType statusInfo = response.getStatusInfo();
@@ -353,4 +646,39 @@ public class RestfulEnclaveClient implements EnclaveClient {
                     this.payloadEncoder.encode(affectedTransaction.getPayload())))
         .collect(Collectors.toList());
   }
+
+  private static final class PendingOperation {
+
+    private final EnclaveOperation operation;
+
+    private final CompletableFuture<Optional<byte[]>> result = new CompletableFuture<>();
+
+    private final Thread caller = Thread.currentThread();
+
+    private PendingOperation(EnclaveOperation operation) {
+      this.operation = operation;
+    }
+  }
+
+  private static final class EnclaveKeys {
+
+    private final PublicKey defaultPublicKey;
+
+    private final Set<PublicKey> publicKeys;
+
+    private final Set<PublicKey> forwardingKeys;
+
+    private final String etag;
+
+    private EnclaveKeys(
+        PublicKey defaultPublicKey,
+        Set<PublicKey> publicKeys,
+        Set<PublicKey> forwardingKeys,
+        String etag) {
+      this.defaultPublicKey = defaultPublicKey;
+      this.publicKeys = publicKeys;
+      this.forwardingKeys = forwardingKeys;
+      this.etag = etag;
+    }
+  }
 }
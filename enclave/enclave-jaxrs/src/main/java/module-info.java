@@ -1,4 +1,6 @@
 module tessera.enclave.jaxrs {
+  requires com.fasterxml.jackson.core;
+  requires com.fasterxml.jackson.dataformat.cbor;
   requires jakarta.json;
   requires jakarta.ws.rs;
   requires jakarta.xml.bind;
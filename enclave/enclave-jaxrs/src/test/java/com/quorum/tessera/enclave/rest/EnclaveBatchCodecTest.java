@@ -0,0 +1,110 @@
+package com.quorum.tessera.enclave.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.quorum.tessera.enclave.*;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class EnclaveBatchCodecTest {
+
+  private final EnclaveBatchCodec codec = new EnclaveBatchCodec();
+
+  private final PublicKey sender = PublicKey.from("SENDER".getBytes());
+
+  private final PublicKey recipient = PublicKey.from("RECIPIENT".getBytes());
+
+  @Test
+  public void requestRoundTrip() {
+
+    final EncodedPayload payload = Fixtures.createSample();
+
+    final PrivacyMetadata privacyMetadata =
+        PrivacyMetadata.Builder.create()
+            .withPrivacyMode(PrivacyMode.MANDATORY_RECIPIENTS)
+            .withAffectedTransactions(
+                List.of(
+                    AffectedTransaction.Builder.create()
+                        .withHash("hash".getBytes())
+                        .withPayload(payload)
+                        .build()))
+            .withMandatoryRecipients(Set.of(recipient))
+            .withPrivacyGroupId(PrivacyGroup.Id.fromBytes("group".getBytes()))
+            .build();
+
+    final List<EnclaveOperation> operations =
+        codec.decodeRequest(
+            codec.encodeRequest(
+                List.of(
+                    EnclaveOperation.encrypt(
+                        "MESSAGE".getBytes(), sender, List.of(recipient), privacyMetadata),
+                    EnclaveOperation.unencrypt(payload, null),
+                    EnclaveOperation.addRecipient(payload, recipient))));
+
+    assertThat(operations).hasSize(3);
+
+    final EnclaveOperation encrypt = operations.get(0);
+    assertThat(encrypt.getType()).isEqualTo(EnclaveOperation.Type.ENCRYPT);
+    assertThat(encrypt.getMessage()).isEqualTo("MESSAGE".getBytes());
+    assertThat(encrypt.getSenderKey()).isEqualTo(sender);
+    assertThat(encrypt.getRecipientPublicKeys()).containsExactly(recipient);
+    assertThat(encrypt.getPrivacyMetadata().getPrivacyMode())
+        .isEqualTo(PrivacyMode.MANDATORY_RECIPIENTS);
+    assertThat(encrypt.getPrivacyMetadata().getAffectedContractTransactions())
+        .isEqualTo(privacyMetadata.getAffectedContractTransactions());
+    assertThat(encrypt.getPrivacyMetadata().getMandatoryRecipients()).containsExactly(recipient);
+    assertThat(encrypt.getPrivacyMetadata().getPrivacyGroupId())
+        .contains(PrivacyGroup.Id.fromBytes("group".getBytes()));
+
+    final EnclaveOperation unencrypt = operations.get(1);
+    assertThat(unencrypt.getType()).isEqualTo(EnclaveOperation.Type.UNENCRYPT);
+    assertThat(unencrypt.getPayload()).isEqualTo(payload);
+    assertThat(unencrypt.getKey()).isNull();
+
+    final EnclaveOperation addRecipient = operations.get(2);
+    assertThat(addRecipient.getType()).isEqualTo(EnclaveOperation.Type.ADD_RECIPIENT);
+    assertThat(addRecipient.getPayload()).isEqualTo(payload);
+    assertThat(addRecipient.getKey()).isEqualTo(recipient);
+  }
+
+  @Test
+  public void responseRoundTrip() {
+
+    final List<EnclaveBatchCodec.Result> results =
+        codec.decodeResponse(
+            codec.encodeResponse(
+                List.of(
+                    EnclaveBatchCodec.Result.of("RESULT".getBytes()),
+                    EnclaveBatchCodec.Result.failed("OUCH"))));
+
+    assertThat(results).hasSize(2);
+    assertThat(results.get(0).isFailed()).isFalse();
+    assertThat(results.get(0).getValue()).isEqualTo("RESULT".getBytes());
+    assertThat(results.get(1).isFailed()).isTrue();
+    assertThat(results.get(1).getError()).isEqualTo("OUCH");
+  }
+
+  @Test
+  public void payloadIsEncodedAsCbor() {
+
+    final EncodedPayload payload = Fixtures.createSample();
+
+    final byte[] encoded = codec.encodePayload(payload);
+
+    assertThat(PayloadEncoder.create(EncodedPayloadCodec.CBOR).decode(encoded)).isEqualTo(payload);
+    assertThat(codec.decodePayload(encoded)).isEqualTo(payload);
+  }
+
+  @Test
+  public void invalidRequestBody() {
+
+    final byte[] body = codec.encodeResponse(List.of(EnclaveBatchCodec.Result.of(new byte[1])));
+
+    final Throwable ex = catchThrowable(() -> codec.decodeRequest(body));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+}
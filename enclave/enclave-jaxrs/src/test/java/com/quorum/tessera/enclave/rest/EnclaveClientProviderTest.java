@@ -12,6 +12,7 @@ import com.quorum.tessera.enclave.EnclaveClient;
 import java.net.URI;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import org.junit.After;
 import org.junit.Before;
@@ -65,6 +66,23 @@ public class EnclaveClientProviderTest {
     verify(configFactory).getConfig();
   }
 
+  @Test
+  public void batchPropertiesFallBackToDefaultWhenInvalid() {
+    Map<String, String> properties =
+        Map.of(
+            RestfulEnclaveClient.MAX_BATCH_SIZE, "0",
+            RestfulEnclaveClient.MAX_IN_FLIGHT_BATCHES, "-1");
+
+    assertThat(
+            EnclaveClientProvider.intProperty(properties, RestfulEnclaveClient.MAX_BATCH_SIZE, 32))
+        .isZero();
+    assertThat(
+            EnclaveClientProvider.intProperty(
+                properties, RestfulEnclaveClient.MAX_IN_FLIGHT_BATCHES, 4))
+        .isEqualTo(4);
+    assertThat(EnclaveClientProvider.intProperty(Map.of(), "unset", 7)).isEqualTo(7);
+  }
+
   @Test
   public void defaultConstructor() {
     assertThat(new EnclaveClientProvider()).isNotNull();
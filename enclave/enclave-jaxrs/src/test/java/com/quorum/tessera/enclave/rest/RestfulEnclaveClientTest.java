@@ -9,13 +9,23 @@ import com.quorum.tessera.enclave.*;
 import com.quorum.tessera.encryption.Nonce;
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.service.Service.Status;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Application;
+import jakarta.ws.rs.core.Response;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.test.JerseyTest;
+import org.glassfish.jersey.test.TestProperties;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -99,7 +109,7 @@ public class RestfulEnclaveClientTest {
 
     assertThat(result).isEqualTo(key);
 
-    verify(enclave).defaultPublicKey();
+    verifyKeysFetched(1);
   }
 
   @Test
@@ -107,13 +117,14 @@ public class RestfulEnclaveClientTest {
 
     PublicKey key = PublicKey.from("HELLOW".getBytes());
 
+    when(enclave.defaultPublicKey()).thenReturn(key);
     when(enclave.getPublicKeys()).thenReturn(Collections.singleton(key));
 
     Set<PublicKey> result = enclaveClient.getPublicKeys();
 
     assertThat(result).containsExactly(key);
 
-    verify(enclave).getPublicKeys();
+    verifyKeysFetched(1);
   }
 
   @Test
@@ -121,13 +132,171 @@ public class RestfulEnclaveClientTest {
 
     PublicKey key = PublicKey.from("HELLOW".getBytes());
 
+    when(enclave.defaultPublicKey()).thenReturn(key);
     when(enclave.getForwardingKeys()).thenReturn(Collections.singleton(key));
 
     Set<PublicKey> result = enclaveClient.getForwardingKeys();
 
     assertThat(result).containsExactly(key);
 
-    verify(enclave).getForwardingKeys();
+    verifyKeysFetched(1);
+  }
+
+  @Test
+  public void keysAreCachedUntilRefreshInterval() {
+
+    PublicKey key = PublicKey.from("HELLOW".getBytes());
+    PublicKey otherKey = PublicKey.from("OTHER".getBytes());
+
+    when(enclave.defaultPublicKey()).thenReturn(key);
+    when(enclave.getPublicKeys()).thenReturn(Set.of(key, otherKey));
+    when(enclave.getForwardingKeys()).thenReturn(Set.of(otherKey));
+
+    assertThat(enclaveClient.defaultPublicKey()).isEqualTo(key);
+    assertThat(enclaveClient.getPublicKeys()).containsExactlyInAnyOrder(key, otherKey);
+    assertThat(enclaveClient.getForwardingKeys()).containsExactly(otherKey);
+    assertThat(enclaveClient.defaultPublicKey()).isEqualTo(key);
+
+    verifyKeysFetched(1);
+  }
+
+  @Test
+  public void unchangedKeysAreRevalidatedWithEtag() {
+
+    PublicKey key = PublicKey.from("HELLOW".getBytes());
+
+    when(enclave.defaultPublicKey()).thenReturn(key);
+    when(enclave.getPublicKeys()).thenReturn(Set.of(key));
+
+    RestfulEnclaveClient uncachedClient =
+        new RestfulEnclaveClient(
+            jersey.client(), jersey.target().getUri(), mock(ExecutorService.class), 0L);
+
+    Set<PublicKey> first = uncachedClient.getPublicKeys();
+    Set<PublicKey> second = uncachedClient.getPublicKeys();
+
+    assertThat(second).isSameAs(first).containsExactly(key);
+
+    verifyKeysFetched(2);
+  }
+
+  @Test
+  public void changedKeysAreFetchedOnRefresh() {
+
+    PublicKey key = PublicKey.from("HELLOW".getBytes());
+    PublicKey newKey = PublicKey.from("NEWKEY".getBytes());
+
+    when(enclave.defaultPublicKey()).thenReturn(key, newKey);
+
+    RestfulEnclaveClient uncachedClient =
+        new RestfulEnclaveClient(
+            jersey.client(), jersey.target().getUri(), mock(ExecutorService.class), 0L);
+
+    assertThat(uncachedClient.defaultPublicKey()).isEqualTo(key);
+    assertThat(uncachedClient.defaultPublicKey()).isEqualTo(newKey);
+
+    verifyKeysFetched(2);
+  }
+
+  @Test
+  public void cachedKeysAreServedWhileAnotherCallerRefreshes() throws Exception {
+
+    PublicKey key = PublicKey.from("HELLOW".getBytes());
+
+    when(enclave.defaultPublicKey()).thenReturn(key);
+    when(enclave.getPublicKeys()).thenReturn(Set.of(key));
+
+    CountDownLatch refreshStarted = new CountDownLatch(1);
+    CountDownLatch releaseRefresh = new CountDownLatch(1);
+    JerseyTest slowJersey =
+        server(
+            new EnclaveResource(enclave) {
+              @Override
+              public Response getKeys(String ifNoneMatch) {
+                if (Objects.nonNull(ifNoneMatch)) {
+                  refreshStarted.countDown();
+                  try {
+                    releaseRefresh.await();
+                  } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                  }
+                }
+                return super.getKeys(ifNoneMatch);
+              }
+            });
+    ExecutorService refresher = Executors.newSingleThreadExecutor();
+    try {
+      RestfulEnclaveClient uncachedClient =
+          new RestfulEnclaveClient(
+              slowJersey.client(), slowJersey.target().getUri(), mock(ExecutorService.class), 0L);
+
+      Set<PublicKey> first = uncachedClient.getPublicKeys();
+
+      Future<Set<PublicKey>> refreshed = refresher.submit(uncachedClient::getPublicKeys);
+      assertThat(refreshStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+      // the refresh is held up on the server, yet the cached keys are returned straight away
+      assertThat(uncachedClient.getPublicKeys()).isSameAs(first);
+
+      releaseRefresh.countDown();
+      assertThat(refreshed.get(5, TimeUnit.SECONDS)).isSameAs(first);
+
+      verifyKeysFetched(2);
+    } finally {
+      releaseRefresh.countDown();
+      refresher.shutdownNow();
+      slowJersey.tearDown();
+    }
+  }
+
+  @Test
+  public void keysAreFetchedSeparatelyFromEnclaveWithoutKeysEndpoint() throws Exception {
+
+    PublicKey key = PublicKey.from("HELLOW".getBytes());
+
+    when(enclave.defaultPublicKey()).thenReturn(key);
+    when(enclave.getPublicKeys()).thenReturn(Set.of(key));
+
+    // older servers map the not found exception for an unknown path to a 500 response
+    JerseyTest legacyJersey =
+        server(
+            new EnclaveResource(enclave) {
+              @Override
+              public Response getKeys(String ifNoneMatch) {
+                throw new NotFoundException();
+              }
+            });
+    try {
+      RestfulEnclaveClient legacyClient =
+          new RestfulEnclaveClient(legacyJersey.client(), legacyJersey.target().getUri());
+
+      assertThat(legacyClient.defaultPublicKey()).isEqualTo(key);
+      assertThat(legacyClient.getPublicKeys()).containsExactly(key);
+      assertThat(legacyClient.getForwardingKeys()).isEmpty();
+
+      verifyKeysFetched(1);
+    } finally {
+      legacyJersey.tearDown();
+    }
+  }
+
+  private static JerseyTest server(EnclaveResource resource) throws Exception {
+    JerseyTest server =
+        new JerseyTest() {
+          @Override
+          protected Application configure() {
+            set(TestProperties.CONTAINER_PORT, "0");
+            return new ResourceConfig().registerInstances(resource, new DefaultExceptionMapper());
+          }
+        };
+    server.setUp();
+    return server;
+  }
+
+  private void verifyKeysFetched(int times) {
+    verify(enclave, times(times)).defaultPublicKey();
+    verify(enclave, times(times)).getPublicKeys();
+    verify(enclave, times(times)).getForwardingKeys();
   }
 
   @Test
@@ -505,4 +674,200 @@ public class RestfulEnclaveClientTest {
       verify(enclave).defaultPublicKey();
     }
   }
+
+  @Test
+  public void failedBatchedCallIsReported() {
+
+    EncodedPayload payload = Fixtures.createSample();
+
+    when(enclave.unencryptTransaction(any(EncodedPayload.class), isNull()))
+        .thenThrow(new RuntimeException("OUCH"));
+
+    Throwable ex = catchThrowable(() -> enclaveClient.unencryptTransaction(payload, null));
+
+    assertThat(ex).isInstanceOf(EnclaveNotAvailableException.class).hasMessageContaining("OUCH");
+
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), isNull());
+  }
+
+  @Test
+  public void concurrentCallsAreBatched() throws Exception {
+
+    EncodedPayload payload = Fixtures.createSample();
+
+    when(enclave.createNewRecipientBox(any(EncodedPayload.class), any(PublicKey.class)))
+        .thenAnswer(
+            invocation -> invocation.getArgument(1, PublicKey.class).getKeyBytes().clone());
+
+    RestfulEnclaveClient batchingClient =
+        new RestfulEnclaveClient(
+            jersey.client(),
+            jersey.target().getUri(),
+            mock(ExecutorService.class),
+            RestfulEnclaveClient.DEFAULT_KEY_REFRESH_INTERVAL,
+            4,
+            2);
+
+    ExecutorService callers = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<byte[]>> results = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        PublicKey recipient = PublicKey.from(("RECIPIENT" + i).getBytes());
+        results.add(callers.submit(() -> batchingClient.createNewRecipientBox(payload, recipient)));
+      }
+
+      for (int i = 0; i < 40; i++) {
+        assertThat(results.get(i).get(5, TimeUnit.SECONDS))
+            .isEqualTo(("RECIPIENT" + i).getBytes());
+      }
+    } finally {
+      callers.shutdownNow();
+    }
+
+    verify(enclave, times(40))
+        .createNewRecipientBox(any(EncodedPayload.class), any(PublicKey.class));
+  }
+
+  @Test
+  public void senderReturnsOnceItsOwnCallIsDone() throws Exception {
+
+    EncodedPayload payload = Fixtures.createSample();
+
+    when(enclave.createNewRecipientBox(any(EncodedPayload.class), any(PublicKey.class)))
+        .thenAnswer(
+            invocation -> invocation.getArgument(1, PublicKey.class).getKeyBytes().clone());
+
+    List<CountDownLatch> releaseBatch = List.of(new CountDownLatch(1), new CountDownLatch(1));
+    AtomicInteger batchCount = new AtomicInteger();
+    JerseyTest slowJersey =
+        server(
+            new EnclaveResource(enclave) {
+              @Override
+              public Response batch(byte[] body) {
+                try {
+                  releaseBatch.get(batchCount.getAndIncrement()).await();
+                } catch (InterruptedException ex) {
+                  Thread.currentThread().interrupt();
+                }
+                return super.batch(body);
+              }
+            });
+    try {
+      RestfulEnclaveClient batchingClient =
+          new RestfulEnclaveClient(
+              slowJersey.client(),
+              slowJersey.target().getUri(),
+              mock(ExecutorService.class),
+              RestfulEnclaveClient.DEFAULT_KEY_REFRESH_INTERVAL,
+              1,
+              1);
+      PublicKey first = PublicKey.from("FIRST".getBytes());
+      PublicKey second = PublicKey.from("SECOND".getBytes());
+
+      FutureTask<byte[]> firstCall =
+          new FutureTask<>(() -> batchingClient.createNewRecipientBox(payload, first));
+      new Thread(firstCall).start();
+      await(() -> batchCount.get() == 1);
+
+      // queued while the first call holds the only permit
+      FutureTask<byte[]> secondCall =
+          new FutureTask<>(() -> batchingClient.createNewRecipientBox(payload, second));
+      Thread secondCaller = new Thread(secondCall);
+      secondCaller.start();
+      await(() -> secondCaller.getState() == Thread.State.WAITING);
+
+      releaseBatch.get(0).countDown();
+
+      // the first caller does not stay to send the second call's batch
+      assertThat(firstCall.get(5, TimeUnit.SECONDS)).isEqualTo(first.getKeyBytes());
+      await(() -> batchCount.get() == 2);
+      assertThat(secondCall.isDone()).isFalse();
+
+      releaseBatch.get(1).countDown();
+      assertThat(secondCall.get(5, TimeUnit.SECONDS)).isEqualTo(second.getKeyBytes());
+
+      verify(enclave, times(2))
+          .createNewRecipientBox(any(EncodedPayload.class), any(PublicKey.class));
+    } finally {
+      releaseBatch.forEach(CountDownLatch::countDown);
+      slowJersey.tearDown();
+    }
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertThat(System.nanoTime()).isLessThan(deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void callsAreSentSeparatelyToEnclaveWithoutBatchEndpoint() throws Exception {
+
+    EncodedPayload payload = Fixtures.createSample();
+    PublicKey providedKey = PublicKey.from("ProvidedKey".getBytes());
+
+    when(enclave.unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class)))
+        .thenReturn("SUCCESS".getBytes());
+
+    JerseyTest legacyJersey =
+        server(
+            new EnclaveResource(enclave) {
+              @Override
+              public Response batch(byte[] body) {
+                throw new NotFoundException();
+              }
+            });
+    try {
+      RestfulEnclaveClient legacyClient =
+          new RestfulEnclaveClient(legacyJersey.client(), legacyJersey.target().getUri());
+
+      assertThat(legacyClient.unencryptTransaction(payload, providedKey))
+          .isEqualTo("SUCCESS".getBytes());
+      assertThat(legacyClient.unencryptTransaction(payload, providedKey))
+          .isEqualTo("SUCCESS".getBytes());
+
+      verify(enclave, times(2))
+          .unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
+    } finally {
+      legacyJersey.tearDown();
+    }
+  }
+
+  @Test
+  public void zeroBatchSizeSendsCallsAsJson() throws Exception {
+
+    EncodedPayload payload = Fixtures.createSample();
+    PublicKey providedKey = PublicKey.from("ProvidedKey".getBytes());
+
+    when(enclave.createNewRecipientBox(any(EncodedPayload.class), any(PublicKey.class)))
+        .thenReturn("SUCCESS".getBytes());
+
+    JerseyTest jsonOnlyJersey =
+        server(
+            new EnclaveResource(enclave) {
+              @Override
+              public Response batch(byte[] body) {
+                throw new AssertionError("batch endpoint should not be called");
+              }
+            });
+    try {
+      RestfulEnclaveClient jsonClient =
+          new RestfulEnclaveClient(
+              jsonOnlyJersey.client(),
+              jsonOnlyJersey.target().getUri(),
+              mock(ExecutorService.class),
+              RestfulEnclaveClient.DEFAULT_KEY_REFRESH_INTERVAL,
+              0,
+              1);
+
+      assertThat(jsonClient.createNewRecipientBox(payload, providedKey))
+          .isEqualTo("SUCCESS".getBytes());
+
+      verify(enclave).createNewRecipientBox(any(EncodedPayload.class), any(PublicKey.class));
+    } finally {
+      jsonOnlyJersey.tearDown();
+    }
+  }
 }
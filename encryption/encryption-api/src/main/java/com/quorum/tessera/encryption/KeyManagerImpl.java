@@ -1,10 +1,13 @@
 package com.quorum.tessera.encryption;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,8 +15,8 @@ public class KeyManagerImpl implements KeyManager {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(KeyManagerImpl.class);
 
-  /** A list of all pub/priv keys that are attached to this node */
-  private final Set<KeyPair> localKeys;
+  /** All pub/priv keys that are attached to this node, swapped as a whole when keys are added */
+  private final AtomicReference<LocalKeys> localKeys;
 
   private final KeyPair defaultKeys;
 
@@ -21,28 +24,36 @@ public class KeyManagerImpl implements KeyManager {
 
   public KeyManagerImpl(final Collection<KeyPair> keys, Collection<PublicKey> forwardKeys) {
 
-    this.localKeys = new HashSet<>(keys);
+    final Set<KeyPair> keyPairs = new HashSet<>(keys);
 
-    this.defaultKeys = localKeys.iterator().next();
+    this.localKeys = new AtomicReference<>(new LocalKeys(keyPairs));
+
+    this.defaultKeys = keyPairs.iterator().next();
 
     this.forwardingPublicKeys = new HashSet<>(forwardKeys);
   }
 
+  /**
+   * Adds key pairs to those attached to this node. Lookups see either all of the new keys or none
+   * of them, and the default key is left unchanged.
+   *
+   * @param keys the key pairs to add
+   */
+  public void addKeys(final Collection<KeyPair> keys) {
+    localKeys.updateAndGet(current -> current.with(keys));
+  }
+
   @Override
   public PublicKey getPublicKeyForPrivateKey(final PrivateKey privateKey) {
     LOGGER.debug("Attempting to find public key for the private key {}", privateKey);
 
-    final PublicKey publicKey =
-        localKeys.stream()
-            .filter(keypair -> Objects.equals(keypair.getPrivateKey(), privateKey))
-            .findFirst()
-            .map(KeyPair::getPublicKey)
-            .orElseThrow(
-                () ->
-                    new KeyNotFoundException(
-                        "Private key "
-                            + privateKey.encodeToBase64()
-                            + " not found when searching for public key"));
+    final PublicKey publicKey = localKeys.get().publicKeys.get(privateKey);
+    if (Objects.isNull(publicKey)) {
+      throw new KeyNotFoundException(
+          "Private key "
+              + privateKey.encodeToBase64()
+              + " not found when searching for public key");
+    }
 
     LOGGER.debug("Found public key {} for private key {}", publicKey, privateKey);
 
@@ -53,26 +64,23 @@ public class KeyManagerImpl implements KeyManager {
   public PrivateKey getPrivateKeyForPublicKey(final PublicKey publicKey) {
     LOGGER.debug("Attempting to find private key for the public key {}", publicKey);
 
-    final PrivateKey privateKey =
-        localKeys.stream()
-            .filter(keypair -> Objects.equals(keypair.getPublicKey(), publicKey))
-            .findFirst()
-            .map(KeyPair::getPrivateKey)
-            .orElseThrow(
-                () ->
-                    new KeyNotFoundException(
-                        "Public key "
-                            + publicKey.encodeToBase64()
-                            + " not found when searching for private key"));
+    final PrivateKey privateKey = localKeys.get().privateKeys.get(publicKey);
+    if (Objects.isNull(privateKey)) {
+      throw new KeyNotFoundException(
+          "Public key "
+              + publicKey.encodeToBase64()
+              + " not found when searching for private key");
+    }
 
     LOGGER.debug("Found private key {} for public key {}", privateKey, publicKey);
 
     return privateKey;
   }
 
+  /** @return an unmodifiable view of the public keys, shared between calls until keys are added */
   @Override
   public Set<PublicKey> getPublicKeys() {
-    return localKeys.stream().map(KeyPair::getPublicKey).collect(Collectors.toSet());
+    return localKeys.get().publicKeySet;
   }
 
   @Override
@@ -84,4 +92,36 @@ public class KeyManagerImpl implements KeyManager {
   public Set<PublicKey> getForwardingKeys() {
     return this.forwardingPublicKeys;
   }
+
+  /** An immutable snapshot of the local keys, indexed by both halves of each pair */
+  private static final class LocalKeys {
+
+    private final Set<KeyPair> keyPairs;
+
+    private final Map<PublicKey, PrivateKey> privateKeys;
+
+    private final Map<PrivateKey, PublicKey> publicKeys;
+
+    private final Set<PublicKey> publicKeySet;
+
+    private LocalKeys(final Set<KeyPair> keyPairs) {
+      final Map<PublicKey, PrivateKey> privateKeys = new HashMap<>(keyPairs.size() * 2);
+      final Map<PrivateKey, PublicKey> publicKeys = new HashMap<>(keyPairs.size() * 2);
+      for (final KeyPair keyPair : keyPairs) {
+        privateKeys.put(keyPair.getPublicKey(), keyPair.getPrivateKey());
+        publicKeys.put(keyPair.getPrivateKey(), keyPair.getPublicKey());
+      }
+
+      this.keyPairs = keyPairs;
+      this.privateKeys = privateKeys;
+      this.publicKeys = publicKeys;
+      this.publicKeySet = Collections.unmodifiableSet(privateKeys.keySet());
+    }
+
+    private LocalKeys with(final Collection<KeyPair> added) {
+      final Set<KeyPair> combined = new HashSet<>(keyPairs);
+      combined.addAll(added);
+      return new LocalKeys(combined);
+    }
+  }
 }
@@ -5,8 +5,11 @@ import static java.util.Collections.singleton;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -80,6 +83,57 @@ public class KeyManagerTest {
     assertThat(publicKeys.iterator().next()).isEqualTo(PUBLIC_KEY);
   }
 
+  @Test
+  public void getPublicKeysIsSharedAndUnmodifiable() {
+    final Set<PublicKey> publicKeys = this.keyManager.getPublicKeys();
+
+    assertThat(this.keyManager.getPublicKeys()).isSameAs(publicKeys);
+
+    final Throwable throwable = catchThrowable(() -> publicKeys.add(FORWARDING_KEY));
+
+    assertThat(throwable).isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void keysFoundAmongManyKeyPairs() {
+    final List<KeyPair> keyPairs =
+        IntStream.range(0, 1000)
+            .mapToObj(
+                i ->
+                    new KeyPair(
+                        PublicKey.from(("publicKey" + i).getBytes()),
+                        PrivateKey.from(("privateKey" + i).getBytes())))
+            .collect(Collectors.toList());
+
+    final KeyManager manyKeysManager = new KeyManagerImpl(keyPairs, emptyList());
+
+    assertThat(manyKeysManager.getPublicKeys()).hasSize(1000);
+    assertThat(manyKeysManager.getPrivateKeyForPublicKey(keyPairs.get(500).getPublicKey()))
+        .isEqualTo(keyPairs.get(500).getPrivateKey());
+    assertThat(manyKeysManager.getPublicKeyForPrivateKey(keyPairs.get(999).getPrivateKey()))
+        .isEqualTo(keyPairs.get(999).getPublicKey());
+  }
+
+  @Test
+  public void addedKeysReplaceTheKeySet() {
+    final PublicKey addedPublicKey = PublicKey.from("addedPublicKey".getBytes());
+    final PrivateKey addedPrivateKey = PrivateKey.from("addedPrivateKey".getBytes());
+    final Set<PublicKey> before = this.keyManager.getPublicKeys();
+
+    ((KeyManagerImpl) this.keyManager)
+        .addKeys(singleton(new KeyPair(addedPublicKey, addedPrivateKey)));
+
+    assertThat(before).containsExactly(PUBLIC_KEY);
+    assertThat(this.keyManager.getPublicKeys())
+        .containsExactlyInAnyOrder(PUBLIC_KEY, addedPublicKey);
+    assertThat(this.keyManager.getPrivateKeyForPublicKey(addedPublicKey))
+        .isEqualTo(addedPrivateKey);
+    assertThat(this.keyManager.getPublicKeyForPrivateKey(addedPrivateKey))
+        .isEqualTo(addedPublicKey);
+    assertThat(this.keyManager.getPrivateKeyForPublicKey(PUBLIC_KEY)).isEqualTo(PRIVATE_KEY);
+    assertThat(this.keyManager.defaultPublicKey()).isEqualTo(PUBLIC_KEY);
+  }
+
   @Test
   public void defaultKeyIsPopulated() {
     // the key manager is already set up with a keypair, so just check that
@@ -1,11 +1,11 @@
 package com.quorum.tessera.multitenancy.migration;
 
 import com.quorum.tessera.data.EncryptedRawTransaction;
+import com.quorum.tessera.data.PageCursor;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.TypedQuery;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.IntStream;
 
 public class RawTransactionMigrator {
 
@@ -23,22 +23,12 @@ public class RawTransactionMigrator {
 
   public void migrate() {
 
-    final long secondaryTxCount =
-        secondaryEntityManager
-            .createQuery("select count(e) from EncryptedRawTransaction e", Long.class)
-            .getSingleResult();
-    final int batchCount = calculateBatchCount(maxBatchSize, secondaryTxCount);
-
-    IntStream.range(0, batchCount)
-        .map(i -> i * maxBatchSize)
-        .mapToObj(
-            offset ->
-                secondaryEntityManager
-                    .createNamedQuery(
-                        "EncryptedRawTransaction.FindAll", EncryptedRawTransaction.class)
-                    .setFirstResult(offset)
-                    .setMaxResults(maxBatchSize))
-        .flatMap(TypedQuery::getResultStream)
+    PageCursor.pages(
+            cursor ->
+                cursor.fetch(secondaryEntityManager, EncryptedRawTransaction.class, maxBatchSize),
+            ert -> PageCursor.after(ert.getTimestamp(), ert.getHash()),
+            maxBatchSize)
+        .flatMap(List::stream)
         .forEach(
             ert -> {
               final Optional<EncryptedRawTransaction> existing =
@@ -51,8 +41,4 @@ public class RawTransactionMigrator {
               }
             });
   }
-
-  private static int calculateBatchCount(final long maxResults, final long total) {
-    return (int) Math.ceil((double) total / maxResults);
-  }
 }
@@ -0,0 +1,29 @@
+package com.quorum.tessera.jaxrs.jetty;
+
+/**
+ * Gauges exposed over JMX for the connection pools of a {@link JettyConnector}, summed over every
+ * destination the client has connected to
+ */
+public interface ClientConnectionPoolMXBean {
+
+  /** The number of remote servers the client holds a connection pool for */
+  int getDestinationCount();
+
+  int getConnectionCount();
+
+  /** The number of connections that are carrying a request */
+  int getActiveConnectionCount();
+
+  int getIdleConnectionCount();
+
+  /** The number of connections that are being opened */
+  int getPendingConnectionCount();
+
+  int getMaxConnectionCount();
+
+  /** The number of requests waiting for a free connection */
+  int getQueuedRequestCount();
+
+  /** The share of the allowed connections that are carrying a request, between 0 and 1 */
+  double getUtilisation();
+}
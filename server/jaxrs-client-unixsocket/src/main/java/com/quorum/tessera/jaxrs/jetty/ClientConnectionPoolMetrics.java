@@ -0,0 +1,77 @@
+package com.quorum.tessera.jaxrs.jetty;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import org.eclipse.jetty.client.AbstractConnectionPool;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpDestination;
+
+/** Reads the pool gauges of a {@link HttpClient} each time they are asked for */
+class ClientConnectionPoolMetrics implements ClientConnectionPoolMXBean {
+
+  static final String MBEAN_TYPE = "ClientConnectionPool";
+
+  private final HttpClient httpClient;
+
+  ClientConnectionPoolMetrics(HttpClient httpClient) {
+    this.httpClient = httpClient;
+  }
+
+  @Override
+  public int getDestinationCount() {
+    return httpClient.getDestinations().size();
+  }
+
+  @Override
+  public int getConnectionCount() {
+    return sumOverPools(AbstractConnectionPool::getConnectionCount);
+  }
+
+  @Override
+  public int getActiveConnectionCount() {
+    return sumOverPools(AbstractConnectionPool::getActiveConnectionCount);
+  }
+
+  @Override
+  public int getIdleConnectionCount() {
+    return sumOverPools(AbstractConnectionPool::getIdleConnectionCount);
+  }
+
+  @Override
+  public int getPendingConnectionCount() {
+    return sumOverPools(AbstractConnectionPool::getPendingConnectionCount);
+  }
+
+  @Override
+  public int getMaxConnectionCount() {
+    return sumOverPools(AbstractConnectionPool::getMaxConnectionCount);
+  }
+
+  @Override
+  public int getQueuedRequestCount() {
+    return destinations().stream().mapToInt(HttpDestination::getQueuedRequestCount).sum();
+  }
+
+  @Override
+  public double getUtilisation() {
+    final int max = getMaxConnectionCount();
+    return max == 0 ? 0 : (double) getActiveConnectionCount() / max;
+  }
+
+  private int sumOverPools(ToIntFunction<AbstractConnectionPool> gauge) {
+    return destinations().stream()
+        .map(HttpDestination::getConnectionPool)
+        .filter(AbstractConnectionPool.class::isInstance)
+        .map(AbstractConnectionPool.class::cast)
+        .mapToInt(gauge)
+        .sum();
+  }
+
+  private List<HttpDestination> destinations() {
+    return httpClient.getDestinations().stream()
+        .filter(HttpDestination.class::isInstance)
+        .map(HttpDestination.class::cast)
+        .collect(Collectors.toList());
+  }
+}
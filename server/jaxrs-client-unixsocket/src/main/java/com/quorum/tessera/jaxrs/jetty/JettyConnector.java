@@ -0,0 +1,288 @@
+package com.quorum.tessera.jaxrs.jetty;
+
+import static com.quorum.tessera.jaxrs.jetty.JettyConnectorProvider.*;
+
+import com.quorum.tessera.metrics.MBeanRegistry;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.HttpClientTransport;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.dynamic.HttpClientTransportDynamic;
+import org.eclipse.jetty.client.http.HttpClientConnectionFactory;
+import org.eclipse.jetty.client.util.InputStreamResponseListener;
+import org.eclipse.jetty.client.util.OutputStreamRequestContent;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.client.http.ClientConnectionFactoryOverHTTP2;
+import org.eclipse.jetty.io.ClientConnectionFactory;
+import org.eclipse.jetty.io.ClientConnector;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.message.internal.Statuses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Jersey connector backed by the Jetty {@link HttpClient}, which keeps a pool of connections to
+ * each destination and can speak HTTP/2.
+ *
+ * <p>With HTTP/2 enabled, TLS connections offer both h2 and HTTP/1.1 through ALPN and use
+ * whichever the server picks. Clear text connections use HTTP/1.1, unless prior knowledge is
+ * enabled, in which case they start straight away with h2c; that only works if every peer accepts
+ * h2c.
+ *
+ * <p>The limits on connections and queued requests apply to each destination separately. The
+ * pools are reported as an MBean named {@code com.quorum.tessera:type=ClientConnectionPool,name=
+ * <name>-<n>}, where the name is taken from the {@link JettyConnectorProvider#NAME} property.
+ *
+ * <p>A connection stays taken until its response has been read. Responses without an entity, or
+ * with one of at most {@link #BUFFERED_ENTITY_LIMIT} bytes, are therefore read before they are
+ * returned, so that callers that only look at the status do not hold on to a connection.
+ */
+public class JettyConnector implements Connector {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(JettyConnector.class);
+
+  private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+  static final int BUFFERED_ENTITY_LIMIT = 8192;
+
+  private final HttpClient httpClient;
+
+  private final boolean http2PriorKnowledge;
+
+  private final String name;
+
+  public JettyConnector(
+      SSLContext sslContext, HostnameVerifier hostnameVerifier, Configuration config) {
+
+    final SslContextFactory.Client sslContextFactory = new SslContextFactory.Client();
+    if (Objects.nonNull(sslContext)) {
+      sslContextFactory.setSslContext(sslContext);
+    }
+    if (Objects.nonNull(hostnameVerifier)) {
+      sslContextFactory.setEndpointIdentificationAlgorithm(null);
+      sslContextFactory.setHostnameVerifier(hostnameVerifier);
+    }
+
+    final ClientConnector clientConnector = new ClientConnector();
+    clientConnector.setSslContextFactory(sslContextFactory);
+
+    final boolean http2 = booleanProperty(config, HTTP2);
+
+    final List<ClientConnectionFactory.Info> protocols = new ArrayList<>();
+    if (http2) {
+      protocols.add(new ClientConnectionFactoryOverHTTP2.HTTP2(new HTTP2Client(clientConnector)));
+    }
+    protocols.add(HttpClientConnectionFactory.HTTP11);
+
+    final HttpClientTransport transport =
+        new HttpClientTransportDynamic(
+            clientConnector, protocols.toArray(ClientConnectionFactory.Info[]::new));
+
+    this.httpClient = new HttpClient(transport);
+    this.http2PriorKnowledge = http2 && booleanProperty(config, HTTP2_PRIOR_KNOWLEDGE);
+    this.name =
+        Objects.toString(config.getProperty(NAME), "client") + "-" + SEQUENCE.incrementAndGet();
+
+    final long connectTimeout = longProperty(config, ClientProperties.CONNECT_TIMEOUT, 0);
+    if (connectTimeout > 0) {
+      httpClient.setConnectTimeout(connectTimeout);
+    }
+    httpClient.setIdleTimeout(longProperty(config, IDLE_TIMEOUT, DEFAULT_IDLE_TIMEOUT));
+    httpClient.setMaxConnectionsPerDestination(
+        (int)
+            longProperty(
+                config, MAX_CONNECTIONS_PER_DESTINATION, DEFAULT_MAX_CONNECTIONS_PER_DESTINATION));
+    httpClient.setMaxRequestsQueuedPerDestination(
+        (int)
+            longProperty(
+                config,
+                MAX_REQUESTS_QUEUED_PER_DESTINATION,
+                DEFAULT_MAX_REQUESTS_QUEUED_PER_DESTINATION));
+
+    try {
+      httpClient.start();
+    } catch (Exception ex) {
+      throw new ProcessingException(ex);
+    }
+
+    MBeanRegistry.register(
+        new ClientConnectionPoolMetrics(httpClient), ClientConnectionPoolMetrics.MBEAN_TYPE, name);
+  }
+
+  private static boolean booleanProperty(Configuration config, String property) {
+    return Boolean.parseBoolean(Objects.toString(config.getProperty(property), null));
+  }
+
+  private static long longProperty(Configuration config, String property, long defaultValue) {
+    final Object value = config.getProperty(property);
+    return Objects.isNull(value) ? defaultValue : Long.parseLong(value.toString());
+  }
+
+  @Override
+  public ClientResponse apply(ClientRequest request) {
+    try {
+      return doApply(request);
+    } catch (ProcessingException ex) {
+      throw ex;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ProcessingException(ex);
+    } catch (Exception ex) {
+      throw new ProcessingException(ex);
+    }
+  }
+
+  private ClientResponse doApply(ClientRequest request) throws Exception {
+
+    final URI uri = request.getUri();
+    final Request clientRequest = httpClient.newRequest(uri).method(request.getMethod());
+
+    // h2 is negotiated over TLS, but in clear text the protocol has to be chosen up front
+    if (!http2PriorKnowledge && "http".equalsIgnoreCase(uri.getScheme())) {
+      clientRequest.version(HttpVersion.HTTP_1_1);
+    }
+
+    final int readTimeout = request.resolveProperty(ClientProperties.READ_TIMEOUT, 0);
+    if (readTimeout > 0) {
+      clientRequest.idleTimeout(readTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    final MultivaluedMap<String, String> headers = request.getStringHeaders();
+    headers.forEach(
+        (name, values) -> values.forEach(value -> clientRequest.headers(h -> h.add(name, value))));
+
+    final InputStreamResponseListener listener = new InputStreamResponseListener();
+    if (request.hasEntity()) {
+      // the entity is written straight to the connection once the request is sent, rather than
+      // being serialised into a buffer first
+      final OutputStreamRequestContent content =
+          new OutputStreamRequestContent(request.getHeaderString(HttpHeaders.CONTENT_TYPE));
+      clientRequest.body(content);
+      clientRequest.send(listener);
+      try (OutputStream out = content.getOutputStream()) {
+        request.setStreamProvider(contentLength -> out);
+        request.writeEntity();
+      } catch (IOException | RuntimeException ex) {
+        clientRequest.abort(ex);
+        throw ex;
+      }
+    } else {
+      clientRequest.send(listener);
+    }
+
+    final org.eclipse.jetty.client.api.Response response;
+    try {
+      response =
+          readTimeout > 0
+              ? listener.get(readTimeout, TimeUnit.MILLISECONDS)
+              : listener.get(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      clientRequest.abort(ex);
+      throw new ProcessingException(ex);
+    } catch (ExecutionException ex) {
+      // keep the cause, such as a ConnectException, visible to callers
+      throw new ProcessingException(ex.getCause());
+    }
+
+    LOGGER.trace(
+        "uri {}, method: {}, version: {}, status: {}",
+        uri,
+        request.getMethod(),
+        response.getVersion(),
+        response.getStatus());
+
+    final Response.StatusType status = Statuses.from(response.getStatus(), response.getReason());
+    final ClientResponse clientResponse = new ClientResponse(status, request);
+    response
+        .getHeaders()
+        .forEach(header -> clientResponse.headers(header.getName(), (Object[]) header.getValues()));
+
+    final InputStream entityStream = listener.getInputStream();
+    final long contentLength = response.getHeaders().getLongField(HttpHeader.CONTENT_LENGTH);
+    if (!hasEntity(request.getMethod(), response.getStatus(), contentLength)) {
+      entityStream.close();
+      clientResponse.setEntityStream(InputStream.nullInputStream());
+    } else if (contentLength > 0 && contentLength <= BUFFERED_ENTITY_LIMIT) {
+      try (entityStream) {
+        clientResponse.setEntityStream(new ByteArrayInputStream(entityStream.readAllBytes()));
+      }
+    } else {
+      clientResponse.setEntityStream(entityStream);
+    }
+    return clientResponse;
+  }
+
+  private static boolean hasEntity(String method, int status, long contentLength) {
+    return contentLength != 0
+        && !HttpMethod.HEAD.is(method)
+        && !HttpStatus.isInformational(status)
+        && status != HttpStatus.NO_CONTENT_204
+        && status != HttpStatus.NOT_MODIFIED_304;
+  }
+
+  @Override
+  public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+    return CompletableFuture.runAsync(
+        () -> {
+          try {
+            callback.response(apply(request));
+          } catch (Throwable t) {
+            callback.failure(t);
+          }
+        },
+        httpClient.getExecutor());
+  }
+
+  HttpClient getHttpClient() {
+    return httpClient;
+  }
+
+  /** The name the connection pool metrics are registered under */
+  String getPoolName() {
+    return name;
+  }
+
+  @Override
+  public String getName() {
+    return getClass().getSimpleName();
+  }
+
+  @Override
+  public void close() {
+    MBeanRegistry.unregister(ClientConnectionPoolMetrics.MBEAN_TYPE, name);
+    try {
+      httpClient.stop();
+    } catch (Exception ex) {
+      LOGGER.debug("Unable to stop http client", ex);
+    }
+  }
+}
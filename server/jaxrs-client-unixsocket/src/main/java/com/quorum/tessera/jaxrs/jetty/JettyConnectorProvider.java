@@ -0,0 +1,38 @@
+package com.quorum.tessera.jaxrs.jetty;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.core.Configuration;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+public class JettyConnectorProvider implements ConnectorProvider {
+
+  /** Client property enabling HTTP/2, negotiated through ALPN over TLS */
+  public static final String HTTP2 = "tessera.http2";
+
+  /** Client property making clear text connections use h2c without negotiation */
+  public static final String HTTP2_PRIOR_KNOWLEDGE = "tessera.http2.priorKnowledge";
+
+  /** Client property naming the connection pool metrics */
+  public static final String NAME = "tessera.client.name";
+
+  public static final String MAX_CONNECTIONS_PER_DESTINATION =
+      "tessera.client.maxConnectionsPerDestination";
+
+  public static final String MAX_REQUESTS_QUEUED_PER_DESTINATION =
+      "tessera.client.maxRequestsQueuedPerDestination";
+
+  /** Client property for how long, in milliseconds, an unused connection stays in the pool */
+  public static final String IDLE_TIMEOUT = "tessera.client.idleTimeout";
+
+  public static final int DEFAULT_MAX_CONNECTIONS_PER_DESTINATION = 64;
+
+  public static final int DEFAULT_MAX_REQUESTS_QUEUED_PER_DESTINATION = 1024;
+
+  public static final long DEFAULT_IDLE_TIMEOUT = 30000L;
+
+  @Override
+  public Connector getConnector(Client client, Configuration runtimeConfig) {
+    return new JettyConnector(client.getSslContext(), client.getHostnameVerifier(), runtimeConfig);
+  }
+}
@@ -1,12 +1,18 @@
 module tessera.server.jersey.unixsocket {
   requires jakarta.ws.rs;
+  requires java.management;
   requires jersey.client;
   requires jersey.common;
   requires org.eclipse.jetty.client;
   requires org.eclipse.jetty.http;
+  requires org.eclipse.jetty.http2.client;
+  requires org.eclipse.jetty.http2.http.client.transport;
+  requires org.eclipse.jetty.io;
   requires org.eclipse.jetty.util;
   requires org.slf4j;
+  requires tessera.shared;
   requires org.eclipse.jetty.unixsocket.client;
 
+  exports com.quorum.tessera.jaxrs.jetty;
   exports com.quorum.tessera.jaxrs.unixsocket;
 }
@@ -0,0 +1,134 @@
+package com.quorum.tessera.jaxrs.jetty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quorum.tessera.metrics.MBeanRegistry;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.eclipse.jetty.client.HttpClient;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.junit.Test;
+
+public class JettyConnectorTest {
+
+  private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+  @Test
+  public void poolIsConfiguredFromProperties() {
+    final ClientConfig config =
+        new ClientConfig()
+            .property(ClientProperties.CONNECT_TIMEOUT, 500)
+            .property(JettyConnectorProvider.IDLE_TIMEOUT, 1000L)
+            .property(JettyConnectorProvider.MAX_CONNECTIONS_PER_DESTINATION, 8)
+            .property(JettyConnectorProvider.MAX_REQUESTS_QUEUED_PER_DESTINATION, 16);
+
+    final JettyConnector connector = new JettyConnector(null, null, config);
+    try {
+      final HttpClient httpClient = connector.getHttpClient();
+      assertThat(httpClient.getConnectTimeout()).isEqualTo(500);
+      assertThat(httpClient.getIdleTimeout()).isEqualTo(1000);
+      assertThat(httpClient.getMaxConnectionsPerDestination()).isEqualTo(8);
+      assertThat(httpClient.getMaxRequestsQueuedPerDestination()).isEqualTo(16);
+    } finally {
+      connector.close();
+    }
+  }
+
+  @Test
+  public void poolDefaultsWhenPropertiesAreMissing() {
+    final JettyConnector connector = new JettyConnector(null, null, new ClientConfig());
+    try {
+      final HttpClient httpClient = connector.getHttpClient();
+      assertThat(httpClient.getIdleTimeout())
+          .isEqualTo(JettyConnectorProvider.DEFAULT_IDLE_TIMEOUT);
+      assertThat(httpClient.getMaxConnectionsPerDestination())
+          .isEqualTo(JettyConnectorProvider.DEFAULT_MAX_CONNECTIONS_PER_DESTINATION);
+      assertThat(httpClient.getMaxRequestsQueuedPerDestination())
+          .isEqualTo(JettyConnectorProvider.DEFAULT_MAX_REQUESTS_QUEUED_PER_DESTINATION);
+    } finally {
+      connector.close();
+    }
+  }
+
+  @Test
+  public void poolMetricsAreRegisteredUntilClosed() throws Exception {
+    final JettyConnector connector =
+        new JettyConnector(
+            null, null, new ClientConfig().property(JettyConnectorProvider.NAME, "P2P"));
+
+    final ObjectName objectName =
+        MBeanRegistry.objectName(ClientConnectionPoolMetrics.MBEAN_TYPE, connector.getPoolName());
+
+    assertThat(connector.getPoolName()).startsWith("P2P-");
+    assertThat(mBeanServer.isRegistered(objectName)).isTrue();
+    assertThat(mBeanServer.getAttribute(objectName, "DestinationCount")).isEqualTo(0);
+    assertThat(mBeanServer.getAttribute(objectName, "ActiveConnectionCount")).isEqualTo(0);
+    assertThat(mBeanServer.getAttribute(objectName, "Utilisation")).isEqualTo(0.0);
+
+    connector.close();
+
+    assertThat(mBeanServer.isRegistered(objectName)).isFalse();
+  }
+
+  @Test
+  public void eachConnectorHasItsOwnPoolName() {
+    final JettyConnector first = new JettyConnector(null, null, new ClientConfig());
+    final JettyConnector second = new JettyConnector(null, null, new ClientConfig());
+
+    assertThat(first.getPoolName()).startsWith("client-").isNotEqualTo(second.getPoolName());
+
+    first.close();
+    second.close();
+  }
+
+  @Test(timeout = 20000)
+  public void statusOnlyCallsDoNotExhaustThePool() throws Exception {
+    final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/empty",
+        exchange -> {
+          exchange.sendResponseHeaders(204, -1);
+          exchange.close();
+        });
+    server.createContext(
+        "/upcheck",
+        exchange -> {
+          final byte[] body = "I'm up!".getBytes();
+          exchange.sendResponseHeaders(200, body.length);
+          exchange.getResponseBody().write(body);
+          exchange.close();
+        });
+    server.start();
+
+    final Client client =
+        ClientBuilder.newClient(
+            new ClientConfig()
+                .connectorProvider(new JettyConnectorProvider())
+                .property(ClientProperties.READ_TIMEOUT, 2000)
+                .property(JettyConnectorProvider.MAX_CONNECTIONS_PER_DESTINATION, 1)
+                .property(JettyConnectorProvider.MAX_REQUESTS_QUEUED_PER_DESTINATION, 1));
+    try {
+      final URI uri = URI.create("http://localhost:" + server.getAddress().getPort());
+
+      // none of the responses are read or closed, which would leave the only connection taken
+      for (int i = 0; i < 10; i++) {
+        assertThat(client.target(uri).path("empty").request().get().getStatus()).isEqualTo(204);
+        assertThat(client.target(uri).path("upcheck").request().get().getStatus())
+            .isEqualTo(200);
+      }
+
+      assertThat(client.target(uri).path("upcheck").request().get(String.class))
+          .isEqualTo("I'm up!");
+    } finally {
+      client.close();
+      server.stop(0);
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.quorum.tessera.server.monitoring;
 
 import com.quorum.tessera.config.AppType;
 import com.quorum.tessera.config.InfluxConfig;
+import com.quorum.tessera.metrics.LatencyMetrics;
 import com.quorum.tessera.ssl.context.ClientSSLContextFactory;
 import com.quorum.tessera.ssl.context.SSLContextFactory;
 import jakarta.ws.rs.client.Client;
@@ -13,6 +14,8 @@ import jakarta.ws.rs.core.Response;
 import java.lang.management.ManagementFactory;
 import java.net.URI;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.management.MBeanServer;
 import javax.net.ssl.SSLContext;
 
@@ -39,7 +42,12 @@ public class InfluxDbClient {
     List<MBeanMetric> metrics = metricsEnquirer.getMBeanMetrics(appType);
 
     InfluxDbProtocolFormatter formatter = new InfluxDbProtocolFormatter();
-    String formattedMetrics = formatter.format(metrics, tesseraAppUri, appType);
+    String formattedMetrics =
+        Stream.of(
+                formatter.format(metrics, tesseraAppUri, appType),
+                formatter.formatLatencyHistograms(LatencyMetrics.snapshots(), tesseraAppUri))
+            .filter(s -> !s.isEmpty())
+            .collect(Collectors.joining("\n"));
 
     ClientBuilder clientBuilder = ClientBuilder.newBuilder();
 
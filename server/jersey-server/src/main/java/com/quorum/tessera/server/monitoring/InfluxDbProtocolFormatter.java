@@ -1,8 +1,10 @@
 package com.quorum.tessera.server.monitoring;
 
 import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.metrics.LatencyHistogram;
 import java.net.URI;
 import java.util.List;
+import java.util.Objects;
 
 public class InfluxDbProtocolFormatter {
 
@@ -30,6 +32,45 @@ public class InfluxDbProtocolFormatter {
     return formattedMetrics.toString().trim();
   }
 
+  /**
+   * Formats each stage latency as one point, tagged with the stage and, where measured per peer,
+   * the peer. The fields are the count and sum of the recorded latencies and estimates of the
+   * median, 95th and 99th percentile, all in seconds.
+   */
+  public String formatLatencyHistograms(List<LatencyHistogram.Snapshot> snapshots, URI uri) {
+    StringBuilder formattedMetrics = new StringBuilder();
+
+    for (LatencyHistogram.Snapshot snapshot : snapshots) {
+      formattedMetrics
+          .append("tessera_latency")
+          .append(",instance=")
+          .append(uri)
+          .append(",stage=")
+          .append(escapeTag(snapshot.getStage()));
+      if (Objects.nonNull(snapshot.getPeer())) {
+        formattedMetrics.append(",peer=").append(escapeTag(snapshot.getPeer()));
+      }
+      formattedMetrics
+          .append(" count=")
+          .append(snapshot.getCount())
+          .append(",sum=")
+          .append(snapshot.getSumSeconds())
+          .append(",p50=")
+          .append(snapshot.getQuantileSeconds(0.5))
+          .append(",p95=")
+          .append(snapshot.getQuantileSeconds(0.95))
+          .append(",p99=")
+          .append(snapshot.getQuantileSeconds(0.99))
+          .append("\n");
+    }
+
+    return formattedMetrics.toString().trim();
+  }
+
+  private String escapeTag(String value) {
+    return value.replaceAll("([, =])", "\\\\$1");
+  }
+
   private String sanitize(String input) {
     return input
         .replaceAll("(#.*)|(_total)|\\(\\)|\\)|\\[\\]|\\]|;", "")
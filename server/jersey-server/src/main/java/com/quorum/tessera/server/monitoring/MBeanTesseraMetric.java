@@ -0,0 +1,37 @@
+package com.quorum.tessera.server.monitoring;
+
+/** A gauge or counter read from one of tessera's own MBeans, rather than from Jersey */
+public class MBeanTesseraMetric implements MBeanMetric {
+
+  private String type;
+
+  private String instanceName;
+
+  private String name;
+
+  private String value;
+
+  public MBeanTesseraMetric(String type, String instanceName, String name, String value) {
+    this.type = type;
+    this.instanceName = instanceName;
+    this.name = name;
+    this.value = value;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  /** The name of the MBean within its type, or null if there is only one of that type */
+  public String getInstanceName() {
+    return instanceName;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getValue() {
+    return value;
+  }
+}
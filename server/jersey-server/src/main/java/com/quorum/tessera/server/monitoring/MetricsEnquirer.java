@@ -1,15 +1,24 @@
 package com.quorum.tessera.server.monitoring;
 
 import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.metrics.MBeanRegistry;
 import java.util.*;
+import java.util.function.Supplier;
 import javax.management.*;
 
 public class MetricsEnquirer {
 
   private MBeanServer mBeanServer;
 
+  private Supplier<Set<ObjectName>> tesseraMBeanNames;
+
   public MetricsEnquirer(MBeanServer mBeanServer) {
+    this(mBeanServer, MBeanRegistry::objectNames);
+  }
+
+  MetricsEnquirer(MBeanServer mBeanServer, Supplier<Set<ObjectName>> tesseraMBeanNames) {
     this.mBeanServer = mBeanServer;
+    this.tesseraMBeanNames = tesseraMBeanNames;
   }
 
   public List<MBeanMetric> getMBeanMetrics(AppType appType) {
@@ -40,6 +49,45 @@ public class MetricsEnquirer {
     return Collections.unmodifiableList(mBeanMetrics);
   }
 
+  /**
+   * Reads the numeric attributes of every MBean that tessera registers itself, such as the queue
+   * depth and active task count of each bounded executor. The names come from {@link
+   * MBeanRegistry}, which records them as they are registered, so no query is run per scrape.
+   */
+  public List<MBeanMetric> getTesseraMetrics() {
+    List<MBeanMetric> mBeanMetrics = new ArrayList<>();
+
+    for (ObjectName mBeanName : this.tesseraMBeanNames.get()) {
+      try {
+        mBeanMetrics.addAll(getTesseraMetricsForMBean(mBeanName));
+      } catch (InstanceNotFoundException e) {
+        // the component shut down while being read, so there is nothing left to report
+      } catch (JMException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    return Collections.unmodifiableList(mBeanMetrics);
+  }
+
+  private List<MBeanMetric> getTesseraMetricsForMBean(ObjectName mBeanName) throws JMException {
+    List<MBeanMetric> mBeanMetrics = new ArrayList<>();
+    String type = mBeanName.getKeyProperty("type");
+    String instanceName = mBeanName.getKeyProperty("name");
+
+    for (MBeanAttributeInfo mBeanAttribute :
+        this.mBeanServer.getMBeanInfo(mBeanName).getAttributes()) {
+      String attributeName = mBeanAttribute.getName();
+      Object value = mBeanServer.getAttribute(mBeanName, attributeName);
+      if (value instanceof Number) {
+        mBeanMetrics.add(
+            new MBeanTesseraMetric(type, instanceName, attributeName, value.toString()));
+      }
+    }
+
+    return mBeanMetrics;
+  }
+
   private Set<ObjectName> getTesseraResourceMBeanNames(AppType appType)
       throws MalformedObjectNameException {
 
@@ -3,6 +3,7 @@ package com.quorum.tessera.server.monitoring;
 import static jakarta.ws.rs.core.MediaType.TEXT_PLAIN;
 
 import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.metrics.LatencyMetrics;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
@@ -27,13 +28,17 @@ public class MetricsResource {
     MetricsEnquirer metricsEnquirer = new MetricsEnquirer(mbs);
     final StringBuilder formattedMetrics = new StringBuilder();
 
+    PrometheusProtocolFormatter formatter = new PrometheusProtocolFormatter();
+
     for (AppType type : AppType.values()) {
       List<MBeanMetric> metrics = metricsEnquirer.getMBeanMetrics(type);
-      PrometheusProtocolFormatter formatter = new PrometheusProtocolFormatter();
 
       formattedMetrics.append(formatter.format(metrics, type));
     }
 
+    formattedMetrics.append(formatter.formatTesseraMetrics(metricsEnquirer.getTesseraMetrics()));
+    formattedMetrics.append(formatter.formatLatencyHistograms(LatencyMetrics.snapshots()));
+
     return Response.status(Response.Status.OK)
         .header(HttpHeaders.CONTENT_TYPE, TEXT_PLAIN)
         .entity(formattedMetrics.toString())
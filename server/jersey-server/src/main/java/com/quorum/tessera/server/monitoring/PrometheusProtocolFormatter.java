@@ -1,10 +1,15 @@
 package com.quorum.tessera.server.monitoring;
 
 import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.metrics.LatencyHistogram;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Objects;
 
 public class PrometheusProtocolFormatter {
 
+  static final String LATENCY_METRIC = "tessera_latency_seconds";
+
   public String format(final List<MBeanMetric> metrics, AppType appType) {
     StringBuilder formattedMetrics = new StringBuilder();
 
@@ -26,6 +31,100 @@ public class PrometheusProtocolFormatter {
     return formattedMetrics.toString();
   }
 
+  public String formatTesseraMetrics(final List<MBeanMetric> metrics) {
+    StringBuilder formattedMetrics = new StringBuilder();
+
+    for (final MBeanMetric metric : metrics) {
+      final MBeanTesseraMetric tesseraMetric = (MBeanTesseraMetric) metric;
+
+      formattedMetrics.append("tessera_").append(snakeCase(tesseraMetric.getType())).append("_");
+      if (Objects.nonNull(tesseraMetric.getInstanceName())) {
+        formattedMetrics.append(tesseraMetric.getInstanceName().replace('-', '_')).append("_");
+      }
+      formattedMetrics
+          .append(snakeCase(tesseraMetric.getName()))
+          .append(" ")
+          .append(tesseraMetric.getValue())
+          .append("\n");
+    }
+
+    return formattedMetrics.toString();
+  }
+
+  /**
+   * Formats the stage latencies as a single histogram, with the stage and, where measured per
+   * peer, the peer as labels
+   */
+  public String formatLatencyHistograms(final List<LatencyHistogram.Snapshot> snapshots) {
+    if (snapshots.isEmpty()) {
+      return "";
+    }
+
+    StringBuilder formattedMetrics =
+        new StringBuilder()
+            .append("# HELP ")
+            .append(LATENCY_METRIC)
+            .append(" Time taken by each stage of handling transactions\n")
+            .append("# TYPE ")
+            .append(LATENCY_METRIC)
+            .append(" histogram\n");
+
+    for (final LatencyHistogram.Snapshot snapshot : snapshots) {
+      final String labels = latencyLabels(snapshot);
+
+      for (int bucket = 0; bucket < snapshot.getBucketCount(); bucket++) {
+        formattedMetrics
+            .append(LATENCY_METRIC)
+            .append("_bucket{")
+            .append(labels)
+            .append(",le=\"")
+            .append(upperBound(snapshot.getUpperBoundSeconds(bucket)))
+            .append("\"} ")
+            .append(snapshot.getCumulativeCount(bucket))
+            .append("\n");
+      }
+      formattedMetrics
+          .append(LATENCY_METRIC)
+          .append("_sum{")
+          .append(labels)
+          .append("} ")
+          .append(snapshot.getSumSeconds())
+          .append("\n")
+          .append(LATENCY_METRIC)
+          .append("_count{")
+          .append(labels)
+          .append("} ")
+          .append(snapshot.getCount())
+          .append("\n");
+    }
+
+    return formattedMetrics.toString();
+  }
+
+  private String latencyLabels(final LatencyHistogram.Snapshot snapshot) {
+    final StringBuilder labels =
+        new StringBuilder("stage=\"").append(escapeLabel(snapshot.getStage())).append("\"");
+    if (Objects.nonNull(snapshot.getPeer())) {
+      labels.append(",peer=\"").append(escapeLabel(snapshot.getPeer())).append("\"");
+    }
+    return labels.toString();
+  }
+
+  private String upperBound(final double seconds) {
+    if (Double.isInfinite(seconds)) {
+      return "+Inf";
+    }
+    return BigDecimal.valueOf(seconds).stripTrailingZeros().toPlainString();
+  }
+
+  private String escapeLabel(final String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  private String snakeCase(final String input) {
+    return input.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+  }
+
   private String sanitize(final String input) {
     return input
         .replaceAll("(#.*)|(_total)|\\(\\)|\\)|\\[\\]|\\]|;", "")
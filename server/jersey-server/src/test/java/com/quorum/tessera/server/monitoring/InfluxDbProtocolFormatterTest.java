@@ -3,9 +3,14 @@ package com.quorum.tessera.server.monitoring;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.metrics.LatencyHistogram;
+import com.quorum.tessera.metrics.LatencyMetrics;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -97,4 +102,33 @@ public class InfluxDbProtocolFormatterTest {
   public void noMetricsToFormatIsHandled() {
     assertThat(protocolFormatter.format(mockMetrics, mockUri, mockAppType)).isEmpty();
   }
+
+  @Test
+  public void latencyHistogramsCorrectlyFormatted() {
+    LatencyHistogram stage = LatencyMetrics.histogram("influx_test_stage");
+    stage.record(TimeUnit.MICROSECONDS.toNanos(80));
+    stage.record(TimeUnit.MILLISECONDS.toNanos(3));
+
+    LatencyHistogram peer = LatencyMetrics.histogram("influx_test_stage", "http://peer a,b=c");
+    peer.record(TimeUnit.MILLISECONDS.toNanos(500));
+
+    String expectedResponse =
+        "tessera_latency,instance=http://localhost:8080,stage=influx_test_stage"
+            + " count=2,sum=0.00308,p50=1.0E-4,p95=0.005,p99=0.005"
+            + "\n"
+            + "tessera_latency,instance=http://localhost:8080,stage=influx_test_stage"
+            + ",peer=http://peer\\ a\\,b\\=c"
+            + " count=1,sum=0.5,p50=0.5,p95=0.5,p99=0.5";
+
+    assertThat(
+            protocolFormatter.formatLatencyHistograms(
+                List.of(stage.snapshot(), peer.snapshot()), mockUri))
+        .isEqualTo(expectedResponse);
+  }
+
+  @Test
+  public void noLatencyHistogramsToFormatIsHandled() {
+    assertThat(protocolFormatter.formatLatencyHistograms(Collections.emptyList(), mockUri))
+        .isEmpty();
+  }
 }
@@ -3,6 +3,9 @@ package com.quorum.tessera.server.monitoring;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.quorum.tessera.config.AppType;
@@ -27,9 +30,9 @@ public class MetricsEnquirerTest {
   public void setUp() {
     MockitoAnnotations.openMocks(this);
 
-    metricsEnquirer = new MetricsEnquirer(mBeanServer);
-
     names = new HashSet<>();
+
+    metricsEnquirer = new MetricsEnquirer(mBeanServer, () -> names);
   }
 
   @Test
@@ -329,4 +332,47 @@ public class MetricsEnquirerTest {
     assertThat(metrics.get(0).getName()).isEqualTo("name3_total");
     assertThat(metrics.get(1).getName()).isEqualTo("name_total");
   }
+
+  @Test
+  public void tesseraMetricsIncludeNumericAttributes() throws Exception {
+    ObjectName mBeanName = new ObjectName("com.quorum.tessera:type=Executor,name=sync-poller");
+    names.add(mBeanName);
+
+    MBeanAttributeInfo[] mBeanAttributes = {
+      new MBeanAttributeInfo("QueueDepth", "int", "desc", true, false, false),
+      new MBeanAttributeInfo("ActiveCount", "int", "desc", true, false, false),
+      new MBeanAttributeInfo("Name", "java.lang.String", "desc", true, false, false)
+    };
+    MBeanInfo mBeanInfo = new MBeanInfo(null, null, mBeanAttributes, null, null, null);
+
+    when(mBeanServer.getMBeanInfo(mBeanName)).thenReturn(mBeanInfo);
+    when(mBeanServer.getAttribute(mBeanName, "QueueDepth")).thenReturn(5);
+    when(mBeanServer.getAttribute(mBeanName, "ActiveCount")).thenReturn(2);
+    when(mBeanServer.getAttribute(mBeanName, "Name")).thenReturn("sync-poller");
+
+    List<MBeanMetric> metrics = metricsEnquirer.getTesseraMetrics();
+
+    assertThat(metrics).hasSize(2);
+    assertThat(metrics)
+        .extracting(m -> ((MBeanTesseraMetric) m).getType())
+        .containsOnly("Executor");
+    assertThat(metrics)
+        .extracting(m -> ((MBeanTesseraMetric) m).getInstanceName())
+        .containsOnly("sync-poller");
+    assertThat(metrics)
+        .extracting(MBeanMetric::getName)
+        .containsExactly("QueueDepth", "ActiveCount");
+    assertThat(metrics).extracting(MBeanMetric::getValue).containsExactly("5", "2");
+
+    verify(mBeanServer, never()).queryNames(any(), any());
+  }
+
+  @Test
+  public void mBeanThatIsUnregisteredWhileBeingReadIsSkipped() throws Exception {
+    ObjectName mBeanName = new ObjectName("com.quorum.tessera:type=Executor,name=sync-poller");
+    names.add(mBeanName);
+    doThrow(InstanceNotFoundException.class).when(mBeanServer).getMBeanInfo(mBeanName);
+
+    assertThat(metricsEnquirer.getTesseraMetrics()).isEmpty();
+  }
 }
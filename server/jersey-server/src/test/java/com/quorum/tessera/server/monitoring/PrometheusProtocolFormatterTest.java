@@ -3,8 +3,12 @@ package com.quorum.tessera.server.monitoring;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.metrics.LatencyHistogram;
+import com.quorum.tessera.metrics.LatencyMetrics;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -94,4 +98,61 @@ public class PrometheusProtocolFormatterTest {
 
     assertThat(protocolFormatter.format(mockMetrics, type)).isEmpty();
   }
+
+  @Test
+  public void tesseraMetricsCorrectlyFormatted() {
+    mockMetrics.add(new MBeanTesseraMetric("Executor", "payload-publisher", "QueueDepth", "3"));
+    mockMetrics.add(
+        new MBeanTesseraMetric("Executor", "payload-publisher", "CallerRunsCount", "0"));
+    mockMetrics.add(
+        new MBeanTesseraMetric("PartyInfoBroadcaster", null, "LastRoundFailureCount", "2"));
+
+    String expectedResponse =
+        "tessera_executor_payload_publisher_queue_depth 3\n"
+            + "tessera_executor_payload_publisher_caller_runs_count 0\n"
+            + "tessera_party_info_broadcaster_last_round_failure_count 2\n";
+
+    assertThat(protocolFormatter.formatTesseraMetrics(mockMetrics)).isEqualTo(expectedResponse);
+  }
+
+  @Test
+  public void latencyHistogramsCorrectlyFormatted() {
+    LatencyHistogram histogram =
+        LatencyMetrics.histogram("prometheus_test_stage", "http://peer\"1\"");
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(40));
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(20));
+    histogram.record(TimeUnit.SECONDS.toNanos(20));
+
+    String formatted = protocolFormatter.formatLatencyHistograms(List.of(histogram.snapshot()));
+
+    String labels = "stage=\"prometheus_test_stage\",peer=\"http://peer\\\"1\\\"\"";
+
+    assertThat(formatted)
+        .startsWith(
+            "# HELP tessera_latency_seconds Time taken by each stage of handling transactions\n"
+                + "# TYPE tessera_latency_seconds histogram\n")
+        .contains("tessera_latency_seconds_bucket{" + labels + ",le=\"0.00005\"} 1\n")
+        .contains("tessera_latency_seconds_bucket{" + labels + ",le=\"0.01\"} 1\n")
+        .contains("tessera_latency_seconds_bucket{" + labels + ",le=\"0.025\"} 2\n")
+        .contains("tessera_latency_seconds_bucket{" + labels + ",le=\"10\"} 2\n")
+        .contains("tessera_latency_seconds_bucket{" + labels + ",le=\"+Inf\"} 3\n")
+        .contains("tessera_latency_seconds_sum{" + labels + "} 20.02004\n")
+        .endsWith("tessera_latency_seconds_count{" + labels + "} 3\n");
+  }
+
+  @Test
+  public void latencyHistogramWithoutPeerHasOnlyStageLabel() {
+    LatencyHistogram histogram = LatencyMetrics.histogram("prometheus_test_stage");
+
+    String formatted = protocolFormatter.formatLatencyHistograms(List.of(histogram.snapshot()));
+
+    assertThat(formatted)
+        .contains("tessera_latency_seconds_bucket{stage=\"prometheus_test_stage\",le=\"+Inf\"} 0\n")
+        .endsWith("tessera_latency_seconds_count{stage=\"prometheus_test_stage\"} 0\n");
+  }
+
+  @Test
+  public void noLatencyHistogramsToFormatIsHandled() {
+    assertThat(protocolFormatter.formatLatencyHistograms(Collections.emptyList())).isEmpty();
+  }
 }
@@ -7,6 +7,10 @@ import java.nio.file.Paths;
 import java.util.Objects;
 import java.util.Optional;
 import javax.net.ssl.SSLContext;
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
@@ -19,6 +23,12 @@ import org.eclipse.jetty.util.ssl.SslContextFactory;
 
 public class ServerUtils {
 
+  /**
+   * Server property that adds HTTP/2 to the connector: h2 negotiated through ALPN over TLS, or h2c
+   * in clear text. HTTP/1.1 clients are still served on the same port.
+   */
+  public static final String HTTP2 = "http2";
+
   public static Server buildWebServer(ServerConfig serverConfig) {
     Server server = new Server();
     URI uri = serverConfig.getBindingUri();
@@ -64,20 +74,48 @@ public class ServerUtils {
       if (Objects.nonNull(excludedCipherSuites)) {
         sslContextFactory.addExcludeCipherSuites(excludedCipherSuites);
       }
-      ServerConnector connector =
-          new ServerConnector(
-              server,
-              new SslConnectionFactory(sslContextFactory, "http/1.1"),
-              new HttpConnectionFactory(https));
+      final HttpConnectionFactory http1 = new HttpConnectionFactory(https);
+
+      final ServerConnector connector;
+      if (isHttp2(serverConfig)) {
+        sslContextFactory.setCipherComparator(HTTP2Cipher.COMPARATOR);
+
+        final ALPNServerConnectionFactory alpn = new ALPNServerConnectionFactory();
+        alpn.setDefaultProtocol(http1.getProtocol());
+
+        connector =
+            new ServerConnector(
+                server,
+                new SslConnectionFactory(sslContextFactory, alpn.getProtocol()),
+                alpn,
+                new HTTP2ServerConnectionFactory(https),
+                http1);
+      } else {
+        connector =
+            new ServerConnector(
+                server, new SslConnectionFactory(sslContextFactory, http1.getProtocol()), http1);
+      }
       connector.setPort(uri.getPort());
       server.setConnectors(new Connector[] {connector});
       return server;
     }
 
-    ServerConnector connector = new ServerConnector(server);
+    final ServerConnector connector;
+    if (isHttp2(serverConfig)) {
+      final HttpConfiguration http = new HttpConfiguration();
+      connector =
+          new ServerConnector(
+              server, new HttpConnectionFactory(http), new HTTP2CServerConnectionFactory(http));
+    } else {
+      connector = new ServerConnector(server);
+    }
     connector.setPort(uri.getPort());
     server.setConnectors(new Connector[] {connector});
 
     return server;
   }
+
+  private static boolean isHttp2(ServerConfig serverConfig) {
+    return Boolean.parseBoolean(serverConfig.getProperties().get(HTTP2));
+  }
 }
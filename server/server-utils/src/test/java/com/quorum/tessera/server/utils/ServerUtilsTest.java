@@ -0,0 +1,43 @@
+package com.quorum.tessera.server.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quorum.tessera.config.CommunicationType;
+import com.quorum.tessera.config.ServerConfig;
+import java.util.Map;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.junit.Test;
+
+public class ServerUtilsTest {
+
+  @Test
+  public void plainConnectorServesHttp1Only() {
+    final Server server = ServerUtils.buildWebServer(serverConfig(Map.of()));
+
+    final Connector[] connectors = server.getConnectors();
+
+    assertThat(connectors).hasSize(1);
+    assertThat(connectors[0].getProtocols()).containsExactly("http/1.1");
+  }
+
+  @Test
+  public void plainConnectorAddsH2cWhenHttp2Enabled() {
+    final Server server =
+        ServerUtils.buildWebServer(serverConfig(Map.of(ServerUtils.HTTP2, "true")));
+
+    final Connector[] connectors = server.getConnectors();
+
+    assertThat(connectors).hasSize(1);
+    assertThat(connectors[0].getProtocols()).containsExactly("http/1.1", "h2c");
+    assertThat(connectors[0].getDefaultConnectionFactory().getProtocol()).isEqualTo("http/1.1");
+  }
+
+  private static ServerConfig serverConfig(Map<String, String> properties) {
+    final ServerConfig serverConfig = new ServerConfig();
+    serverConfig.setCommunicationType(CommunicationType.REST);
+    serverConfig.setServerAddress("http://localhost:8080");
+    serverConfig.setProperties(properties);
+    return serverConfig;
+  }
+}
@@ -0,0 +1,164 @@
+package com.quorum.tessera.metrics;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how long a stage takes into fixed latency buckets, from 50 microseconds up to 10 seconds.
+ *
+ * <p>Recording only increments striped counters, so it never blocks and is cheap enough to call
+ * on every request. Histograms are created through {@link LatencyMetrics}, which the metrics
+ * endpoint and the InfluxDB publisher read them from.
+ */
+public final class LatencyHistogram {
+
+  /** The inclusive upper bound of each bucket in nanoseconds, with a final unbounded bucket */
+  static final long[] BUCKET_BOUNDS = {
+    TimeUnit.MICROSECONDS.toNanos(50),
+    TimeUnit.MICROSECONDS.toNanos(100),
+    TimeUnit.MICROSECONDS.toNanos(250),
+    TimeUnit.MICROSECONDS.toNanos(500),
+    TimeUnit.MILLISECONDS.toNanos(1),
+    TimeUnit.MICROSECONDS.toNanos(2500),
+    TimeUnit.MILLISECONDS.toNanos(5),
+    TimeUnit.MILLISECONDS.toNanos(10),
+    TimeUnit.MILLISECONDS.toNanos(25),
+    TimeUnit.MILLISECONDS.toNanos(50),
+    TimeUnit.MILLISECONDS.toNanos(100),
+    TimeUnit.MILLISECONDS.toNanos(250),
+    TimeUnit.MILLISECONDS.toNanos(500),
+    TimeUnit.SECONDS.toNanos(1),
+    TimeUnit.MILLISECONDS.toNanos(2500),
+    TimeUnit.SECONDS.toNanos(5),
+    TimeUnit.SECONDS.toNanos(10)
+  };
+
+  private final String stage;
+
+  private final String peer;
+
+  private final LongAdder[] buckets;
+
+  private final LongAdder sum = new LongAdder();
+
+  LatencyHistogram(final String stage, final String peer) {
+    this.stage = Objects.requireNonNull(stage);
+    this.peer = peer;
+    this.buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /** Records the time elapsed since the given {@link System#nanoTime()} */
+  public void recordSince(final long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  public void record(final long nanos) {
+    final long latency = Math.max(0, nanos);
+    int bucket = 0;
+    while (bucket < BUCKET_BOUNDS.length && latency > BUCKET_BOUNDS[bucket]) {
+      bucket++;
+    }
+    buckets[bucket].increment();
+    sum.add(latency);
+  }
+
+  public String getStage() {
+    return stage;
+  }
+
+  /** The peer the stage talked to, or null if the stage is not measured per peer */
+  public String getPeer() {
+    return peer;
+  }
+
+  /**
+   * Reads the current counts. Recordings made while reading may be counted in the buckets but not
+   * yet in the sum, or the other way around.
+   */
+  public Snapshot snapshot() {
+    final long[] cumulativeCounts = new long[buckets.length];
+    long count = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      count += buckets[i].sum();
+      cumulativeCounts[i] = count;
+    }
+    return new Snapshot(stage, peer, cumulativeCounts, sum.sum());
+  }
+
+  /** The counts of a histogram at a point in time */
+  public static final class Snapshot {
+
+    private final String stage;
+
+    private final String peer;
+
+    private final long[] cumulativeCounts;
+
+    private final long sumNanos;
+
+    private Snapshot(String stage, String peer, long[] cumulativeCounts, long sumNanos) {
+      this.stage = stage;
+      this.peer = peer;
+      this.cumulativeCounts = cumulativeCounts;
+      this.sumNanos = sumNanos;
+    }
+
+    public String getStage() {
+      return stage;
+    }
+
+    public String getPeer() {
+      return peer;
+    }
+
+    /** The number of buckets, including the final unbounded one */
+    public int getBucketCount() {
+      return cumulativeCounts.length;
+    }
+
+    /** The upper bound of the bucket in seconds, or positive infinity for the last bucket */
+    public double getUpperBoundSeconds(final int bucket) {
+      if (bucket >= BUCKET_BOUNDS.length) {
+        return Double.POSITIVE_INFINITY;
+      }
+      return BUCKET_BOUNDS[bucket] / 1e9;
+    }
+
+    /** The number of recordings in this bucket or any lower one */
+    public long getCumulativeCount(final int bucket) {
+      return cumulativeCounts[bucket];
+    }
+
+    public long getCount() {
+      return cumulativeCounts[cumulativeCounts.length - 1];
+    }
+
+    public double getSumSeconds() {
+      return sumNanos / 1e9;
+    }
+
+    /**
+     * Estimates a quantile as the upper bound of the bucket it falls in. A quantile beyond the
+     * highest bound is reported as that bound.
+     *
+     * @param quantile between 0 and 1
+     * @return the latency in seconds, or 0 if nothing has been recorded
+     */
+    public double getQuantileSeconds(final double quantile) {
+      final long count = getCount();
+      if (count == 0) {
+        return 0;
+      }
+      final double rank = Math.ceil(quantile * count);
+      int bucket = 0;
+      while (bucket < BUCKET_BOUNDS.length - 1 && cumulativeCounts[bucket] < rank) {
+        bucket++;
+      }
+      return getUpperBoundSeconds(bucket);
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.quorum.tessera.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The latency histograms of the stages a transaction goes through, shared by the whole process.
+ *
+ * <p>Components look up their histograms once, usually into a static field, and only record into
+ * them afterwards. Histograms measured per peer are created the first time the peer is seen and
+ * found without locking from then on.
+ */
+public final class LatencyMetrics {
+
+  public static final String ENCLAVE_ENCRYPT = "enclave_encrypt";
+
+  public static final String ENCLAVE_DECRYPT = "enclave_decrypt";
+
+  public static final String PAYLOAD_ENCODE = "payload_encode";
+
+  public static final String PAYLOAD_DECODE = "payload_decode";
+
+  public static final String DAO_SAVE = "dao_save";
+
+  public static final String DAO_RETRIEVE = "dao_retrieve";
+
+  public static final String PUBLISH = "publish";
+
+  public static final String PARTYINFO_ROUND = "partyinfo_round";
+
+  public static final String RESEND_BATCH = "resend_batch";
+
+  private static final Map<Key, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+  private LatencyMetrics() {}
+
+  public static LatencyHistogram histogram(final String stage) {
+    return histogram(stage, null);
+  }
+
+  /**
+   * Finds the histogram of a stage measured against one peer, creating it if needed
+   *
+   * @param stage the name of the stage
+   * @param peer the url of the peer, or null if the stage is not measured per peer
+   */
+  public static LatencyHistogram histogram(final String stage, final String peer) {
+    final Key key = new Key(stage, peer);
+    final LatencyHistogram histogram = HISTOGRAMS.get(key);
+    if (Objects.nonNull(histogram)) {
+      return histogram;
+    }
+    return HISTOGRAMS.computeIfAbsent(key, k -> new LatencyHistogram(k.stage, k.peer));
+  }
+
+  /** Reads every histogram, ordered by stage and then by peer */
+  public static List<LatencyHistogram.Snapshot> snapshots() {
+    final List<LatencyHistogram.Snapshot> snapshots = new ArrayList<>(HISTOGRAMS.size());
+    for (final LatencyHistogram histogram : HISTOGRAMS.values()) {
+      snapshots.add(histogram.snapshot());
+    }
+    snapshots.sort(
+        Comparator.comparing(LatencyHistogram.Snapshot::getStage)
+            .thenComparing(
+                LatencyHistogram.Snapshot::getPeer,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+    return snapshots;
+  }
+
+  private static final class Key {
+
+    private final String stage;
+
+    private final String peer;
+
+    private Key(final String stage, final String peer) {
+      this.stage = Objects.requireNonNull(stage);
+      this.peer = peer;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) o;
+      return stage.equals(other.stage) && Objects.equals(peer, other.peer);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(stage, peer);
+    }
+  }
+}
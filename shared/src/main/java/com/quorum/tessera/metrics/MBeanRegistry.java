@@ -0,0 +1,108 @@
+package com.quorum.tessera.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registers MBeans with the platform MBean server under the {@link #DOMAIN} domain, which the
+ * metrics endpoint reads all gauges and counters from.
+ *
+ * <p>Names take the form {@code com.quorum.tessera:type=<type>,name=<name>}, with the name left
+ * out for components of which there is only one.
+ */
+public final class MBeanRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MBeanRegistry.class);
+
+  public static final String DOMAIN = "com.quorum.tessera";
+
+  /** The instances this class registered, so they can be told apart from their replacements */
+  private static final Map<ObjectName, Object> REGISTERED = new ConcurrentHashMap<>();
+
+  private MBeanRegistry() {}
+
+  public static ObjectName objectName(final String type, final String name)
+      throws MalformedObjectNameException {
+    final String objectName =
+        Objects.isNull(name)
+            ? String.format("%s:type=%s", DOMAIN, type)
+            : String.format("%s:type=%s,name=%s", DOMAIN, type, name);
+    return new ObjectName(objectName);
+  }
+
+  /**
+   * The names of the MBeans currently registered through this class, kept up to date as they are
+   * registered and unregistered so that readers do not need to query the MBean server for them
+   */
+  public static Set<ObjectName> objectNames() {
+    return Collections.unmodifiableSet(REGISTERED.keySet());
+  }
+
+  /**
+   * Registers the MBean, replacing any already registered with the same type and name. Use {@link
+   * #unregister(Object, String, String)} to remove it again without removing a replacement.
+   */
+  public static void register(final Object mBean, final String type, final String name) {
+    final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    synchronized (REGISTERED) {
+      try {
+        final ObjectName objectName = objectName(type, name);
+        if (mBeanServer.isRegistered(objectName)) {
+          LOGGER.info("Replacing the metrics already registered for {} {}", type, name);
+          mBeanServer.unregisterMBean(objectName);
+          REGISTERED.remove(objectName);
+        }
+        mBeanServer.registerMBean(mBean, objectName);
+        REGISTERED.put(objectName, mBean);
+      } catch (JMException ex) {
+        LOGGER.warn("Unable to register metrics for {} {}: {}", type, name, ex.getMessage());
+        LOGGER.debug(null, ex);
+      }
+    }
+  }
+
+  public static void unregister(final String type, final String name) {
+    synchronized (REGISTERED) {
+      try {
+        final ObjectName objectName = objectName(type, name);
+        REGISTERED.remove(objectName);
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      } catch (InstanceNotFoundException ex) {
+        LOGGER.debug("Metrics for {} {} were not registered", type, name);
+      } catch (JMException ex) {
+        LOGGER.warn("Unable to unregister metrics for {} {}: {}", type, name, ex.getMessage());
+        LOGGER.debug(null, ex);
+      }
+    }
+  }
+
+  /**
+   * Unregisters the MBean registered under the type and name, but only if it is still the given
+   * one, so that a component shutting down never removes the metrics of one that replaced it
+   */
+  public static void unregister(final Object mBean, final String type, final String name) {
+    synchronized (REGISTERED) {
+      try {
+        if (REGISTERED.get(objectName(type, name)) != mBean) {
+          LOGGER.debug("Metrics for {} {} are registered for another instance", type, name);
+          return;
+        }
+      } catch (MalformedObjectNameException ex) {
+        LOGGER.debug(null, ex);
+        return;
+      }
+      unregister(type, name);
+    }
+  }
+}
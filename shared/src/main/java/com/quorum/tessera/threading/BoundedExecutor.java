@@ -0,0 +1,95 @@
+package com.quorum.tessera.threading;
+
+import com.quorum.tessera.metrics.MBeanRegistry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * A thread pool with a bounded number of threads and a bounded queue.
+ *
+ * <p>Once every thread is busy and the queue is full, new tasks are run on the thread that submits
+ * them. This holds the submitter back until the pool catches up, instead of growing without limit
+ * or dropping work.
+ *
+ * <p>The pool registers itself as an MBean named {@code
+ * com.quorum.tessera:type=Executor,name=<name>} so its queue depth and active task count can be
+ * read by the metrics endpoint.
+ */
+public class BoundedExecutor extends ThreadPoolExecutor implements BoundedExecutorMXBean {
+
+  static final String MBEAN_TYPE = "Executor";
+
+  private final String name;
+
+  private final LongAdder callerRuns;
+
+  public BoundedExecutor(
+      final String name,
+      final int maxThreads,
+      final int queueSize,
+      final ThreadFactory threadFactory) {
+    this(name, maxThreads, queueSize, threadFactory, new LongAdder());
+  }
+
+  private BoundedExecutor(
+      final String name,
+      final int maxThreads,
+      final int queueSize,
+      final ThreadFactory threadFactory,
+      final LongAdder callerRuns) {
+    // core and max are the same so threads are added before tasks start queueing
+    super(
+        maxThreads,
+        maxThreads,
+        60L,
+        TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueSize),
+        threadFactory,
+        (task, executor) -> {
+          if (!executor.isShutdown()) {
+            callerRuns.increment();
+            task.run();
+          }
+        });
+    this.allowCoreThreadTimeOut(true);
+    this.name = name;
+    this.callerRuns = callerRuns;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public int getQueueDepth() {
+    return getQueue().size();
+  }
+
+  @Override
+  public long getCallerRunsCount() {
+    return callerRuns.sum();
+  }
+
+  public ObjectName getObjectName() throws MalformedObjectNameException {
+    return MBeanRegistry.objectName(MBEAN_TYPE, name);
+  }
+
+  /** Registers this executor with the platform MBean server, replacing any with the same name */
+  void register() {
+    MBeanRegistry.register(this, MBEAN_TYPE, name);
+  }
+
+  @Override
+  protected void terminated() {
+    try {
+      MBeanRegistry.unregister(this, MBEAN_TYPE, name);
+    } finally {
+      super.terminated();
+    }
+  }
+}
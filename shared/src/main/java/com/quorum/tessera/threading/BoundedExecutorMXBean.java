@@ -0,0 +1,20 @@
+package com.quorum.tessera.threading;
+
+/** Gauges exposed over JMX for a {@link BoundedExecutor} */
+public interface BoundedExecutorMXBean {
+
+  /** The number of tasks waiting in the queue for a free thread */
+  int getQueueDepth();
+
+  /** The approximate number of threads that are running tasks */
+  int getActiveCount();
+
+  int getPoolSize();
+
+  int getMaximumPoolSize();
+
+  long getCompletedTaskCount();
+
+  /** The number of tasks that were run on the submitting thread because the executor was full */
+  long getCallerRunsCount();
+}
@@ -1,11 +1,117 @@
 package com.quorum.tessera.threading;
 
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class ExecutorFactory {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorFactory.class);
+
+  public static final String MAX_THREADS = "executorMaxThreads";
+
+  public static final String QUEUE_SIZE = "executorQueueSize";
+
+  public static final String VIRTUAL_THREADS = "executorVirtualThreads";
+
+  static final int DEFAULT_MAX_THREADS = 64;
+
+  static final int DEFAULT_VIRTUAL_MAX_THREADS = 1024;
+
+  static final int DEFAULT_QUEUE_SIZE = 1000;
+
+  private final Map<String, String> properties;
+
+  public ExecutorFactory() {
+    this(Map.of());
+  }
+
+  /**
+   * @param properties the server properties, from which the {@link #MAX_THREADS}, {@link
+   *     #QUEUE_SIZE} and {@link #VIRTUAL_THREADS} settings for bounded executors are read
+   */
+  public ExecutorFactory(final Map<String, String> properties) {
+    this.properties = Objects.requireNonNullElse(properties, Map.of());
+  }
+
   public Executor createCachedThreadPool() {
     return Executors.newCachedThreadPool();
   }
+
+  /**
+   * Creates a {@link BoundedExecutor} and registers its metrics under the given name.
+   *
+   * <p>If virtual threads are enabled and the runtime supports them, each task runs on a new
+   * virtual thread, which suits tasks that spend most of their time blocked on I/O. The limits
+   * still apply, but the default thread limit is higher.
+   *
+   * @param name a short name for the executor, used for its threads and metrics
+   */
+  public BoundedExecutor createBoundedExecutor(final String name) {
+    final Optional<ThreadFactory> virtualThreadFactory =
+        Boolean.parseBoolean(properties.get(VIRTUAL_THREADS))
+            ? virtualThreadFactory(name)
+            : Optional.empty();
+
+    final int maxThreads =
+        intProperty(
+            MAX_THREADS,
+            virtualThreadFactory.isPresent() ? DEFAULT_VIRTUAL_MAX_THREADS : DEFAULT_MAX_THREADS);
+    final int queueSize = intProperty(QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+
+    final BoundedExecutor executor =
+        new BoundedExecutor(
+            name,
+            maxThreads,
+            queueSize,
+            virtualThreadFactory.orElseGet(() -> platformThreadFactory(name)));
+    executor.register();
+    return executor;
+  }
+
+  private int intProperty(final String property, final int defaultValue) {
+    try {
+      final int value =
+          Integer.parseInt(properties.getOrDefault(property, String.valueOf(defaultValue)));
+      if (value > 0) {
+        return value;
+      }
+    } catch (NumberFormatException ex) {
+      // fall through to the warning below
+    }
+    LOGGER.warn(
+        "Not able to parse configured property {}. Will use default value instead", property);
+    return defaultValue;
+  }
+
+  private static ThreadFactory platformThreadFactory(final String name) {
+    final AtomicInteger count = new AtomicInteger();
+    return runnable -> new Thread(runnable, name + "-" + count.incrementAndGet());
+  }
+
+  /**
+   * Looks up the virtual thread builder reflectively, as it is only available from Java 21 while
+   * the project is compiled for Java 17
+   */
+  static Optional<ThreadFactory> virtualThreadFactory(final String name) {
+    try {
+      final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder =
+          builderType
+              .getMethod("name", String.class, long.class)
+              .invoke(builder, name + "-", 1L);
+      return Optional.of((ThreadFactory) builderType.getMethod("factory").invoke(builder));
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      LOGGER.warn("Virtual threads are not supported by this runtime, using platform threads");
+      LOGGER.debug(null, ex);
+      return Optional.empty();
+    }
+  }
 }
@@ -0,0 +1,64 @@
+package com.quorum.tessera.threading;
+
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A fixed set of locks that are shared out by key, so that work on unrelated keys can proceed
+ * concurrently while work on the same key is serialised.
+ *
+ * <p>Keys that map to the same stripe also serialise; more stripes means fewer false collisions at
+ * the cost of a little memory.
+ */
+public class StripedLock {
+
+  public static final int DEFAULT_STRIPES = 256;
+
+  private final Lock[] locks;
+
+  private final int mask;
+
+  public StripedLock() {
+    this(DEFAULT_STRIPES);
+  }
+
+  public StripedLock(final int stripes) {
+    if (stripes <= 0) {
+      throw new IllegalArgumentException("Number of stripes must be positive");
+    }
+    // round up to a power of two so the stripe can be picked with a mask
+    final int size = stripes == 1 ? 1 : Integer.highestOneBit((stripes - 1) << 1);
+    this.locks = new Lock[size];
+    for (int i = 0; i < size; i++) {
+      locks[i] = new ReentrantLock();
+    }
+    this.mask = size - 1;
+  }
+
+  public Lock get(final Object key) {
+    return locks[indexFor(key)];
+  }
+
+  /** Runs the given action while holding the lock for the given key, returning its result. */
+  public <T> T withLock(final Object key, final Supplier<T> action) {
+    final Lock lock = get(key);
+    lock.lock();
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int size() {
+    return locks.length;
+  }
+
+  int indexFor(final Object key) {
+    final int hash = Objects.requireNonNull(key).hashCode();
+    // spread the higher bits down, as the mask only uses the low bits
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+}
@@ -0,0 +1,11 @@
+package com.quorum.tessera.version;
+
+public class BatchKeyValidationVersion implements ApiVersion {
+
+  public static final String API_VERSION_7 = "7.0";
+
+  @Override
+  public String getVersion() {
+    return API_VERSION_7;
+  }
+}
@@ -0,0 +1,11 @@
+package com.quorum.tessera.version;
+
+public class PartyInfoDigestVersion implements ApiVersion {
+
+  public static final String API_VERSION_8 = "8.0";
+
+  @Override
+  public String getVersion() {
+    return API_VERSION_8;
+  }
+}
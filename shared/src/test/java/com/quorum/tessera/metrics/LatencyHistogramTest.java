@@ -0,0 +1,81 @@
+package com.quorum.tessera.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void recordingsFallIntoTheirBuckets() {
+    final LatencyHistogram histogram = new LatencyHistogram("stage", null);
+
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(10));
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(50));
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+    histogram.record(TimeUnit.SECONDS.toNanos(60));
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+    assertThat(snapshot.getStage()).isEqualTo("stage");
+    assertThat(snapshot.getPeer()).isNull();
+    assertThat(snapshot.getCount()).isEqualTo(4);
+    assertThat(snapshot.getBucketCount()).isEqualTo(LatencyHistogram.BUCKET_BOUNDS.length + 1);
+    assertThat(snapshot.getUpperBoundSeconds(0)).isEqualTo(0.00005);
+    assertThat(snapshot.getCumulativeCount(0)).isEqualTo(2);
+    assertThat(snapshot.getCumulativeCount(5)).isEqualTo(2);
+    assertThat(snapshot.getCumulativeCount(6)).isEqualTo(3);
+    assertThat(snapshot.getCumulativeCount(snapshot.getBucketCount() - 2)).isEqualTo(3);
+    assertThat(snapshot.getUpperBoundSeconds(snapshot.getBucketCount() - 1))
+        .isEqualTo(Double.POSITIVE_INFINITY);
+    assertThat(snapshot.getSumSeconds()).isCloseTo(60.00306, within(1e-9));
+  }
+
+  @Test
+  public void negativeDurationsAreRecordedAsZero() {
+    final LatencyHistogram histogram = new LatencyHistogram("stage", "peer");
+
+    histogram.record(-5);
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getPeer()).isEqualTo("peer");
+    assertThat(snapshot.getCumulativeCount(0)).isEqualTo(1);
+    assertThat(snapshot.getSumSeconds()).isZero();
+  }
+
+  @Test
+  public void recordSinceMeasuresFromStart() {
+    final LatencyHistogram histogram = new LatencyHistogram("stage", null);
+
+    histogram.recordSince(System.nanoTime() - TimeUnit.SECONDS.toNanos(2));
+
+    assertThat(histogram.snapshot().getSumSeconds()).isGreaterThanOrEqualTo(2);
+  }
+
+  @Test
+  public void quantilesAreUpperBoundOfBucket() {
+    final LatencyHistogram histogram = new LatencyHistogram("stage", null);
+    assertThat(histogram.snapshot().getQuantileSeconds(0.5)).isZero();
+
+    for (int i = 0; i < 99; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(80));
+    }
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(40));
+
+    final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertThat(snapshot.getQuantileSeconds(0.5)).isEqualTo(0.0001);
+    assertThat(snapshot.getQuantileSeconds(0.99)).isEqualTo(0.0001);
+    assertThat(snapshot.getQuantileSeconds(1)).isEqualTo(0.05);
+  }
+
+  @Test
+  public void quantilesBeyondHighestBoundAreCapped() {
+    final LatencyHistogram histogram = new LatencyHistogram("stage", null);
+
+    histogram.record(TimeUnit.SECONDS.toNanos(30));
+
+    assertThat(histogram.snapshot().getQuantileSeconds(0.99)).isEqualTo(10);
+  }
+}
@@ -0,0 +1,47 @@
+package com.quorum.tessera.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class LatencyMetricsTest {
+
+  @Test
+  public void sameHistogramIsReturnedForStage() {
+    final LatencyHistogram histogram = LatencyMetrics.histogram("latency_metrics_test");
+
+    assertThat(LatencyMetrics.histogram("latency_metrics_test")).isSameAs(histogram);
+    assertThat(LatencyMetrics.histogram("latency_metrics_test", null)).isSameAs(histogram);
+    assertThat(histogram.getStage()).isEqualTo("latency_metrics_test");
+    assertThat(histogram.getPeer()).isNull();
+  }
+
+  @Test
+  public void eachPeerHasItsOwnHistogram() {
+    final LatencyHistogram first = LatencyMetrics.histogram("latency_metrics_peers", "http://a");
+    final LatencyHistogram second = LatencyMetrics.histogram("latency_metrics_peers", "http://b");
+
+    assertThat(first).isNotSameAs(second);
+    assertThat(LatencyMetrics.histogram("latency_metrics_peers", "http://a")).isSameAs(first);
+    assertThat(first.getPeer()).isEqualTo("http://a");
+  }
+
+  @Test
+  public void snapshotsAreOrderedByStageAndPeer() {
+    LatencyMetrics.histogram("latency_metrics_order", "http://b").record(1);
+    LatencyMetrics.histogram("latency_metrics_order", "http://a").record(2);
+    LatencyMetrics.histogram("latency_metrics_order").record(3);
+
+    final List<LatencyHistogram.Snapshot> snapshots =
+        LatencyMetrics.snapshots().stream()
+            .filter(s -> s.getStage().equals("latency_metrics_order"))
+            .collect(Collectors.toList());
+
+    assertThat(snapshots)
+        .extracting(LatencyHistogram.Snapshot::getPeer)
+        .containsExactly(null, "http://a", "http://b");
+    assertThat(snapshots).allMatch(s -> s.getCount() == 1);
+  }
+}
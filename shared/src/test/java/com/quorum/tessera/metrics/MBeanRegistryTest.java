@@ -0,0 +1,96 @@
+package com.quorum.tessera.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Test;
+
+public class MBeanRegistryTest {
+
+  public interface SampleMXBean {
+    int getValue();
+  }
+
+  public static class Sample implements SampleMXBean {
+
+    private final int value;
+
+    Sample(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public int getValue() {
+      return value;
+    }
+  }
+
+  private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+  @Test
+  public void objectNameWithAndWithoutName() throws Exception {
+    assertThat(MBeanRegistry.objectName("Sample", "one"))
+        .isEqualTo(new ObjectName("com.quorum.tessera:type=Sample,name=one"));
+    assertThat(MBeanRegistry.objectName("Sample", null))
+        .isEqualTo(new ObjectName("com.quorum.tessera:type=Sample"));
+  }
+
+  @Test
+  public void registerReplacesExistingAndUnregisterRemoves() throws Exception {
+    ObjectName objectName = MBeanRegistry.objectName("Sample", "replaced");
+
+    MBeanRegistry.register(new Sample(1), "Sample", "replaced");
+    MBeanRegistry.register(new Sample(2), "Sample", "replaced");
+
+    assertThat(mBeanServer.getAttribute(objectName, "Value")).isEqualTo(2);
+
+    MBeanRegistry.unregister("Sample", "replaced");
+
+    assertThat(mBeanServer.isRegistered(objectName)).isFalse();
+  }
+
+  @Test
+  public void unregisterInstanceLeavesReplacementRegistered() throws Exception {
+    ObjectName objectName = MBeanRegistry.objectName("Sample", "owned");
+    Sample original = new Sample(1);
+    Sample replacement = new Sample(2);
+
+    MBeanRegistry.register(original, "Sample", "owned");
+    MBeanRegistry.register(replacement, "Sample", "owned");
+
+    MBeanRegistry.unregister(original, "Sample", "owned");
+    assertThat(mBeanServer.getAttribute(objectName, "Value")).isEqualTo(2);
+
+    MBeanRegistry.unregister(replacement, "Sample", "owned");
+    assertThat(mBeanServer.isRegistered(objectName)).isFalse();
+  }
+
+  @Test
+  public void objectNamesFollowRegistrations() throws Exception {
+    ObjectName objectName = MBeanRegistry.objectName("Sample", "listed");
+
+    MBeanRegistry.register(new Sample(1), "Sample", "listed");
+    assertThat(MBeanRegistry.objectNames()).contains(objectName);
+
+    MBeanRegistry.unregister("Sample", "listed");
+    assertThat(MBeanRegistry.objectNames()).doesNotContain(objectName);
+  }
+
+  @Test
+  public void unregisterUnknownIsIgnored() throws Exception {
+    MBeanRegistry.unregister("Sample", "unknown");
+
+    assertThat(mBeanServer.isRegistered(MBeanRegistry.objectName("Sample", "unknown"))).isFalse();
+  }
+
+  @Test
+  public void invalidMBeanIsNotRegistered() throws Exception {
+    MBeanRegistry.register(new Object(), "Sample", "invalid");
+
+    assertThat(mBeanServer.isRegistered(MBeanRegistry.objectName("Sample", "invalid"))).isFalse();
+    assertThat(MBeanRegistry.objectNames())
+        .doesNotContain(MBeanRegistry.objectName("Sample", "invalid"));
+  }
+}
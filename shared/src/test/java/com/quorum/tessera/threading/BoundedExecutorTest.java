@@ -0,0 +1,89 @@
+package com.quorum.tessera.threading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.management.MBeanServer;
+import org.junit.Test;
+
+public class BoundedExecutorTest {
+
+  @Test
+  public void fullExecutorRunsTaskOnCaller() throws Exception {
+    BoundedExecutor executor = new BoundedExecutor("full", 1, 1, Executors.defaultThreadFactory());
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    try {
+      executor.execute(
+          () -> {
+            started.countDown();
+            awaitQuietly(release);
+          });
+      started.await();
+      executor.execute(() -> awaitQuietly(release));
+
+      assertThat(executor.getActiveCount()).isEqualTo(1);
+      assertThat(executor.getQueueDepth()).isEqualTo(1);
+
+      AtomicReference<Thread> ranOn = new AtomicReference<>();
+      executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+      assertThat(ranOn.get()).isSameAs(Thread.currentThread());
+      assertThat(executor.getCallerRunsCount()).isEqualTo(1);
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void rejectedAfterShutdownIsDropped() {
+    BoundedExecutor executor =
+        new BoundedExecutor("shutdown", 1, 1, Executors.defaultThreadFactory());
+    executor.shutdown();
+
+    AtomicReference<Thread> ranOn = new AtomicReference<>();
+    executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+    assertThat(ranOn.get()).isNull();
+    assertThat(executor.getCallerRunsCount()).isZero();
+  }
+
+  @Test
+  public void registersAndUnregistersMBean() throws Exception {
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    BoundedExecutor executor =
+        new BoundedExecutor("registered", 1, 1, Executors.defaultThreadFactory());
+
+    executor.register();
+    assertThat(mBeanServer.isRegistered(executor.getObjectName())).isTrue();
+    assertThat(mBeanServer.getAttribute(executor.getObjectName(), "QueueDepth")).isEqualTo(0);
+
+    // registering a second executor with the same name replaces the first
+    BoundedExecutor replacement =
+        new BoundedExecutor("registered", 1, 1, Executors.defaultThreadFactory());
+    replacement.register();
+    assertThat(mBeanServer.isRegistered(replacement.getObjectName())).isTrue();
+
+    // the replaced executor terminating leaves the replacement's metrics in place
+    executor.shutdown();
+    assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(mBeanServer.isRegistered(replacement.getObjectName())).isTrue();
+
+    replacement.shutdown();
+    assertThat(replacement.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(mBeanServer.isRegistered(replacement.getObjectName())).isFalse();
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -2,7 +2,10 @@ package com.quorum.tessera.threading;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.lang.management.ManagementFactory;
+import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 import org.junit.Test;
 
 public class ExecutorFactoryTest {
@@ -12,4 +15,81 @@ public class ExecutorFactoryTest {
     Executor executor = new ExecutorFactory().createCachedThreadPool();
     assertThat(executor).isNotNull();
   }
+
+  @Test
+  public void createBoundedExecutorWithDefaults() throws Exception {
+    BoundedExecutor executor = new ExecutorFactory().createBoundedExecutor("defaults");
+    try {
+      assertThat(executor.getName()).isEqualTo("defaults");
+      assertThat(executor.getMaximumPoolSize()).isEqualTo(ExecutorFactory.DEFAULT_MAX_THREADS);
+      assertThat(executor.getQueue().remainingCapacity())
+          .isEqualTo(ExecutorFactory.DEFAULT_QUEUE_SIZE);
+      assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(executor.getObjectName()))
+          .isTrue();
+
+      Future<String> threadName = executor.submit(() -> Thread.currentThread().getName());
+      assertThat(threadName.get()).startsWith("defaults-");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void createBoundedExecutorFromProperties() {
+    Map<String, String> properties =
+        Map.of(ExecutorFactory.MAX_THREADS, "3", ExecutorFactory.QUEUE_SIZE, "7");
+
+    BoundedExecutor executor = new ExecutorFactory(properties).createBoundedExecutor("configured");
+    try {
+      assertThat(executor.getMaximumPoolSize()).isEqualTo(3);
+      assertThat(executor.getQueue().remainingCapacity()).isEqualTo(7);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void invalidPropertiesUseDefaults() {
+    Map<String, String> properties =
+        Map.of(ExecutorFactory.MAX_THREADS, "many", ExecutorFactory.QUEUE_SIZE, "0");
+
+    BoundedExecutor executor = new ExecutorFactory(properties).createBoundedExecutor("invalid");
+    try {
+      assertThat(executor.getMaximumPoolSize()).isEqualTo(ExecutorFactory.DEFAULT_MAX_THREADS);
+      assertThat(executor.getQueue().remainingCapacity())
+          .isEqualTo(ExecutorFactory.DEFAULT_QUEUE_SIZE);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void nullPropertiesUseDefaults() {
+    BoundedExecutor executor = new ExecutorFactory(null).createBoundedExecutor("nulls");
+    try {
+      assertThat(executor.getMaximumPoolSize()).isEqualTo(ExecutorFactory.DEFAULT_MAX_THREADS);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void virtualThreadsAreUsedWhenSupported() throws Exception {
+    Map<String, String> properties = Map.of(ExecutorFactory.VIRTUAL_THREADS, "true");
+    boolean supported = ExecutorFactory.virtualThreadFactory("probe").isPresent();
+
+    BoundedExecutor executor = new ExecutorFactory(properties).createBoundedExecutor("virtual");
+    try {
+      Future<String> threadName = executor.submit(() -> Thread.currentThread().getName());
+
+      assertThat(threadName.get()).startsWith("virtual-");
+      assertThat(executor.getMaximumPoolSize())
+          .isEqualTo(
+              supported
+                  ? ExecutorFactory.DEFAULT_VIRTUAL_MAX_THREADS
+                  : ExecutorFactory.DEFAULT_MAX_THREADS);
+    } finally {
+      executor.shutdown();
+    }
+  }
 }
@@ -0,0 +1,90 @@
+package com.quorum.tessera.threading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.Test;
+
+public class StripedLockTest {
+
+  @Test
+  public void stripeCountIsRoundedUpToPowerOfTwo() {
+    assertThat(new StripedLock(1).size()).isEqualTo(1);
+    assertThat(new StripedLock(3).size()).isEqualTo(4);
+    assertThat(new StripedLock(256).size()).isEqualTo(256);
+    assertThat(new StripedLock(300).size()).isEqualTo(512);
+    assertThat(new StripedLock().size()).isEqualTo(StripedLock.DEFAULT_STRIPES);
+  }
+
+  @Test
+  public void sameKeyAlwaysGetsSameLock() {
+    final StripedLock stripedLock = new StripedLock(16);
+
+    final Lock first = stripedLock.get("key");
+    final Lock second = stripedLock.get(new String("key"));
+
+    assertThat(first).isSameAs(second);
+  }
+
+  @Test
+  public void withLockReturnsActionResult() {
+    final StripedLock stripedLock = new StripedLock(4);
+
+    assertThat(stripedLock.withLock("key", () -> "result")).isEqualTo("result");
+    assertThat(((ReentrantLock) stripedLock.get("key")).isLocked()).isFalse();
+  }
+
+  @Test
+  public void differentStripesDoNotBlockEachOther() throws Exception {
+    final StripedLock stripedLock = new StripedLock(1024);
+    final Object first = 1;
+    final Object second = 2;
+    assertThat(stripedLock.indexFor(first)).isNotEqualTo(stripedLock.indexFor(second));
+
+    final CountDownLatch holding = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Future<?> holder =
+          executor.submit(
+              () ->
+                  stripedLock.withLock(
+                      first,
+                      () -> {
+                        holding.countDown();
+                        try {
+                          release.await();
+                        } catch (InterruptedException ex) {
+                          Thread.currentThread().interrupt();
+                        }
+                        return null;
+                      }));
+
+      holding.await(5, TimeUnit.SECONDS);
+      assertThat(stripedLock.get(first).tryLock()).isFalse();
+
+      final Lock other = stripedLock.get(second);
+      assertThat(other.tryLock()).isTrue();
+      other.unlock();
+
+      release.countDown();
+      holder.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void nonPositiveStripesAreRejected() {
+    final Throwable ex = catchThrowable(() -> new StripedLock(0));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+}
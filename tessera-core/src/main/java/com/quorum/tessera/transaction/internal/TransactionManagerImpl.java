@@ -8,6 +8,7 @@ import com.quorum.tessera.enclave.PayloadDigest;
 import com.quorum.tessera.encryption.EncryptorException;
 import com.quorum.tessera.encryption.Nonce;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.threading.StripedLock;
 import com.quorum.tessera.transaction.*;
 import com.quorum.tessera.transaction.exception.MandatoryRecipientsNotAvailableException;
 import com.quorum.tessera.transaction.exception.RecipientKeyNotFoundException;
@@ -38,6 +39,13 @@ public class TransactionManagerImpl implements TransactionManager {
 
   private final PayloadDigest payloadDigest;
 
+  /**
+   * Serialises the read-modify-write of a stored payload per transaction hash, so pushes for
+   * unrelated transactions can be stored concurrently while recipient boxes arriving for the same
+   * transaction are merged one at a time.
+   */
+  private final StripedLock storeLocks = new StripedLock();
+
   public TransactionManagerImpl(
       Enclave enclave,
       EncryptedTransactionDAO encryptedTransactionDAO,
@@ -209,7 +217,7 @@ public class TransactionManagerImpl implements TransactionManager {
   }
 
   @Override
-  public synchronized MessageHash storePayload(final EncodedPayload payload) {
+  public MessageHash storePayload(final EncodedPayload payload) {
 
     final byte[] digest = payloadDigest.digest(payload.getCipherText());
     final MessageHash transactionHash = new MessageHash(digest);
@@ -236,6 +244,14 @@ public class TransactionManagerImpl implements TransactionManager {
         invalidSecurityHashes.size());
 
     // Validations are complete, now we need to save it to the database
+    return storeLocks.withLock(
+        transactionHash, () -> storeValidatedPayload(transactionHash, payload, encodedPayload));
+  }
+
+  private MessageHash storeValidatedPayload(
+      final MessageHash transactionHash,
+      final EncodedPayload payload,
+      final EncodedPayload encodedPayload) {
 
     if (enclave.getPublicKeys().contains(encodedPayload.getSenderKey())) {
       // This is our own message that we are rebuilding, handle separately
@@ -386,18 +402,41 @@ public class TransactionManagerImpl implements TransactionManager {
             .orElseThrow(
                 () -> new IllegalStateException("Unable to decode previously encoded payload"));
 
-    PublicKey recipientKey =
-        request
-            .getRecipient()
-            .orElse(
-                searchForRecipientKey(payload)
-                    .orElseThrow(
-                        () ->
-                            new RecipientKeyNotFoundException(
-                                "No suitable recipient keys found to decrypt payload for : "
-                                    + hash)));
+    // fetched once, as each call may be a round trip to a remote enclave
+    final Set<PublicKey> localKeys = enclave.getPublicKeys();
 
-    byte[] unencryptedTransactionData = enclave.unencryptTransaction(payload, recipientKey);
+    final Set<PublicKey> managedParties;
+    final byte[] unencryptedTransactionData;
+    if (payload.getRecipientKeys().isEmpty()) {
+      // legacy tx, nothing says which box is ours so each has to be tried with our keys
+      final Map<PublicKey, byte[]> openedBoxes = openLegacyRecipientBoxes(payload, localKeys);
+      managedParties = openedBoxes.keySet();
+
+      // every box seals the same master key, so any box we opened already gives the transaction
+      final PublicKey recipientKey =
+          request
+              .getRecipient()
+              .or(() -> managedParties.stream().findFirst())
+              .orElseThrow(() -> noRecipientKeyFound(hash));
+      unencryptedTransactionData =
+          openedBoxes.containsKey(recipientKey)
+              ? openedBoxes.get(recipientKey)
+              : unencryptTransaction(payload, recipientKey, hash);
+    } else {
+      managedParties =
+          payload.getRecipientKeys().stream()
+              .filter(localKeys::contains)
+              .collect(Collectors.toCollection(LinkedHashSet::new));
+
+      // the listed keys say which box is ours, so there is nothing to search for
+      final PublicKey recipientKey =
+          request
+              .getRecipient()
+              .or(() -> managedParties.stream().findFirst())
+              .or(() -> Optional.ofNullable(payload.getSenderKey()).filter(localKeys::contains))
+              .orElseThrow(() -> noRecipientKeyFound(hash));
+      unencryptedTransactionData = unencryptTransaction(payload, recipientKey, hash);
+    }
 
     Set<MessageHash> affectedTransactions =
         payload.getAffectedContractTransactions().keySet().stream()
@@ -405,22 +444,6 @@ public class TransactionManagerImpl implements TransactionManager {
             .map(MessageHash::new)
             .collect(Collectors.toSet());
 
-    Set<PublicKey> managedParties = new HashSet<>();
-    if (payload.getRecipientKeys().isEmpty()) {
-      // legacy tx
-      for (RecipientBox box : payload.getRecipientBoxes()) {
-        EncodedPayload singleBoxPayload =
-            EncodedPayload.Builder.from(payload).withRecipientBoxes(List.of(box.getData())).build();
-        Optional<PublicKey> possibleRecipient = searchForRecipientKey(singleBoxPayload);
-        possibleRecipient.ifPresent(managedParties::add);
-      }
-    } else {
-      managedParties =
-          enclave.getPublicKeys().stream()
-              .filter(payload.getRecipientKeys()::contains)
-              .collect(Collectors.toSet());
-    }
-
     final ReceiveResponse.Builder responseBuilder = ReceiveResponse.Builder.create();
     payload.getPrivacyGroupId().ifPresent(responseBuilder::withPrivacyGroupId);
 
@@ -434,16 +457,47 @@ public class TransactionManagerImpl implements TransactionManager {
         .build();
   }
 
-  private Optional<PublicKey> searchForRecipientKey(final EncodedPayload payload) {
-    for (final PublicKey potentialMatchingKey : enclave.getPublicKeys()) {
-      try {
-        enclave.unencryptTransaction(payload, potentialMatchingKey);
-        return Optional.of(potentialMatchingKey);
-      } catch (EnclaveException | IndexOutOfBoundsException | EncryptorException ex) {
-        LOGGER.debug("Attempted payload decryption using wrong key, discarding.");
+  /**
+   * Finds which of the local keys can open each recipient box of a legacy payload, in a single
+   * pass over the boxes. A key that has opened a box is not tried against the later ones.
+   *
+   * @return the keys that opened a box, in box order, each with the decrypted transaction
+   */
+  private Map<PublicKey, byte[]> openLegacyRecipientBoxes(
+      final EncodedPayload payload, final Set<PublicKey> localKeys) {
+    final Map<PublicKey, byte[]> openedBoxes = new LinkedHashMap<>();
+    final List<PublicKey> untriedKeys = new ArrayList<>(localKeys);
+    for (final RecipientBox box : payload.getRecipientBoxes()) {
+      final EncodedPayload singleBoxPayload =
+          EncodedPayload.Builder.from(payload).withRecipientBoxes(List.of(box.getData())).build();
+      for (final Iterator<PublicKey> keys = untriedKeys.iterator(); keys.hasNext(); ) {
+        final PublicKey potentialMatchingKey = keys.next();
+        try {
+          final byte[] data = enclave.unencryptTransaction(singleBoxPayload, potentialMatchingKey);
+          openedBoxes.put(potentialMatchingKey, data);
+          keys.remove();
+          break;
+        } catch (EnclaveException | IndexOutOfBoundsException | EncryptorException ex) {
+          LOGGER.debug("Attempted payload decryption using wrong key, discarding.");
+        }
       }
     }
-    return Optional.empty();
+    return openedBoxes;
+  }
+
+  private byte[] unencryptTransaction(
+      final EncodedPayload payload, final PublicKey recipientKey, final MessageHash hash) {
+    try {
+      return enclave.unencryptTransaction(payload, recipientKey);
+    } catch (EnclaveException | IndexOutOfBoundsException | EncryptorException ex) {
+      LOGGER.debug("Unable to decrypt payload {} using key {}", hash, recipientKey, ex);
+      throw noRecipientKeyFound(hash);
+    }
+  }
+
+  private static RecipientKeyNotFoundException noRecipientKeyFound(final MessageHash hash) {
+    return new RecipientKeyNotFoundException(
+        "No suitable recipient keys found to decrypt payload for : " + hash);
   }
 
   @Override
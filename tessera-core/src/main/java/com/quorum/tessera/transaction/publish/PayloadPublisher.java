@@ -3,6 +3,7 @@ package com.quorum.tessera.transaction.publish;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.serviceloader.ServiceLoaderUtil;
+import java.util.Map;
 import java.util.ServiceLoader;
 
 /** Publishes messages from one node to another */
@@ -16,6 +17,18 @@ public interface PayloadPublisher {
    */
   void publishPayload(EncodedPayload payload, PublicKey recipientKey);
 
+  /**
+   * Publishes EncodedPayloads to several recipients that are all hosted on the same node.
+   *
+   * <p>Implementations that can deliver them to the node in a single request should override this;
+   * by default each payload is published to its recipient in turn.
+   *
+   * @param payloads the payload object to be pushed to each recipient, keyed by recipient key
+   */
+  default void publishPayloads(Map<PublicKey, EncodedPayload> payloads) {
+    payloads.forEach((recipientKey, payload) -> publishPayload(payload, recipientKey));
+  }
+
   static PayloadPublisher create() {
     return ServiceLoaderUtil.loadSingle(ServiceLoader.load(PayloadPublisher.class));
   }
@@ -18,6 +18,11 @@ import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
 import com.quorum.tessera.transaction.resend.ResendManager;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -458,6 +463,45 @@ public class TransactionManagerTest {
     verify(enclave).findInvalidSecurityHashes(any(EncodedPayload.class), anyList());
   }
 
+  @Test
+  public void storePayloadForDifferentHashesRunsConcurrently() throws Exception {
+    final EncodedPayload first = mock(EncodedPayload.class);
+    when(first.getCipherText()).thenReturn("FIRST".getBytes());
+    final EncodedPayload second = mock(EncodedPayload.class);
+    when(second.getCipherText()).thenReturn("SECOND".getBytes());
+
+    // each lookup waits until both stores are inside the DAO, which can only happen if the two
+    // hashes do not share a lock
+    final CountDownLatch bothInside = new CountDownLatch(2);
+    when(encryptedTransactionDAO.retrieveByHash(any(MessageHash.class)))
+        .thenAnswer(
+            invocation -> {
+              bothInside.countDown();
+              assertThat(bothInside.await(5, TimeUnit.SECONDS)).isTrue();
+              return Optional.empty();
+            });
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Future<MessageHash> firstResult =
+          executor.submit(() -> transactionManager.storePayload(first));
+      final Future<MessageHash> secondResult =
+          executor.submit(() -> transactionManager.storePayload(second));
+
+      assertThat(firstResult.get(10, TimeUnit.SECONDS))
+          .isEqualTo(new MessageHash("FIRST".getBytes()));
+      assertThat(secondResult.get(10, TimeUnit.SECONDS))
+          .isEqualTo(new MessageHash("SECOND".getBytes()));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(encryptedTransactionDAO, times(2)).save(any(EncryptedTransaction.class));
+    verify(encryptedTransactionDAO, times(2)).retrieveByHash(any(MessageHash.class));
+    verify(enclave, times(2)).getPublicKeys();
+    verify(enclave, times(2)).findInvalidSecurityHashes(any(EncodedPayload.class), anyList());
+  }
+
   @Test
   public void storePayloadWhenWeAreSender() {
     final PublicKey senderKey = PublicKey.from("SENDER".getBytes());
@@ -978,7 +1022,7 @@ public class TransactionManagerTest {
     assertThat(receiveResponse.getPrivacyGroupId()).isNotPresent();
 
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
     verify(enclave).getPublicKeys();
   }
 
@@ -1023,7 +1067,7 @@ public class TransactionManagerTest {
         .isEqualTo(PrivacyGroup.Id.fromBytes("group".getBytes()));
 
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
     verify(enclave).getPublicKeys();
   }
 
@@ -1071,7 +1115,7 @@ public class TransactionManagerTest {
         .isEqualTo(PrivacyGroup.Id.fromBytes("group".getBytes()));
 
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
     verify(enclave).getPublicKeys();
   }
 
@@ -1115,8 +1159,8 @@ public class TransactionManagerTest {
     assertThat(receiveResponse.sender()).isEqualTo(sender);
 
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
-    verify(enclave, times(2)).getPublicKeys();
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
+    verify(enclave).getPublicKeys();
   }
 
   @Test
@@ -1156,8 +1200,166 @@ public class TransactionManagerTest {
     assertThat(receiveResponse.sender()).isEqualTo(sender);
 
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(3)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
-    verify(enclave, times(2)).getPublicKeys();
+    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
+    verify(enclave).getPublicKeys();
+  }
+
+  @Test
+  public void receiveWithoutRecipientUsesListedLocalKeyWithoutSearching() {
+    final PublicKey sender = PublicKey.from("sender".getBytes());
+    final PublicKey remoteRecipient = PublicKey.from("remote".getBytes());
+    final PublicKey localRecipient = PublicKey.from("local".getBytes());
+    final PublicKey otherLocalKey = PublicKey.from("other".getBytes());
+
+    MessageHash messageHash = mock(MessageHash.class);
+
+    ReceiveRequest receiveRequest = mock(ReceiveRequest.class);
+    when(receiveRequest.getRecipient()).thenReturn(Optional.empty());
+    when(receiveRequest.getTransactionHash()).thenReturn(messageHash);
+
+    EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    when(payload.getRecipientKeys()).thenReturn(List.of(remoteRecipient, localRecipient));
+    when(payload.getSenderKey()).thenReturn(sender);
+
+    EncryptedTransaction encryptedTransaction = mock(EncryptedTransaction.class);
+    when(encryptedTransaction.getPayload()).thenReturn(payload);
+
+    when(encryptedTransactionDAO.retrieveByHash(eq(messageHash)))
+        .thenReturn(Optional.of(encryptedTransaction));
+
+    byte[] expectedOutcome = "Encrypted payload".getBytes();
+
+    when(enclave.unencryptTransaction(payload, localRecipient)).thenReturn(expectedOutcome);
+    when(enclave.getPublicKeys()).thenReturn(Set.of(otherLocalKey, localRecipient));
+
+    ReceiveResponse receiveResponse = transactionManager.receive(receiveRequest);
+
+    assertThat(receiveResponse.getUnencryptedTransactionData()).isEqualTo(expectedOutcome);
+    assertThat(receiveResponse.getManagedParties()).containsExactly(localRecipient);
+
+    verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
+    verify(enclave).unencryptTransaction(payload, localRecipient);
+    verify(enclave).getPublicKeys();
+  }
+
+  @Test
+  public void receiveWithoutRecipientUsesLocalSenderKey() {
+    final PublicKey sender = PublicKey.from("sender".getBytes());
+    final PublicKey remoteRecipient = PublicKey.from("remote".getBytes());
+
+    MessageHash messageHash = mock(MessageHash.class);
+
+    ReceiveRequest receiveRequest = mock(ReceiveRequest.class);
+    when(receiveRequest.getRecipient()).thenReturn(Optional.empty());
+    when(receiveRequest.getTransactionHash()).thenReturn(messageHash);
+
+    EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    when(payload.getRecipientKeys()).thenReturn(List.of(remoteRecipient));
+    when(payload.getSenderKey()).thenReturn(sender);
+
+    EncryptedTransaction encryptedTransaction = mock(EncryptedTransaction.class);
+    when(encryptedTransaction.getPayload()).thenReturn(payload);
+
+    when(encryptedTransactionDAO.retrieveByHash(eq(messageHash)))
+        .thenReturn(Optional.of(encryptedTransaction));
+
+    byte[] expectedOutcome = "Encrypted payload".getBytes();
+
+    when(enclave.unencryptTransaction(payload, sender)).thenReturn(expectedOutcome);
+    when(enclave.getPublicKeys()).thenReturn(Set.of(sender));
+
+    ReceiveResponse receiveResponse = transactionManager.receive(receiveRequest);
+
+    assertThat(receiveResponse.getUnencryptedTransactionData()).isEqualTo(expectedOutcome);
+    assertThat(receiveResponse.getManagedParties()).isEmpty();
+
+    verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
+    verify(enclave).unencryptTransaction(payload, sender);
+    verify(enclave).getPublicKeys();
+  }
+
+  @Test
+  public void receiveWithoutRecipientNoLocalKeyListed() {
+    final PublicKey remoteRecipient = PublicKey.from("remote".getBytes());
+
+    MessageHash messageHash = mock(MessageHash.class);
+
+    ReceiveRequest receiveRequest = mock(ReceiveRequest.class);
+    when(receiveRequest.getRecipient()).thenReturn(Optional.empty());
+    when(receiveRequest.getTransactionHash()).thenReturn(messageHash);
+
+    EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getRecipientKeys()).thenReturn(List.of(remoteRecipient));
+    when(payload.getSenderKey()).thenReturn(PublicKey.from("sender".getBytes()));
+
+    EncryptedTransaction encryptedTransaction = mock(EncryptedTransaction.class);
+    when(encryptedTransaction.getPayload()).thenReturn(payload);
+
+    when(encryptedTransactionDAO.retrieveByHash(eq(messageHash)))
+        .thenReturn(Optional.of(encryptedTransaction));
+
+    when(enclave.getPublicKeys()).thenReturn(Set.of(PublicKey.from("local".getBytes())));
+
+    final Throwable throwable = catchThrowable(() -> transactionManager.receive(receiveRequest));
+
+    assertThat(throwable).isInstanceOf(RecipientKeyNotFoundException.class);
+
+    verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
+    verify(enclave).getPublicKeys();
+  }
+
+  @Test
+  public void receiveLegacyTransactionOpensEachBoxInOnePass() {
+    final PublicKey firstKey = PublicKey.from("first".getBytes());
+    final PublicKey secondKey = PublicKey.from("second".getBytes());
+    final byte[] firstBox = "box1".getBytes();
+    final byte[] secondBox = "box2".getBytes();
+
+    MessageHash messageHash = mock(MessageHash.class);
+
+    ReceiveRequest receiveRequest = mock(ReceiveRequest.class);
+    when(receiveRequest.getRecipient()).thenReturn(Optional.empty());
+    when(receiveRequest.getTransactionHash()).thenReturn(messageHash);
+
+    EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    when(payload.getRecipientBoxes())
+        .thenReturn(List.of(RecipientBox.from(firstBox), RecipientBox.from(secondBox)));
+
+    EncryptedTransaction encryptedTransaction = mock(EncryptedTransaction.class);
+    when(encryptedTransaction.getPayload()).thenReturn(payload);
+
+    when(encryptedTransactionDAO.retrieveByHash(eq(messageHash)))
+        .thenReturn(Optional.of(encryptedTransaction));
+
+    byte[] expectedOutcome = "Encrypted payload".getBytes();
+
+    doThrow(new EncryptorException("wrong key"))
+        .when(enclave)
+        .unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
+    doReturn(expectedOutcome)
+        .when(enclave)
+        .unencryptTransaction(
+            argThat(p -> Arrays.equals(p.getRecipientBoxes().get(0).getData(), firstBox)),
+            eq(firstKey));
+    doReturn(expectedOutcome)
+        .when(enclave)
+        .unencryptTransaction(
+            argThat(p -> Arrays.equals(p.getRecipientBoxes().get(0).getData(), secondBox)),
+            eq(secondKey));
+    when(enclave.getPublicKeys()).thenReturn(new LinkedHashSet<>(List.of(firstKey, secondKey)));
+
+    ReceiveResponse receiveResponse = transactionManager.receive(receiveRequest);
+
+    assertThat(receiveResponse.getUnencryptedTransactionData()).isEqualTo(expectedOutcome);
+    assertThat(receiveResponse.getManagedParties()).containsExactly(firstKey, secondKey);
+
+    verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), eq(firstKey));
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), eq(secondKey));
+    verify(enclave).getPublicKeys();
   }
 
   @Test
@@ -1251,7 +1453,7 @@ public class TransactionManagerTest {
     assertThat(receiveResponse.sender()).isEqualTo(sender);
 
     verify(encryptedTransactionDAO).retrieveByHash(any(MessageHash.class));
-    verify(enclave, times(2)).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
+    verify(enclave).unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class));
     verify(enclave).getPublicKeys();
   }
 
@@ -1352,6 +1554,7 @@ public class TransactionManagerTest {
     when(receiveRequest.getTransactionHash()).thenReturn(transactionHash);
 
     EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getRecipientBoxes()).thenReturn(List.of(RecipientBox.from("box1".getBytes())));
 
     EncryptedTransaction encryptedTransaction = mock(EncryptedTransaction.class);
     when(encryptedTransaction.getHash()).thenReturn(transactionHash);
@@ -1362,7 +1565,7 @@ public class TransactionManagerTest {
 
     when(enclave.getPublicKeys()).thenReturn(Set.of(mock(PublicKey.class)));
 
-    when(enclave.unencryptTransaction(eq(payload), any(PublicKey.class)))
+    when(enclave.unencryptTransaction(any(EncodedPayload.class), any(PublicKey.class)))
         .thenThrow(EncryptorException.class);
 
     try {
@@ -1384,6 +1587,7 @@ public class TransactionManagerTest {
     when(receiveRequest.getTransactionHash()).thenReturn(transactionHash);
 
     EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getRecipientBoxes()).thenReturn(List.of(RecipientBox.from("box1".getBytes())));
 
     EncryptedTransaction encryptedTransaction = mock(EncryptedTransaction.class);
     when(encryptedTransaction.getHash()).thenReturn(transactionHash);
@@ -2,7 +2,11 @@ package com.quorum.tessera.transaction.publish;
 
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.serviceloader.ServiceLoaderUtil;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.ServiceLoader;
 import org.junit.Test;
 
@@ -28,4 +32,26 @@ public class PayloadPublisherTest {
       verifyNoInteractions(serviceLoader);
     }
   }
+
+  @Test
+  public void publishPayloadsPublishesEachPayloadByDefault() {
+    final PayloadPublisher publisher = mock(PayloadPublisher.class);
+    doCallRealMethod().when(publisher).publishPayloads(anyMap());
+
+    final PublicKey recipient = PublicKey.from("RECIPIENT".getBytes());
+    final PublicKey otherRecipient = PublicKey.from("OTHERRECIPIENT".getBytes());
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    final EncodedPayload otherPayload = mock(EncodedPayload.class);
+
+    final Map<PublicKey, EncodedPayload> payloads = new LinkedHashMap<>();
+    payloads.put(recipient, payload);
+    payloads.put(otherRecipient, otherPayload);
+
+    publisher.publishPayloads(payloads);
+
+    verify(publisher).publishPayloads(payloads);
+    verify(publisher).publishPayload(payload, recipient);
+    verify(publisher).publishPayload(otherPayload, otherRecipient);
+    verifyNoMoreInteractions(publisher);
+  }
 }
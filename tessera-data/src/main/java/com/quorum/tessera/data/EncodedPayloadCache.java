@@ -0,0 +1,196 @@
+package com.quorum.tessera.data;
+
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.EncodedPayloadCodec;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache of decoded {@link EncodedPayload}s, keyed on the hash of the
+ * transaction they belong to.
+ *
+ * <p>The cache is bounded by the total size in bytes of the encoded payloads it holds, and evicts
+ * in least-recently-used order once that is exceeded. Payloads larger than the whole cache are
+ * never stored.
+ *
+ * <p>Loads race with invalidations: a payload read from the database before an update or delete
+ * of the same transaction completes could be stale. Each invalidation therefore bumps a
+ * generation, and a loaded payload is only cached if no invalidation happened while it was being
+ * read.
+ *
+ * <p>The hit, miss and eviction counts are reported as an MBean named {@code
+ * com.quorum.tessera:type=EncodedPayloadCache} once the cache is registered.
+ */
+public class EncodedPayloadCache implements EncodedPayloadCacheMXBean {
+
+  public static final String MBEAN_TYPE = "EncodedPayloadCache";
+
+  private final long maxBytes;
+
+  private final Map<MessageHash, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private long currentBytes;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
+  public EncodedPayloadCache(final long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("Payload cache size must not be negative");
+    }
+    this.maxBytes = maxBytes;
+  }
+
+  /** Returns a copy of the cached transaction with the given hash, if present */
+  public Optional<EncryptedTransaction> get(final MessageHash hash) {
+    synchronized (entries) {
+      final Entry entry = entries.get(hash);
+      if (Objects.isNull(entry)) {
+        misses.increment();
+        return Optional.empty();
+      }
+      hits.increment();
+      return Optional.of(entry.toTransaction(hash));
+    }
+  }
+
+  /**
+   * Returns the current generation, to be taken before reading a transaction from the database
+   * and passed back to {@link #put(EncryptedTransaction, long)}
+   */
+  public long generation() {
+    return generation.get();
+  }
+
+  /**
+   * Caches the decoded payload of a transaction that was read from the database, unless the cache
+   * has been invalidated since the read began
+   *
+   * @param transaction the transaction that was read
+   * @param loadedAt the generation taken before the read began
+   */
+  public void put(final EncryptedTransaction transaction, final long loadedAt) {
+    if (Objects.isNull(transaction.getPayload()) || Objects.isNull(transaction.getHash())) {
+      return;
+    }
+    final byte[] encodedPayload = transaction.getEncodedPayload();
+    final long weight = Objects.isNull(encodedPayload) ? 0 : encodedPayload.length;
+    if (weight > maxBytes) {
+      return;
+    }
+
+    synchronized (entries) {
+      if (generation.get() != loadedAt) {
+        return;
+      }
+      final Entry previous =
+          entries.put(
+              transaction.getHash(),
+              new Entry(transaction.getPayload(), transaction.getEncodedPayloadCodec(), weight));
+      if (Objects.nonNull(previous)) {
+        currentBytes -= previous.weight;
+      }
+      currentBytes += weight;
+      evictEldest();
+    }
+  }
+
+  /** Removes the transaction with the given hash, so that the next read goes to the database */
+  public void invalidate(final MessageHash hash) {
+    synchronized (entries) {
+      generation.incrementAndGet();
+      final Entry removed = entries.remove(hash);
+      if (Objects.nonNull(removed)) {
+        currentBytes -= removed.weight;
+      }
+    }
+  }
+
+  public void clear() {
+    synchronized (entries) {
+      generation.incrementAndGet();
+      entries.clear();
+      currentBytes = 0;
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  @Override
+  public long getSizeInBytes() {
+    synchronized (entries) {
+      return currentBytes;
+    }
+  }
+
+  @Override
+  public long getMaxSizeInBytes() {
+    return maxBytes;
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  @Override
+  public double getHitRatio() {
+    final long hitCount = getHitCount();
+    final long total = hitCount + getMissCount();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  private void evictEldest() {
+    final Iterator<Entry> iterator = entries.values().iterator();
+    while (currentBytes > maxBytes && iterator.hasNext()) {
+      currentBytes -= iterator.next().weight;
+      iterator.remove();
+      evictions.increment();
+    }
+  }
+
+  private static final class Entry {
+
+    private final EncodedPayload payload;
+
+    private final EncodedPayloadCodec codec;
+
+    private final long weight;
+
+    private Entry(EncodedPayload payload, EncodedPayloadCodec codec, long weight) {
+      this.payload = payload;
+      this.codec = codec;
+      this.weight = weight;
+    }
+
+    private EncryptedTransaction toTransaction(MessageHash hash) {
+      final EncryptedTransaction transaction = new EncryptedTransaction(hash, payload);
+      transaction.setEncodedPayloadCodec(codec);
+      return transaction;
+    }
+  }
+}
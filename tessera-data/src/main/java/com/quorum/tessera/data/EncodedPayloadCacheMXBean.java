@@ -0,0 +1,22 @@
+package com.quorum.tessera.data;
+
+/** Counters exposed over JMX for the {@link EncodedPayloadCache} */
+public interface EncodedPayloadCacheMXBean {
+
+  /** The total size of the encoded payloads currently cached */
+  long getSizeInBytes();
+
+  long getMaxSizeInBytes();
+
+  /** The number of lookups that found the transaction in the cache */
+  long getHitCount();
+
+  /** The number of lookups that had to read the transaction from the database */
+  long getMissCount();
+
+  /** The number of payloads removed to keep the cache within its size */
+  long getEvictionCount();
+
+  /** The fraction of lookups that were served from the cache, or zero if there have been none */
+  double getHitRatio();
+}
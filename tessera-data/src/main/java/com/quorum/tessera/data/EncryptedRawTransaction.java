@@ -20,7 +20,11 @@ import java.util.Objects;
       query = "select ert from EncryptedRawTransaction ert order by ert.timestamp, ert.hash"),
 })
 @Entity
-@Table(name = "ENCRYPTED_RAW_TRANSACTION")
+@Table(
+    name = "ENCRYPTED_RAW_TRANSACTION",
+    indexes = {
+      @Index(name = "ENCRYPTED_RAW_TRANSACTION_TIMESTAMP", columnList = "TIMESTAMP, HASH")
+    })
 public class EncryptedRawTransaction implements Serializable {
 
   @EmbeddedId
@@ -3,6 +3,7 @@ package com.quorum.tessera.data;
 import java.util.List;
 import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.stream.Stream;
 
 /** A data store for transactions that need to be retrieved later */
 public interface EncryptedRawTransactionDAO {
@@ -54,6 +55,31 @@ public interface EncryptedRawTransactionDAO {
    */
   List<EncryptedRawTransaction> retrieveTransactions(int offset, int maxResult);
 
+  /**
+   * Retrieves the page of transactions that follows the given cursor, in (timestamp, hash) order.
+   * Unlike {@link #retrieveTransactions(int, int)}, the cost of fetching a page does not grow
+   * with its position in the table.
+   *
+   * @param after the position of the last transaction already read
+   * @param maxResult the maximum number of records to return
+   * @return The list of requested rows from the database
+   */
+  List<EncryptedRawTransaction> retrieveTransactions(PageCursor after, int maxResult);
+
+  /**
+   * Lazily pages through all stored transactions using {@link #retrieveTransactions(PageCursor,
+   * int)}
+   *
+   * @param pageSize the maximum number of records fetched at a time
+   * @return the pages of transactions, in (timestamp, hash) order
+   */
+  default Stream<List<EncryptedRawTransaction>> streamTransactions(int pageSize) {
+    return PageCursor.pages(
+        cursor -> retrieveTransactions(cursor, pageSize),
+        tx -> PageCursor.after(tx.getTimestamp(), tx.getHash()),
+        pageSize);
+  }
+
   static EncryptedRawTransactionDAO create() {
     return ServiceLoader.load(EncryptedRawTransactionDAO.class).findFirst().get();
   }
@@ -25,7 +25,9 @@ import java.util.Objects;
 })
 @Entity
 @EntityListeners(EncryptedTransactionListener.class)
-@Table(name = "ENCRYPTED_TRANSACTION")
+@Table(
+    name = "ENCRYPTED_TRANSACTION",
+    indexes = {@Index(name = "ENCRYPTED_TRANSACTION_TIMESTAMP", columnList = "TIMESTAMP, HASH")})
 public class EncryptedTransaction implements Serializable {
 
   @EmbeddedId
@@ -1,10 +1,13 @@
 package com.quorum.tessera.data;
 
+import com.quorum.tessera.encryption.PublicKey;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.concurrent.Callable;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /** A data store for transactions that need to be retrieved later */
 public interface EncryptedTransactionDAO {
@@ -50,6 +53,31 @@ public interface EncryptedTransactionDAO {
    */
   List<EncryptedTransaction> retrieveTransactions(int offset, int maxResult);
 
+  /**
+   * Retrieves the page of transactions that follows the given cursor, in (timestamp, hash) order.
+   * Unlike {@link #retrieveTransactions(int, int)}, the cost of fetching a page does not grow
+   * with its position in the table.
+   *
+   * @param after the position of the last transaction already read
+   * @param maxResult the maximum number of records to return
+   * @return The list of requested rows from the database
+   */
+  List<EncryptedTransaction> retrieveTransactions(PageCursor after, int maxResult);
+
+  /**
+   * Lazily pages through all stored transactions using {@link #retrieveTransactions(PageCursor,
+   * int)}
+   *
+   * @param pageSize the maximum number of records fetched at a time
+   * @return the pages of transactions, in (timestamp, hash) order
+   */
+  default Stream<List<EncryptedTransaction>> streamTransactions(int pageSize) {
+    return PageCursor.pages(
+        cursor -> retrieveTransactions(cursor, pageSize),
+        tx -> PageCursor.after(tx.getTimestamp(), tx.getHash()),
+        pageSize);
+  }
+
   /**
    * Retrieve the total transaction count.
    *
@@ -57,6 +85,65 @@ public interface EncryptedTransactionDAO {
    */
   long transactionCount();
 
+  /**
+   * Retrieves a page of the hashes of transactions that the given key is party to, either as the
+   * sender or as a recipient, using the recipient index rather than decoding stored payloads.
+   *
+   * @param recipientKey the key to find transactions for
+   * @param after the last hash already read, or null to start from the first hash
+   * @param maxResult the maximum number of hashes to return
+   * @return the hashes of the matching transactions, ordered by hash
+   */
+  List<MessageHash> findHashesForRecipient(
+      PublicKey recipientKey, MessageHash after, int maxResult);
+
+  /**
+   * Lazily streams the hashes of all transactions that the given key is party to, fetching them
+   * from the recipient index a page at a time.
+   *
+   * @param recipientKey the key to find transactions for
+   * @param fetchSize the number of hashes to fetch per page
+   * @return a stream of the pages of matching transaction hashes
+   */
+  default Stream<List<MessageHash>> streamHashesForRecipient(
+      PublicKey recipientKey, int fetchSize) {
+    return Stream.iterate(
+        findHashesForRecipient(recipientKey, null, fetchSize),
+        Predicate.not(List::isEmpty),
+        page ->
+            page.size() < fetchSize
+                ? List.of()
+                : findHashesForRecipient(recipientKey, page.get(page.size() - 1), fetchSize));
+  }
+
+  /**
+   * Retrieve the number of transactions that the given key is party to, according to the
+   * recipient index.
+   *
+   * @param recipientKey the key to count transactions for
+   * @return the number of matching transactions
+   */
+  long transactionCountForRecipient(PublicKey recipientKey);
+
+  /**
+   * Checks whether every stored transaction has been added to the recipient index. Transactions
+   * stored before the index was introduced are only indexed once they have been passed to {@link
+   * #indexRecipients(List)}.
+   *
+   * <p>Implementations may cache the answer, counting again only after {@link
+   * #indexRecipients(List)} has been called, so that it is cheap to check on every resend.
+   *
+   * @return true if the recipient index covers all stored transactions
+   */
+  boolean isRecipientIndexComplete();
+
+  /**
+   * Adds any missing recipient index rows for the given transactions
+   *
+   * @param transactions the transactions to index
+   */
+  void indexRecipients(List<EncryptedTransaction> transactions);
+
   /**
    * Deletes a transaction that has the given hash as its digest
    *
@@ -0,0 +1,77 @@
+package com.quorum.tessera.data;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * An index row linking a stored {@link EncryptedTransaction} to one of the public keys party to
+ * it, either as the sender or as a recipient.
+ *
+ * <p>Rows are maintained by {@link EncryptedTransactionDAO} whenever a transaction is saved,
+ * updated or deleted, so that the transactions relevant to a single key can be found without
+ * decoding every stored payload.
+ */
+@NamedQueries({
+  @NamedQuery(
+      name = "EncryptedTransactionRecipient.FindHashesByKey",
+      query =
+          "select r.id.hash from EncryptedTransactionRecipient r"
+              + " where r.id.recipientKey = :recipientKey order by r.id.hash"),
+  @NamedQuery(
+      name = "EncryptedTransactionRecipient.FindHashesByKeyAfter",
+      query =
+          "select r.id.hash from EncryptedTransactionRecipient r"
+              + " where r.id.recipientKey = :recipientKey and r.id.hash > :hash"
+              + " order by r.id.hash"),
+  @NamedQuery(
+      name = "EncryptedTransactionRecipient.CountByKey",
+      query =
+          "select count(r) from EncryptedTransactionRecipient r"
+              + " where r.id.recipientKey = :recipientKey"),
+  @NamedQuery(
+      name = "EncryptedTransactionRecipient.FindKeysByHash",
+      query =
+          "select r.id.recipientKey from EncryptedTransactionRecipient r where r.id.hash = :hash"),
+  @NamedQuery(
+      name = "EncryptedTransactionRecipient.DeleteByHash",
+      query = "delete from EncryptedTransactionRecipient r where r.id.hash = :hash"),
+  @NamedQuery(
+      name = "EncryptedTransactionRecipient.CountIndexedTransactions",
+      query = "select count(distinct r.id.hash) from EncryptedTransactionRecipient r")
+})
+@Entity
+@Table(
+    name = "ENCRYPTED_TRANSACTION_RECIPIENT",
+    indexes = {
+      @Index(name = "ENCRYPTED_TRANSACTION_RECIPIENT_KEY", columnList = "RECIPIENT_KEY")
+    })
+public class EncryptedTransactionRecipient implements Serializable {
+
+  @EmbeddedId private EncryptedTransactionRecipientId id;
+
+  public EncryptedTransactionRecipient(final MessageHash hash, final byte[] recipientKey) {
+    this.id = new EncryptedTransactionRecipientId(hash.getHashBytes(), recipientKey);
+  }
+
+  public EncryptedTransactionRecipient() {}
+
+  public EncryptedTransactionRecipientId getId() {
+    return id;
+  }
+
+  public void setId(final EncryptedTransactionRecipientId id) {
+    this.id = id;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    return (o instanceof EncryptedTransactionRecipient)
+        && Objects.equals(id, ((EncryptedTransactionRecipient) o).id);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(id);
+  }
+}
@@ -0,0 +1,57 @@
+package com.quorum.tessera.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/** The composite key of an {@link EncryptedTransactionRecipient}: transaction hash and key */
+@Embeddable
+public class EncryptedTransactionRecipientId implements Serializable {
+
+  @Column(name = "HASH", nullable = false, updatable = false)
+  private byte[] hash;
+
+  @Column(name = "RECIPIENT_KEY", nullable = false, updatable = false)
+  private byte[] recipientKey;
+
+  public EncryptedTransactionRecipientId(final byte[] hash, final byte[] recipientKey) {
+    this.hash = hash;
+    this.recipientKey = recipientKey;
+  }
+
+  public EncryptedTransactionRecipientId() {}
+
+  public byte[] getHash() {
+    return hash;
+  }
+
+  public void setHash(final byte[] hash) {
+    this.hash = hash;
+  }
+
+  public byte[] getRecipientKey() {
+    return recipientKey;
+  }
+
+  public void setRecipientKey(final byte[] recipientKey) {
+    this.recipientKey = recipientKey;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof EncryptedTransactionRecipientId)) {
+      return false;
+    }
+    final EncryptedTransactionRecipientId that = (EncryptedTransactionRecipientId) o;
+    return Arrays.equals(hash, that.hash) && Arrays.equals(recipientKey, that.recipientKey);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(hash) + Arrays.hashCode(recipientKey);
+  }
+}
@@ -0,0 +1,155 @@
+package com.quorum.tessera.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The position of the last row read when paging through a table of transactions ordered by
+ * (timestamp, hash).
+ *
+ * <p>Each page continues from the cursor using a seek predicate rather than an offset, so fetching
+ * a page costs the same however far into the table it is. Rows stored before the timestamp column
+ * was added have no timestamp; these are read first, ordered by hash alone.
+ *
+ * <p>Works for any entity with a {@code timestamp} and an embedded {@link MessageHash} {@code hash}
+ * attribute, such as {@link EncryptedTransaction} and {@link EncryptedRawTransaction}.
+ */
+public final class PageCursor {
+
+  private static final PageCursor START = new PageCursor(null, null);
+
+  private static final PageCursor TIMESTAMPED_START = new PageCursor(0L, null);
+
+  private final Long timestamp;
+
+  private final byte[] hash;
+
+  private PageCursor(final Long timestamp, final byte[] hash) {
+    this.timestamp = timestamp;
+    this.hash = hash;
+  }
+
+  public static PageCursor start() {
+    return START;
+  }
+
+  /** Creates a cursor positioned after the row with the given timestamp and hash */
+  public static PageCursor after(final long timestamp, final MessageHash hash) {
+    final byte[] hashBytes = Objects.requireNonNull(hash, "Hash is required").getHashBytes();
+    return new PageCursor(timestamp == 0 ? null : timestamp, hashBytes);
+  }
+
+  /**
+   * Fetches the page of entities that follows this cursor
+   *
+   * @param entityManager the entity manager to query with
+   * @param entityType the entity to page through
+   * @param maxResults the maximum number of entities to return
+   * @return the next page, which is shorter than {@code maxResults} only if it is the last one
+   */
+  public <T> List<T> fetch(
+      final EntityManager entityManager, final Class<T> entityType, final int maxResults) {
+    final String entityName = entityType.getSimpleName();
+
+    if (Objects.nonNull(timestamp)) {
+      return createQuery(entityManager, entityName, entityType, maxResults).getResultList();
+    }
+
+    final List<T> results =
+        new ArrayList<>(
+            createQuery(entityManager, entityName, entityType, maxResults).getResultList());
+    if (results.size() < maxResults) {
+      results.addAll(
+          TIMESTAMPED_START
+              .createQuery(entityManager, entityName, entityType, maxResults - results.size())
+              .getResultList());
+    }
+    return results;
+  }
+
+  private <T> TypedQuery<T> createQuery(
+      final EntityManager entityManager,
+      final String entityName,
+      final Class<T> entityType,
+      final int maxResults) {
+    final StringBuilder jpql = new StringBuilder("select e from " + entityName + " e where ");
+    if (Objects.isNull(timestamp)) {
+      jpql.append("(e.timestamp is null or e.timestamp = 0)");
+      if (Objects.nonNull(hash)) {
+        jpql.append(" and e.hash.hashBytes > :hash");
+      }
+      jpql.append(" order by e.hash");
+    } else {
+      jpql.append("e.timestamp > :timestamp");
+      if (Objects.nonNull(hash)) {
+        jpql.append(" or (e.timestamp = :timestamp and e.hash.hashBytes > :hash)");
+      }
+      jpql.append(" order by e.timestamp, e.hash");
+    }
+
+    final TypedQuery<T> query =
+        entityManager.createQuery(jpql.toString(), entityType).setMaxResults(maxResults);
+    if (Objects.nonNull(timestamp)) {
+      query.setParameter("timestamp", timestamp);
+    }
+    if (Objects.nonNull(hash)) {
+      query.setParameter("hash", hash);
+    }
+    return query;
+  }
+
+  /**
+   * Lazily pages through a table, fetching each page only once the previous one has been consumed.
+   * The cursor for the next page is taken as soon as a page is fetched, so callers are free to
+   * modify the entities they are given.
+   *
+   * @param fetchPage fetches the page following the given cursor
+   * @param cursorAfter creates the cursor for the last row of a page
+   * @param pageSize the page size passed to the fetch function
+   * @return the pages in order; none of them are empty
+   */
+  public static <T> Stream<List<T>> pages(
+      final Function<PageCursor, List<T>> fetchPage,
+      final Function<T, PageCursor> cursorAfter,
+      final int pageSize) {
+    final Function<PageCursor, Page<T>> fetch =
+        cursor -> {
+          final List<T> items = fetchPage.apply(cursor);
+          final PageCursor next =
+              items.size() < pageSize ? null : cursorAfter.apply(items.get(items.size() - 1));
+          return new Page<>(items, next);
+        };
+
+    return Stream.iterate(
+            fetch.apply(start()),
+            page -> !page.items.isEmpty(),
+            page ->
+                Objects.isNull(page.next) ? new Page<T>(List.of(), null) : fetch.apply(page.next))
+        .map(page -> page.items);
+  }
+
+  private static class Page<T> {
+
+    private final List<T> items;
+
+    private final PageCursor next;
+
+    private Page(final List<T> items, final PageCursor next) {
+      this.items = items;
+      this.next = next;
+    }
+  }
+
+  public Long getTimestamp() {
+    return timestamp;
+  }
+
+  public byte[] getHash() {
+    return hash;
+  }
+}
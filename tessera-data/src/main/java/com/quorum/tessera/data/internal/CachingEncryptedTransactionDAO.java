@@ -0,0 +1,140 @@
+package com.quorum.tessera.data.internal;
+
+import com.quorum.tessera.data.EncodedPayloadCache;
+import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.data.PageCursor;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * An {@link EncryptedTransactionDAO} that serves single transaction lookups from an {@link
+ * EncodedPayloadCache}, saving both the database round trip and the payload decoding.
+ *
+ * <p>Cached entries are invalidated whenever this DAO updates or deletes the transaction. Changes
+ * made to the database by anything else, such as another node sharing the same database, are not
+ * seen until the entry is evicted.
+ */
+public class CachingEncryptedTransactionDAO implements EncryptedTransactionDAO {
+
+  private final EncryptedTransactionDAO delegate;
+
+  private final EncodedPayloadCache payloadCache;
+
+  public CachingEncryptedTransactionDAO(
+      final EncryptedTransactionDAO delegate, final EncodedPayloadCache payloadCache) {
+    this.delegate = Objects.requireNonNull(delegate);
+    this.payloadCache = Objects.requireNonNull(payloadCache);
+  }
+
+  @Override
+  public EncryptedTransaction save(final EncryptedTransaction entity) {
+    return delegate.save(entity);
+  }
+
+  @Override
+  public EncryptedTransaction update(final EncryptedTransaction entity) {
+    try {
+      return delegate.update(entity);
+    } finally {
+      payloadCache.invalidate(entity.getHash());
+    }
+  }
+
+  @Override
+  public Optional<EncryptedTransaction> retrieveByHash(final MessageHash hash) {
+    final Optional<EncryptedTransaction> cached = payloadCache.get(hash);
+    if (cached.isPresent()) {
+      return cached;
+    }
+
+    final long generation = payloadCache.generation();
+    final Optional<EncryptedTransaction> loaded = delegate.retrieveByHash(hash);
+    loaded.ifPresent(transaction -> payloadCache.put(transaction, generation));
+    return loaded;
+  }
+
+  @Override
+  public List<EncryptedTransaction> findByHashes(final Collection<MessageHash> messageHashes) {
+    final List<EncryptedTransaction> results = new ArrayList<>(messageHashes.size());
+    final List<MessageHash> missing = new ArrayList<>();
+    for (final MessageHash hash : messageHashes) {
+      payloadCache.get(hash).ifPresentOrElse(results::add, () -> missing.add(hash));
+    }
+
+    if (!missing.isEmpty()) {
+      final long generation = payloadCache.generation();
+      final List<EncryptedTransaction> loaded = delegate.findByHashes(missing);
+      loaded.forEach(transaction -> payloadCache.put(transaction, generation));
+      results.addAll(loaded);
+    }
+    return results;
+  }
+
+  @Override
+  public List<EncryptedTransaction> retrieveTransactions(final int offset, final int maxResult) {
+    return delegate.retrieveTransactions(offset, maxResult);
+  }
+
+  @Override
+  public List<EncryptedTransaction> retrieveTransactions(
+      final PageCursor after, final int maxResult) {
+    return delegate.retrieveTransactions(after, maxResult);
+  }
+
+  @Override
+  public long transactionCount() {
+    return delegate.transactionCount();
+  }
+
+  @Override
+  public List<MessageHash> findHashesForRecipient(
+      final PublicKey recipientKey, final MessageHash after, final int maxResult) {
+    return delegate.findHashesForRecipient(recipientKey, after, maxResult);
+  }
+
+  @Override
+  public long transactionCountForRecipient(final PublicKey recipientKey) {
+    return delegate.transactionCountForRecipient(recipientKey);
+  }
+
+  @Override
+  public boolean isRecipientIndexComplete() {
+    return delegate.isRecipientIndexComplete();
+  }
+
+  @Override
+  public void indexRecipients(final List<EncryptedTransaction> transactions) {
+    delegate.indexRecipients(transactions);
+  }
+
+  @Override
+  public void delete(final MessageHash hash) {
+    try {
+      delegate.delete(hash);
+    } finally {
+      payloadCache.invalidate(hash);
+    }
+  }
+
+  @Override
+  public <T> EncryptedTransaction save(
+      final EncryptedTransaction transaction, final Callable<T> consumer) {
+    return delegate.save(transaction, consumer);
+  }
+
+  @Override
+  public boolean upcheck() {
+    return delegate.upcheck();
+  }
+
+  public EncodedPayloadCache getPayloadCache() {
+    return payloadCache;
+  }
+}
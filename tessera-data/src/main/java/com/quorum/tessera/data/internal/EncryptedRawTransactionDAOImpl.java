@@ -115,6 +115,17 @@ public class EncryptedRawTransactionDAOImpl implements EncryptedRawTransactionDA
                 .getResultList());
   }
 
+  @Override
+  public List<EncryptedRawTransaction> retrieveTransactions(
+      final PageCursor after, final int maxResult) {
+    LOGGER.debug(
+        "Fetching batch(after:{},maxResult:{}) EncryptedRawTransaction database rows",
+        after.getTimestamp(),
+        maxResult);
+    return entityManagerTemplate.execute(
+        entityManager -> after.fetch(entityManager, EncryptedRawTransaction.class, maxResult));
+  }
+
   private String toHexString(byte[] val) {
     if (null == val) {
       return "null";
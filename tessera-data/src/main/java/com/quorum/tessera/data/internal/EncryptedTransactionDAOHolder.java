@@ -0,0 +1,19 @@
+package com.quorum.tessera.data.internal;
+
+import com.quorum.tessera.data.EncryptedTransactionDAO;
+import java.util.Optional;
+
+enum EncryptedTransactionDAOHolder {
+  INSTANCE;
+
+  private EncryptedTransactionDAO encryptedTransactionDAO;
+
+  Optional<EncryptedTransactionDAO> getEncryptedTransactionDAO() {
+    return Optional.ofNullable(encryptedTransactionDAO);
+  }
+
+  EncryptedTransactionDAO store(EncryptedTransactionDAO encryptedTransactionDAO) {
+    this.encryptedTransactionDAO = encryptedTransactionDAO;
+    return encryptedTransactionDAO;
+  }
+}
@@ -2,16 +2,26 @@ package com.quorum.tessera.data.internal;
 
 import com.quorum.tessera.data.EncryptedTransaction;
 import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.EncryptedTransactionRecipient;
 import com.quorum.tessera.data.EntityManagerTemplate;
 import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.data.PageCursor;
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.LatencyHistogram;
+import com.quorum.tessera.metrics.LatencyMetrics;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,47 +30,81 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(EncryptedTransactionDAOImpl.class);
 
+  private static final LatencyHistogram SAVE_LATENCY =
+      LatencyMetrics.histogram(LatencyMetrics.DAO_SAVE);
+
+  private static final LatencyHistogram RETRIEVE_LATENCY =
+      LatencyMetrics.histogram(LatencyMetrics.DAO_RETRIEVE);
+
   private EntityManagerTemplate entityManagerTemplate;
 
+  /**
+   * Whether the recipient index covers every stored transaction, or null if that is not known. It
+   * is counted once and cleared again whenever transactions are backfilled, as every transaction
+   * saved afterwards is indexed when it is stored.
+   */
+  private volatile Boolean recipientIndexComplete;
+
   public EncryptedTransactionDAOImpl(EntityManagerFactory entityManagerFactory) {
     this.entityManagerTemplate = new EntityManagerTemplate(entityManagerFactory);
   }
 
   @Override
   public EncryptedTransaction save(final EncryptedTransaction entity) {
-    return entityManagerTemplate.execute(
-        entityManager -> {
-          entityManager.persist(entity);
-          LOGGER.debug("Stored transaction {}", entity.getHash());
-          return entity;
-        });
+    final long start = System.nanoTime();
+    try {
+      return entityManagerTemplate.execute(
+          entityManager -> {
+            entityManager.persist(entity);
+            persistRecipients(entityManager, entity.getHash(), entity.getPayload(), Set.of());
+            LOGGER.debug("Stored transaction {}", entity.getHash());
+            return entity;
+          });
+    } finally {
+      SAVE_LATENCY.recordSince(start);
+    }
   }
 
   @Override
   public EncryptedTransaction update(final EncryptedTransaction entity) {
-    return entityManagerTemplate.execute(
-        entityManager -> {
-          EncryptedTransaction existing =
-              entityManager.find(EncryptedTransaction.class, entity.getHash());
-          existing.setPayload(entity.getPayload());
-          existing.setEncodedPayload(null);
-          existing.setHash(entity.getHash());
-          EncryptedTransaction merged = entityManager.merge(existing);
-          LOGGER.debug("Updated transaction {}", entity.getHash());
-          return merged;
-        });
+    final long start = System.nanoTime();
+    try {
+      return entityManagerTemplate.execute(
+          entityManager -> {
+            EncryptedTransaction existing =
+                entityManager.find(EncryptedTransaction.class, entity.getHash());
+            existing.setPayload(entity.getPayload());
+            existing.setEncodedPayload(null);
+            existing.setHash(entity.getHash());
+            EncryptedTransaction merged = entityManager.merge(existing);
+            persistRecipients(
+                entityManager,
+                entity.getHash(),
+                entity.getPayload(),
+                findIndexedRecipients(entityManager, entity.getHash()));
+            LOGGER.debug("Updated transaction {}", entity.getHash());
+            return merged;
+          });
+    } finally {
+      SAVE_LATENCY.recordSince(start);
+    }
   }
 
   @Override
   public Optional<EncryptedTransaction> retrieveByHash(final MessageHash hash) {
     LOGGER.debug("Retrieving payload with hash {}", hash);
-    return entityManagerTemplate.execute(
-        entityManager ->
-            entityManager
-                .createNamedQuery("EncryptedTransaction.FindByHash", EncryptedTransaction.class)
-                .setParameter("hash", hash.getHashBytes())
-                .getResultStream()
-                .findAny());
+    final long start = System.nanoTime();
+    try {
+      return entityManagerTemplate.execute(
+          entityManager ->
+              entityManager
+                  .createNamedQuery("EncryptedTransaction.FindByHash", EncryptedTransaction.class)
+                  .setParameter("hash", hash.getHashBytes())
+                  .getResultStream()
+                  .findAny());
+    } finally {
+      RETRIEVE_LATENCY.recordSince(start);
+    }
   }
 
   @Override
@@ -78,6 +122,17 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
                 .getResultList());
   }
 
+  @Override
+  public List<EncryptedTransaction> retrieveTransactions(
+      final PageCursor after, final int maxResult) {
+    LOGGER.debug(
+        "Fetching batch(after:{},maxResult:{}) EncryptedTransaction database rows",
+        after.getTimestamp(),
+        maxResult);
+    return entityManagerTemplate.execute(
+        entityManager -> after.fetch(entityManager, EncryptedTransaction.class, maxResult));
+  }
+
   @Override
   public long transactionCount() {
     return entityManagerTemplate.execute(
@@ -106,6 +161,10 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
                   .findAny()
                   .orElseThrow(EntityNotFoundException::new);
 
+          entityManager
+              .createNamedQuery("EncryptedTransactionRecipient.DeleteByHash")
+              .setParameter("hash", hash.getHashBytes())
+              .executeUpdate();
           entityManager.remove(message);
           return message;
         });
@@ -113,12 +172,19 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
 
   @Override
   public <T> EncryptedTransaction save(EncryptedTransaction transaction, Callable<T> consumer) {
-
+    final long start = System.nanoTime();
     return entityManagerTemplate.execute(
         entityManager -> {
-          entityManager.persist(transaction);
+          // only the writes are timed, not the consumer, which publishes the transaction
           try {
+            entityManager.persist(transaction);
+            persistRecipients(
+                entityManager, transaction.getHash(), transaction.getPayload(), Set.of());
             entityManager.flush();
+          } finally {
+            SAVE_LATENCY.recordSince(start);
+          }
+          try {
             consumer.call();
             return transaction;
           } catch (RuntimeException ex) {
@@ -129,6 +195,116 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
         });
   }
 
+  @Override
+  public List<MessageHash> findHashesForRecipient(
+      final PublicKey recipientKey, final MessageHash after, final int maxResult) {
+    LOGGER.debug(
+        "Fetching batch(after:{},maxResult:{}) of transaction hashes for {}",
+        after,
+        maxResult,
+        recipientKey);
+    return entityManagerTemplate.execute(
+        entityManager -> {
+          final TypedQuery<byte[]> query;
+          if (Objects.isNull(after)) {
+            query =
+                entityManager.createNamedQuery(
+                    "EncryptedTransactionRecipient.FindHashesByKey", byte[].class);
+          } else {
+            query =
+                entityManager
+                    .createNamedQuery(
+                        "EncryptedTransactionRecipient.FindHashesByKeyAfter", byte[].class)
+                    .setParameter("hash", after.getHashBytes());
+          }
+          return query
+              .setParameter("recipientKey", recipientKey.getKeyBytes())
+              .setMaxResults(maxResult)
+              .getResultStream()
+              .map(MessageHash::new)
+              .collect(Collectors.toList());
+        });
+  }
+
+  @Override
+  public long transactionCountForRecipient(final PublicKey recipientKey) {
+    return entityManagerTemplate.execute(
+        entityManager ->
+            entityManager
+                .createNamedQuery("EncryptedTransactionRecipient.CountByKey", Long.class)
+                .setParameter("recipientKey", recipientKey.getKeyBytes())
+                .getSingleResult());
+  }
+
+  @Override
+  public boolean isRecipientIndexComplete() {
+    final Boolean complete = recipientIndexComplete;
+    if (Objects.nonNull(complete)) {
+      return complete;
+    }
+
+    final long indexed =
+        entityManagerTemplate.execute(
+            entityManager ->
+                entityManager
+                    .createNamedQuery(
+                        "EncryptedTransactionRecipient.CountIndexedTransactions", Long.class)
+                    .getSingleResult());
+    final boolean counted = indexed >= transactionCount();
+    recipientIndexComplete = counted;
+    return counted;
+  }
+
+  @Override
+  public void indexRecipients(final List<EncryptedTransaction> transactions) {
+    entityManagerTemplate.execute(
+        entityManager -> {
+          for (final EncryptedTransaction transaction : transactions) {
+            persistRecipients(
+                entityManager,
+                transaction.getHash(),
+                transaction.getPayload(),
+                findIndexedRecipients(entityManager, transaction.getHash()));
+          }
+          return transactions.size();
+        });
+    // count again on the next check, in case this was the last of the unindexed transactions
+    if (!Boolean.TRUE.equals(recipientIndexComplete)) {
+      recipientIndexComplete = null;
+    }
+  }
+
+  private static Set<PublicKey> findIndexedRecipients(
+      final EntityManager entityManager, final MessageHash hash) {
+    return entityManager
+        .createNamedQuery("EncryptedTransactionRecipient.FindKeysByHash", byte[].class)
+        .setParameter("hash", hash.getHashBytes())
+        .getResultStream()
+        .map(PublicKey::from)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Adds a recipient index row for the sender and each recipient of the payload, skipping any keys
+   * that are already indexed for the transaction
+   */
+  private static void persistRecipients(
+      final EntityManager entityManager,
+      final MessageHash hash,
+      final EncodedPayload payload,
+      final Set<PublicKey> alreadyIndexed) {
+    if (Objects.isNull(hash) || Objects.isNull(payload)) {
+      return;
+    }
+
+    Stream.concat(Stream.ofNullable(payload.getSenderKey()), payload.getRecipientKeys().stream())
+        .filter(Objects::nonNull)
+        .distinct()
+        .filter(key -> !alreadyIndexed.contains(key))
+        .map(key -> new EncryptedTransactionRecipient(hash, key.getKeyBytes()))
+        .forEach(entityManager::persist);
+  }
+
   @Override
   public boolean upcheck() {
     // if query succeeds then DB is up and running (else get exception)
@@ -151,17 +327,22 @@ public class EncryptedTransactionDAOImpl implements EncryptedTransactionDAO {
       return Collections.EMPTY_LIST;
     }
 
-    return entityManagerTemplate.execute(
-        entityManager -> {
-          CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-          CriteriaQuery<EncryptedTransaction> query =
-              criteriaBuilder.createQuery(EncryptedTransaction.class);
+    final long start = System.nanoTime();
+    try {
+      return entityManagerTemplate.execute(
+          entityManager -> {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<EncryptedTransaction> query =
+                criteriaBuilder.createQuery(EncryptedTransaction.class);
 
-          Root<EncryptedTransaction> root = query.from(EncryptedTransaction.class);
+            Root<EncryptedTransaction> root = query.from(EncryptedTransaction.class);
 
-          return entityManager
-              .createQuery(query.select(root).where(root.get("hash").in(messageHashes)))
-              .getResultList();
-        });
+            return entityManager
+                .createQuery(query.select(root).where(root.get("hash").in(messageHashes)))
+                .getResultList();
+          });
+    } finally {
+      RETRIEVE_LATENCY.recordSince(start);
+    }
   }
 }
@@ -3,7 +3,9 @@ package com.quorum.tessera.data.internal;
 import com.quorum.tessera.config.Config;
 import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.data.DataSourceFactory;
+import com.quorum.tessera.data.EncodedPayloadCache;
 import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.metrics.MBeanRegistry;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
 import java.util.HashMap;
@@ -17,7 +19,18 @@ public class EncryptedTransactionDAOProvider {
   private static final Logger LOGGER =
       LoggerFactory.getLogger(EncryptedTransactionDAOProvider.class);
 
+  /**
+   * Every caller shares one DAO, so that they also share its payload cache and an update made
+   * through one of them is never hidden by another's cached copy
+   */
   public static EncryptedTransactionDAO provider() {
+    final EncryptedTransactionDAOHolder holder = EncryptedTransactionDAOHolder.INSTANCE;
+    synchronized (holder) {
+      return holder.getEncryptedTransactionDAO().orElseGet(() -> holder.store(create()));
+    }
+  }
+
+  private static EncryptedTransactionDAO create() {
 
     Config config = ConfigFactory.create().getConfig();
 
@@ -42,6 +55,17 @@ public class EncryptedTransactionDAOProvider {
         Persistence.createEntityManagerFactory("tessera", properties);
     LOGGER.debug("Created EntityManagerFactory from {}", properties);
 
-    return new EncryptedTransactionDAOImpl(entityManagerFactory);
+    final EncryptedTransactionDAO encryptedTransactionDAO =
+        new EncryptedTransactionDAOImpl(entityManagerFactory);
+
+    final long payloadCacheSize = config.getJdbcConfig().getPayloadCacheSize();
+    if (payloadCacheSize <= 0) {
+      return encryptedTransactionDAO;
+    }
+
+    LOGGER.debug("Caching up to {} bytes of decoded transaction payloads", payloadCacheSize);
+    final EncodedPayloadCache payloadCache = new EncodedPayloadCache(payloadCacheSize);
+    MBeanRegistry.register(payloadCache, EncodedPayloadCache.MBEAN_TYPE, null);
+    return new CachingEncryptedTransactionDAO(encryptedTransactionDAO, payloadCache);
   }
 }
@@ -59,6 +59,16 @@ public interface StagingEntityDAO {
    */
   int updateStageForBatch(int batchSize, long validationStage);
 
+  /**
+   * Stages every transaction in one pass, by loading the dependency graph into memory as a {@link
+   * StagingGraph} and writing the stages back in JDBC batches. Transactions with a missing
+   * dependency, or that are part of a cycle, are left unstaged.
+   *
+   * @param batchSize the number of updates sent to the database at once
+   * @return number of records that have been updated
+   */
+  int updateStagesInMemory(int batchSize);
+
   /**
    * counts all records in staging affected transactions
    *
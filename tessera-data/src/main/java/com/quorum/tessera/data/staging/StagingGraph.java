@@ -0,0 +1,167 @@
+package com.quorum.tessera.data.staging;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * The dependency graph between staging transactions, held in primitive arrays so that large
+ * recoveries fit in memory.
+ *
+ * <p>Transactions are identified by their row id. A transaction depends on every row that has the
+ * hash of one of its affected transactions, or of an affected transaction of another row with the
+ * same hash, and can only be staged once all of those rows have been. If no row has an affected
+ * hash, the dependency is missing and the transaction is left unstaged, as are transactions that
+ * are part of a cycle.
+ */
+public final class StagingGraph {
+
+  /** Rough bytes held per transaction and per dependency while computing stages */
+  private static final long BYTES_PER_TRANSACTION = 48;
+
+  private static final long BYTES_PER_DEPENDENCY = 16;
+
+  private final long[] ids;
+
+  private final long[] stages;
+
+  private final BitSet missingDependency;
+
+  private int[] dependencySources;
+
+  private int[] dependencyTargets;
+
+  private int dependencyCount;
+
+  /**
+   * @param ids the row ids of every staging transaction, in ascending order
+   * @param stages the current validation stage of each transaction, or 0 if it has not been staged
+   */
+  public StagingGraph(long[] ids, long[] stages) {
+    if (ids.length != stages.length) {
+      throw new IllegalArgumentException("Each transaction needs a stage");
+    }
+    this.ids = ids;
+    this.stages = stages;
+    this.missingDependency = new BitSet(ids.length);
+    this.dependencySources = new int[16];
+    this.dependencyTargets = new int[16];
+  }
+
+  /**
+   * Estimates the heap needed to compute the stages of a graph of the given size
+   *
+   * @param transactionCount the number of staging transactions
+   * @param dependencyCount the number of affected transaction rows
+   */
+  public static long estimateSize(long transactionCount, long dependencyCount) {
+    return transactionCount * BYTES_PER_TRANSACTION + dependencyCount * BYTES_PER_DEPENDENCY;
+  }
+
+  /**
+   * Records that a transaction depends on another.
+   *
+   * @param transactionId the row id of the transaction with the affected transaction
+   * @param affectedTransactionId the row id of a transaction with the affected hash, or null if
+   *     there is none
+   */
+  public void addDependency(long transactionId, Long affectedTransactionId) {
+    final int source = indexOf(transactionId);
+    if (source < 0) {
+      return;
+    }
+
+    final int target = Objects.isNull(affectedTransactionId) ? -1 : indexOf(affectedTransactionId);
+    if (target < 0) {
+      missingDependency.set(source);
+      return;
+    }
+
+    if (dependencyCount == dependencySources.length) {
+      dependencySources = Arrays.copyOf(dependencySources, dependencyCount * 2);
+      dependencyTargets = Arrays.copyOf(dependencyTargets, dependencyCount * 2);
+    }
+    dependencySources[dependencyCount] = source;
+    dependencyTargets[dependencyCount] = target;
+    dependencyCount++;
+  }
+
+  public int size() {
+    return ids.length;
+  }
+
+  public long getId(int index) {
+    return ids[index];
+  }
+
+  /** The stage the transaction had when the graph was loaded, or 0 if it had none */
+  public long getStage(int index) {
+    return stages[index];
+  }
+
+  /**
+   * Works out the validation stage of every transaction with a topological sort. A transaction
+   * that has no dependencies gets stage 1, and every other one gets a stage one higher than the
+   * highest among its dependencies. Transactions that were already staged keep their stage.
+   *
+   * @return the stage of each transaction, by index, or 0 for those that cannot be staged
+   */
+  public long[] computeStages() {
+    final int size = ids.length;
+
+    // count the unstaged dependencies of each transaction, and index who depends on whom
+    final int[] pending = new int[size];
+    final int[] dependentsStart = new int[size + 1];
+    for (int i = 0; i < dependencyCount; i++) {
+      final int source = dependencySources[i];
+      if (stages[source] == 0) {
+        pending[source]++;
+        dependentsStart[dependencyTargets[i] + 1]++;
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      dependentsStart[i + 1] += dependentsStart[i];
+    }
+    final int[] dependents = new int[dependentsStart[size]];
+    final int[] next = Arrays.copyOf(dependentsStart, size);
+    for (int i = 0; i < dependencyCount; i++) {
+      final int source = dependencySources[i];
+      if (stages[source] == 0) {
+        dependents[next[dependencyTargets[i]]++] = source;
+      }
+    }
+
+    final long[] result = stages.clone();
+    final long[] highestDependency = new long[size];
+    final int[] ready = new int[size];
+    int head = 0;
+    int tail = 0;
+
+    for (int i = 0; i < size; i++) {
+      if (result[i] != 0) {
+        ready[tail++] = i;
+      } else if (pending[i] == 0 && !missingDependency.get(i)) {
+        result[i] = 1;
+        ready[tail++] = i;
+      }
+    }
+
+    while (head < tail) {
+      final int current = ready[head++];
+      for (int i = dependentsStart[current]; i < dependentsStart[current + 1]; i++) {
+        final int dependent = dependents[i];
+        highestDependency[dependent] = Math.max(highestDependency[dependent], result[current]);
+        if (--pending[dependent] == 0 && !missingDependency.get(dependent)) {
+          result[dependent] = highestDependency[dependent] + 1;
+          ready[tail++] = dependent;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private int indexOf(long id) {
+    return Arrays.binarySearch(ids, id);
+  }
+}
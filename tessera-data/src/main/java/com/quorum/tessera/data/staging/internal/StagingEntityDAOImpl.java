@@ -2,13 +2,21 @@ package com.quorum.tessera.data.staging.internal;
 
 import com.quorum.tessera.data.EntityManagerTemplate;
 import com.quorum.tessera.data.staging.StagingEntityDAO;
+import com.quorum.tessera.data.staging.StagingGraph;
 import com.quorum.tessera.data.staging.StagingTransaction;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +25,8 @@ public class StagingEntityDAOImpl implements StagingEntityDAO {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(StagingEntityDAOImpl.class);
 
+  private static final int FETCH_SIZE = 10000;
+
   private EntityManagerTemplate entityManagerTemplate;
 
   public StagingEntityDAOImpl(EntityManagerFactory entityManagerFactory) {
@@ -108,6 +118,89 @@ public class StagingEntityDAOImpl implements StagingEntityDAO {
         });
   }
 
+  @Override
+  public int updateStagesInMemory(int batchSize) {
+
+    return entityManagerTemplate.execute(
+        entityManager -> {
+          final Connection connection = entityManager.unwrap(Connection.class);
+          try {
+            final StagingGraph graph = loadStagingGraph(connection);
+            LOGGER.debug("Loaded staging graph of {} transactions", graph.size());
+
+            return writeStages(connection, graph, graph.computeStages(), batchSize);
+          } catch (SQLException ex) {
+            throw new PersistenceException(ex);
+          }
+        });
+  }
+
+  private static StagingGraph loadStagingGraph(Connection connection) throws SQLException {
+    final LongStream.Builder ids = LongStream.builder();
+    final LongStream.Builder stages = LongStream.builder();
+
+    try (Statement statement = connection.createStatement()) {
+      statement.setFetchSize(FETCH_SIZE);
+      try (ResultSet resultSet =
+          statement.executeQuery("SELECT ID, VALIDATION_STAGE FROM ST_TRANSACTION ORDER BY ID")) {
+        while (resultSet.next()) {
+          ids.add(resultSet.getLong(1));
+          stages.add(resultSet.getLong(2));
+        }
+      }
+    }
+
+    final StagingGraph graph = new StagingGraph(ids.build().toArray(), stages.build().toArray());
+
+    // as in the staging query, a row depends on the affected transactions of every row with its
+    // hash, not only on its own
+    try (Statement statement = connection.createStatement()) {
+      statement.setFetchSize(FETCH_SIZE);
+      try (ResultSet resultSet =
+          statement.executeQuery(
+              "SELECT st_src.ID, st.ID FROM ST_AFFECTED_TRANSACTION act "
+                  + "JOIN ST_TRANSACTION src ON src.ID = act.TXN_ID "
+                  + "JOIN ST_TRANSACTION st_src ON st_src.HASH = src.HASH "
+                  + "LEFT JOIN ST_TRANSACTION st ON st.HASH = act.AFFECTED_HASH")) {
+        while (resultSet.next()) {
+          final long transactionId = resultSet.getLong(1);
+          final long affectedTransactionId = resultSet.getLong(2);
+          graph.addDependency(transactionId, resultSet.wasNull() ? null : affectedTransactionId);
+        }
+      }
+    }
+
+    return graph;
+  }
+
+  private static int writeStages(
+      Connection connection, StagingGraph graph, long[] stages, int batchSize) throws SQLException {
+    int updated = 0;
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            "UPDATE ST_TRANSACTION SET VALIDATION_STAGE = ? "
+                + "WHERE ID = ? AND VALIDATION_STAGE IS NULL")) {
+      int batched = 0;
+      for (int i = 0; i < graph.size(); i++) {
+        if (stages[i] == 0 || graph.getStage(i) != 0) {
+          continue;
+        }
+        statement.setLong(1, stages[i]);
+        statement.setLong(2, graph.getId(i));
+        statement.addBatch();
+        updated++;
+        if (++batched == batchSize) {
+          statement.executeBatch();
+          batched = 0;
+        }
+      }
+      if (batched > 0) {
+        statement.executeBatch();
+      }
+    }
+    return updated;
+  }
+
   @Override
   public long countAllAffected() {
     return entityManagerTemplate.execute(
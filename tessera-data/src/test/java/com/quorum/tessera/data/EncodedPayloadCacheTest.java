@@ -0,0 +1,135 @@
+package com.quorum.tessera.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.EncodedPayloadCodec;
+import java.util.Optional;
+import org.junit.Test;
+
+public class EncodedPayloadCacheTest {
+
+  private final MessageHash hash = new MessageHash("hash".getBytes());
+
+  private final MessageHash otherHash = new MessageHash("otherHash".getBytes());
+
+  @Test
+  public void cachedTransactionIsReturnedAsCopy() {
+    final EncodedPayloadCache cache = new EncodedPayloadCache(100);
+    final EncryptedTransaction transaction = transaction(hash, 10);
+
+    cache.put(transaction, cache.generation());
+    final Optional<EncryptedTransaction> first = cache.get(hash);
+    final Optional<EncryptedTransaction> second = cache.get(hash);
+
+    assertThat(first).isPresent();
+    assertThat(first.get()).isNotSameAs(transaction).isNotSameAs(second.get());
+    assertThat(first.get().getHash()).isEqualTo(hash);
+    assertThat(first.get().getPayload()).isSameAs(transaction.getPayload());
+    assertThat(first.get().getEncodedPayloadCodec()).isEqualTo(EncodedPayloadCodec.CBOR);
+    assertThat(cache.getHitCount()).isEqualTo(2);
+    assertThat(cache.getSizeInBytes()).isEqualTo(10);
+  }
+
+  @Test
+  public void missIsCounted() {
+    final EncodedPayloadCache cache = new EncodedPayloadCache(100);
+
+    assertThat(cache.get(hash)).isEmpty();
+    cache.put(transaction(hash, 10), cache.generation());
+    cache.get(hash);
+
+    assertThat(cache.getMissCount()).isEqualTo(1);
+    assertThat(cache.getHitRatio()).isEqualTo(0.5);
+  }
+
+  @Test
+  public void hitRatioIsZeroWithoutLookups() {
+    assertThat(new EncodedPayloadCache(100).getHitRatio()).isZero();
+  }
+
+  @Test
+  public void leastRecentlyUsedIsEvictedWhenFull() {
+    final EncodedPayloadCache cache = new EncodedPayloadCache(25);
+
+    cache.put(transaction(hash, 10), cache.generation());
+    cache.put(transaction(otherHash, 10), cache.generation());
+    cache.get(hash);
+    cache.put(transaction(new MessageHash("third".getBytes()), 10), cache.generation());
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getSizeInBytes()).isEqualTo(20);
+    assertThat(cache.getEvictionCount()).isEqualTo(1);
+    assertThat(cache.get(otherHash)).isEmpty();
+    assertThat(cache.get(hash)).isPresent();
+  }
+
+  @Test
+  public void payloadLargerThanCacheIsNotStored() {
+    final EncodedPayloadCache cache = new EncodedPayloadCache(5);
+
+    cache.put(transaction(hash, 10), cache.generation());
+
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void invalidateRemovesEntry() {
+    final EncodedPayloadCache cache = new EncodedPayloadCache(100);
+    cache.put(transaction(hash, 10), cache.generation());
+
+    cache.invalidate(hash);
+
+    assertThat(cache.get(hash)).isEmpty();
+    assertThat(cache.getSizeInBytes()).isZero();
+  }
+
+  @Test
+  public void loadThatRacedWithInvalidationIsNotCached() {
+    final EncodedPayloadCache cache = new EncodedPayloadCache(100);
+
+    final long generation = cache.generation();
+    cache.invalidate(hash);
+    cache.put(transaction(hash, 10), generation);
+
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void transactionWithoutPayloadIsNotCached() {
+    final EncodedPayloadCache cache = new EncodedPayloadCache(100);
+
+    cache.put(new EncryptedTransaction(hash, null), cache.generation());
+
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void clearRemovesAllEntries() {
+    final EncodedPayloadCache cache = new EncodedPayloadCache(100);
+    cache.put(transaction(hash, 10), cache.generation());
+    cache.put(transaction(otherHash, 10), cache.generation());
+
+    cache.clear();
+
+    assertThat(cache.size()).isZero();
+    assertThat(cache.getSizeInBytes()).isZero();
+  }
+
+  @Test
+  public void negativeSizeIsRejected() {
+    final Throwable ex = catchThrowable(() -> new EncodedPayloadCache(-1));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static EncryptedTransaction transaction(MessageHash hash, int size) {
+    final EncryptedTransaction transaction =
+        new EncryptedTransaction(hash, mock(EncodedPayload.class));
+    transaction.setEncodedPayload(new byte[size]);
+    transaction.setEncodedPayloadCodec(EncodedPayloadCodec.CBOR);
+    return transaction;
+  }
+}
@@ -0,0 +1,85 @@
+package com.quorum.tessera.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class PageCursorTest {
+
+  @Test
+  public void startHasNoPosition() {
+    final PageCursor cursor = PageCursor.start();
+
+    assertThat(cursor.getTimestamp()).isNull();
+    assertThat(cursor.getHash()).isNull();
+  }
+
+  @Test
+  public void afterUntimestampedRowStaysInUntimestampedRows() {
+    final PageCursor cursor = PageCursor.after(0, new MessageHash(new byte[] {1}));
+
+    assertThat(cursor.getTimestamp()).isNull();
+    assertThat(cursor.getHash()).containsExactly(1);
+  }
+
+  @Test
+  public void afterTimestampedRow() {
+    final PageCursor cursor = PageCursor.after(123L, new MessageHash(new byte[] {1}));
+
+    assertThat(cursor.getTimestamp()).isEqualTo(123L);
+    assertThat(cursor.getHash()).containsExactly(1);
+  }
+
+  @Test
+  public void afterRequiresHash() {
+    final Throwable ex = catchThrowable(() -> PageCursor.after(1L, null));
+
+    assertThat(ex).isInstanceOf(NullPointerException.class);
+  }
+
+  @Test
+  public void pagesFollowCursorUntilShortPage() {
+    final List<Integer> rows = IntStream.range(0, 7).boxed().collect(Collectors.toList());
+    final List<PageCursor> cursors = new ArrayList<>();
+
+    final List<List<Integer>> pages =
+        PageCursor.pages(
+                cursor -> {
+                  cursors.add(cursor);
+                  final int from =
+                      cursor.getHash() == null ? 0 : Byte.toUnsignedInt(cursor.getHash()[0]) + 1;
+                  return rows.subList(from, Math.min(rows.size(), from + 3));
+                },
+                row -> PageCursor.after(1L, new MessageHash(new byte[] {row.byteValue()})),
+                3)
+            .collect(Collectors.toList());
+
+    assertThat(pages).containsExactly(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6));
+    assertThat(cursors).hasSize(3);
+    assertThat(cursors.get(0)).isSameAs(PageCursor.start());
+  }
+
+  @Test
+  public void fullLastPageIsFollowedByOneEmptyFetch() {
+    final List<Integer> rows = List.of(0, 1);
+    final List<PageCursor> cursors = new ArrayList<>();
+
+    final List<List<Integer>> pages =
+        PageCursor.pages(
+                cursor -> {
+                  cursors.add(cursor);
+                  return cursor.getHash() == null ? rows : List.<Integer>of();
+                },
+                row -> PageCursor.after(1L, new MessageHash(new byte[] {row.byteValue()})),
+                2)
+            .collect(Collectors.toList());
+
+    assertThat(pages).containsExactly(rows);
+    assertThat(cursors).hasSize(2);
+  }
+}
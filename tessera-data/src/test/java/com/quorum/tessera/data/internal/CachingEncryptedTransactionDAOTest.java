@@ -0,0 +1,166 @@
+package com.quorum.tessera.data.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.data.EncodedPayloadCache;
+import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.data.PageCursor;
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.encryption.PublicKey;
+import jakarta.persistence.EntityNotFoundException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingEncryptedTransactionDAOTest {
+
+  private EncryptedTransactionDAO delegate;
+
+  private EncodedPayloadCache payloadCache;
+
+  private CachingEncryptedTransactionDAO dao;
+
+  private final MessageHash hash = new MessageHash("hash".getBytes());
+
+  @Before
+  public void beforeTest() {
+    delegate = mock(EncryptedTransactionDAO.class);
+    payloadCache = new EncodedPayloadCache(1024);
+    dao = new CachingEncryptedTransactionDAO(delegate, payloadCache);
+  }
+
+  @After
+  public void afterTest() {
+    verifyNoMoreInteractions(delegate);
+  }
+
+  @Test
+  public void secondRetrieveIsServedFromCache() {
+    final EncryptedTransaction transaction = transaction(hash);
+    when(delegate.retrieveByHash(hash)).thenReturn(Optional.of(transaction));
+
+    final Optional<EncryptedTransaction> first = dao.retrieveByHash(hash);
+    final Optional<EncryptedTransaction> second = dao.retrieveByHash(hash);
+
+    assertThat(first).containsSame(transaction);
+    assertThat(second).isPresent();
+    assertThat(second.get().getPayload()).isSameAs(transaction.getPayload());
+    assertThat(payloadCache.getHitCount()).isEqualTo(1);
+    assertThat(payloadCache.getMissCount()).isEqualTo(1);
+    assertThat(dao.getPayloadCache()).isSameAs(payloadCache);
+
+    verify(delegate).retrieveByHash(hash);
+  }
+
+  @Test
+  public void notFoundIsNotCached() {
+    when(delegate.retrieveByHash(hash)).thenReturn(Optional.empty());
+
+    assertThat(dao.retrieveByHash(hash)).isEmpty();
+    assertThat(dao.retrieveByHash(hash)).isEmpty();
+
+    verify(delegate, times(2)).retrieveByHash(hash);
+  }
+
+  @Test
+  public void updateInvalidatesCachedTransaction() {
+    final EncryptedTransaction transaction = transaction(hash);
+    when(delegate.retrieveByHash(hash)).thenReturn(Optional.of(transaction));
+    when(delegate.update(transaction)).thenReturn(transaction);
+
+    dao.retrieveByHash(hash);
+    assertThat(dao.update(transaction)).isSameAs(transaction);
+    dao.retrieveByHash(hash);
+
+    verify(delegate, times(2)).retrieveByHash(hash);
+    verify(delegate).update(transaction);
+  }
+
+  @Test
+  public void deleteInvalidatesCachedTransactionEvenIfItFails() {
+    final EncryptedTransaction transaction = transaction(hash);
+    when(delegate.retrieveByHash(hash)).thenReturn(Optional.of(transaction));
+    doThrow(EntityNotFoundException.class).when(delegate).delete(hash);
+
+    dao.retrieveByHash(hash);
+    final Throwable ex = catchThrowable(() -> dao.delete(hash));
+
+    assertThat(ex).isInstanceOf(EntityNotFoundException.class);
+    assertThat(payloadCache.size()).isZero();
+
+    verify(delegate).retrieveByHash(hash);
+    verify(delegate).delete(hash);
+  }
+
+  @Test
+  public void findByHashesOnlyLoadsUncachedTransactions() {
+    final MessageHash otherHash = new MessageHash("other".getBytes());
+    final EncryptedTransaction transaction = transaction(hash);
+    final EncryptedTransaction other = transaction(otherHash);
+    when(delegate.retrieveByHash(hash)).thenReturn(Optional.of(transaction));
+    when(delegate.findByHashes(List.of(otherHash))).thenReturn(List.of(other));
+
+    dao.retrieveByHash(hash);
+    final List<EncryptedTransaction> results = dao.findByHashes(List.of(hash, otherHash));
+
+    assertThat(results).extracting(EncryptedTransaction::getHash).containsExactly(hash, otherHash);
+    assertThat(payloadCache.size()).isEqualTo(2);
+
+    verify(delegate).retrieveByHash(hash);
+    verify(delegate).findByHashes(List.of(otherHash));
+  }
+
+  @Test
+  public void findByHashesAllCachedSkipsDatabase() {
+    when(delegate.retrieveByHash(hash)).thenReturn(Optional.of(transaction(hash)));
+
+    dao.retrieveByHash(hash);
+    assertThat(dao.findByHashes(List.of(hash))).hasSize(1);
+
+    verify(delegate).retrieveByHash(hash);
+  }
+
+  @Test
+  public void otherOperationsDelegate() throws Exception {
+    final EncryptedTransaction transaction = transaction(hash);
+    final PublicKey key = PublicKey.from("key".getBytes());
+    final Callable<Object> callback = mock(Callable.class);
+
+    dao.save(transaction);
+    dao.save(transaction, callback);
+    dao.retrieveTransactions(0, 10);
+    dao.retrieveTransactions(PageCursor.start(), 10);
+    dao.transactionCount();
+    dao.findHashesForRecipient(key, null, 10);
+    dao.transactionCountForRecipient(key);
+    dao.isRecipientIndexComplete();
+    dao.indexRecipients(List.of(transaction));
+    dao.upcheck();
+
+    verify(delegate).save(transaction);
+    verify(delegate).save(transaction, callback);
+    verify(delegate).retrieveTransactions(0, 10);
+    verify(delegate).retrieveTransactions(PageCursor.start(), 10);
+    verify(delegate).transactionCount();
+    verify(delegate).findHashesForRecipient(key, null, 10);
+    verify(delegate).transactionCountForRecipient(key);
+    verify(delegate).isRecipientIndexComplete();
+    verify(delegate).indexRecipients(List.of(transaction));
+    verify(delegate).upcheck();
+    verifyNoInteractions(callback);
+  }
+
+  private static EncryptedTransaction transaction(MessageHash hash) {
+    final EncryptedTransaction transaction =
+        new EncryptedTransaction(hash, mock(EncodedPayload.class));
+    transaction.setEncodedPayload(new byte[10]);
+    return transaction;
+  }
+}
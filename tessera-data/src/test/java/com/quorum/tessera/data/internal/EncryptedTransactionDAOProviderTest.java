@@ -9,11 +9,23 @@ import com.quorum.tessera.config.Config;
 import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.config.JdbcConfig;
 import com.quorum.tessera.data.DataSourceFactory;
+import com.quorum.tessera.data.EncodedPayloadCache;
+import com.quorum.tessera.data.EncryptedTransaction;
 import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.encryption.Nonce;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.MBeanRegistry;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
+import java.lang.management.ManagementFactory;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -27,6 +39,12 @@ public class EncryptedTransactionDAOProviderTest {
     this.autocreateTables = autocreateTables;
   }
 
+  @Before
+  @After
+  public void clearHolder() {
+    EncryptedTransactionDAOHolder.INSTANCE.store(null);
+  }
+
   @Test
   public void defaultConstructorForCoverage() {
     assertThat(new EncryptedTransactionDAOProvider()).isNotNull();
@@ -59,12 +77,126 @@ public class EncryptedTransactionDAOProviderTest {
       EncryptedTransactionDAO result = EncryptedTransactionDAOProvider.provider();
       assertThat(result).isNotNull().isExactlyInstanceOf(EncryptedTransactionDAOImpl.class);
 
+      assertThat(EncryptedTransactionDAOProvider.provider()).isSameAs(result);
+
       mockedPersistence.verify(() -> Persistence.createEntityManagerFactory(anyString(), anyMap()));
       mockedPersistence.verifyNoMoreInteractions();
-      EncryptedTransactionDAOProvider.provider();
     }
   }
 
+  @Test
+  public void providesCachingDaoWhenPayloadCacheSizeIsSet() throws Exception {
+    try (var mockedConfigFactory = mockStatic(ConfigFactory.class);
+        var mockedDataSourceFactory = mockStatic(DataSourceFactory.class);
+        var mockedPersistence = mockStatic(Persistence.class)) {
+
+      mockedPersistence
+          .when(() -> Persistence.createEntityManagerFactory(anyString(), anyMap()))
+          .thenReturn(mock(EntityManagerFactory.class));
+
+      Config config = mock(Config.class);
+      JdbcConfig jdbcConfig = mock(JdbcConfig.class);
+      when(jdbcConfig.isAutoCreateTables()).thenReturn(autocreateTables);
+      when(jdbcConfig.getPayloadCacheSize()).thenReturn(1024L);
+      when(config.getJdbcConfig()).thenReturn(jdbcConfig);
+
+      ConfigFactory configFactory = mock(ConfigFactory.class);
+      when(configFactory.getConfig()).thenReturn(config);
+
+      mockedConfigFactory.when(ConfigFactory::create).thenReturn(configFactory);
+
+      mockedDataSourceFactory
+          .when(DataSourceFactory::create)
+          .thenReturn(mock(DataSourceFactory.class));
+
+      EncryptedTransactionDAO result = EncryptedTransactionDAOProvider.provider();
+      assertThat(result).isExactlyInstanceOf(CachingEncryptedTransactionDAO.class);
+      assertThat(((CachingEncryptedTransactionDAO) result).getPayloadCache().getMaxSizeInBytes())
+          .isEqualTo(1024L);
+
+      assertThat(
+              ManagementFactory.getPlatformMBeanServer()
+                  .getAttribute(
+                      MBeanRegistry.objectName(EncodedPayloadCache.MBEAN_TYPE, null),
+                      "MaxSizeInBytes"))
+          .isEqualTo(1024L);
+    } finally {
+      MBeanRegistry.unregister(EncodedPayloadCache.MBEAN_TYPE, null);
+    }
+  }
+
+  @Test
+  public void updateThroughOneProvidedDaoIsSeenThroughAnother() {
+    Map properties = new HashMap();
+    properties.put("jakarta.persistence.jdbc.url", "jdbc:h2:mem:provider");
+    properties.put("jakarta.persistence.jdbc.user", "junit");
+    properties.put("jakarta.persistence.jdbc.password", "");
+    properties.put("eclipselink.cache.shared.default", "false");
+    properties.put("jakarta.persistence.schema-generation.database.action", "create");
+
+    final EntityManagerFactory entityManagerFactory =
+        Persistence.createEntityManagerFactory("tessera", properties);
+
+    try (var mockedConfigFactory = mockStatic(ConfigFactory.class);
+        var mockedDataSourceFactory = mockStatic(DataSourceFactory.class);
+        var mockedPersistence = mockStatic(Persistence.class)) {
+
+      mockedPersistence
+          .when(() -> Persistence.createEntityManagerFactory(anyString(), anyMap()))
+          .thenReturn(entityManagerFactory);
+
+      Config config = mock(Config.class);
+      JdbcConfig jdbcConfig = mock(JdbcConfig.class);
+      when(jdbcConfig.isAutoCreateTables()).thenReturn(autocreateTables);
+      when(jdbcConfig.getPayloadCacheSize()).thenReturn(1024L * 1024L);
+      when(config.getJdbcConfig()).thenReturn(jdbcConfig);
+
+      ConfigFactory configFactory = mock(ConfigFactory.class);
+      when(configFactory.getConfig()).thenReturn(config);
+
+      mockedConfigFactory.when(ConfigFactory::create).thenReturn(configFactory);
+
+      mockedDataSourceFactory
+          .when(DataSourceFactory::create)
+          .thenReturn(mock(DataSourceFactory.class));
+
+      final EncryptedTransactionDAO writer = EncryptedTransactionDAOProvider.provider();
+      final EncryptedTransactionDAO reader = EncryptedTransactionDAOProvider.provider();
+
+      final PublicKey sender = PublicKey.from("sender".getBytes());
+      final PublicKey recipient = PublicKey.from("recipient".getBytes());
+      final MessageHash messageHash = new MessageHash("hash".getBytes());
+
+      writer.save(new EncryptedTransaction(messageHash, payload(sender, List.of(sender))));
+      assertThat(reader.retrieveByHash(messageHash))
+          .map(EncryptedTransaction::getPayload)
+          .map(EncodedPayload::getRecipientKeys)
+          .contains(List.of(sender));
+
+      writer.update(
+          new EncryptedTransaction(messageHash, payload(sender, List.of(sender, recipient))));
+
+      assertThat(reader.retrieveByHash(messageHash))
+          .map(EncryptedTransaction::getPayload)
+          .map(EncodedPayload::getRecipientKeys)
+          .contains(List.of(sender, recipient));
+    } finally {
+      entityManagerFactory.close();
+      MBeanRegistry.unregister(EncodedPayloadCache.MBEAN_TYPE, null);
+    }
+  }
+
+  private static EncodedPayload payload(PublicKey sender, List<PublicKey> recipients) {
+    return EncodedPayload.Builder.create()
+        .withSenderKey(sender)
+        .withCipherText("cipherText".getBytes())
+        .withCipherTextNonce(new Nonce("nonce".getBytes()))
+        .withRecipientBoxes(recipients.stream().map(r -> "box".getBytes()).toList())
+        .withRecipientNonce(new Nonce("recipientNonce".getBytes()))
+        .withRecipientKeys(recipients)
+        .build();
+  }
+
   @Parameterized.Parameters
   public static Collection<Boolean> autoCreateTables() {
     return List.of(true, false);
@@ -9,6 +9,9 @@ import com.quorum.tessera.data.*;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.EncodedPayloadCodec;
 import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.LatencyHistogram;
+import com.quorum.tessera.metrics.LatencyMetrics;
 import jakarta.persistence.*;
 import java.util.*;
 import java.util.concurrent.Callable;
@@ -57,6 +60,7 @@ public class EncryptedTransactionDAOTest {
 
     EntityManager entityManager = entityManagerFactory.createEntityManager();
     entityManager.getTransaction().begin();
+    entityManager.createQuery("delete from EncryptedTransactionRecipient").executeUpdate();
     entityManager.createQuery("delete from EncryptedTransaction").executeUpdate();
     entityManager.getTransaction().commit();
   }
@@ -155,7 +159,9 @@ public class EncryptedTransactionDAOTest {
 
       encryptedTransaction.setPayload(updatedPayload);
       encryptedTransaction.setEncodedPayload(new byte[] {0});
+      final long saves = latencyCount(LatencyMetrics.DAO_SAVE);
       encryptedTransactionDAO.update(encryptedTransaction);
+      assertThat(latencyCount(LatencyMetrics.DAO_SAVE)).isEqualTo(saves + 1);
 
       entityManager.getTransaction().rollback();
 
@@ -450,7 +456,9 @@ public class EncryptedTransactionDAOTest {
 
       Collection<MessageHash> hashes =
           transactions.stream().map(EncryptedTransaction::getHash).collect(Collectors.toList());
+      final long retrieves = latencyCount(LatencyMetrics.DAO_RETRIEVE);
       List<EncryptedTransaction> results = encryptedTransactionDAO.findByHashes(hashes);
+      assertThat(latencyCount(LatencyMetrics.DAO_RETRIEVE)).isEqualTo(retrieves + 1);
 
       assertThat(results).isNotEmpty().containsExactlyInAnyOrderElementsOf(transactions);
       assertThat(results.stream().allMatch(r -> Arrays.equals(r.getEncodedPayload(), payloadData)))
@@ -504,6 +512,44 @@ public class EncryptedTransactionDAOTest {
     verify(payloadEncoder).decode(payloadData);
   }
 
+  @Test
+  public void saveTransactionWithCallbackOnlyTimesTheWrites() throws Exception {
+    PayloadEncoder payloadEncoder = mock(PayloadEncoder.class);
+    EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(payloadEncoder.encode(encodedPayload)).thenReturn("PAYLOADATA".getBytes());
+
+    try (var createEncoderFunction = mockStatic(PayloadEncoder.class)) {
+      createEncoderFunction
+          .when(() -> PayloadEncoder.create(EncodedPayloadCodec.current()))
+          .thenReturn(payloadEncoder);
+
+      EncryptedTransaction transaction = new EncryptedTransaction();
+      transaction.setHash(new MessageHash(UUID.randomUUID().toString().getBytes()));
+      transaction.setPayload(encodedPayload);
+
+      final LatencyHistogram.Snapshot before =
+          LatencyMetrics.histogram(LatencyMetrics.DAO_SAVE).snapshot();
+
+      encryptedTransactionDAO.save(
+          transaction,
+          () -> {
+            Thread.sleep(500);
+            return null;
+          });
+
+      final LatencyHistogram.Snapshot after =
+          LatencyMetrics.histogram(LatencyMetrics.DAO_SAVE).snapshot();
+      assertThat(after.getCount()).isEqualTo(before.getCount() + 1);
+      assertThat(after.getSumSeconds() - before.getSumSeconds()).isLessThan(0.5);
+    }
+
+    verify(payloadEncoder).encode(encodedPayload);
+  }
+
+  private static long latencyCount(String stage) {
+    return LatencyMetrics.histogram(stage).snapshot().getCount();
+  }
+
   @Test
   public void saveTransactionWithCallbackException() throws Exception {
 
@@ -634,6 +680,185 @@ public class EncryptedTransactionDAOTest {
     verify(payloadEncoder, times(2)).encode(encodedPayload);
   }
 
+  @Test
+  public void saveIndexesSenderAndRecipients() {
+    final PublicKey sender = PublicKey.from("sender".getBytes());
+    final PublicKey recipient = PublicKey.from("recipient".getBytes());
+    final PublicKey other = PublicKey.from("other".getBytes());
+
+    PayloadEncoder payloadEncoder = mock(PayloadEncoder.class);
+    EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(encodedPayload.getSenderKey()).thenReturn(sender);
+    when(encodedPayload.getRecipientKeys()).thenReturn(List.of(sender, recipient));
+    when(payloadEncoder.encode(encodedPayload)).thenReturn("PAYLOAD".getBytes());
+
+    try (var createEncoderFunction = mockStatic(PayloadEncoder.class)) {
+      createEncoderFunction
+          .when(() -> PayloadEncoder.create(EncodedPayloadCodec.current()))
+          .thenReturn(payloadEncoder);
+
+      final MessageHash messageHash = new MessageHash(new byte[] {1});
+      encryptedTransactionDAO.save(new EncryptedTransaction(messageHash, encodedPayload));
+
+      assertThat(encryptedTransactionDAO.isRecipientIndexComplete()).isTrue();
+      assertThat(encryptedTransactionDAO.transactionCountForRecipient(sender)).isEqualTo(1);
+      assertThat(encryptedTransactionDAO.transactionCountForRecipient(recipient)).isEqualTo(1);
+      assertThat(encryptedTransactionDAO.transactionCountForRecipient(other)).isZero();
+      assertThat(encryptedTransactionDAO.findHashesForRecipient(recipient, null, 10))
+          .containsExactly(messageHash);
+
+      encryptedTransactionDAO.delete(messageHash);
+
+      assertThat(encryptedTransactionDAO.transactionCountForRecipient(sender)).isZero();
+      assertThat(encryptedTransactionDAO.transactionCountForRecipient(recipient)).isZero();
+    }
+  }
+
+  @Test
+  public void recipientIndexCompletenessIsOnlyCountedAgainAfterBackfill() {
+    PayloadEncoder payloadEncoder = mock(PayloadEncoder.class);
+    EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(encodedPayload.getSenderKey()).thenReturn(PublicKey.from("sender".getBytes()));
+    when(payloadEncoder.encode(encodedPayload)).thenReturn("PAYLOAD".getBytes());
+
+    try (var createEncoderFunction = mockStatic(PayloadEncoder.class)) {
+      createEncoderFunction
+          .when(() -> PayloadEncoder.create(EncodedPayloadCodec.current()))
+          .thenReturn(payloadEncoder);
+
+      assertThat(encryptedTransactionDAO.isRecipientIndexComplete()).isTrue();
+
+      // a row that bypasses the index is not noticed, as the answer is not counted again
+      EntityManager entityManager = entityManagerFactory.createEntityManager();
+      entityManager.getTransaction().begin();
+      entityManager.persist(
+          new EncryptedTransaction(new MessageHash(new byte[] {1}), encodedPayload));
+      entityManager.getTransaction().commit();
+
+      assertThat(encryptedTransactionDAO.isRecipientIndexComplete()).isTrue();
+    }
+  }
+
+  @Test
+  public void indexRecipientsBackfillsUnindexedTransactions() {
+    final PublicKey sender = PublicKey.from("sender".getBytes());
+
+    PayloadEncoder payloadEncoder = mock(PayloadEncoder.class);
+    EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(encodedPayload.getSenderKey()).thenReturn(sender);
+    final byte[] payloadData = "PAYLOAD".getBytes();
+    when(payloadEncoder.encode(encodedPayload)).thenReturn(payloadData);
+    when(payloadEncoder.decode(payloadData)).thenReturn(encodedPayload);
+
+    try (var createEncoderFunction = mockStatic(PayloadEncoder.class)) {
+      createEncoderFunction
+          .when(() -> PayloadEncoder.create(EncodedPayloadCodec.current()))
+          .thenReturn(payloadEncoder);
+
+      // simulate transactions stored before the recipient index existed
+      EntityManager entityManager = entityManagerFactory.createEntityManager();
+      entityManager.getTransaction().begin();
+      IntStream.range(0, 5)
+          .mapToObj(i -> new MessageHash(new byte[] {(byte) i}))
+          .map(hash -> new EncryptedTransaction(hash, encodedPayload))
+          .forEach(entityManager::persist);
+      entityManager.getTransaction().commit();
+
+      assertThat(encryptedTransactionDAO.isRecipientIndexComplete()).isFalse();
+
+      final List<EncryptedTransaction> stored = encryptedTransactionDAO.retrieveTransactions(0, 5);
+      encryptedTransactionDAO.indexRecipients(stored);
+      // indexing the same transactions again is harmless
+      encryptedTransactionDAO.indexRecipients(stored);
+
+      assertThat(encryptedTransactionDAO.isRecipientIndexComplete()).isTrue();
+      assertThat(encryptedTransactionDAO.transactionCountForRecipient(sender)).isEqualTo(5);
+      assertThat(encryptedTransactionDAO.streamHashesForRecipient(sender, 2).flatMap(List::stream))
+          .containsExactlyInAnyOrderElementsOf(
+              stored.stream().map(EncryptedTransaction::getHash).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void streamTransactionsVisitsEveryTransactionOnce() {
+
+    PayloadEncoder payloadEncoder = mock(PayloadEncoder.class);
+    final byte[] payloadData = "PAYLOAD".getBytes();
+    EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(payloadEncoder.encode(encodedPayload)).thenReturn(payloadData);
+    when(payloadEncoder.decode(payloadData)).thenReturn(encodedPayload);
+
+    try (var createEncoderFunction = mockStatic(PayloadEncoder.class)) {
+      createEncoderFunction
+          .when(() -> PayloadEncoder.create(EncodedPayloadCodec.current()))
+          .thenReturn(payloadEncoder);
+
+      final List<MessageHash> hashes =
+          IntStream.range(0, 11)
+              .mapToObj(i -> new MessageHash(new byte[] {(byte) i}))
+              .collect(Collectors.toList());
+
+      // persisted together so that many of them share a timestamp
+      EntityManager entityManager = entityManagerFactory.createEntityManager();
+      entityManager.getTransaction().begin();
+      hashes.stream()
+          .map(hash -> new EncryptedTransaction(hash, encodedPayload))
+          .forEach(entityManager::persist);
+      entityManager.getTransaction().commit();
+
+      // rows stored before the timestamp column existed have no timestamp
+      entityManager.getTransaction().begin();
+      entityManager
+          .createQuery(
+              "update EncryptedTransaction et set et.timestamp = 0"
+                  + " where et.hash.hashBytes = :first or et.hash.hashBytes = :second")
+          .setParameter("first", hashes.get(3).getHashBytes())
+          .setParameter("second", hashes.get(7).getHashBytes())
+          .executeUpdate();
+      entityManager.getTransaction().commit();
+
+      final List<List<EncryptedTransaction>> pages =
+          encryptedTransactionDAO.streamTransactions(3).collect(Collectors.toList());
+
+      assertThat(pages).hasSize(4);
+      assertThat(pages.get(3)).hasSize(2);
+      assertThat(pages.stream().flatMap(List::stream).map(EncryptedTransaction::getHash))
+          .containsExactlyInAnyOrderElementsOf(hashes);
+      // transactions without a timestamp are read first
+      assertThat(pages.get(0))
+          .extracting(EncryptedTransaction::getHash)
+          .startsWith(hashes.get(3), hashes.get(7));
+    }
+  }
+
+  @Test
+  public void retrieveTransactionsAfterLastTransactionIsEmpty() {
+
+    PayloadEncoder payloadEncoder = mock(PayloadEncoder.class);
+    final byte[] payloadData = "PAYLOAD".getBytes();
+    EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(payloadEncoder.encode(encodedPayload)).thenReturn(payloadData);
+    when(payloadEncoder.decode(payloadData)).thenReturn(encodedPayload);
+
+    try (var createEncoderFunction = mockStatic(PayloadEncoder.class)) {
+      createEncoderFunction
+          .when(() -> PayloadEncoder.create(EncodedPayloadCodec.current()))
+          .thenReturn(payloadEncoder);
+
+      final EncryptedTransaction saved =
+          encryptedTransactionDAO.save(
+              new EncryptedTransaction(new MessageHash(new byte[] {1}), encodedPayload));
+
+      assertThat(encryptedTransactionDAO.retrieveTransactions(PageCursor.start(), 10))
+          .extracting(EncryptedTransaction::getHash)
+          .containsExactly(saved.getHash());
+      assertThat(
+              encryptedTransactionDAO.retrieveTransactions(
+                  PageCursor.after(saved.getTimestamp(), saved.getHash()), 10))
+          .isEmpty();
+    }
+  }
+
   @Test
   public void upcheckReturnsTrue() {
     assertThat(encryptedTransactionDAO.upcheck());
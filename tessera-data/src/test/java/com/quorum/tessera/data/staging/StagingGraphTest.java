@@ -0,0 +1,117 @@
+package com.quorum.tessera.data.staging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import org.junit.Test;
+
+public class StagingGraphTest {
+
+  @Test
+  public void transactionsWithoutDependenciesAreFirstStage() {
+    final StagingGraph graph = new StagingGraph(new long[] {1, 2, 3}, new long[3]);
+
+    assertThat(graph.computeStages()).containsExactly(1, 1, 1);
+  }
+
+  @Test
+  public void stageIsOneMoreThanHighestDependency() {
+    final StagingGraph graph = new StagingGraph(new long[] {1, 2, 3, 4}, new long[4]);
+    graph.addDependency(2, 1L);
+    graph.addDependency(3, 2L);
+    graph.addDependency(4, 1L);
+    graph.addDependency(4, 3L);
+
+    assertThat(graph.computeStages()).containsExactly(1, 2, 3, 4);
+  }
+
+  @Test
+  public void rowsSharingAHashMustAllBeStagedFirst() {
+    // rows 2 and 3 are two versions of the same transaction, both affected by row 4
+    final StagingGraph graph = new StagingGraph(new long[] {1, 2, 3, 4}, new long[4]);
+    graph.addDependency(3, 1L);
+    graph.addDependency(4, 2L);
+    graph.addDependency(4, 3L);
+
+    assertThat(graph.computeStages()).containsExactly(1, 1, 2, 3);
+  }
+
+  @Test
+  public void missingDependencyLeavesTransactionAndDependentsUnstaged() {
+    final StagingGraph graph = new StagingGraph(new long[] {1, 2, 3}, new long[3]);
+    graph.addDependency(2, null);
+    graph.addDependency(3, 2L);
+
+    assertThat(graph.computeStages()).containsExactly(1, 0, 0);
+  }
+
+  @Test
+  public void dependencyOnUnknownRowIsMissing() {
+    final StagingGraph graph = new StagingGraph(new long[] {1, 2}, new long[2]);
+    graph.addDependency(2, 99L);
+
+    assertThat(graph.computeStages()).containsExactly(1, 0);
+  }
+
+  @Test
+  public void cyclesAreLeftUnstaged() {
+    final StagingGraph graph = new StagingGraph(new long[] {1, 2, 3}, new long[3]);
+    graph.addDependency(1, 2L);
+    graph.addDependency(2, 1L);
+
+    assertThat(graph.computeStages()).containsExactly(0, 0, 1);
+  }
+
+  @Test
+  public void alreadyStagedTransactionsKeepTheirStage() {
+    final StagingGraph graph = new StagingGraph(new long[] {1, 2, 3}, new long[] {5, 0, 0});
+    graph.addDependency(2, 1L);
+    graph.addDependency(3, 2L);
+
+    assertThat(graph.computeStages()).containsExactly(5, 6, 7);
+    assertThat(graph.getStage(0)).isEqualTo(5);
+    assertThat(graph.getStage(1)).isZero();
+  }
+
+  @Test
+  public void dependenciesOfUnknownTransactionsAreIgnored() {
+    final StagingGraph graph = new StagingGraph(new long[] {1}, new long[1]);
+    graph.addDependency(7, 1L);
+
+    assertThat(graph.size()).isEqualTo(1);
+    assertThat(graph.getId(0)).isEqualTo(1);
+    assertThat(graph.computeStages()).containsExactly(1);
+  }
+
+  @Test
+  public void manyDependenciesGrowTheGraph() {
+    final int size = 100;
+    final long[] ids = new long[size];
+    for (int i = 0; i < size; i++) {
+      ids[i] = i + 1;
+    }
+    final StagingGraph graph = new StagingGraph(ids, new long[size]);
+    for (int i = 1; i < size; i++) {
+      graph.addDependency(i + 1, (long) i);
+    }
+
+    final long[] stages = graph.computeStages();
+
+    assertThat(stages[0]).isEqualTo(1);
+    assertThat(stages[size - 1]).isEqualTo(size);
+  }
+
+  @Test
+  public void idsAndStagesMustMatch() {
+    final Throwable ex = catchThrowable(() -> new StagingGraph(new long[2], new long[1]));
+
+    assertThat(ex).isExactlyInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void estimateSizeGrowsWithTransactionsAndDependencies() {
+    assertThat(StagingGraph.estimateSize(0, 0)).isZero();
+    assertThat(StagingGraph.estimateSize(2, 0)).isPositive();
+    assertThat(StagingGraph.estimateSize(2, 1)).isGreaterThan(StagingGraph.estimateSize(2, 0));
+  }
+}
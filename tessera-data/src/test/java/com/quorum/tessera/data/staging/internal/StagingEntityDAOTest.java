@@ -179,6 +179,94 @@ public class StagingEntityDAOTest {
     assertThat(stagingEntityDAO.countAllAffected()).isEqualTo(7);
   }
 
+  @Test
+  public void testStagingInMemory() {
+
+    final int staged = stagingEntityDAO.updateStagesInMemory(2);
+
+    assertThat(staged).isEqualTo(6);
+
+    final List<StagingTransaction> verifiedTransactions =
+        stagingEntityDAO.retrieveTransactionBatchOrderByStageAndHash(0, Integer.MAX_VALUE);
+
+    // Stages match those found by the staging query
+    assertThat(verifiedTransactions.get(0).getValidationStage()).isEqualTo(1L);
+    assertThat(verifiedTransactions.get(0).getId()).isEqualTo(1L);
+
+    assertThat(verifiedTransactions.get(1).getValidationStage()).isEqualTo(2L);
+    assertThat(verifiedTransactions.get(2).getValidationStage()).isEqualTo(2L);
+    assertThat(verifiedTransactions.get(3).getValidationStage()).isEqualTo(2L);
+
+    assertThat(verifiedTransactions.get(4).getValidationStage()).isEqualTo(3L);
+    assertThat(verifiedTransactions.get(4).getId()).isEqualTo(4L);
+
+    assertThat(verifiedTransactions.get(5).getValidationStage()).isEqualTo(4L);
+    assertThat(verifiedTransactions.get(5).getId()).isEqualTo(7L);
+
+    assertThat(verifiedTransactions.get(6).getValidationStage()).isNull();
+    assertThat(verifiedTransactions.get(6).getId()).isEqualTo(5L);
+
+    assertThat(stagingEntityDAO.countStaged()).isEqualTo(6);
+
+    // Nothing is left to stage on a second run
+    assertThat(stagingEntityDAO.updateStagesInMemory(2)).isZero();
+  }
+
+  @Test
+  public void stagingInMemoryMatchesStagingQueryForDuplicateHashes() {
+
+    // two versions of TXN8, only one of which depends on the unresolvable TXN5
+    final EntityManager entityManager = entityManagerFactory.createEntityManager();
+    entityManager.getTransaction().begin();
+    final String txnHash8 = Utils.createHashStr();
+
+    final StagingTransaction stTransaction8a = new StagingTransaction();
+    stTransaction8a.setId(81L);
+    stTransaction8a.setHash(txnHash8);
+    stTransaction8a.setEncodedPayloadCodec(CODEC);
+
+    final StagingAffectedTransaction stAffectedContractTransaction85 =
+        new StagingAffectedTransaction();
+    stAffectedContractTransaction85.setHash(transactions.get("TXN5").getHash());
+    stAffectedContractTransaction85.setSourceTransaction(stTransaction8a);
+    stTransaction8a.getAffectedContractTransactions().add(stAffectedContractTransaction85);
+    entityManager.persist(stTransaction8a);
+
+    final StagingTransaction stTransaction8b = new StagingTransaction();
+    stTransaction8b.setId(82L);
+    stTransaction8b.setHash(txnHash8);
+    stTransaction8b.setEncodedPayloadCodec(CODEC);
+    entityManager.persist(stTransaction8b);
+
+    entityManager.getTransaction().commit();
+
+    final AtomicLong stage = new AtomicLong(0);
+    while (stagingEntityDAO.updateStageForBatch(10, stage.incrementAndGet()) != 0) {}
+    final Map<Long, Long> queryStages = stagesById();
+
+    entityManager.getTransaction().begin();
+    entityManager
+        .createQuery("update StagingTransaction st set st.validationStage = null")
+        .executeUpdate();
+    entityManager.getTransaction().commit();
+
+    stagingEntityDAO.updateStagesInMemory(2);
+    final Map<Long, Long> inMemoryStages = stagesById();
+
+    assertThat(inMemoryStages).isEqualTo(queryStages);
+    assertThat(inMemoryStages.get(81L)).isNull();
+    assertThat(inMemoryStages.get(82L)).isNull();
+    assertThat(stagingEntityDAO.countStaged()).isEqualTo(6);
+  }
+
+  private Map<Long, Long> stagesById() {
+    final Map<Long, Long> stages = new HashMap<>();
+    stagingEntityDAO
+        .retrieveTransactionBatchOrderByStageAndHash(0, Integer.MAX_VALUE)
+        .forEach(st -> stages.put(st.getId(), st.getValidationStage()));
+    return stages;
+  }
+
   @Test
   public void paginationCanCauseDifferentStagingValueButOrderShouldBeMaintained() {
 
@@ -10,6 +10,7 @@ import com.quorum.tessera.p2p.resend.SyncPoller;
 import com.quorum.tessera.p2p.resend.TransactionRequester;
 import com.quorum.tessera.partyinfo.P2pClient;
 import com.quorum.tessera.service.ServiceContainer;
+import com.quorum.tessera.threading.ExecutorFactory;
 import com.quorum.tessera.threading.TesseraScheduledExecutor;
 import java.util.ArrayList;
 import java.util.List;
@@ -47,6 +48,8 @@ public class ScheduledServiceFactory {
 
     IntervalPropertyHelper intervalPropertyHelper =
         new IntervalPropertyHelper(config.getP2PServerConfig().getProperties());
+    ExecutorFactory executorFactory =
+        new ExecutorFactory(config.getP2PServerConfig().getProperties());
     LOGGER.info("Creating p2p client");
     P2pClient p2pClient = P2pClient.create();
     LOGGER.info("Created p2p client {}", p2pClient);
@@ -55,7 +58,8 @@ public class ScheduledServiceFactory {
 
       ResendPartyStore resendPartyStore = ResendPartyStore.create();
       TransactionRequester transactionRequester = TransactionRequester.create();
-      SyncPoller syncPoller = new SyncPoller(resendPartyStore, transactionRequester, p2pClient);
+      SyncPoller syncPoller =
+          new SyncPoller(executorFactory, resendPartyStore, transactionRequester, p2pClient);
       ScheduledExecutorService scheduledExecutorService =
           java.util.concurrent.Executors.newSingleThreadScheduledExecutor();
       tesseraScheduledExecutors.add(
@@ -81,7 +85,9 @@ public class ScheduledServiceFactory {
 
     LOGGER.info("Creating PartyInfoBroadcaster");
 
-    PartyInfoBroadcaster partyInfoPoller = new PartyInfoBroadcaster(p2pClient);
+    PartyInfoBroadcaster partyInfoPoller =
+        new PartyInfoBroadcaster(
+            p2pClient, executorFactory, intervalPropertyHelper.partyInfoInterval());
     LOGGER.info("Created PartyInfoBroadcaster {}", partyInfoPoller);
 
     tesseraScheduledExecutors.add(
@@ -0,0 +1,137 @@
+package com.quorum.tessera.api.common;
+
+import static java.util.Collections.emptyList;
+
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.EncodedPayloadCodec;
+import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.shared.Constants;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads and writes an {@link EncodedPayload} as an octet stream body, encoding straight to and
+ * decoding straight from the entity stream rather than through an intermediate byte array.
+ *
+ * <p>The codec can be named by the {@code codec} parameter of the media type. When reading a body
+ * without one, the codec is the one preferred for the API versions the sender advertised in its
+ * {@link Constants#API_VERSION_HEADER} header, and when writing without one it is the legacy
+ * codec. A parameter naming an unknown codec is treated as if it were missing. As media type
+ * parameters are ignored when matching resources, the body is still accepted by nodes that do not
+ * know of the parameter.
+ */
+@Provider
+@Consumes(MediaType.APPLICATION_OCTET_STREAM)
+@Produces(MediaType.APPLICATION_OCTET_STREAM)
+public class EncodedPayloadProvider
+    implements MessageBodyReader<EncodedPayload>, MessageBodyWriter<EncodedPayload> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EncodedPayloadProvider.class);
+
+  public static final String CODEC_PARAMETER = "codec";
+
+  /** The octet stream media type of a payload encoded with the given codec */
+  public static MediaType mediaType(EncodedPayloadCodec codec) {
+    return new MediaType(
+        MediaType.APPLICATION_OCTET_STREAM_TYPE.getType(),
+        MediaType.APPLICATION_OCTET_STREAM_TYPE.getSubtype(),
+        Map.of(CODEC_PARAMETER, codec.name()));
+  }
+
+  @Override
+  public boolean isReadable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return EncodedPayload.class.isAssignableFrom(type) && isOctetStream(mediaType);
+  }
+
+  @Override
+  public EncodedPayload readFrom(
+      Class<EncodedPayload> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, String> httpHeaders,
+      InputStream entityStream) {
+
+    final EncodedPayloadCodec codec =
+        codecOf(mediaType)
+            .orElseGet(() -> preferredCodec(httpHeaders.get(Constants.API_VERSION_HEADER)));
+
+    return PayloadEncoder.create(codec).decode(entityStream);
+  }
+
+  @Override
+  public boolean isWriteable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return EncodedPayload.class.isAssignableFrom(type) && isOctetStream(mediaType);
+  }
+
+  @Override
+  public void writeTo(
+      EncodedPayload payload,
+      Class<?> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, Object> httpHeaders,
+      OutputStream entityStream)
+      throws IOException {
+
+    final EncodedPayloadCodec codec = codecOf(mediaType).orElse(EncodedPayloadCodec.LEGACY);
+
+    PayloadEncoder.create(codec).encode(payload, entityStream);
+  }
+
+  private static boolean isOctetStream(MediaType mediaType) {
+    return Objects.isNull(mediaType)
+        || MediaType.APPLICATION_OCTET_STREAM_TYPE.isCompatible(mediaType);
+  }
+
+  /** The codec named by the media type, or empty if it names none or one that is not known */
+  private static Optional<EncodedPayloadCodec> codecOf(MediaType mediaType) {
+    final Optional<String> name =
+        Optional.ofNullable(mediaType)
+            .map(MediaType::getParameters)
+            .map(parameters -> parameters.get(CODEC_PARAMETER));
+
+    final Optional<EncodedPayloadCodec> codec =
+        name.flatMap(
+            n ->
+                Arrays.stream(EncodedPayloadCodec.values())
+                    .filter(c -> c.name().equals(n))
+                    .findAny());
+    if (name.isPresent() && codec.isEmpty()) {
+      LOGGER.debug("Ignoring unknown payload codec {}", name.get());
+    }
+    return codec;
+  }
+
+  private static EncodedPayloadCodec preferredCodec(final List<String> headers) {
+    final Set<String> versions =
+        Optional.ofNullable(headers).orElse(emptyList()).stream()
+            .filter(Objects::nonNull)
+            .flatMap(v -> Arrays.stream(v.split(",")))
+            .collect(Collectors.toSet());
+
+    return EncodedPayloadCodec.getPreferredCodec(versions);
+  }
+}
@@ -0,0 +1,166 @@
+package com.quorum.tessera.api.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.EncodedPayloadCodec;
+import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.encryption.Nonce;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.shared.Constants;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class EncodedPayloadProviderTest {
+
+  private final EncodedPayloadProvider provider = new EncodedPayloadProvider();
+
+  private final EncodedPayload payload =
+      EncodedPayload.Builder.create()
+          .withSenderKey(PublicKey.from("sender".getBytes()))
+          .withCipherText("cipherText".getBytes())
+          .withCipherTextNonce(new Nonce("cipherTextNonce".getBytes()))
+          .withRecipientNonce(new Nonce("recipientNonce".getBytes()))
+          .withRecipientBoxes(List.of("box".getBytes()))
+          .withRecipientKeys(List.of(PublicKey.from("recipient".getBytes())))
+          .build();
+
+  @Test
+  public void mediaTypeNamesCodec() {
+    final MediaType mediaType = EncodedPayloadProvider.mediaType(EncodedPayloadCodec.CBOR);
+
+    assertThat(mediaType.isCompatible(MediaType.APPLICATION_OCTET_STREAM_TYPE)).isTrue();
+    assertThat(mediaType.getParameters())
+        .containsEntry(EncodedPayloadProvider.CODEC_PARAMETER, "CBOR");
+  }
+
+  @Test
+  public void readsAndWritesEncodedPayloadsAsOctetStreams() {
+    assertThat(
+            provider.isReadable(
+                EncodedPayload.class, null, null, MediaType.APPLICATION_OCTET_STREAM_TYPE))
+        .isTrue();
+    assertThat(
+            provider.isWriteable(
+                EncodedPayload.class, null, null, MediaType.APPLICATION_OCTET_STREAM_TYPE))
+        .isTrue();
+    assertThat(
+            provider.isReadable(EncodedPayload.class, null, null, MediaType.APPLICATION_JSON_TYPE))
+        .isFalse();
+    assertThat(
+            provider.isWriteable(byte[].class, null, null, MediaType.APPLICATION_OCTET_STREAM_TYPE))
+        .isFalse();
+  }
+
+  @Test
+  public void writeUsesCodecOfMediaType() throws IOException {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    provider.writeTo(
+        payload,
+        EncodedPayload.class,
+        null,
+        null,
+        EncodedPayloadProvider.mediaType(EncodedPayloadCodec.CBOR),
+        new MultivaluedHashMap<>(),
+        outputStream);
+
+    assertThat(outputStream.toByteArray())
+        .isEqualTo(PayloadEncoder.create(EncodedPayloadCodec.CBOR).encode(payload));
+  }
+
+  @Test
+  public void writeDefaultsToLegacyCodec() throws IOException {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    provider.writeTo(
+        payload,
+        EncodedPayload.class,
+        null,
+        null,
+        MediaType.APPLICATION_OCTET_STREAM_TYPE,
+        new MultivaluedHashMap<>(),
+        outputStream);
+
+    assertThat(outputStream.toByteArray())
+        .isEqualTo(PayloadEncoder.create(EncodedPayloadCodec.LEGACY).encode(payload));
+  }
+
+  @Test
+  public void readUsesCodecOfMediaType() {
+    final byte[] encoded = PayloadEncoder.create(EncodedPayloadCodec.CBOR).encode(payload);
+
+    final EncodedPayload result =
+        provider.readFrom(
+            EncodedPayload.class,
+            null,
+            null,
+            EncodedPayloadProvider.mediaType(EncodedPayloadCodec.CBOR),
+            new MultivaluedHashMap<>(),
+            new ByteArrayInputStream(encoded));
+
+    assertThat(result).isEqualTo(payload);
+  }
+
+  @Test
+  public void readUsesCodecPreferredForApiVersionHeader() {
+    final byte[] encoded = PayloadEncoder.create(EncodedPayloadCodec.CBOR).encode(payload);
+    final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+    headers.add(
+        Constants.API_VERSION_HEADER,
+        "v1," + EncodedPayloadCodec.CBOR.getMinimumSupportedVersion());
+
+    final EncodedPayload result =
+        provider.readFrom(
+            EncodedPayload.class,
+            null,
+            null,
+            MediaType.APPLICATION_OCTET_STREAM_TYPE,
+            headers,
+            new ByteArrayInputStream(encoded));
+
+    assertThat(result).isEqualTo(payload);
+  }
+
+  @Test
+  public void readIgnoresUnknownCodecOfMediaType() {
+    final byte[] encoded = PayloadEncoder.create(EncodedPayloadCodec.CBOR).encode(payload);
+    final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+    headers.add(
+        Constants.API_VERSION_HEADER, EncodedPayloadCodec.CBOR.getMinimumSupportedVersion());
+
+    final EncodedPayload result =
+        provider.readFrom(
+            EncodedPayload.class,
+            null,
+            null,
+            new MediaType("application", "octet-stream", Map.of("codec", "SPARROW")),
+            headers,
+            new ByteArrayInputStream(encoded));
+
+    assertThat(result).isEqualTo(payload);
+  }
+
+  @Test
+  public void readDefaultsToLegacyCodec() {
+    final byte[] encoded = PayloadEncoder.create(EncodedPayloadCodec.LEGACY).encode(payload);
+
+    final EncodedPayload result =
+        provider.readFrom(
+            EncodedPayload.class,
+            null,
+            null,
+            MediaType.APPLICATION_OCTET_STREAM_TYPE,
+            new MultivaluedHashMap<>(),
+            new ByteArrayInputStream(encoded));
+
+    assertThat(result).isEqualTo(payload);
+  }
+}
@@ -11,9 +11,12 @@ import jakarta.ws.rs.core.Configuration;
 import java.lang.reflect.Method;
 import java.net.URI;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Creates HTTP clients that can make requests
@@ -22,6 +25,31 @@ import javax.net.ssl.SSLContext;
  */
 public class ClientFactory implements RestClientFactory {
 
+  /** Server config property making clients offer HTTP/2 alongside HTTP/1.1 */
+  public static final String HTTP2 = "http2";
+
+  /** Server config property making HTTP/2 clients use h2c on clear text connections */
+  public static final String HTTP2_PRIOR_KNOWLEDGE = "http2PriorKnowledge";
+
+  /** Server config property limiting the open connections to each remote server */
+  public static final String MAX_CONNECTIONS_PER_DESTINATION = "clientMaxConnectionsPerDestination";
+
+  /** Server config property limiting the requests that wait for a connection to a remote server */
+  public static final String MAX_REQUESTS_QUEUED_PER_DESTINATION =
+      "clientMaxRequestsQueuedPerDestination";
+
+  static final int DEFAULT_MAX_CONNECTIONS_PER_DESTINATION = 64;
+
+  static final int DEFAULT_MAX_REQUESTS_QUEUED_PER_DESTINATION = 1024;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ClientFactory.class);
+
+  private static final String UNIX_SOCKET_CONNECTOR_PROVIDER =
+      "com.quorum.tessera.jaxrs.unixsocket.JerseyUnixSocketConnectorProvider";
+
+  private static final String JETTY_CONNECTOR_PROVIDER =
+      "com.quorum.tessera.jaxrs.jetty.JettyConnectorProvider";
+
   private final SSLContextFactory sslContextFactory;
 
   public ClientFactory(final SSLContextFactory sslContextFactory) {
@@ -32,14 +60,12 @@ public class ClientFactory implements RestClientFactory {
     this(com.quorum.tessera.ssl.context.ClientSSLContextFactory.create());
   }
 
-  private static Configuration createUnixServerSocketConfig() {
+  private static Configuration createConnectorConfig(String connectorProviderClassName) {
 
     return ReflectCallback.execute(
         () -> {
           Class configType = Class.forName("org.glassfish.jersey.client.ClientConfig");
-          Class providerClass =
-              Class.forName(
-                  "com.quorum.tessera.jaxrs.unixsocket.JerseyUnixSocketConnectorProvider");
+          Class providerClass = Class.forName(connectorProviderClassName);
           Object config = configType.getDeclaredConstructor().newInstance();
           Object provider = providerClass.getDeclaredConstructor().newInstance();
           Method connectorProviderMethod =
@@ -58,27 +84,50 @@ public class ClientFactory implements RestClientFactory {
    * Creates a new client, which may or may not be SSL enabled or a unix socket enabled depending on
    * the configuration.
    *
+   * <p>Clients other than unix socket clients keep a pool of connections to each remote server. The
+   * pool and timeouts are tuned through the server config properties, with the connect and request
+   * timeouts falling back to three quarters of the partyinfo interval.
+   *
    * @param config
    * @return
    * @see Client
    */
   public Client buildFrom(final ServerConfig config) {
 
-    final ClientBuilder clientBuilder = ClientBuilder.newBuilder();
-
-    final long pollInterval =
-        new IntervalPropertyHelper(config.getProperties()).partyInfoInterval();
-    final long timeout = Math.round(Math.ceil(pollInterval * 0.75));
-    clientBuilder.connectTimeout(timeout, TimeUnit.MILLISECONDS);
-    clientBuilder.readTimeout(timeout, TimeUnit.MILLISECONDS);
-    clientBuilder.register(VersionHeaderDecorator.class);
+    final Map<String, String> properties = config.getProperties();
+    final IntervalPropertyHelper intervals = new IntervalPropertyHelper(properties);
 
     if (config.isUnixSocket()) {
-      Configuration clientConfig = createUnixServerSocketConfig();
+      Configuration clientConfig = createConnectorConfig(UNIX_SOCKET_CONNECTOR_PROVIDER);
       URI unixfile = config.getServerUri();
       return ClientBuilder.newClient(clientConfig).property("unixfile", unixfile);
+    }
+
+    final ClientBuilder clientBuilder =
+        ClientBuilder.newBuilder().withConfig(createConnectorConfig(JETTY_CONNECTOR_PROVIDER));
+
+    clientBuilder.connectTimeout(intervals.clientConnectTimeout(), TimeUnit.MILLISECONDS);
+    clientBuilder.readTimeout(intervals.clientRequestTimeout(), TimeUnit.MILLISECONDS);
+    clientBuilder.register(VersionHeaderDecorator.class);
+
+    clientBuilder.property("tessera.client.name", Objects.toString(config.getApp(), "client"));
+    clientBuilder.property("tessera.client.idleTimeout", intervals.clientIdleTimeout());
+    clientBuilder.property(
+        "tessera.client.maxConnectionsPerDestination",
+        intProperty(
+            properties, MAX_CONNECTIONS_PER_DESTINATION, DEFAULT_MAX_CONNECTIONS_PER_DESTINATION));
+    clientBuilder.property(
+        "tessera.client.maxRequestsQueuedPerDestination",
+        intProperty(
+            properties,
+            MAX_REQUESTS_QUEUED_PER_DESTINATION,
+            DEFAULT_MAX_REQUESTS_QUEUED_PER_DESTINATION));
+    clientBuilder.property("tessera.http2", Boolean.parseBoolean(properties.get(HTTP2)));
+    clientBuilder.property(
+        "tessera.http2.priorKnowledge",
+        Boolean.parseBoolean(properties.get(HTTP2_PRIOR_KNOWLEDGE)));
 
-    } else if (config.isSsl()) {
+    if (config.isSsl()) {
       final SSLContext sslContext =
           sslContextFactory.from(config.getServerUri().toString(), config.getSslConfig());
       return clientBuilder.sslContext(sslContext).build();
@@ -86,4 +135,20 @@ public class ClientFactory implements RestClientFactory {
       return clientBuilder.build();
     }
   }
+
+  private static int intProperty(
+      final Map<String, String> properties, final String property, final int defaultValue) {
+    try {
+      final int value =
+          Integer.parseInt(properties.getOrDefault(property, String.valueOf(defaultValue)));
+      if (value > 0) {
+        return value;
+      }
+    } catch (NumberFormatException ex) {
+      // fall through to the warning below
+    }
+    LOGGER.warn(
+        "Not able to parse configured property {}. Will use default value instead", property);
+    return defaultValue;
+  }
 }
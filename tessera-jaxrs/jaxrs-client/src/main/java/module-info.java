@@ -1,5 +1,6 @@
 module tessera.jaxrs.client {
   requires jakarta.ws.rs;
+  requires org.slf4j;
   requires tessera.config;
   requires tessera.security;
   requires tessera.shared;
@@ -93,6 +93,57 @@ public class ClientFactoryTest {
         .isEqualTo("com.quorum.tessera.jaxrs.unixsocket.JerseyUnixSocketConnectorProvider");
   }
 
+  @Test
+  public void createHttp2Client() {
+    ServerConfig serverConfig = new ServerConfig();
+    serverConfig.setServerAddress("http://localhost:8080");
+    serverConfig.setApp(AppType.P2P);
+    serverConfig.setCommunicationType(CommunicationType.REST);
+    serverConfig.setProperties(
+        Map.of(ClientFactory.HTTP2, "true", ClientFactory.HTTP2_PRIOR_KNOWLEDGE, "true"));
+
+    org.glassfish.jersey.client.JerseyClient result =
+        (org.glassfish.jersey.client.JerseyClient) factory.buildFrom(serverConfig);
+
+    assertThat(result.getConfiguration().getConnectorProvider().getClass().getName())
+        .isEqualTo("com.quorum.tessera.jaxrs.jetty.JettyConnectorProvider");
+    assertThat(result.getConfiguration().getProperty("tessera.http2")).isEqualTo(true);
+    assertThat(result.getConfiguration().getProperty("tessera.http2.priorKnowledge"))
+        .isEqualTo(true);
+    assertThat(result.getConfiguration().getProperty(ClientProperties.READ_TIMEOUT))
+        .isEqualTo(3750);
+  }
+
+  @Test
+  public void poolAndTimeoutPropertiesArePassedToConnector() {
+    ServerConfig serverConfig = new ServerConfig();
+    serverConfig.setServerAddress("http://localhost:8080");
+    serverConfig.setApp(AppType.P2P);
+    serverConfig.setCommunicationType(CommunicationType.REST);
+    serverConfig.setProperties(
+        Map.of(
+            "clientConnectTimeout", "500",
+            "clientRequestTimeout", "2000",
+            "clientIdleTimeout", "1000",
+            ClientFactory.MAX_CONNECTIONS_PER_DESTINATION, "8",
+            ClientFactory.MAX_REQUESTS_QUEUED_PER_DESTINATION, "lots"));
+
+    org.glassfish.jersey.client.ClientConfig result =
+        ((org.glassfish.jersey.client.JerseyClient) factory.buildFrom(serverConfig))
+            .getConfiguration();
+
+    assertThat(result.getConnectorProvider().getClass().getName())
+        .isEqualTo("com.quorum.tessera.jaxrs.jetty.JettyConnectorProvider");
+    assertThat(result.getProperty(ClientProperties.CONNECT_TIMEOUT)).isEqualTo(500);
+    assertThat(result.getProperty(ClientProperties.READ_TIMEOUT)).isEqualTo(2000);
+    assertThat(result.getProperty("tessera.client.name")).isEqualTo("P2P");
+    assertThat(result.getProperty("tessera.client.idleTimeout")).isEqualTo(1000L);
+    assertThat(result.getProperty("tessera.client.maxConnectionsPerDestination")).isEqualTo(8);
+    assertThat(result.getProperty("tessera.client.maxRequestsQueuedPerDestination"))
+        .isEqualTo(ClientFactory.DEFAULT_MAX_REQUESTS_QUEUED_PER_DESTINATION);
+    assertThat(result.getProperty("tessera.http2")).isEqualTo(false);
+  }
+
   @Test
   public void createDefaultInstance() {
     ClientFactory clientFactory = new ClientFactory();
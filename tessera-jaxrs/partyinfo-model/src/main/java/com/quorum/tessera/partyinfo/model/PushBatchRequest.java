@@ -1,4 +1,4 @@
-package com.quorum.tessera.p2p.recovery;
+package com.quorum.tessera.partyinfo.model;
 
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
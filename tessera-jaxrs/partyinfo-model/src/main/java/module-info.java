@@ -1,6 +1,10 @@
 module tessera.partyinfo.model {
   requires tessera.partyinfo;
   requires tessera.encryption.api;
+  requires jakarta.xml.bind;
+  requires io.swagger.v3.oas.annotations;
 
   exports com.quorum.tessera.partyinfo.model;
+
+  opens com.quorum.tessera.partyinfo.model;
 }
@@ -1,4 +1,4 @@
-package com.quorum.tessera.p2p.recovery;
+package com.quorum.tessera.partyinfo.model;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -2,17 +2,24 @@ package com.quorum.tessera.p2p;
 
 import static java.util.stream.Collectors.toSet;
 
+import com.quorum.tessera.api.common.EncodedPayloadProvider;
 import com.quorum.tessera.api.common.UpCheckResource;
 import com.quorum.tessera.api.filter.GlobalFilter;
 import com.quorum.tessera.api.filter.IPWhitelistFilter;
 import com.quorum.tessera.app.TesseraRestApplication;
 import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.util.IntervalPropertyHelper;
 import com.quorum.tessera.context.RuntimeContext;
 import com.quorum.tessera.discovery.Discovery;
+import com.quorum.tessera.discovery.NetworkStore;
 import com.quorum.tessera.discovery.NodeUri;
 import com.quorum.tessera.enclave.Enclave;
+import com.quorum.tessera.enclave.EncodedPayloadCodec;
+import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.p2p.partyinfo.PartyInfoParser;
 import com.quorum.tessera.p2p.partyinfo.PartyStore;
+import com.quorum.tessera.p2p.partyinfo.ValidatedKeyCache;
 import com.quorum.tessera.privacygroup.PrivacyGroupManager;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.LegacyResendManager;
@@ -53,6 +60,10 @@ public class P2PRestApp extends TesseraRestApplication
 
   private final PrivacyGroupManager privacyGroupManager;
 
+  private final ValidatedKeyCache validatedKeyCache;
+
+  private final NetworkStore networkStore;
+
   public P2PRestApp() {
     this(
         Discovery.create(),
@@ -61,7 +72,12 @@ public class P2PRestApp extends TesseraRestApplication
         TransactionManager.create(),
         BatchResendManager.create(),
         LegacyResendManager.create(),
-        PrivacyGroupManager.create());
+        PrivacyGroupManager.create(),
+        new ValidatedKeyCache(
+            new IntervalPropertyHelper(
+                    ConfigFactory.create().getConfig().getP2PServerConfig().getProperties())
+                .keyValidationTtl()),
+        NetworkStore.getInstance());
   }
 
   public P2PRestApp(
@@ -71,7 +87,9 @@ public class P2PRestApp extends TesseraRestApplication
       TransactionManager transactionManager,
       BatchResendManager batchResendManager,
       LegacyResendManager legacyResendManager,
-      PrivacyGroupManager privacyGroupManager) {
+      PrivacyGroupManager privacyGroupManager,
+      ValidatedKeyCache validatedKeyCache,
+      NetworkStore networkStore) {
     this.discovery = Objects.requireNonNull(discovery);
     this.enclave = Objects.requireNonNull(enclave);
     this.partyStore = Objects.requireNonNull(partyStore);
@@ -79,6 +97,8 @@ public class P2PRestApp extends TesseraRestApplication
     this.batchResendManager = Objects.requireNonNull(batchResendManager);
     this.legacyResendManager = Objects.requireNonNull(legacyResendManager);
     this.privacyGroupManager = Objects.requireNonNull(privacyGroupManager);
+    this.validatedKeyCache = Objects.requireNonNull(validatedKeyCache);
+    this.networkStore = Objects.requireNonNull(networkStore);
   }
 
   @Override
@@ -100,7 +120,11 @@ public class P2PRestApp extends TesseraRestApplication
             partyInfoParser,
             runtimeContext.getP2pClient(),
             enclave,
-            runtimeContext.isRemoteKeyValidation());
+            PayloadEncoder.create(EncodedPayloadCodec.LEGACY),
+            runtimeContext.isRemoteKeyValidation(),
+            partyStore,
+            validatedKeyCache,
+            networkStore);
 
     final IPWhitelistFilter iPWhitelistFilter = new IPWhitelistFilter();
 
@@ -126,7 +150,9 @@ public class P2PRestApp extends TesseraRestApplication
 
   @Override
   public Set<Class<?>> getClasses() {
-    return Stream.concat(super.getClasses().stream(), Stream.of(P2PApiResource.class))
+    return Stream.concat(
+            super.getClasses().stream(),
+            Stream.of(P2PApiResource.class, EncodedPayloadProvider.class))
         .collect(toSet());
   }
 
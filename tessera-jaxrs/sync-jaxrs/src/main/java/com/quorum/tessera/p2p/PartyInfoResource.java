@@ -5,18 +5,25 @@ import static java.util.Collections.emptySet;
 import static java.util.Objects.requireNonNull;
 
 import com.quorum.tessera.discovery.Discovery;
+import com.quorum.tessera.discovery.NetworkStore;
 import com.quorum.tessera.discovery.NodeUri;
 import com.quorum.tessera.enclave.*;
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.p2p.model.GetPartyInfoResponse;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoDigest;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoDigestRequest;
 import com.quorum.tessera.p2p.partyinfo.PartyInfoParser;
 import com.quorum.tessera.p2p.partyinfo.PartyStore;
+import com.quorum.tessera.p2p.partyinfo.ValidateKeysRequest;
+import com.quorum.tessera.p2p.partyinfo.ValidateKeysResponse;
+import com.quorum.tessera.p2p.partyinfo.ValidatedKeyCache;
 import com.quorum.tessera.partyinfo.model.NodeInfoUtil;
 import com.quorum.tessera.partyinfo.model.Party;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
 import com.quorum.tessera.partyinfo.model.Recipient;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
 import com.quorum.tessera.shared.Constants;
+import com.quorum.tessera.version.BatchKeyValidationVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -33,8 +40,10 @@ import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -59,6 +68,12 @@ public class PartyInfoResource {
 
   private final PartyStore partyStore;
 
+  private final ValidatedKeyCache validatedKeyCache;
+
+  private final NetworkStore networkStore;
+
+  private final Map<NodeUri, String> appliedDigests = new ConcurrentHashMap<>();
+
   public PartyInfoResource(
       final Discovery discovery,
       final PartyInfoParser partyInfoParser,
@@ -66,7 +81,9 @@ public class PartyInfoResource {
       final Enclave enclave,
       final PayloadEncoder payloadEncoder,
       final boolean enableKeyValidation,
-      final PartyStore partyStore) {
+      final PartyStore partyStore,
+      final ValidatedKeyCache validatedKeyCache,
+      final NetworkStore networkStore) {
     this.discovery = requireNonNull(discovery, "discovery must not be null");
     this.partyInfoParser = requireNonNull(partyInfoParser, "partyInfoParser must not be null");
     this.restClient = requireNonNull(restClient);
@@ -74,6 +91,8 @@ public class PartyInfoResource {
     this.payloadEncoder = requireNonNull(payloadEncoder);
     this.enableKeyValidation = enableKeyValidation;
     this.partyStore = requireNonNull(partyStore);
+    this.validatedKeyCache = requireNonNull(validatedKeyCache);
+    this.networkStore = requireNonNull(networkStore);
   }
 
   public PartyInfoResource(
@@ -89,7 +108,9 @@ public class PartyInfoResource {
         enclave,
         PayloadEncoder.create(EncodedPayloadCodec.LEGACY),
         enableKeyValidation,
-        PartyStore.getInstance());
+        PartyStore.getInstance(),
+        new ValidatedKeyCache(0),
+        NetworkStore.getInstance());
   }
 
   /**
@@ -139,9 +160,14 @@ public class PartyInfoResource {
             .collect(Collectors.toSet());
 
     final NodeInfo nodeInfo = NodeInfoUtil.from(partyInfo, versions);
+    final NodeUri senderUri = NodeUri.create(partyInfo.getUrl());
+    final String digest = PartyInfoDigest.of(partyInfo, versions);
 
     LOGGER.debug("Received PartyInfo from {}", partyInfo.getUrl());
 
+    // forget the previous push first, so a digest check never matches a push that is half applied
+    appliedDigests.remove(senderUri);
+
     if (!enableKeyValidation) {
       LOGGER.debug("Key validation not enabled, passing PartyInfo through");
 
@@ -151,6 +177,7 @@ public class PartyInfoResource {
           .map(NodeUri::create)
           .map(NodeUri::asURI)
           .forEach(partyStore::store);
+      appliedDigests.put(senderUri, digest);
 
       // create an empty party info object with our URL to send back
       // this is used by older versions (before 0.10.0), but we don't want to give any info back
@@ -160,62 +187,37 @@ public class PartyInfoResource {
       return Response.ok(returnData).build();
     }
 
-    final PublicKey localPublicKey = enclave.defaultPublicKey();
-
-    final Predicate<Recipient> isValidRecipient =
-        r -> {
-          try {
-            LOGGER.debug("Validating key {} for peer {}", r.getKey(), r.getUrl());
-
-            final String dataToEncrypt = UUID.randomUUID().toString();
-            final EncodedPayload encodedPayload =
-                enclave.encryptPayload(
-                    dataToEncrypt.getBytes(),
-                    localPublicKey,
-                    List.of(r.getKey()),
-                    PrivacyMetadata.Builder.forStandardPrivate().build());
-
-            final byte[] encodedPayloadBytes = payloadEncoder.encode(encodedPayload);
-
-            try (Response response =
-                restClient
-                    .target(r.getUrl())
-                    .path("partyinfo")
-                    .path("validate")
-                    .request()
-                    .post(Entity.entity(encodedPayloadBytes, MediaType.APPLICATION_OCTET_STREAM))) {
-
-              LOGGER.debug("Response code {} from peer {}", response.getStatus(), r.getUrl());
-
-              final String responseData = response.readEntity(String.class);
-
-              final boolean isValid = Objects.equals(responseData, dataToEncrypt);
-              if (!isValid) {
-                LOGGER.warn(
-                    "Validation of key {} for peer {} failed.  Key and peer will not be added to local partyinfo.",
-                    r.getKey(),
-                    r.getUrl());
-                LOGGER.debug("Response from {} was {}", r.getUrl(), responseData);
-              }
-
-              return isValid;
-            }
-            // Assume any and all exceptions to mean invalid. enclave bubbles up nacl array out of
-            // bounds when calculating shared key from invalid data
-          } catch (Exception ex) {
-            LOGGER.debug(null, ex);
-            return false;
-          }
-        };
-
     final String partyInfoSender = partyInfo.getUrl();
-    final Predicate<Recipient> isSender =
-        r -> NodeUri.create(r.getUrl()).equals(NodeUri.create(partyInfoSender));
+    final Predicate<Recipient> isSender = r -> NodeUri.create(r.getUrl()).equals(senderUri);
+
+    // Keys validated recently are trusted until the cache entry expires, everything else is
+    // challenged. Only the caller's own keys are considered.
+    final Map<Boolean, List<Recipient>> sendersKeys =
+        partyInfo.getRecipients().stream()
+            .filter(isSender)
+            .collect(
+                Collectors.partitioningBy(
+                    r -> validatedKeyCache.isValidated(r.getKey(), r.getUrl())));
+
+    final List<Recipient> unvalidated = sendersKeys.get(false);
+    final List<Recipient> newlyValidated;
+    if (unvalidated.isEmpty()) {
+      newlyValidated = emptyList();
+    } else if (unvalidated.size() > 1
+        && versions.contains(BatchKeyValidationVersion.API_VERSION_7)) {
+      newlyValidated = validateKeys(partyInfoSender, unvalidated, enclave.defaultPublicKey());
+    } else {
+      final PublicKey localPublicKey = enclave.defaultPublicKey();
+      newlyValidated =
+          unvalidated.stream()
+              .filter(r -> validateKey(r, localPublicKey))
+              .collect(Collectors.toList());
+    }
+    newlyValidated.forEach(r -> validatedKeyCache.validated(r.getKey(), r.getUrl()));
 
     // Validate caller and treat no valid certs as security issue.
     final Set<com.quorum.tessera.partyinfo.node.Recipient> validatedSendersKeys =
-        partyInfo.getRecipients().stream()
-            .filter(isSender.and(isValidRecipient))
+        Stream.concat(sendersKeys.get(true).stream(), newlyValidated.stream())
             .map(r -> com.quorum.tessera.partyinfo.node.Recipient.of(r.getKey(), r.getUrl()))
             .collect(Collectors.toSet());
 
@@ -240,6 +242,163 @@ public class PartyInfoResource {
         .map(NodeUri::asURI)
         .forEach(partyStore::store);
 
+    // keys that failed validation are only retried by a full push, so their push is not recorded
+    if (newlyValidated.size() == unvalidated.size()) {
+      appliedDigests.put(senderUri, digest);
+    }
+
+    return Response.ok().build();
+  }
+
+  /** Challenges the peer to decrypt a random UUID encrypted to the given key */
+  private boolean validateKey(final Recipient r, final PublicKey localPublicKey) {
+    try {
+      LOGGER.debug("Validating key {} for peer {}", r.getKey(), r.getUrl());
+
+      final String dataToEncrypt = UUID.randomUUID().toString();
+      final byte[] encodedPayloadBytes = challenge(r.getKey(), localPublicKey, dataToEncrypt);
+
+      try (Response response =
+          restClient
+              .target(r.getUrl())
+              .path("partyinfo")
+              .path("validate")
+              .request()
+              .post(Entity.entity(encodedPayloadBytes, MediaType.APPLICATION_OCTET_STREAM))) {
+
+        LOGGER.debug("Response code {} from peer {}", response.getStatus(), r.getUrl());
+
+        final String responseData = response.readEntity(String.class);
+
+        final boolean isValid = Objects.equals(responseData, dataToEncrypt);
+        if (!isValid) {
+          warnInvalid(r);
+          LOGGER.debug("Response from {} was {}", r.getUrl(), responseData);
+        }
+
+        return isValid;
+      }
+      // Assume any and all exceptions to mean invalid. enclave bubbles up nacl array out of
+      // bounds when calculating shared key from invalid data
+    } catch (Exception ex) {
+      LOGGER.debug(null, ex);
+      return false;
+    }
+  }
+
+  /**
+   * Challenges the peer to decrypt one random UUID per key, sending all of the challenges in a
+   * single request. Each key still gets its own UUID, so each key's ownership is proven separately.
+   *
+   * @return the keys whose challenge was answered correctly
+   */
+  private List<Recipient> validateKeys(
+      final String url, final List<Recipient> recipients, final PublicKey localPublicKey) {
+    try {
+      LOGGER.debug("Validating {} keys for peer {} in one batch", recipients.size(), url);
+
+      final List<String> expected = new ArrayList<>(recipients.size());
+      final List<byte[]> challenges = new ArrayList<>(recipients.size());
+      for (final Recipient r : recipients) {
+        final String dataToEncrypt = UUID.randomUUID().toString();
+        expected.add(dataToEncrypt);
+        challenges.add(challenge(r.getKey(), localPublicKey, dataToEncrypt));
+      }
+
+      try (Response response =
+          restClient
+              .target(url)
+              .path("partyinfo")
+              .path("validate")
+              .path("batch")
+              .request()
+              .post(
+                  Entity.entity(
+                      new ValidateKeysRequest(challenges), MediaType.APPLICATION_JSON))) {
+
+        LOGGER.debug("Response code {} from peer {}", response.getStatus(), url);
+
+        final List<String> results =
+            Optional.ofNullable(response.readEntity(ValidateKeysResponse.class))
+                .map(ValidateKeysResponse::getResults)
+                .orElse(emptyList());
+
+        final List<Recipient> valid = new ArrayList<>(recipients.size());
+        for (int i = 0; i < recipients.size(); i++) {
+          final boolean isValid = i < results.size() && expected.get(i).equals(results.get(i));
+          if (isValid) {
+            valid.add(recipients.get(i));
+          } else {
+            warnInvalid(recipients.get(i));
+          }
+        }
+        return valid;
+      }
+    } catch (Exception ex) {
+      LOGGER.debug(null, ex);
+      return emptyList();
+    }
+  }
+
+  private byte[] challenge(
+      final PublicKey key, final PublicKey localPublicKey, final String dataToEncrypt) {
+    final EncodedPayload encodedPayload =
+        enclave.encryptPayload(
+            dataToEncrypt.getBytes(),
+            localPublicKey,
+            List.of(key),
+            PrivacyMetadata.Builder.forStandardPrivate().build());
+
+    return payloadEncoder.encode(encodedPayload);
+  }
+
+  private static void warnInvalid(final Recipient r) {
+    LOGGER.warn(
+        "Validation of key {} for peer {} failed.  Key and peer will not be added to local partyinfo.",
+        r.getKey(),
+        r.getUrl());
+  }
+
+  /**
+   * Check whether this node already applied the partyinfo the caller is about to push, so the
+   * caller can skip sending it in full.
+   *
+   * @param request the caller's url and the digest of the partyinfo it would push
+   * @return a 200 OK Response if the last full push accepted from the caller has the same digest;
+   *     a 409 Conflict Response if the full partyinfo should be sent
+   */
+  @Operation(
+      summary = "/partyinfo/digest",
+      operationId = "checkPartyInfoDigest",
+      description = "check whether the server holds partyinfo matching the caller's digest")
+  @ApiResponse(responseCode = "200", description = "server holds the caller's current partyinfo")
+  @ApiResponse(responseCode = "409", description = "caller should send its full partyinfo")
+  @POST
+  @Path("digest")
+  @Consumes(MediaType.APPLICATION_JSON)
+  public Response digest(
+      @RequestBody(required = true, description = "partyinfo digest")
+          final PartyInfoDigestRequest request) {
+    final NodeUri sender = NodeUri.create(request.getUrl());
+
+    // with key validation on, a digest match is only trusted as long as the keys it covers are
+    final boolean isCurrent =
+        networkStore
+            .getActiveNode(sender)
+            .filter(
+                node ->
+                    !enableKeyValidation
+                        || node.getKeys().stream()
+                            .allMatch(k -> validatedKeyCache.isValidated(k, sender.asString())))
+            .map(node -> appliedDigests.get(sender))
+            .filter(digest -> digest.equals(request.getDigest()))
+            .isPresent();
+
+    LOGGER.debug("PartyInfo digest from {} is current: {}", sender.asString(), isCurrent);
+
+    if (!isCurrent) {
+      return Response.status(Response.Status.CONFLICT).build();
+    }
     return Response.ok().build();
   }
 
@@ -310,6 +469,56 @@ public class PartyInfoResource {
     return Response.ok(new String(result)).build();
   }
 
+  @Operation(
+      summary = "/partyinfo/validate/batch",
+      operationId = "validatePartyBatch",
+      description = "decrypt several UUID payloads, each encrypted to one of the server's keys")
+  @ApiResponse(
+      responseCode = "200",
+      description =
+          "decrypted UUIDs in request order, empty for payloads that could not be decrypted",
+      content = @Content(schema = @Schema(implementation = ValidateKeysResponse.class)))
+  @ApiResponse(
+      responseCode = "400",
+      description = "more payloads were sent than the server has keys to validate")
+  @POST
+  @Path("validate/batch")
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response validateBatch(
+      @RequestBody(required = true, description = "encrypted UUIDs")
+          final ValidateKeysRequest request) {
+    final List<byte[]> encodedPayloads =
+        Optional.ofNullable(request.getEncodedPayloads()).orElse(emptyList());
+
+    // a peer only has a challenge for each of our keys, so anything more is not a validation
+    final int keyCount = enclave.getPublicKeys().size();
+    if (encodedPayloads.size() > keyCount) {
+      LOGGER.warn(
+          "Rejecting batch of {} validation payloads, only {} keys are hosted",
+          encodedPayloads.size(),
+          keyCount);
+      return Response.status(Response.Status.BAD_REQUEST).build();
+    }
+
+    final List<String> results =
+        encodedPayloads.stream().map(this::decryptChallenge).collect(Collectors.toList());
+
+    return Response.ok(new ValidateKeysResponse(results)).build();
+  }
+
+  private String decryptChallenge(final byte[] payloadData) {
+    try {
+      final EncodedPayload payload = payloadEncoder.decode(payloadData);
+      final PublicKey mykey = payload.getRecipientKeys().iterator().next();
+      final String result = new String(enclave.unencryptTransaction(payload, mykey));
+      return isUUID(result) ? result : "";
+    } catch (RuntimeException ex) {
+      LOGGER.debug("Unable to decrypt validation payload", ex);
+      return "";
+    }
+  }
+
   private boolean isUUID(String s) {
     try {
       UUID.fromString(s);
@@ -9,7 +9,7 @@ import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.EncodedPayloadCodec;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.enclave.PrivacyMode;
-import com.quorum.tessera.p2p.recovery.PushBatchRequest;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.shared.Constants;
 import com.quorum.tessera.transaction.TransactionManager;
@@ -75,11 +75,35 @@ public class RecoveryResource {
   @POST
   @Path("push")
   @Consumes(APPLICATION_OCTET_STREAM)
-  public Response push(
-      final byte[] payload, @HeaderParam(Constants.API_VERSION_HEADER) final List<String> headers) {
+  public Response push(final EncodedPayload encodedPayload) {
 
     LOGGER.debug("Received push request during recovery mode");
 
+    if (encodedPayload.getPrivacyMode() != PrivacyMode.STANDARD_PRIVATE) {
+      return Response.status(Response.Status.FORBIDDEN)
+          .entity("Transactions with enhanced privacy are not accepted during recovery mode")
+          .build();
+    }
+
+    final MessageHash messageHash = transactionManager.storePayload(encodedPayload);
+    LOGGER.debug("Push request generated hash {}", messageHash);
+
+    return Response.status(Response.Status.CREATED).entity(Objects.toString(messageHash)).build();
+  }
+
+  // path pushMultiple is overloaded (RecoveryResource & TransactionResource); swagger annotations
+  // cannot handle situations like this so hide this operation and use
+  // TransactionResource::pushMultiple to document both
+  @Hidden
+  @POST
+  @Path("pushMultiple")
+  @Consumes(APPLICATION_JSON)
+  public Response pushMultiple(
+      @Valid @NotNull final PushBatchRequest pushBatchRequest,
+      @HeaderParam(Constants.API_VERSION_HEADER) final List<String> headers) {
+
+    LOGGER.debug("Received multiple push request during recovery mode");
+
     final Set<String> versions =
         Optional.ofNullable(headers).orElse(emptyList()).stream()
             .filter(Objects::nonNull)
@@ -90,17 +114,23 @@ public class RecoveryResource {
 
     final PayloadEncoder payloadEncoder = PayloadEncoder.create(codec);
 
-    final EncodedPayload encodedPayload = payloadEncoder.decode(payload);
+    final List<EncodedPayload> encodedPayloads =
+        pushBatchRequest.getEncodedPayloads().stream()
+            .map(payloadEncoder::decode)
+            .collect(Collectors.toList());
 
-    if (encodedPayload.getPrivacyMode() != PrivacyMode.STANDARD_PRIVATE) {
+    if (encodedPayloads.stream()
+        .anyMatch(p -> p.getPrivacyMode() != PrivacyMode.STANDARD_PRIVATE)) {
       return Response.status(Response.Status.FORBIDDEN)
           .entity("Transactions with enhanced privacy are not accepted during recovery mode")
           .build();
     }
 
-    final MessageHash messageHash = transactionManager.storePayload(encodedPayload);
-    LOGGER.debug("Push request generated hash {}", messageHash);
+    for (final EncodedPayload encodedPayload : encodedPayloads) {
+      final MessageHash messageHash = transactionManager.storePayload(encodedPayload);
+      LOGGER.debug("Push request generated hash {}", messageHash);
+    }
 
-    return Response.status(Response.Status.CREATED).entity(Objects.toString(messageHash)).build();
+    return Response.status(Response.Status.CREATED).build();
   }
 }
@@ -5,11 +5,13 @@ import static java.util.Collections.emptyList;
 
 import com.quorum.tessera.base64.Base64Codec;
 import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.EncodedPayloadCodec;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.p2p.recovery.ResendBatchRequest;
 import com.quorum.tessera.p2p.resend.ResendRequest;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import com.quorum.tessera.recovery.resend.ResendBatchResponse;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.LegacyResendManager;
@@ -181,27 +183,58 @@ public class TransactionResource {
   @Path("push")
   @Consumes(APPLICATION_OCTET_STREAM)
   public Response push(
-      @Schema(description = "encoded payload") final byte[] payload,
+      @Schema(description = "encoded payload", type = "string", format = "binary")
+          final EncodedPayload payload) {
+
+    LOGGER.debug("Received push request");
+
+    final MessageHash messageHash = transactionManager.storePayload(payload);
+    LOGGER.debug("Push request generated hash {}", messageHash);
+    return Response.status(Response.Status.CREATED).entity(Objects.toString(messageHash)).build();
+  }
+
+  // path pushMultiple is overloaded (RecoveryResource & TransactionResource); swagger cannot handle
+  // situations like this so this operation documents both
+  @Operation(
+      summary = "/pushMultiple",
+      operationId = "pushPayloads",
+      description =
+          "store several encoded payloads to the server's database, each intended for a different recipient hosted on the server")
+  @ApiResponse(responseCode = "201", description = "all encoded payloads stored")
+  @ApiResponse(
+      responseCode = "403",
+      description =
+          "server is in recovery mode and an encoded payload is not a Standard Private transaction")
+  @POST
+  @Path("pushMultiple")
+  @Consumes(APPLICATION_JSON)
+  public Response pushMultiple(
+      @Valid @NotNull final PushBatchRequest pushBatchRequest,
       @HeaderParam(Constants.API_VERSION_HEADER)
           @Parameter(
               description = "client's supported API versions",
               array = @ArraySchema(schema = @Schema(type = "string")))
           final List<String> headers) {
 
-    LOGGER.debug("Received push request");
+    LOGGER.debug("Received multiple push request");
+
+    final PayloadEncoder payloadEncoder = PayloadEncoder.create(preferredCodec(headers));
 
+    for (final byte[] payload : pushBatchRequest.getEncodedPayloads()) {
+      final MessageHash messageHash =
+          transactionManager.storePayload(payloadEncoder.decode(payload));
+      LOGGER.debug("Push request generated hash {}", messageHash);
+    }
+    return Response.status(Response.Status.CREATED).build();
+  }
+
+  private static EncodedPayloadCodec preferredCodec(final List<String> headers) {
     final Set<String> versions =
         Optional.ofNullable(headers).orElse(emptyList()).stream()
             .filter(Objects::nonNull)
             .flatMap(v -> Arrays.stream(v.split(",")))
             .collect(Collectors.toSet());
 
-    final EncodedPayloadCodec codec = EncodedPayloadCodec.getPreferredCodec(versions);
-
-    final PayloadEncoder payloadEncoder = PayloadEncoder.create(codec);
-
-    final MessageHash messageHash = transactionManager.storePayload(payloadEncoder.decode(payload));
-    LOGGER.debug("Push request generated hash {}", messageHash);
-    return Response.status(Response.Status.CREATED).entity(Objects.toString(messageHash)).build();
+    return EncodedPayloadCodec.getPreferredCodec(versions);
   }
 }
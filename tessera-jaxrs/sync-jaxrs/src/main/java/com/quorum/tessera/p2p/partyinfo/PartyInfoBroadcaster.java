@@ -2,25 +2,48 @@ package com.quorum.tessera.p2p.partyinfo;
 
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.discovery.NodeUri;
+import com.quorum.tessera.metrics.LatencyHistogram;
+import com.quorum.tessera.metrics.LatencyMetrics;
+import com.quorum.tessera.metrics.MBeanRegistry;
 import com.quorum.tessera.partyinfo.P2pClient;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
 import com.quorum.tessera.partyinfo.model.PartyInfoBuilder;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.threading.ExecutorFactory;
 import jakarta.ws.rs.ProcessingException;
 import java.net.URI;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Polls every so often to all known nodes for any new discoverable nodes. This keeps all nodes
  * up-to date and discoverable by other nodes
+ *
+ * <p>Parties are contacted in parallel on a bounded executor, so a few slow or offline parties do
+ * not hold up the rest. Each round waits at most the round timeout for its requests; a party still
+ * being contacted from an earlier round is skipped rather than contacted twice.
  */
-public class PartyInfoBroadcaster implements Runnable {
+public class PartyInfoBroadcaster implements Runnable, PartyInfoBroadcasterMXBean {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PartyInfoBroadcaster.class);
 
+  static final String MBEAN_TYPE = "PartyInfoBroadcaster";
+
+  private static final LatencyHistogram ROUND_LATENCY =
+      LatencyMetrics.histogram(LatencyMetrics.PARTYINFO_ROUND);
+
+  static final long DEFAULT_ROUND_TIMEOUT = 5000L;
+
   private final Discovery discovery;
 
   private final PartyInfoParser partyInfoParser;
@@ -29,8 +52,44 @@ public class PartyInfoBroadcaster implements Runnable {
 
   private final PartyStore partyStore;
 
+  private final Executor executor;
+
+  private final long roundTimeout;
+
+  private final Set<NodeUri> inFlight = ConcurrentHashMap.newKeySet();
+
+  private volatile long roundCount;
+
+  private volatile long lastRoundDuration;
+
+  private volatile int lastRoundSuccessCount;
+
+  private volatile int lastRoundFailureCount;
+
+  private volatile int lastRoundTimeoutCount;
+
+  private volatile int lastRoundSkippedCount;
+
   public PartyInfoBroadcaster(final P2pClient p2pClient) {
-    this(Discovery.create(), PartyInfoParser.create(), p2pClient, PartyStore.getInstance());
+    this(p2pClient, new ExecutorFactory(), DEFAULT_ROUND_TIMEOUT);
+  }
+
+  /**
+   * @param p2pClient the client to send partyinfo with
+   * @param executorFactory creates the executor that parties are contacted on
+   * @param roundTimeout the longest a round waits for its requests, in milliseconds, which should
+   *     not exceed the interval between rounds
+   */
+  public PartyInfoBroadcaster(
+      final P2pClient p2pClient, final ExecutorFactory executorFactory, final long roundTimeout) {
+    this(
+        Discovery.create(),
+        PartyInfoParser.create(),
+        p2pClient,
+        PartyStore.getInstance(),
+        executorFactory.createBoundedExecutor("partyinfo-broadcaster"),
+        roundTimeout);
+    MBeanRegistry.register(this, MBEAN_TYPE, null);
   }
 
   public PartyInfoBroadcaster(
@@ -38,10 +97,22 @@ public class PartyInfoBroadcaster implements Runnable {
       final PartyInfoParser partyInfoParser,
       final P2pClient p2pClient,
       final PartyStore partyStore) {
+    this(discovery, partyInfoParser, p2pClient, partyStore, Runnable::run, DEFAULT_ROUND_TIMEOUT);
+  }
+
+  public PartyInfoBroadcaster(
+      final Discovery discovery,
+      final PartyInfoParser partyInfoParser,
+      final P2pClient p2pClient,
+      final PartyStore partyStore,
+      final Executor executor,
+      final long roundTimeout) {
     this.discovery = Objects.requireNonNull(discovery);
     this.partyInfoParser = Objects.requireNonNull(partyInfoParser);
     this.p2pClient = Objects.requireNonNull(p2pClient);
     this.partyStore = Objects.requireNonNull(partyStore);
+    this.executor = Objects.requireNonNull(executor);
+    this.roundTimeout = roundTimeout;
   }
 
   /**
@@ -61,6 +132,7 @@ public class PartyInfoBroadcaster implements Runnable {
   @Override
   public void run() {
     LOGGER.info("Started PartyInfo polling round");
+    final long start = System.nanoTime();
 
     partyStore.loadFromConfigIfEmpty();
 
@@ -76,30 +148,90 @@ public class PartyInfoBroadcaster implements Runnable {
 
     final byte[] encodedPartyInfo = partyInfoParser.to(partyInfo);
 
+    final String digest = PartyInfoDigest.of(partyInfo, nodeInfo.supportedApiVersions());
+
     LOGGER.debug("Contacting following peers with PartyInfo: {}", partyInfo.getParties());
 
     LOGGER.debug("Sending party info {}", nodeInfo);
-    partyStore.getParties().stream()
-        .map(NodeUri::create)
-        .filter(url -> !ourUrl.equals(url))
-        .forEach(url -> pollSingleParty(url.asString(), encodedPartyInfo));
+    final List<NodeUri> targets =
+        partyStore.getParties().stream()
+            .map(NodeUri::create)
+            .filter(url -> !ourUrl.equals(url))
+            .distinct()
+            .collect(Collectors.toList());
+
+    final CountDownLatch outstanding = new CountDownLatch(targets.size());
+    final AtomicInteger successes = new AtomicInteger();
+    final AtomicInteger failures = new AtomicInteger();
+    int skipped = 0;
 
-    LOGGER.info("Finished PartyInfo polling round");
+    for (final NodeUri url : targets) {
+      if (!inFlight.add(url)) {
+        LOGGER.debug("Still waiting on {} from an earlier round, skipping", url.asString());
+        skipped++;
+        outstanding.countDown();
+        continue;
+      }
+      executor.execute(
+          () -> {
+            try {
+              if (pollSingleParty(url.asString(), encodedPartyInfo, nodeInfo.getUrl(), digest)) {
+                successes.incrementAndGet();
+              } else {
+                failures.incrementAndGet();
+              }
+            } finally {
+              inFlight.remove(url);
+              outstanding.countDown();
+            }
+          });
+    }
+
+    final long remaining = roundTimeout - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    try {
+      outstanding.await(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+
+    // read the counts once the wait is over, as late answers keep arriving
+    lastRoundSuccessCount = successes.get();
+    lastRoundFailureCount = failures.get();
+    lastRoundTimeoutCount = (int) outstanding.getCount();
+    lastRoundSkippedCount = skipped;
+    lastRoundDuration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    roundCount++;
+    ROUND_LATENCY.recordSince(start);
+
+    LOGGER.info(
+        "Finished PartyInfo polling round in {}ms: "
+            + "{} succeeded, {} failed, {} timed out, {} skipped",
+        lastRoundDuration,
+        lastRoundSuccessCount,
+        lastRoundFailureCount,
+        lastRoundTimeoutCount,
+        lastRoundSkippedCount);
   }
 
   /**
-   * Sends a request for node information to a single target
+   * Sends a request for node information to a single target. Targets that already hold partyinfo
+   * matching the digest are not sent the full payload.
    *
    * @param url the target URL to call
    * @param encodedPartyInfo the encoded current party information
+   * @param ourUrl the URL of this node
+   * @param digest the digest of the current party information
+   * @return whether the party info was sent successfully
    */
-  protected void pollSingleParty(final String url, final byte[] encodedPartyInfo) {
+  protected boolean pollSingleParty(
+      final String url, final byte[] encodedPartyInfo, final String ourUrl, final String digest) {
     final NodeUri nodeUri = NodeUri.create(url);
     try {
 
       LOGGER.debug("Sending party info to {}", nodeUri.asString());
-      p2pClient.sendPartyInfo(url, encodedPartyInfo);
+      p2pClient.sendPartyInfo(url, encodedPartyInfo, ourUrl, digest);
       LOGGER.debug("Sent party info to {}", nodeUri.asString());
+      return true;
     } catch (Exception ex) {
       Throwable cause = Optional.of(ex).map(Throwable::getCause).orElse(ex);
 
@@ -109,6 +241,37 @@ public class PartyInfoBroadcaster implements Runnable {
         discovery.onDisconnect(URI.create(url));
         partyStore.remove(URI.create(url));
       }
+      return false;
     }
   }
+
+  @Override
+  public long getRoundCount() {
+    return roundCount;
+  }
+
+  @Override
+  public long getLastRoundDurationMillis() {
+    return lastRoundDuration;
+  }
+
+  @Override
+  public int getLastRoundSuccessCount() {
+    return lastRoundSuccessCount;
+  }
+
+  @Override
+  public int getLastRoundFailureCount() {
+    return lastRoundFailureCount;
+  }
+
+  @Override
+  public int getLastRoundTimeoutCount() {
+    return lastRoundTimeoutCount;
+  }
+
+  @Override
+  public int getLastRoundSkippedCount() {
+    return lastRoundSkippedCount;
+  }
 }
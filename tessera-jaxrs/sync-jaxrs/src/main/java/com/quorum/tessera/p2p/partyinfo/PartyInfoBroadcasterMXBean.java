@@ -0,0 +1,19 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+/** Statistics about the most recent partyinfo broadcast round */
+public interface PartyInfoBroadcasterMXBean {
+
+  long getRoundCount();
+
+  long getLastRoundDurationMillis();
+
+  int getLastRoundSuccessCount();
+
+  int getLastRoundFailureCount();
+
+  /** Peers that had not answered when the round's deadline passed */
+  int getLastRoundTimeoutCount();
+
+  /** Peers left out of the round because the previous round's request to them was still running */
+  int getLastRoundSkippedCount();
+}
@@ -0,0 +1,55 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import com.quorum.tessera.discovery.NodeUri;
+import com.quorum.tessera.partyinfo.model.Party;
+import com.quorum.tessera.partyinfo.model.PartyInfo;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+
+/**
+ * Computes a compact digest of a partyinfo push: the sender's url, the recipients and parties it
+ * carries and the API versions the sender supports.
+ *
+ * <p>The sender computes the digest of the partyinfo it is about to push, and the receiver records
+ * the digest of each full push it accepts. When the two agree the receiver has already applied
+ * exactly this partyinfo, so the full payload does not need to be sent again. Any change to the
+ * pushed content, including a newly learned peer, changes the digest.
+ */
+public final class PartyInfoDigest {
+
+  private PartyInfoDigest() {}
+
+  public static String of(final PartyInfo partyInfo, final Collection<String> versions) {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+
+    update(digest, NodeUri.create(partyInfo.getUrl()).asString());
+    partyInfo.getRecipients().stream()
+        .map(r -> r.getKey().encodeToBase64() + " " + NodeUri.create(r.getUrl()).asString())
+        .sorted()
+        .forEach(r -> update(digest, r));
+    update(digest, "");
+    partyInfo.getParties().stream()
+        .map(Party::getUrl)
+        .map(NodeUri::create)
+        .map(NodeUri::asString)
+        .sorted()
+        .forEach(p -> update(digest, p));
+    update(digest, "");
+    versions.stream().sorted().forEach(v -> update(digest, v));
+
+    return Base64.getEncoder().encodeToString(digest.digest());
+  }
+
+  private static void update(final MessageDigest digest, final String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) '\n');
+  }
+}
@@ -0,0 +1,36 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/** Model representation of the digest of a node's partyinfo */
+public class PartyInfoDigestRequest {
+
+  @Schema(description = "url of the node the digest describes")
+  private String url;
+
+  @Schema(description = "digest of the partyinfo the node would push and its API versions")
+  private String digest;
+
+  public PartyInfoDigestRequest() {}
+
+  public PartyInfoDigestRequest(String url, String digest) {
+    this.url = url;
+    this.digest = digest;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public void setUrl(String url) {
+    this.url = url;
+  }
+
+  public String getDigest() {
+    return digest;
+  }
+
+  public void setDigest(String digest) {
+    this.digest = digest;
+  }
+}
@@ -1,20 +1,34 @@
 package com.quorum.tessera.p2p.partyinfo;
 
 import com.quorum.tessera.partyinfo.P2pClient;
+import com.quorum.tessera.shared.Constants;
+import com.quorum.tessera.version.PartyInfoDigestVersion;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Sends partyinfo over HTTP. Peers that advertise the partyinfo digest API version in their
+ * responses are first asked whether they already hold the current partyinfo, and are only sent the
+ * full payload if they do not.
+ */
 class RestP2pClient implements P2pClient {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(RestP2pClient.class);
 
   private final Client client;
 
+  private final Set<String> digestPeers = ConcurrentHashMap.newKeySet();
+
   RestP2pClient(final Client client) {
     this.client = Objects.requireNonNull(client);
   }
@@ -30,6 +44,12 @@ class RestP2pClient implements P2pClient {
             .request()
             .post(Entity.entity(data, MediaType.APPLICATION_OCTET_STREAM_TYPE))) {
 
+      if (supportsDigest(response)) {
+        digestPeers.add(targetUrl);
+      } else {
+        digestPeers.remove(targetUrl);
+      }
+
       final int returnStatusCode = response.getStatus();
       if (Response.Status.OK.getStatusCode() != returnStatusCode
           && Response.Status.CREATED.getStatusCode() != returnStatusCode) {
@@ -42,4 +62,45 @@ class RestP2pClient implements P2pClient {
       return Objects.nonNull(response.readEntity(byte[].class));
     }
   }
+
+  @Override
+  public boolean sendPartyInfo(
+      final String targetUrl, final byte[] data, final String senderUrl, final String digest) {
+    if (digestPeers.contains(targetUrl) && isCurrent(targetUrl, senderUrl, digest)) {
+      LOGGER.debug("Peer {} already holds current PartyInfo", targetUrl);
+      return true;
+    }
+    return sendPartyInfo(targetUrl, data);
+  }
+
+  private boolean isCurrent(final String targetUrl, final String senderUrl, final String digest) {
+    try (Response response =
+        client
+            .target(targetUrl)
+            .path("/partyinfo")
+            .path("digest")
+            .request()
+            .post(
+                Entity.entity(
+                    new PartyInfoDigestRequest(senderUrl, digest), MediaType.APPLICATION_JSON))) {
+      return Response.Status.OK.getStatusCode() == response.getStatus();
+    } catch (final RuntimeException ex) {
+      // a failed check only costs a full send, which will report the failure if it persists
+      LOGGER.debug("PartyInfo digest check with peer {} failed", targetUrl, ex);
+      return false;
+    }
+  }
+
+  private static boolean supportsDigest(final Response response) {
+    final List<String> versions =
+        Optional.ofNullable(response.getStringHeaders())
+            .map(headers -> headers.get(Constants.API_VERSION_HEADER))
+            .orElse(List.of());
+
+    return versions.stream()
+        .filter(Objects::nonNull)
+        .flatMap(v -> Arrays.stream(v.split(",")))
+        .map(String::trim)
+        .anyMatch(PartyInfoDigestVersion.API_VERSION_8::equals);
+  }
 }
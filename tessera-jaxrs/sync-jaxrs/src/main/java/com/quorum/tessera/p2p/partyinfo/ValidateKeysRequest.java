@@ -0,0 +1,30 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.xml.bind.annotation.XmlMimeType;
+import java.util.List;
+
+/** Model representation of a list of encoded payloads, each encrypting a UUID to one key */
+public class ValidateKeysRequest {
+
+  @ArraySchema(
+      schema =
+          @Schema(description = "list of encoded UUID payloads", type = "string", format = "byte"))
+  @XmlMimeType("base64Binary")
+  private List<byte[]> encodedPayloads;
+
+  public ValidateKeysRequest() {}
+
+  public ValidateKeysRequest(List<byte[]> encodedPayloads) {
+    this.encodedPayloads = encodedPayloads;
+  }
+
+  public List<byte[]> getEncodedPayloads() {
+    return encodedPayloads;
+  }
+
+  public void setEncodedPayloads(List<byte[]> encodedPayloads) {
+    this.encodedPayloads = encodedPayloads;
+  }
+}
@@ -0,0 +1,29 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * Model representation of the decrypted UUIDs, in the same order as the request payloads. A
+ * payload that could not be decrypted has an empty result.
+ */
+public class ValidateKeysResponse {
+
+  @ArraySchema(schema = @Schema(description = "decrypted UUIDs", type = "string"))
+  private List<String> results;
+
+  public ValidateKeysResponse() {}
+
+  public ValidateKeysResponse(List<String> results) {
+    this.results = results;
+  }
+
+  public List<String> getResults() {
+    return results;
+  }
+
+  public void setResults(List<String> results) {
+    this.results = results;
+  }
+}
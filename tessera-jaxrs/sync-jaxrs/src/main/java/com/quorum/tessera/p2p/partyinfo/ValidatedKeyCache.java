@@ -0,0 +1,65 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import com.quorum.tessera.discovery.NodeUri;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.partyinfo.node.Recipient;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers which (key, url) pairs have recently passed remote key validation, so that a peer
+ * pushing the same partyinfo every round is not challenged for every key every time.
+ *
+ * <p>Entries expire after a fixed time to live, after which the pair must be validated again. Only
+ * successful validations are remembered. A time to live of zero disables the cache.
+ */
+public class ValidatedKeyCache {
+
+  private final long ttlNanos;
+
+  private final LongSupplier clock;
+
+  private final Map<Recipient, Long> expiries = new ConcurrentHashMap<>();
+
+  public ValidatedKeyCache(final long ttlMillis) {
+    this(ttlMillis, System::nanoTime);
+  }
+
+  ValidatedKeyCache(final long ttlMillis, final LongSupplier clock) {
+    if (ttlMillis < 0) {
+      throw new IllegalArgumentException("Key validation TTL must not be negative");
+    }
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    this.clock = Objects.requireNonNull(clock);
+  }
+
+  /** Whether the key was validated for the given url within the time to live */
+  public boolean isValidated(final PublicKey key, final String url) {
+    if (ttlNanos == 0) {
+      return false;
+    }
+    final Long expiry = expiries.get(entry(key, url));
+    return Objects.nonNull(expiry) && clock.getAsLong() - expiry < 0;
+  }
+
+  /** Records that the key has just passed validation for the given url */
+  public void validated(final PublicKey key, final String url) {
+    if (ttlNanos == 0) {
+      return;
+    }
+    final long now = clock.getAsLong();
+    expiries.values().removeIf(expiry -> now - expiry >= 0);
+    expiries.put(entry(key, url), now + ttlNanos);
+  }
+
+  public int size() {
+    return expiries.size();
+  }
+
+  private static Recipient entry(final PublicKey key, final String url) {
+    return Recipient.of(key, NodeUri.create(url).asString());
+  }
+}
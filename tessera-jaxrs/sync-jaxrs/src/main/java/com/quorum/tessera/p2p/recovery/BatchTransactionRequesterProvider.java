@@ -1,7 +1,11 @@
 package com.quorum.tessera.p2p.recovery;
 
+import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.recovery.resend.BatchTransactionRequester;
+import com.quorum.tessera.threading.ExecutorFactory;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class BatchTransactionRequesterProvider {
 
@@ -9,6 +13,11 @@ public class BatchTransactionRequesterProvider {
     final Enclave enclave = Enclave.create();
     final RecoveryClient client = RecoveryClient.create();
 
-    return new RestBatchTransactionRequester(enclave, client, 100);
+    final Map<String, String> properties =
+        ConfigFactory.create().getConfig().getP2PServerConfig().getProperties();
+    final Executor executor =
+        new ExecutorFactory(properties).createBoundedExecutor("recovery-request");
+
+    return new RestBatchTransactionRequester(enclave, client, 100, executor);
   }
 }
@@ -1,6 +1,7 @@
 package com.quorum.tessera.p2p.recovery;
 
 import com.quorum.tessera.p2p.resend.ResendClient;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import com.quorum.tessera.serviceloader.ServiceLoaderUtil;
 import java.util.ServiceLoader;
 
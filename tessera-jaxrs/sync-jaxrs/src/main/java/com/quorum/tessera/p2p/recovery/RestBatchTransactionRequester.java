@@ -5,7 +5,12 @@ import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.p2p.resend.ResendRequest;
 import com.quorum.tessera.recovery.resend.BatchTransactionRequester;
 import java.util.Base64;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,11 +24,23 @@ public class RestBatchTransactionRequester implements BatchTransactionRequester
 
   private final int batchSize;
 
+  private final Executor executor;
+
   public RestBatchTransactionRequester(
       final Enclave enclave, final RecoveryClient client, int batchSize) {
+    this(enclave, client, batchSize, Runnable::run);
+  }
+
+  /**
+   * @param executor runs the request for each local key, so that a node is asked to resend the
+   *     transactions of all keys at once
+   */
+  public RestBatchTransactionRequester(
+      final Enclave enclave, final RecoveryClient client, int batchSize, Executor executor) {
     this.enclave = Objects.requireNonNull(enclave);
     this.client = Objects.requireNonNull(client);
     this.batchSize = batchSize;
+    this.executor = Objects.requireNonNull(executor);
   }
 
   @Override
@@ -31,9 +48,11 @@ public class RestBatchTransactionRequester implements BatchTransactionRequester
 
     LOGGER.info("Requesting transactions get resent for {}", uri);
 
-    return this.enclave.getPublicKeys().stream()
-        .map(this::createRequestAllEntity)
-        .allMatch(req -> this.makeRequest(uri, req) >= 0);
+    return allSucceed(
+        this.enclave.getPublicKeys().stream()
+            .map(this::createRequestAllEntity)
+            .map(req -> (Supplier<Boolean>) () -> this.makeRequest(uri, req) >= 0)
+            .collect(Collectors.toList()));
   }
 
   @Override
@@ -41,9 +60,26 @@ public class RestBatchTransactionRequester implements BatchTransactionRequester
 
     LOGGER.info("Requesting transactions get resent for legacy node {}", uri);
 
-    return this.enclave.getPublicKeys().stream()
-        .map(this::createLegacyRequest)
-        .allMatch(req -> this.makeLegacyRequest(uri, req));
+    return allSucceed(
+        this.enclave.getPublicKeys().stream()
+            .map(this::createLegacyRequest)
+            .map(req -> (Supplier<Boolean>) () -> this.makeLegacyRequest(uri, req))
+            .collect(Collectors.toList()));
+  }
+
+  /**
+   * Runs every request on the executor and waits for them all to finish
+   *
+   * @param requests the requests to make, each returning whether it succeeded
+   * @return true if every request succeeded
+   */
+  private boolean allSucceed(final List<Supplier<Boolean>> requests) {
+    final List<CompletableFuture<Boolean>> results =
+        requests.stream()
+            .map(request -> CompletableFuture.supplyAsync(request, executor))
+            .collect(Collectors.toList());
+
+    return results.stream().map(CompletableFuture::join).reduce(true, Boolean::logicalAnd);
   }
 
   /**
@@ -1,6 +1,7 @@
 package com.quorum.tessera.p2p.recovery;
 
 import com.quorum.tessera.p2p.resend.ResendRequest;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.MediaType;
@@ -28,29 +29,30 @@ public class RestRecoveryClient implements RecoveryClient {
   @Override
   public boolean pushBatch(String targetUrl, PushBatchRequest pushBatchRequest) {
 
-    final Response response =
+    try (Response response =
         client
             .target(targetUrl)
             .path("/pushBatch")
             .request()
-            .post(Entity.entity(pushBatchRequest, MediaType.APPLICATION_JSON));
-
-    return Response.Status.OK.getStatusCode() == response.getStatus();
+            .post(Entity.entity(pushBatchRequest, MediaType.APPLICATION_JSON))) {
+      return Response.Status.OK.getStatusCode() == response.getStatus();
+    }
   }
 
   @Override
   public ResendBatchResponse makeBatchResendRequest(String targetUrl, ResendBatchRequest request) {
-    final Response response =
+    try (Response response =
         client
             .target(targetUrl)
             .path("/resendBatch")
             .request()
-            .post(Entity.entity(request, MediaType.APPLICATION_JSON));
+            .post(Entity.entity(request, MediaType.APPLICATION_JSON))) {
 
-    if (Response.Status.OK.getStatusCode() == response.getStatus()) {
-      return response.readEntity(ResendBatchResponse.class);
-    }
+      if (Response.Status.OK.getStatusCode() == response.getStatus()) {
+        return response.readEntity(ResendBatchResponse.class);
+      }
 
-    return null;
+      return null;
+    }
   }
 }
@@ -2,6 +2,8 @@ package com.quorum.tessera.p2p.recovery;
 
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.metrics.LatencyMetrics;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import com.quorum.tessera.recovery.resend.ResendBatchPublisher;
 import com.quorum.tessera.transaction.publish.PublishPayloadException;
 import java.util.List;
@@ -29,15 +31,21 @@ public class RestResendBatchPublisher implements ResendBatchPublisher {
 
     LOGGER.info("Publishing message to {}", targetUrl);
 
-    final List<byte[]> encodedPayloads =
-        payloads.stream().map(payloadEncoder::encode).collect(Collectors.toList());
+    final long start = System.nanoTime();
+    try {
+      final List<byte[]> encodedPayloads =
+          payloads.stream().map(payloadEncoder::encode).collect(Collectors.toList());
 
-    final PushBatchRequest pushBatchRequest = new PushBatchRequest(encodedPayloads);
+      final PushBatchRequest pushBatchRequest = new PushBatchRequest(encodedPayloads);
 
-    final boolean result = resendClient.pushBatch(targetUrl, pushBatchRequest);
+      final boolean result = resendClient.pushBatch(targetUrl, pushBatchRequest);
 
-    if (!result) {
-      throw new PublishPayloadException("Unable to push payload batch to recipient " + targetUrl);
+      if (!result) {
+        throw new PublishPayloadException(
+            "Unable to push payload batch to recipient " + targetUrl);
+      }
+    } finally {
+      LatencyMetrics.histogram(LatencyMetrics.RESEND_BATCH, targetUrl).recordSince(start);
     }
 
     LOGGER.info("Published to {}", targetUrl);
@@ -1,17 +1,18 @@
 package com.quorum.tessera.p2p.resend;
 
 import com.quorum.tessera.discovery.Discovery;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoDigest;
 import com.quorum.tessera.p2p.partyinfo.PartyInfoParser;
 import com.quorum.tessera.partyinfo.P2pClient;
 import com.quorum.tessera.partyinfo.model.Party;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
 import com.quorum.tessera.partyinfo.model.PartyInfoBuilder;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.threading.ExecutorFactory;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,9 +41,17 @@ public class SyncPoller implements Runnable {
       ResendPartyStore resendPartyStore,
       TransactionRequester transactionRequester,
       P2pClient p2pClient) {
+    this(new ExecutorFactory(), resendPartyStore, transactionRequester, p2pClient);
+  }
+
+  public SyncPoller(
+      ExecutorFactory executorFactory,
+      ResendPartyStore resendPartyStore,
+      TransactionRequester transactionRequester,
+      P2pClient p2pClient) {
 
     this(
-        Executors.newCachedThreadPool(),
+        executorFactory.createBoundedExecutor("sync-poller"),
         resendPartyStore,
         transactionRequester,
         Discovery.create(),
@@ -132,9 +141,11 @@ public class SyncPoller implements Runnable {
 
       final byte[] encodedPartyInfo = partyInfoParser.to(partyInfo);
 
+      final String digest = PartyInfoDigest.of(partyInfo, nodeInfo.supportedApiVersions());
+
       // we deliberately discard the response as we do not want to fully duplicate the
       // PartyInfoPoller
-      boolean outcome = p2pClient.sendPartyInfo(url, encodedPartyInfo);
+      boolean outcome = p2pClient.sendPartyInfo(url, encodedPartyInfo, nodeInfo.getUrl(), digest);
       LOGGER.debug("Sent node info {} to {}", nodeInfo, url);
       return outcome;
     } catch (final Exception ex) {
@@ -36,6 +36,8 @@ module tessera.partyinfo.jaxrs {
   //      org.eclipse.persistence.core,
   //      org.hibernate.validator;
 
+  opens com.quorum.tessera.p2p.partyinfo;
+
   uses com.quorum.tessera.p2p.recovery.RecoveryClient;
   uses com.quorum.tessera.p2p.resend.ResendClient;
   uses com.quorum.tessera.p2p.resend.TransactionRequester;
@@ -7,11 +7,14 @@ import com.openpojo.validation.ValidatorBuilder;
 import com.openpojo.validation.rule.impl.NoPrimitivesRule;
 import com.openpojo.validation.test.impl.GetterTester;
 import com.openpojo.validation.test.impl.SetterTester;
-import com.quorum.tessera.p2p.recovery.PushBatchRequest;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoDigestRequest;
+import com.quorum.tessera.p2p.partyinfo.ValidateKeysRequest;
+import com.quorum.tessera.p2p.partyinfo.ValidateKeysResponse;
 import com.quorum.tessera.p2p.recovery.ResendBatchRequest;
 import com.quorum.tessera.p2p.recovery.ResendBatchResponse;
 import com.quorum.tessera.p2p.resend.ResendRequest;
 import com.quorum.tessera.p2p.resend.ResendResponse;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.junit.Test;
@@ -27,7 +30,10 @@ public class OpenPojoTest {
             ResendResponse.class,
             ResendBatchRequest.class,
             ResendBatchResponse.class,
-            PushBatchRequest.class);
+            PushBatchRequest.class,
+            PartyInfoDigestRequest.class,
+            ValidateKeysRequest.class,
+            ValidateKeysResponse.class);
 
     List<PojoClass> pojoClasses =
         classList.stream().map(PojoClassFactory::getPojoClass).collect(Collectors.toList());
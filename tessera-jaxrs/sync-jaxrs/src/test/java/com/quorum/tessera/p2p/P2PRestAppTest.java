@@ -4,13 +4,19 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.mockStatic;
 
+import com.quorum.tessera.api.common.EncodedPayloadProvider;
 import com.quorum.tessera.api.common.UpCheckResource;
 import com.quorum.tessera.api.filter.IPWhitelistFilter;
 import com.quorum.tessera.config.AppType;
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.context.RuntimeContext;
 import com.quorum.tessera.discovery.Discovery;
+import com.quorum.tessera.discovery.NetworkStore;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.p2p.partyinfo.PartyStore;
+import com.quorum.tessera.p2p.partyinfo.ValidatedKeyCache;
 import com.quorum.tessera.privacygroup.PrivacyGroupManager;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.LegacyResendManager;
@@ -18,6 +24,7 @@ import com.quorum.tessera.transaction.TransactionManager;
 import jakarta.ws.rs.client.Client;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.junit.After;
 import org.junit.Before;
@@ -66,7 +73,9 @@ public class P2PRestAppTest {
             transactionManager,
             batchResendManager,
             legacyResendManager,
-            privacyGroupManager);
+            privacyGroupManager,
+            new ValidatedKeyCache(1000),
+            mock(NetworkStore.class));
 
     Client client = mock(Client.class);
     when(runtimeContext.getP2pClient()).thenReturn(client);
@@ -154,7 +163,7 @@ public class P2PRestAppTest {
 
   @Test
   public void getClasses() {
-    assertThat(p2PRestApp.getClasses()).isNotEmpty();
+    assertThat(p2PRestApp.getClasses()).isNotEmpty().contains(EncodedPayloadProvider.class);
   }
 
   @Test
@@ -166,7 +175,19 @@ public class P2PRestAppTest {
         var transactionManagerMockedStatic = mockStatic(TransactionManager.class);
         var batchResendManagerMockedStatic = mockStatic(BatchResendManager.class);
         var legacyResendManagerMockedStatic = mockStatic(LegacyResendManager.class);
-        var privacyGroupManagerMockedStatic = mockStatic(PrivacyGroupManager.class)) {
+        var privacyGroupManagerMockedStatic = mockStatic(PrivacyGroupManager.class);
+        var configFactoryMockedStatic = mockStatic(ConfigFactory.class);
+        var networkStoreMockedStatic = mockStatic(NetworkStore.class)) {
+
+      networkStoreMockedStatic.when(NetworkStore::getInstance).thenReturn(mock(NetworkStore.class));
+
+      final ConfigFactory configFactory = mock(ConfigFactory.class);
+      final Config config = mock(Config.class);
+      final ServerConfig serverConfig = mock(ServerConfig.class);
+      when(serverConfig.getProperties()).thenReturn(Map.of("keyValidationTtl", "1000"));
+      when(config.getP2PServerConfig()).thenReturn(serverConfig);
+      when(configFactory.getConfig()).thenReturn(config);
+      configFactoryMockedStatic.when(ConfigFactory::create).thenReturn(configFactory);
 
       privacyGroupManagerMockedStatic
           .when(PrivacyGroupManager::create)
@@ -207,6 +228,12 @@ public class P2PRestAppTest {
 
       privacyGroupManagerMockedStatic.verify(PrivacyGroupManager::create);
       partyStoreMockedStatic.verifyNoMoreInteractions();
+
+      configFactoryMockedStatic.verify(ConfigFactory::create);
+      configFactoryMockedStatic.verifyNoMoreInteractions();
+
+      networkStoreMockedStatic.verify(NetworkStore::getInstance);
+      networkStoreMockedStatic.verifyNoMoreInteractions();
     }
   }
 }
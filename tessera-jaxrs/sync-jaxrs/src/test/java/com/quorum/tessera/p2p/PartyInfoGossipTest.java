@@ -0,0 +1,196 @@
+package com.quorum.tessera.p2p;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.discovery.ActiveNode;
+import com.quorum.tessera.discovery.Discovery;
+import com.quorum.tessera.discovery.NetworkStore;
+import com.quorum.tessera.discovery.NodeUri;
+import com.quorum.tessera.enclave.Enclave;
+import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoBroadcaster;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoDigestRequest;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoParser;
+import com.quorum.tessera.p2p.partyinfo.PartyStore;
+import com.quorum.tessera.p2p.partyinfo.ValidatedKeyCache;
+import com.quorum.tessera.partyinfo.P2pClient;
+import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.partyinfo.node.Recipient;
+import jakarta.ws.rs.client.Client;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+/**
+ * Runs partyinfo rounds between several in-memory nodes, each with its own broadcaster and
+ * resource, to check that digests stop repeated pushes without stopping new peers from spreading.
+ */
+public class PartyInfoGossipTest {
+
+  private static final Set<String> VERSIONS = Set.of("7.0", "8.0");
+
+  private final Map<NodeUri, Node> nodes = new ConcurrentHashMap<>();
+
+  private final List<String> fullPushes = new ArrayList<>();
+
+  private final P2pClient network =
+      new P2pClient() {
+        @Override
+        public boolean sendPartyInfo(String targetUrl, byte[] data) {
+          fullPushes.add(targetUrl);
+          return nodes
+                  .get(NodeUri.create(targetUrl))
+                  .resource
+                  .partyInfo(data, List.of(String.join(",", VERSIONS)))
+                  .getStatus()
+              == 200;
+        }
+
+        @Override
+        public boolean sendPartyInfo(
+            String targetUrl, byte[] data, String senderUrl, String digest) {
+          final PartyInfoDigestRequest request = new PartyInfoDigestRequest(senderUrl, digest);
+          if (nodes.get(NodeUri.create(targetUrl)).resource.digest(request).getStatus() == 200) {
+            return true;
+          }
+          return sendPartyInfo(targetUrl, data);
+        }
+      };
+
+  @Test
+  public void unchangedPartyInfoIsSentOnceAndNewPeersStillSpread() {
+    final Node nodeA = new Node("http://a.com:8080/");
+    final Node nodeB = new Node("http://b.com:8080/");
+    final Node nodeC = new Node("http://c.com:8080/");
+    nodeA.parties.add(nodeB.uri());
+    nodeB.parties.add(nodeA.uri());
+
+    nodeA.broadcaster.run();
+    nodeB.broadcaster.run();
+    assertThat(fullPushes).containsExactly(nodeB.url, nodeA.url);
+
+    // A has learned about B since its first push, B has nothing new for A
+    fullPushes.clear();
+    nodeA.broadcaster.run();
+    nodeB.broadcaster.run();
+    assertThat(fullPushes).containsExactly(nodeB.url);
+
+    fullPushes.clear();
+    nodeA.broadcaster.run();
+    nodeB.broadcaster.run();
+    assertThat(fullPushes).isEmpty();
+
+    // C only knows B, so A can only learn about C through B
+    nodeC.parties.add(nodeB.uri());
+    nodeC.broadcaster.run();
+    assertThat(nodeB.parties).contains(nodeC.uri());
+
+    fullPushes.clear();
+    nodeB.broadcaster.run();
+    assertThat(fullPushes).containsExactlyInAnyOrder(nodeA.url, nodeC.url);
+    assertThat(nodeA.parties).contains(nodeC.uri());
+
+    fullPushes.clear();
+    nodeA.broadcaster.run();
+    assertThat(fullPushes).containsExactly(nodeC.url);
+    assertThat(nodeC.known).containsKey(NodeUri.create(nodeA.url));
+  }
+
+  private class Node {
+
+    private final String url;
+
+    private final PublicKey key;
+
+    private final Map<NodeUri, NodeInfo> known = new ConcurrentHashMap<>();
+
+    private final Set<URI> parties = ConcurrentHashMap.newKeySet();
+
+    private final PartyInfoResource resource;
+
+    private final PartyInfoBroadcaster broadcaster;
+
+    Node(final String url) {
+      this.url = url;
+      this.key = PublicKey.from(url.getBytes());
+
+      final Discovery discovery = mock(Discovery.class);
+      when(discovery.getCurrent()).thenAnswer(invocation -> current());
+      doAnswer(
+              invocation -> {
+                final NodeInfo nodeInfo = invocation.getArgument(0);
+                known.put(NodeUri.create(nodeInfo.getUrl()), nodeInfo);
+                return null;
+              })
+          .when(discovery)
+          .onUpdate(any(NodeInfo.class));
+
+      final NetworkStore networkStore = mock(NetworkStore.class);
+      when(networkStore.getActiveNode(any(NodeUri.class)))
+          .thenAnswer(
+              invocation ->
+                  Optional.ofNullable(known.get(invocation.<NodeUri>getArgument(0)))
+                      .map(PartyInfoGossipTest::activeNode));
+
+      final PartyStore partyStore = mock(PartyStore.class);
+      when(partyStore.getParties()).thenAnswer(invocation -> Set.copyOf(parties));
+      when(partyStore.store(any(URI.class)))
+          .thenAnswer(
+              invocation -> {
+                parties.add(invocation.getArgument(0));
+                return partyStore;
+              });
+
+      final PartyInfoParser partyInfoParser = PartyInfoParser.create();
+      this.resource =
+          new PartyInfoResource(
+              discovery,
+              partyInfoParser,
+              mock(Client.class),
+              mock(Enclave.class),
+              mock(PayloadEncoder.class),
+              false,
+              partyStore,
+              new ValidatedKeyCache(0),
+              networkStore);
+      this.broadcaster = new PartyInfoBroadcaster(discovery, partyInfoParser, network, partyStore);
+
+      nodes.put(NodeUri.create(url), this);
+    }
+
+    URI uri() {
+      return NodeUri.create(url).asURI();
+    }
+
+    private NodeInfo current() {
+      final Set<Recipient> recipients =
+          Stream.concat(
+                  Stream.of(Recipient.of(key, url)),
+                  known.values().stream().flatMap(n -> n.getRecipients().stream()))
+              .collect(Collectors.toSet());
+      return NodeInfo.Builder.create()
+          .withUrl(url)
+          .withRecipients(recipients)
+          .withSupportedApiVersions(VERSIONS)
+          .build();
+    }
+  }
+
+  private static ActiveNode activeNode(final NodeInfo nodeInfo) {
+    return ActiveNode.Builder.create()
+        .withUri(NodeUri.create(nodeInfo.getUrl()))
+        .withKeys(nodeInfo.getRecipientsAsMap().keySet())
+        .withSupportedVersions(nodeInfo.supportedApiVersions())
+        .build();
+  }
+}
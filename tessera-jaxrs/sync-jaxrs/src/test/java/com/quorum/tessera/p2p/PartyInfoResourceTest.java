@@ -4,14 +4,22 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.discovery.ActiveNode;
 import com.quorum.tessera.discovery.Discovery;
+import com.quorum.tessera.discovery.NetworkStore;
+import com.quorum.tessera.discovery.NodeUri;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.enclave.PrivacyMetadata;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoDigest;
+import com.quorum.tessera.p2p.partyinfo.PartyInfoDigestRequest;
 import com.quorum.tessera.p2p.partyinfo.PartyInfoParser;
 import com.quorum.tessera.p2p.partyinfo.PartyStore;
+import com.quorum.tessera.p2p.partyinfo.ValidateKeysRequest;
+import com.quorum.tessera.p2p.partyinfo.ValidateKeysResponse;
+import com.quorum.tessera.p2p.partyinfo.ValidatedKeyCache;
 import com.quorum.tessera.partyinfo.model.NodeInfoUtil;
 import com.quorum.tessera.partyinfo.model.Party;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
@@ -53,6 +61,10 @@ public class PartyInfoResourceTest {
 
   private PartyStore partyStore;
 
+  private ValidatedKeyCache validatedKeyCache;
+
+  private NetworkStore networkStore;
+
   @Before
   public void beforeTest() {
     this.discovery = mock(Discovery.class);
@@ -61,9 +73,19 @@ public class PartyInfoResourceTest {
     this.restClient = mock(Client.class);
     this.payloadEncoder = mock(PayloadEncoder.class);
     this.partyStore = mock(PartyStore.class);
+    this.validatedKeyCache = new ValidatedKeyCache(60000);
+    this.networkStore = mock(NetworkStore.class);
     this.partyInfoResource =
         new PartyInfoResource(
-            discovery, partyInfoParser, restClient, enclave, payloadEncoder, true, partyStore);
+            discovery,
+            partyInfoParser,
+            restClient,
+            enclave,
+            payloadEncoder,
+            true,
+            partyStore,
+            validatedKeyCache,
+            networkStore);
   }
 
   @After
@@ -247,9 +269,15 @@ public class PartyInfoResourceTest {
 
   @Test
   public void constructWithMinimalArgs() {
-    PartyInfoResource instance =
-        new PartyInfoResource(discovery, partyInfoParser, restClient, enclave, true);
-    assertThat(instance).isNotNull();
+    try (var networkStoreMockedStatic = mockStatic(NetworkStore.class)) {
+      networkStoreMockedStatic.when(NetworkStore::getInstance).thenReturn(networkStore);
+
+      PartyInfoResource instance =
+          new PartyInfoResource(discovery, partyInfoParser, restClient, enclave, true);
+      assertThat(instance).isNotNull();
+
+      networkStoreMockedStatic.verify(NetworkStore::getInstance);
+    }
   }
 
   @Test
@@ -438,7 +466,15 @@ public class PartyInfoResourceTest {
   public void validationDisabledPassesAllKeysToStore() {
     this.partyInfoResource =
         new PartyInfoResource(
-            discovery, partyInfoParser, restClient, enclave, payloadEncoder, false, partyStore);
+            discovery,
+            partyInfoParser,
+            restClient,
+            enclave,
+            payloadEncoder,
+            false,
+            partyStore,
+            validatedKeyCache,
+            networkStore);
 
     final byte[] payload = "Test message".getBytes();
 
@@ -554,4 +590,250 @@ public class PartyInfoResourceTest {
     verify(payloadEncoder, times(2)).encode(encodedPayload);
     verify(restClient, times(2)).target(url);
   }
+
+  @Test
+  public void recentlyValidatedKeyIsNotChallengedAgain() {
+    final String url = "http://www.bogus.com";
+    final PublicKey recipientKey = PublicKey.from("recipientKey".getBytes());
+    final PartyInfo partyInfo =
+        new PartyInfo(url, Set.of(Recipient.of(recipientKey, url)), Collections.emptySet());
+    final byte[] payload = "payload".getBytes();
+    when(partyInfoParser.from(payload)).thenReturn(partyInfo);
+
+    validatedKeyCache.validated(recipientKey, url);
+
+    final Response result = partyInfoResource.partyInfo(payload, List.of("v1,v2"));
+
+    assertThat(result.getStatus()).isEqualTo(200);
+
+    final ArgumentCaptor<NodeInfo> captor = ArgumentCaptor.forClass(NodeInfo.class);
+    verify(discovery).onUpdate(captor.capture());
+    assertThat(captor.getValue().getRecipients())
+        .containsExactly(com.quorum.tessera.partyinfo.node.Recipient.of(recipientKey, url));
+    verify(partyInfoParser).from(payload);
+  }
+
+  @Test
+  public void keysAreValidatedInOneBatchIfPeerSupportsIt() {
+    final String url = "http://www.bogus.com";
+    final PublicKey key = PublicKey.from("key".getBytes());
+    final PublicKey otherKey = PublicKey.from("otherKey".getBytes());
+    final PublicKey badKey = PublicKey.from("badKey".getBytes());
+    final List<Recipient> recipients =
+        List.of(Recipient.of(key, url), Recipient.of(otherKey, url), Recipient.of(badKey, url));
+    final PartyInfo partyInfo =
+        new PartyInfo(url, new LinkedHashSet<>(recipients), Collections.emptySet());
+    final byte[] payload = "payload".getBytes();
+    when(partyInfoParser.from(payload)).thenReturn(partyInfo);
+    when(enclave.defaultPublicKey()).thenReturn(PublicKey.from("myKey".getBytes()));
+
+    final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    final List<String> answers = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              final List<PublicKey> keys = invocation.getArgument(2);
+              final String uuid = new String((byte[]) invocation.getArgument(0));
+              answers.add(keys.get(0).equals(badKey) ? "" : uuid);
+              return encodedPayload;
+            })
+        .when(enclave)
+        .encryptPayload(
+            any(byte[].class), any(PublicKey.class), anyList(), any(PrivacyMetadata.class));
+    when(payloadEncoder.encode(encodedPayload)).thenReturn("challenge".getBytes());
+
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(restClient.target(url)).thenReturn(webTarget);
+    when(webTarget.path(anyString())).thenReturn(webTarget);
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(webTarget.request()).thenReturn(invocationBuilder);
+    final Response response = mock(Response.class);
+    when(invocationBuilder.post(any(Entity.class))).thenReturn(response);
+    doAnswer(invocation -> new ValidateKeysResponse(answers))
+        .when(response)
+        .readEntity(ValidateKeysResponse.class);
+
+    final Response result = partyInfoResource.partyInfo(payload, List.of("6.0,7.0"));
+
+    assertThat(result.getStatus()).isEqualTo(200);
+    assertThat(validatedKeyCache.isValidated(key, url)).isTrue();
+    assertThat(validatedKeyCache.isValidated(otherKey, url)).isTrue();
+    assertThat(validatedKeyCache.isValidated(badKey, url)).isFalse();
+
+    final ArgumentCaptor<NodeInfo> captor = ArgumentCaptor.forClass(NodeInfo.class);
+    verify(discovery).onUpdate(captor.capture());
+    assertThat(captor.getValue().getRecipients())
+        .containsExactlyInAnyOrder(
+            com.quorum.tessera.partyinfo.node.Recipient.of(key, url),
+            com.quorum.tessera.partyinfo.node.Recipient.of(otherKey, url));
+
+    final ArgumentCaptor<Entity> entityCaptor = ArgumentCaptor.forClass(Entity.class);
+    verify(invocationBuilder).post(entityCaptor.capture());
+    assertThat(((ValidateKeysRequest) entityCaptor.getValue().getEntity()).getEncodedPayloads())
+        .hasSize(3);
+    verify(webTarget).path("batch");
+
+    verify(partyInfoParser).from(payload);
+    verify(enclave).defaultPublicKey();
+    verify(enclave, times(3))
+        .encryptPayload(
+            any(byte[].class), any(PublicKey.class), anyList(), any(PrivacyMetadata.class));
+    verify(payloadEncoder, times(3)).encode(encodedPayload);
+    verify(restClient).target(url);
+  }
+
+  @Test
+  public void validateBatch() {
+    final String message = UUID.randomUUID().toString();
+    final byte[] good = "good".getBytes();
+    final byte[] notUuid = "notUuid".getBytes();
+    final byte[] broken = "broken".getBytes();
+    final PublicKey myKey = PublicKey.from("myKey".getBytes());
+
+    final EncodedPayload goodPayload = mock(EncodedPayload.class);
+    when(goodPayload.getRecipientKeys()).thenReturn(List.of(myKey));
+    final EncodedPayload notUuidPayload = mock(EncodedPayload.class);
+    when(notUuidPayload.getRecipientKeys()).thenReturn(List.of(myKey));
+
+    when(payloadEncoder.decode(good)).thenReturn(goodPayload);
+    when(payloadEncoder.decode(notUuid)).thenReturn(notUuidPayload);
+    when(payloadEncoder.decode(broken)).thenThrow(new IllegalArgumentException("broken"));
+    when(enclave.unencryptTransaction(goodPayload, myKey)).thenReturn(message.getBytes());
+    when(enclave.unencryptTransaction(notUuidPayload, myKey)).thenReturn("sparrows".getBytes());
+    when(enclave.getPublicKeys())
+        .thenReturn(Set.of(myKey, PublicKey.from("a".getBytes()), PublicKey.from("b".getBytes())));
+
+    final Response result =
+        partyInfoResource.validateBatch(new ValidateKeysRequest(List.of(good, notUuid, broken)));
+
+    assertThat(result.getStatus()).isEqualTo(200);
+    assertThat(((ValidateKeysResponse) result.getEntity()).getResults())
+        .containsExactly(message, "", "");
+
+    verify(payloadEncoder).decode(good);
+    verify(payloadEncoder).decode(notUuid);
+    verify(payloadEncoder).decode(broken);
+    verify(enclave).unencryptTransaction(goodPayload, myKey);
+    verify(enclave).unencryptTransaction(notUuidPayload, myKey);
+    verify(enclave).getPublicKeys();
+  }
+
+  @Test
+  public void validateBatchLargerThanKeyCountIsRejected() {
+    when(enclave.getPublicKeys()).thenReturn(Set.of(PublicKey.from("myKey".getBytes())));
+
+    final Response result =
+        partyInfoResource.validateBatch(
+            new ValidateKeysRequest(List.of("one".getBytes(), "two".getBytes())));
+
+    assertThat(result.getStatus()).isEqualTo(400);
+
+    verify(enclave).getPublicKeys();
+  }
+
+  @Test
+  public void digestOfAppliedPushIsCurrent() {
+    final String url = "http://www.bogus.com/";
+    final PublicKey key = PublicKey.from("key".getBytes());
+    final PartyInfo partyInfo = partyInfo(url, key, Set.of(new Party("http://peer.com/")));
+    when(networkStore.getActiveNode(NodeUri.create(url)))
+        .thenReturn(Optional.of(activeNode(url, key)));
+
+    applyPush(partyInfo, List.of("7.0,8.0"));
+
+    final String digest = PartyInfoDigest.of(partyInfo, Set.of("7.0", "8.0"));
+    final Response result = partyInfoResource.digest(new PartyInfoDigestRequest(url, digest));
+
+    assertThat(result.getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  public void digestOfChangedPartyInfoIsNotCurrent() {
+    final String url = "http://www.bogus.com/";
+    final PublicKey key = PublicKey.from("key".getBytes());
+    when(networkStore.getActiveNode(NodeUri.create(url)))
+        .thenReturn(Optional.of(activeNode(url, key)));
+
+    applyPush(partyInfo(url, key, Set.of(new Party("http://peer.com/"))), List.of("7.0,8.0"));
+
+    final PartyInfo withNewPeer =
+        partyInfo(url, key, Set.of(new Party("http://peer.com/"), new Party("http://new.com/")));
+    final String digest = PartyInfoDigest.of(withNewPeer, Set.of("7.0", "8.0"));
+    final Response result = partyInfoResource.digest(new PartyInfoDigestRequest(url, digest));
+
+    assertThat(result.getStatus()).isEqualTo(409);
+  }
+
+  @Test
+  public void digestIsNotCurrentOnceKeyValidationExpires() {
+    final String url = "http://www.bogus.com/";
+    final PublicKey key = PublicKey.from("key".getBytes());
+    final PublicKey expiredKey = PublicKey.from("expiredKey".getBytes());
+    final PartyInfo partyInfo = partyInfo(url, key, Set.of());
+    when(networkStore.getActiveNode(NodeUri.create(url)))
+        .thenReturn(
+            Optional.of(
+                ActiveNode.Builder.create()
+                    .withUri(NodeUri.create(url))
+                    .withKeys(Set.of(key, expiredKey))
+                    .build()));
+
+    applyPush(partyInfo, List.of("8.0"));
+
+    final String digest = PartyInfoDigest.of(partyInfo, Set.of("8.0"));
+    final Response result = partyInfoResource.digest(new PartyInfoDigestRequest(url, digest));
+
+    assertThat(result.getStatus()).isEqualTo(409);
+  }
+
+  @Test
+  public void digestOfUnknownNodeIsNotCurrent() {
+    final String url = "http://www.bogus.com/";
+    final PublicKey key = PublicKey.from("key".getBytes());
+    final PartyInfo partyInfo = partyInfo(url, key, Set.of());
+
+    applyPush(partyInfo, List.of("8.0"));
+    when(networkStore.getActiveNode(NodeUri.create(url))).thenReturn(Optional.empty());
+
+    final String digest = PartyInfoDigest.of(partyInfo, Set.of("8.0"));
+    final Response result = partyInfoResource.digest(new PartyInfoDigestRequest(url, digest));
+
+    assertThat(result.getStatus()).isEqualTo(409);
+  }
+
+  @Test
+  public void digestWithoutAppliedPushIsNotCurrent() {
+    final String url = "http://www.bogus.com/";
+    final PublicKey key = PublicKey.from("key".getBytes());
+    when(networkStore.getActiveNode(NodeUri.create(url)))
+        .thenReturn(Optional.of(activeNode(url, key)));
+    validatedKeyCache.validated(key, url);
+
+    final String digest = PartyInfoDigest.of(partyInfo(url, key, Set.of()), Set.of("7.0", "8.0"));
+    final Response result = partyInfoResource.digest(new PartyInfoDigestRequest(url, digest));
+
+    assertThat(result.getStatus()).isEqualTo(409);
+  }
+
+  private void applyPush(final PartyInfo partyInfo, final List<String> versions) {
+    final byte[] payload = partyInfo.getUrl().getBytes();
+    when(partyInfoParser.from(payload)).thenReturn(partyInfo);
+    partyInfo.getRecipients().forEach(r -> validatedKeyCache.validated(r.getKey(), r.getUrl()));
+
+    assertThat(partyInfoResource.partyInfo(payload, versions).getStatus()).isEqualTo(200);
+
+    verify(partyInfoParser).from(payload);
+    verify(discovery).onUpdate(any(NodeInfo.class));
+  }
+
+  private static PartyInfo partyInfo(String url, PublicKey key, Set<Party> parties) {
+    return new PartyInfo(url, Set.of(Recipient.of(key, url)), parties);
+  }
+
+  private static ActiveNode activeNode(String url, PublicKey key) {
+    return ActiveNode.Builder.create()
+        .withUri(NodeUri.create(url))
+        .withKeys(Set.of(key))
+        .withSupportedVersions(Set.of("8.0", "7.0"))
+        .build();
+  }
 }
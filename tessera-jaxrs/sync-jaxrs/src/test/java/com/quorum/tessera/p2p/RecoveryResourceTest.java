@@ -7,11 +7,12 @@ import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.EncodedPayloadCodec;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.enclave.PrivacyMode;
-import com.quorum.tessera.p2p.recovery.PushBatchRequest;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.transaction.TransactionManager;
 import jakarta.ws.rs.core.Response;
 import java.util.Collections;
+import java.util.List;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -70,32 +71,66 @@ public class RecoveryResourceTest {
 
   @Test
   public void pushAllowedForStandardPrivate() {
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+
+    final Response result = recoveryResource.push(payload);
+
+    assertThat(result.getStatus()).isEqualTo(201);
+    assertThat(result.hasEntity()).isTrue();
+    verify(transactionManager).storePayload(payload);
+  }
+
+  @Test
+  public void pushNotAllowedForEnhancedPrivacy() {
+    final EncodedPayload payload = mock(EncodedPayload.class);
+    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.PRIVATE_STATE_VALIDATION);
+
+    final Response result = recoveryResource.push(payload);
+
+    assertThat(result.getStatus()).isEqualTo(403);
+  }
+
+  @Test
+  public void pushMultipleAllowedForStandardPrivate() {
     final byte[] someData = "SomeData".getBytes();
+    final byte[] otherData = "OtherData".getBytes();
     final EncodedPayload payload = mock(EncodedPayload.class);
+    final EncodedPayload otherPayload = mock(EncodedPayload.class);
     when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    when(otherPayload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
     when(payloadEncoder.decode(someData)).thenReturn(payload);
+    when(payloadEncoder.decode(otherData)).thenReturn(otherPayload);
 
-    final Response result = recoveryResource.push(someData, null);
+    final Response result =
+        recoveryResource.pushMultiple(new PushBatchRequest(List.of(someData, otherData)), null);
 
     assertThat(result.getStatus()).isEqualTo(201);
-    assertThat(result.hasEntity()).isTrue();
     verify(transactionManager).storePayload(payload);
+    verify(transactionManager).storePayload(otherPayload);
     verify(payloadEncoder).decode(someData);
+    verify(payloadEncoder).decode(otherData);
     payloadEncoderFactoryFunction.verify(
         () -> PayloadEncoder.create(any(EncodedPayloadCodec.class)));
   }
 
   @Test
-  public void pushNotAllowedForEnhancedPrivacy() {
+  public void pushMultipleNotAllowedIfAnyHasEnhancedPrivacy() {
     final byte[] someData = "SomeData".getBytes();
+    final byte[] otherData = "OtherData".getBytes();
     final EncodedPayload payload = mock(EncodedPayload.class);
-    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.PRIVATE_STATE_VALIDATION);
+    final EncodedPayload otherPayload = mock(EncodedPayload.class);
+    when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    when(otherPayload.getPrivacyMode()).thenReturn(PrivacyMode.PRIVATE_STATE_VALIDATION);
     when(payloadEncoder.decode(someData)).thenReturn(payload);
+    when(payloadEncoder.decode(otherData)).thenReturn(otherPayload);
 
-    final Response result = recoveryResource.push(someData, null);
+    final Response result =
+        recoveryResource.pushMultiple(new PushBatchRequest(List.of(someData, otherData)), null);
 
     assertThat(result.getStatus()).isEqualTo(403);
     verify(payloadEncoder).decode(someData);
+    verify(payloadEncoder).decode(otherData);
     payloadEncoderFactoryFunction.verify(
         () -> PayloadEncoder.create(any(EncodedPayloadCodec.class)));
   }
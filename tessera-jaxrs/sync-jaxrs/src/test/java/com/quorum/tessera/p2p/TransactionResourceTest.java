@@ -8,6 +8,7 @@ import com.quorum.tessera.enclave.EncodedPayloadCodec;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.p2p.recovery.ResendBatchRequest;
 import com.quorum.tessera.p2p.resend.ResendRequest;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import com.quorum.tessera.recovery.resend.ResendBatchResponse;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.LegacyResendManager;
@@ -65,19 +66,35 @@ public class TransactionResourceTest {
 
   @Test
   public void push() {
+    final EncodedPayload payload = mock(EncodedPayload.class);
+
+    final Response result = transactionResource.push(payload);
+
+    assertThat(result.getStatus()).isEqualTo(201);
+    assertThat(result.hasEntity()).isTrue();
+    verify(transactionManager).storePayload(payload);
+  }
+
+  @Test
+  public void pushMultiple() {
     final byte[] someData = "SomeData".getBytes();
+    final byte[] otherData = "OtherData".getBytes();
     final EncodedPayload payload = mock(EncodedPayload.class);
+    final EncodedPayload otherPayload = mock(EncodedPayload.class);
     when(payloadEncoder.decode(someData)).thenReturn(payload);
+    when(payloadEncoder.decode(otherData)).thenReturn(otherPayload);
 
-    final Response result = transactionResource.push(someData, List.of("4.0,5.0"));
+    final Response result =
+        transactionResource.pushMultiple(
+            new PushBatchRequest(List.of(someData, otherData)), List.of("5.0,6.0"));
 
     assertThat(result.getStatus()).isEqualTo(201);
-    assertThat(result.hasEntity()).isTrue();
     verify(transactionManager).storePayload(payload);
+    verify(transactionManager).storePayload(otherPayload);
     verify(payloadEncoder).decode(someData);
+    verify(payloadEncoder).decode(otherData);
 
-    payloadEncoderFactoryFunction.verify(
-        () -> PayloadEncoder.create(any(EncodedPayloadCodec.class)));
+    payloadEncoderFactoryFunction.verify(() -> PayloadEncoder.create(EncodedPayloadCodec.CBOR));
   }
 
   @Test
@@ -5,11 +5,20 @@ import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.discovery.Discovery;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.MBeanRegistry;
 import com.quorum.tessera.partyinfo.P2pClient;
+import com.quorum.tessera.partyinfo.model.Party;
 import com.quorum.tessera.partyinfo.model.PartyInfo;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.partyinfo.node.Recipient;
+import com.quorum.tessera.threading.BoundedExecutor;
+import com.quorum.tessera.threading.ExecutorFactory;
 import jakarta.ws.rs.ProcessingException;
+import java.lang.management.ManagementFactory;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletionException;
 import org.junit.After;
@@ -60,14 +69,43 @@ public class PartyInfoBroadcasterTest {
 
     when(partyStore.getParties()).thenReturn(Set.of(URI.create(OWN_URL), URI.create(TARGET_URL)));
     when(discovery.getCurrent()).thenReturn(partyInfo);
-    when(p2pClient.sendPartyInfo(TARGET_URL, DATA)).thenReturn(true);
+    when(p2pClient.sendPartyInfo(eq(TARGET_URL), eq(DATA), eq(OWN_URL), anyString()))
+        .thenReturn(true);
 
     partyInfoBroadcaster.run();
     verify(partyStore).loadFromConfigIfEmpty();
     verify(partyStore).getParties();
     verify(discovery).getCurrent();
     verify(partyInfoParser).to(any(PartyInfo.class));
-    verify(p2pClient).sendPartyInfo(TARGET_URL, DATA);
+    verify(p2pClient).sendPartyInfo(eq(TARGET_URL), eq(DATA), eq(OWN_URL), anyString());
+  }
+
+  @Test
+  public void digestOfCurrentNodeIsSent() {
+    final PublicKey key = PublicKey.from("key".getBytes());
+    final NodeInfo partyInfo =
+        NodeInfo.Builder.create()
+            .withUrl(OWN_URL)
+            .withRecipients(List.of(Recipient.of(key, OWN_URL)))
+            .withSupportedApiVersions(List.of("7.0", "8.0"))
+            .build();
+
+    when(partyStore.getParties()).thenReturn(Set.of(URI.create(TARGET_URL)));
+    when(discovery.getCurrent()).thenReturn(partyInfo);
+
+    partyInfoBroadcaster.run();
+
+    final PartyInfo pushed =
+        new PartyInfo(
+            OWN_URL,
+            Set.of(com.quorum.tessera.partyinfo.model.Recipient.of(key, OWN_URL)),
+            Set.of(new Party(OWN_URL)));
+    final String digest = PartyInfoDigest.of(pushed, Set.of("7.0", "8.0"));
+    verify(p2pClient).sendPartyInfo(TARGET_URL, DATA, OWN_URL, digest);
+    verify(partyStore).loadFromConfigIfEmpty();
+    verify(partyStore).getParties();
+    verify(discovery).getCurrent();
+    verify(partyInfoParser).to(any(PartyInfo.class));
   }
 
   @Test
@@ -78,7 +116,7 @@ public class PartyInfoBroadcasterTest {
 
     when(discovery.getCurrent()).thenReturn(partyInfo);
     when(partyInfoParser.to(any(PartyInfo.class))).thenReturn(DATA);
-    when(p2pClient.sendPartyInfo(OWN_URL, DATA)).thenReturn(true);
+    when(p2pClient.sendPartyInfo(eq(OWN_URL), eq(DATA), eq(OWN_URL), anyString())).thenReturn(true);
 
     partyInfoBroadcaster.run();
 
@@ -97,7 +135,9 @@ public class PartyInfoBroadcasterTest {
         .thenReturn(Set.of(URI.create(TARGET_URL), URI.create(TARGET_URL_2)));
 
     doReturn(partyInfo).when(discovery).getCurrent();
-    doThrow(UnsupportedOperationException.class).when(p2pClient).sendPartyInfo(TARGET_URL, DATA);
+    doThrow(UnsupportedOperationException.class)
+        .when(p2pClient)
+        .sendPartyInfo(eq(TARGET_URL), eq(DATA), eq(OWN_URL), anyString());
 
     final Throwable throwable = catchThrowable(partyInfoBroadcaster::run);
 
@@ -105,8 +145,8 @@ public class PartyInfoBroadcasterTest {
 
     verify(partyStore).loadFromConfigIfEmpty();
     verify(partyStore).getParties();
-    verify(p2pClient).sendPartyInfo(TARGET_URL, DATA);
-    verify(p2pClient).sendPartyInfo(TARGET_URL_2, DATA);
+    verify(p2pClient).sendPartyInfo(eq(TARGET_URL), eq(DATA), eq(OWN_URL), anyString());
+    verify(p2pClient).sendPartyInfo(eq(TARGET_URL_2), eq(DATA), eq(OWN_URL), anyString());
     verify(discovery).getCurrent();
     verify(partyInfoParser).to(any(PartyInfo.class));
   }
@@ -135,16 +175,115 @@ public class PartyInfoBroadcasterTest {
     ProcessingException processingException = new ProcessingException("OUCH");
     CompletionException completionException = new CompletionException(processingException);
 
-    when(p2pClient.sendPartyInfo(anyString(), any(byte[].class))).thenThrow(completionException);
+    when(p2pClient.sendPartyInfo(anyString(), any(byte[].class), anyString(), anyString()))
+        .thenThrow(completionException);
 
     String uriData = "http://georgecowley.com/";
 
     when(partyStore.getParties()).thenReturn(Set.of(URI.create(uriData)));
 
-    partyInfoBroadcaster.pollSingleParty(uriData, "somebytes".getBytes());
+    partyInfoBroadcaster.pollSingleParty(uriData, "somebytes".getBytes(), OWN_URL, "digest");
 
     verify(discovery).onDisconnect(URI.create(uriData));
     verify(partyStore).remove(URI.create(uriData));
-    verify(p2pClient).sendPartyInfo(anyString(), any(byte[].class));
+    verify(p2pClient).sendPartyInfo(anyString(), any(byte[].class), anyString(), anyString());
+  }
+
+  @Test
+  public void roundCountsSuccessesAndFailures() {
+    final NodeInfo partyInfo = NodeInfo.Builder.create().withUrl(OWN_URL).build();
+
+    when(partyStore.getParties())
+        .thenReturn(Set.of(URI.create(TARGET_URL), URI.create(TARGET_URL_2)));
+    when(discovery.getCurrent()).thenReturn(partyInfo);
+    when(p2pClient.sendPartyInfo(eq(TARGET_URL), eq(DATA), eq(OWN_URL), anyString()))
+        .thenReturn(true);
+    doThrow(UnsupportedOperationException.class)
+        .when(p2pClient)
+        .sendPartyInfo(eq(TARGET_URL_2), eq(DATA), eq(OWN_URL), anyString());
+
+    partyInfoBroadcaster.run();
+
+    assertThat(partyInfoBroadcaster.getRoundCount()).isEqualTo(1);
+    assertThat(partyInfoBroadcaster.getLastRoundSuccessCount()).isEqualTo(1);
+    assertThat(partyInfoBroadcaster.getLastRoundFailureCount()).isEqualTo(1);
+    assertThat(partyInfoBroadcaster.getLastRoundTimeoutCount()).isZero();
+    assertThat(partyInfoBroadcaster.getLastRoundSkippedCount()).isZero();
+    assertThat(partyInfoBroadcaster.getLastRoundDurationMillis()).isNotNegative();
+
+    verify(partyStore).loadFromConfigIfEmpty();
+    verify(partyStore).getParties();
+    verify(discovery).getCurrent();
+    verify(partyInfoParser).to(any(PartyInfo.class));
+    verify(p2pClient).sendPartyInfo(eq(TARGET_URL), eq(DATA), eq(OWN_URL), anyString());
+    verify(p2pClient).sendPartyInfo(eq(TARGET_URL_2), eq(DATA), eq(OWN_URL), anyString());
+  }
+
+  @Test
+  public void partiesStillBeingContactedAtDeadlineAreSkippedNextRound() {
+    final List<Runnable> pending = new ArrayList<>();
+    final PartyInfoBroadcaster broadcaster =
+        new PartyInfoBroadcaster(
+            discovery, partyInfoParser, p2pClient, partyStore, pending::add, 0L);
+
+    final NodeInfo partyInfo = NodeInfo.Builder.create().withUrl(OWN_URL).build();
+    when(partyStore.getParties())
+        .thenReturn(Set.of(URI.create(TARGET_URL), URI.create(TARGET_URL_2)));
+    when(discovery.getCurrent()).thenReturn(partyInfo);
+    when(p2pClient.sendPartyInfo(anyString(), eq(DATA), eq(OWN_URL), anyString())).thenReturn(true);
+
+    broadcaster.run();
+
+    assertThat(pending).hasSize(2);
+    assertThat(broadcaster.getLastRoundTimeoutCount()).isEqualTo(2);
+    assertThat(broadcaster.getLastRoundSuccessCount()).isZero();
+
+    broadcaster.run();
+
+    assertThat(pending).hasSize(2);
+    assertThat(broadcaster.getLastRoundSkippedCount()).isEqualTo(2);
+    assertThat(broadcaster.getLastRoundTimeoutCount()).isZero();
+
+    pending.forEach(Runnable::run);
+    pending.clear();
+    broadcaster.run();
+
+    assertThat(pending).hasSize(2);
+    assertThat(broadcaster.getLastRoundSkippedCount()).isZero();
+    assertThat(broadcaster.getRoundCount()).isEqualTo(3);
+
+    verify(partyStore, times(3)).loadFromConfigIfEmpty();
+    verify(partyStore, times(3)).getParties();
+    verify(discovery, times(3)).getCurrent();
+    verify(partyInfoParser, times(3)).to(any(PartyInfo.class));
+    verify(p2pClient).sendPartyInfo(eq(TARGET_URL), eq(DATA), eq(OWN_URL), anyString());
+    verify(p2pClient).sendPartyInfo(eq(TARGET_URL_2), eq(DATA), eq(OWN_URL), anyString());
+  }
+
+  @Test
+  public void constructWithExecutorFactoryRegistersMetrics() throws Exception {
+    final ExecutorFactory executorFactory = mock(ExecutorFactory.class);
+    final BoundedExecutor executor = mock(BoundedExecutor.class);
+    when(executorFactory.createBoundedExecutor("partyinfo-broadcaster")).thenReturn(executor);
+
+    try (var discoveryMockedStatic = mockStatic(Discovery.class);
+        var partyInfoParserMockedStatic = mockStatic(PartyInfoParser.class);
+        var partyStoreMockedStatic = mockStatic(PartyStore.class)) {
+      discoveryMockedStatic.when(Discovery::create).thenReturn(discovery);
+      partyInfoParserMockedStatic.when(PartyInfoParser::create).thenReturn(partyInfoParser);
+      partyStoreMockedStatic.when(PartyStore::getInstance).thenReturn(partyStore);
+
+      final PartyInfoBroadcaster broadcaster =
+          new PartyInfoBroadcaster(mock(P2pClient.class), executorFactory, 1000L);
+
+      assertThat(broadcaster).isNotNull();
+      assertThat(
+              ManagementFactory.getPlatformMBeanServer()
+                  .isRegistered(MBeanRegistry.objectName("PartyInfoBroadcaster", null)))
+          .isTrue();
+      verify(executorFactory).createBoundedExecutor("partyinfo-broadcaster");
+    } finally {
+      MBeanRegistry.unregister("PartyInfoBroadcaster", null);
+    }
   }
 }
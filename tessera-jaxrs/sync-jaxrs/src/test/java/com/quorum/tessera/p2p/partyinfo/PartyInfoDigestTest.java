@@ -0,0 +1,80 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.partyinfo.model.Party;
+import com.quorum.tessera.partyinfo.model.PartyInfo;
+import com.quorum.tessera.partyinfo.model.Recipient;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class PartyInfoDigestTest {
+
+  private static final String NODE_URL = "http://node:8080/";
+
+  private final PublicKey key = PublicKey.from("key".getBytes());
+
+  private final PublicKey otherKey = PublicKey.from("otherKey".getBytes());
+
+  @Test
+  public void digestIgnoresOrderAndUrlNormalisation() {
+    final String digest =
+        PartyInfoDigest.of(
+            new PartyInfo(
+                "http://node:8080",
+                Set.of(
+                    Recipient.of(key, "http://node:8080"),
+                    Recipient.of(otherKey, "http://node:8080")),
+                Set.of(new Party("http://node:8080"), new Party("http://peer:8080"))),
+            List.of("1.0", "8.0"));
+
+    assertThat(
+            PartyInfoDigest.of(
+                new PartyInfo(
+                    "http://node:8080/",
+                    Set.of(
+                        Recipient.of(otherKey, "http://node:8080/"),
+                        Recipient.of(key, "http://node:8080/")),
+                    Set.of(new Party("http://peer:8080/"), new Party("http://node:8080/"))),
+                List.of("8.0", "1.0")))
+        .isEqualTo(digest);
+  }
+
+  @Test
+  public void digestChangesWithRecipientsPartiesVersionsAndUrl() {
+    final String digest = PartyInfoDigest.of(partyInfo(NODE_URL, Set.of(key)), Set.of("8.0"));
+
+    assertThat(PartyInfoDigest.of(partyInfo(NODE_URL, Set.of(key, otherKey)), Set.of("8.0")))
+        .isNotEqualTo(digest);
+    assertThat(PartyInfoDigest.of(partyInfo(NODE_URL, Set.of(key)), Set.of("7.0", "8.0")))
+        .isNotEqualTo(digest);
+    assertThat(PartyInfoDigest.of(partyInfo("http://other:8080/", Set.of(key)), Set.of("8.0")))
+        .isNotEqualTo(digest);
+
+    final PartyInfo withNewPeer =
+        new PartyInfo(
+            NODE_URL,
+            Set.of(Recipient.of(key, NODE_URL)),
+            Set.of(new Party(NODE_URL), new Party("http://peer:8080/")));
+    assertThat(PartyInfoDigest.of(withNewPeer, Set.of("8.0"))).isNotEqualTo(digest);
+  }
+
+  @Test
+  public void sectionsCannotBeConfused() {
+    final PartyInfo noParties = new PartyInfo(NODE_URL, Set.of(), Set.of());
+    final PartyInfo oneParty =
+        new PartyInfo(NODE_URL, Set.of(), Set.of(new Party("http://peer:8080/")));
+
+    assertThat(PartyInfoDigest.of(noParties, Set.of("http://peer:8080/")))
+        .isNotEqualTo(PartyInfoDigest.of(oneParty, Set.of()));
+  }
+
+  private static PartyInfo partyInfo(String url, Set<PublicKey> keys) {
+    final Set<Recipient> recipients =
+        keys.stream().map(k -> Recipient.of(k, url)).collect(Collectors.toSet());
+    return new PartyInfo(url, recipients, Set.of(new Party(url)));
+  }
+}
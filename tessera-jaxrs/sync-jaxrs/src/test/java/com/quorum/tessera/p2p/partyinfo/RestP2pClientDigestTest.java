@@ -0,0 +1,128 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.quorum.tessera.shared.Constants;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class RestP2pClientDigestTest {
+
+  private static final String TARGET_URL = "http://target:8080/";
+
+  private static final String OWN_URL = "http://own:8080/";
+
+  private static final byte[] DATA = "partyinfo".getBytes();
+
+  private WebTarget partyInfoTarget;
+
+  private Invocation.Builder fullSend;
+
+  private Invocation.Builder digestCheck;
+
+  private Response fullResponse;
+
+  private Response digestResponse;
+
+  private RestP2pClient restP2pClient;
+
+  @Before
+  public void beforeTest() {
+    final Client client = mock(Client.class);
+    final WebTarget target = mock(WebTarget.class);
+    partyInfoTarget = mock(WebTarget.class);
+    final WebTarget digestTarget = mock(WebTarget.class);
+    fullSend = mock(Invocation.Builder.class);
+    digestCheck = mock(Invocation.Builder.class);
+    fullResponse = mock(Response.class);
+    digestResponse = mock(Response.class);
+
+    when(client.target(TARGET_URL)).thenReturn(target);
+    when(target.path("/partyinfo")).thenReturn(partyInfoTarget);
+    when(partyInfoTarget.path("digest")).thenReturn(digestTarget);
+    when(partyInfoTarget.request()).thenReturn(fullSend);
+    when(digestTarget.request()).thenReturn(digestCheck);
+    when(fullSend.post(any(Entity.class))).thenReturn(fullResponse);
+    when(digestCheck.post(any(Entity.class))).thenReturn(digestResponse);
+    when(fullResponse.getStatus()).thenReturn(200);
+    when(fullResponse.readEntity(byte[].class)).thenReturn(new byte[0]);
+
+    restP2pClient = new RestP2pClient(client);
+  }
+
+  @Test
+  public void peerIsSentFullPartyInfoUntilItAdvertisesDigestSupport() {
+    assertThat(restP2pClient.sendPartyInfo(TARGET_URL, DATA, OWN_URL, "digest")).isTrue();
+
+    verify(fullSend).post(any(Entity.class));
+    verifyNoInteractions(digestCheck);
+  }
+
+  @Test
+  public void currentPeerIsOnlySentDigest() {
+    when(fullResponse.getStringHeaders()).thenReturn(versions("7.0,8.0"));
+    when(digestResponse.getStatus()).thenReturn(200);
+
+    restP2pClient.sendPartyInfo(TARGET_URL, DATA, OWN_URL, "digest");
+    assertThat(restP2pClient.sendPartyInfo(TARGET_URL, DATA, OWN_URL, "digest")).isTrue();
+
+    final ArgumentCaptor<Entity> captor = ArgumentCaptor.forClass(Entity.class);
+    verify(digestCheck).post(captor.capture());
+    final PartyInfoDigestRequest request = (PartyInfoDigestRequest) captor.getValue().getEntity();
+    assertThat(request.getUrl()).isEqualTo(OWN_URL);
+    assertThat(request.getDigest()).isEqualTo("digest");
+    verify(fullSend).post(any(Entity.class));
+  }
+
+  @Test
+  public void stalePeerIsSentFullPartyInfo() {
+    when(fullResponse.getStringHeaders()).thenReturn(versions("8.0"));
+    when(digestResponse.getStatus()).thenReturn(409);
+
+    restP2pClient.sendPartyInfo(TARGET_URL, DATA, OWN_URL, "digest");
+    assertThat(restP2pClient.sendPartyInfo(TARGET_URL, DATA, OWN_URL, "digest")).isTrue();
+
+    verify(digestCheck).post(any(Entity.class));
+    verify(fullSend, times(2)).post(any(Entity.class));
+  }
+
+  @Test
+  public void failedDigestCheckFallsBackToFullPartyInfo() {
+    when(fullResponse.getStringHeaders()).thenReturn(versions("8.0"));
+    when(digestCheck.post(any(Entity.class))).thenThrow(new IllegalStateException("offline"));
+
+    restP2pClient.sendPartyInfo(TARGET_URL, DATA, OWN_URL, "digest");
+    assertThat(restP2pClient.sendPartyInfo(TARGET_URL, DATA, OWN_URL, "digest")).isTrue();
+
+    verify(fullSend, times(2)).post(any(Entity.class));
+  }
+
+  @Test
+  public void peerThatStopsAdvertisingDigestSupportIsNotAskedAgain() {
+    when(fullResponse.getStringHeaders()).thenReturn(versions("8.0"), versions("6.0"));
+    when(digestResponse.getStatus()).thenReturn(409);
+
+    restP2pClient.sendPartyInfo(TARGET_URL, DATA, OWN_URL, "digest");
+    restP2pClient.sendPartyInfo(TARGET_URL, DATA, OWN_URL, "digest");
+    restP2pClient.sendPartyInfo(TARGET_URL, DATA, OWN_URL, "digest");
+
+    verify(digestCheck).post(any(Entity.class));
+    verify(fullSend, times(3)).post(any(Entity.class));
+  }
+
+  private static MultivaluedMap<String, String> versions(String versions) {
+    final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+    headers.put(Constants.API_VERSION_HEADER, List.of(versions));
+    return headers;
+  }
+}
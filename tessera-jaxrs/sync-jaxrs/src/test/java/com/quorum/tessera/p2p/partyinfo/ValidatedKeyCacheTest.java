@@ -0,0 +1,66 @@
+package com.quorum.tessera.p2p.partyinfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class ValidatedKeyCacheTest {
+
+  private final AtomicLong clock = new AtomicLong();
+
+  private final PublicKey key = PublicKey.from("key".getBytes());
+
+  private final PublicKey otherKey = PublicKey.from("otherKey".getBytes());
+
+  @Test
+  public void validatedKeyIsTrustedUntilExpiry() {
+    final ValidatedKeyCache cache = new ValidatedKeyCache(1000, clock::get);
+
+    assertThat(cache.isValidated(key, "http://peer:8080")).isFalse();
+
+    cache.validated(key, "http://peer:8080");
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+
+    assertThat(cache.isValidated(key, "http://peer:8080")).isTrue();
+    assertThat(cache.isValidated(key, "http://peer:8080/")).isTrue();
+    assertThat(cache.isValidated(key, "http://other:8080")).isFalse();
+    assertThat(cache.isValidated(otherKey, "http://peer:8080")).isFalse();
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+
+    assertThat(cache.isValidated(key, "http://peer:8080")).isFalse();
+  }
+
+  @Test
+  public void expiredEntriesArePrunedOnWrite() {
+    final ValidatedKeyCache cache = new ValidatedKeyCache(1000, clock::get);
+
+    cache.validated(key, "http://peer:8080");
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    cache.validated(otherKey, "http://peer:8080");
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.isValidated(otherKey, "http://peer:8080")).isTrue();
+  }
+
+  @Test
+  public void zeroTtlDisablesCache() {
+    final ValidatedKeyCache cache = new ValidatedKeyCache(0);
+
+    cache.validated(key, "http://peer:8080");
+
+    assertThat(cache.size()).isZero();
+    assertThat(cache.isValidated(key, "http://peer:8080")).isFalse();
+  }
+
+  @Test
+  public void negativeTtlIsRejected() {
+    final Throwable ex = catchThrowable(() -> new ValidatedKeyCache(-1));
+
+    assertThat(ex).isInstanceOf(IllegalArgumentException.class);
+  }
+}
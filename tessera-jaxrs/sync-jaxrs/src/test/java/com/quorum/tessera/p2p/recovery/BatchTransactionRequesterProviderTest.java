@@ -3,9 +3,14 @@ package com.quorum.tessera.p2p.recovery;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.recovery.resend.BatchTransactionRequester;
+import java.util.Map;
 import org.junit.Test;
 
 public class BatchTransactionRequesterProviderTest {
@@ -14,7 +19,9 @@ public class BatchTransactionRequesterProviderTest {
   public void provider() {
 
     try (var enclaveMockedStatic = mockStatic(Enclave.class);
-        var recoveryClientMockedStatic = mockStatic(RecoveryClient.class)) {
+        var recoveryClientMockedStatic = mockStatic(RecoveryClient.class);
+        var configFactoryMockedStatic = mockStatic(ConfigFactory.class)) {
+      configFactoryMockedStatic.when(ConfigFactory::create).thenReturn(configFactory());
       enclaveMockedStatic.when(Enclave::create).thenReturn(mock(Enclave.class));
       recoveryClientMockedStatic
           .when(RecoveryClient::create)
@@ -28,6 +35,7 @@ public class BatchTransactionRequesterProviderTest {
 
       enclaveMockedStatic.verify(Enclave::create);
       recoveryClientMockedStatic.verify(RecoveryClient::create);
+      configFactoryMockedStatic.verify(ConfigFactory::create);
     }
   }
 
@@ -35,4 +43,14 @@ public class BatchTransactionRequesterProviderTest {
   public void defaultConstructorForCoverage() {
     assertThat(new BatchTransactionRequesterProvider()).isNotNull();
   }
+
+  private static ConfigFactory configFactory() {
+    final ServerConfig serverConfig = mock(ServerConfig.class);
+    when(serverConfig.getProperties()).thenReturn(Map.of());
+    final Config config = mock(Config.class);
+    when(config.getP2PServerConfig()).thenReturn(serverConfig);
+    final ConfigFactory configFactory = mock(ConfigFactory.class);
+    when(configFactory.getConfig()).thenReturn(config);
+    return configFactory;
+  }
 }
@@ -11,6 +11,8 @@ import com.quorum.tessera.recovery.resend.BatchTransactionRequester;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
@@ -84,6 +86,34 @@ public class RestBatchTransactionRequesterTest {
         .containsExactlyInAnyOrder(encodedKeyOne, encodedKeyTwo);
   }
 
+  @Test
+  public void requestForEachKeyRunsOnExecutor() {
+    final AtomicInteger executed = new AtomicInteger();
+    final Executor executor =
+        task -> {
+          executed.incrementAndGet();
+          task.run();
+        };
+    final BatchTransactionRequester concurrentRequester =
+        new RestBatchTransactionRequester(enclave, recoveryClient, 100, executor);
+
+    when(enclave.getPublicKeys()).thenReturn(Set.of(KEY_ONE, KEY_TWO));
+    final String encodedKeyOne = Base64.getEncoder().encodeToString(KEY_ONE.getKeyBytes());
+    doReturn(null)
+        .when(recoveryClient)
+        .makeBatchResendRequest(
+            eq("fakeurl.com"), argThat(req -> encodedKeyOne.equals(req.getPublicKey())));
+
+    final boolean success = concurrentRequester.requestAllTransactionsFromNode("fakeurl.com");
+
+    // one key failing does not stop the other from being requested
+    assertThat(success).isFalse();
+    assertThat(executed).hasValue(2);
+    verify(recoveryClient, times(6))
+        .makeBatchResendRequest(eq("fakeurl.com"), any(ResendBatchRequest.class));
+    verify(enclave).getPublicKeys();
+  }
+
   @Test
   public void failedCallRetries() {
     when(enclave.getPublicKeys()).thenReturn(Collections.singleton(KEY_ONE));
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.p2p.resend.ResendRequest;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.client.Invocation;
@@ -114,6 +115,7 @@ public class RestRecoveryClientTest {
       verify(webTarget).path("/pushBatch");
       verify(webTarget).request();
       verify(invocationBuilder).post(outboundEntity);
+      verify(response).close();
 
       verifyNoMoreInteractions(
           outboundEntity, pushBatchRequest, client, webTarget, invocationBuilder);
@@ -166,6 +168,7 @@ public class RestRecoveryClientTest {
       verify(webTarget).path("/resendBatch");
       verify(webTarget).request();
       verify(invocationBuilder).post(outboundEntity);
+      verify(response).close();
 
       verifyNoMoreInteractions(
           outboundEntity, pushBatchRequest, client, webTarget, invocationBuilder);
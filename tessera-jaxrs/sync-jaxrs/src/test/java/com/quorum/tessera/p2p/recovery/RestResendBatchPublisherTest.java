@@ -6,6 +6,7 @@ import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import com.quorum.tessera.transaction.publish.PublishPayloadException;
 import java.util.Collection;
 import java.util.List;
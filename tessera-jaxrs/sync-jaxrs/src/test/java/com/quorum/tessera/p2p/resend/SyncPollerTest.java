@@ -11,6 +11,8 @@ import com.quorum.tessera.partyinfo.P2pClient;
 import com.quorum.tessera.partyinfo.model.Party;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
 import com.quorum.tessera.partyinfo.node.Recipient;
+import com.quorum.tessera.threading.BoundedExecutor;
+import com.quorum.tessera.threading.ExecutorFactory;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
@@ -46,7 +48,7 @@ public class SyncPollerTest {
     this.partyInfoParser = mock(PartyInfoParser.class);
     this.p2pClient = mock(P2pClient.class);
 
-    doReturn(true).when(p2pClient).sendPartyInfo(anyString(), any());
+    doReturn(true).when(p2pClient).sendPartyInfo(anyString(), any(), anyString(), anyString());
 
     NodeInfo nodeInfo = NodeInfo.Builder.create().withUrl("myurl").build();
     when(partyInfoService.getCurrent()).thenReturn(nodeInfo);
@@ -101,7 +103,7 @@ public class SyncPollerTest {
     verify(transactionRequester).requestAllTransactionsFromNode(targetUrl);
     verify(partyInfoService, times(2)).getCurrent();
     verify(partyInfoParser).to(any());
-    verify(p2pClient).sendPartyInfo(eq(targetUrl), any());
+    verify(p2pClient).sendPartyInfo(eq(targetUrl), any(), anyString(), anyString());
     verify(partyInfoService, times(2)).getCurrent();
   }
 
@@ -164,7 +166,7 @@ public class SyncPollerTest {
 
     doThrow(new RuntimeException("Unable to connect"))
         .when(p2pClient)
-        .sendPartyInfo(anyString(), any());
+        .sendPartyInfo(anyString(), any(), anyString(), anyString());
 
     doReturn(Optional.of(syncableParty), Optional.empty()).when(resendPartyStore).getNextParty();
 
@@ -189,7 +191,7 @@ public class SyncPollerTest {
     final String targetUrl = "fakeurl.com";
     final SyncableParty syncableParty = new SyncableParty(new Party(targetUrl), 0);
 
-    doReturn(false).when(p2pClient).sendPartyInfo(anyString(), any());
+    doReturn(false).when(p2pClient).sendPartyInfo(anyString(), any(), anyString(), anyString());
 
     doReturn(Optional.of(syncableParty), Optional.empty()).when(resendPartyStore).getNextParty();
 
@@ -221,4 +223,23 @@ public class SyncPollerTest {
       p.verify(PartyInfoParser::create);
     }
   }
+
+  @Test
+  public void constructWithExecutorFactory() {
+    final ExecutorFactory executorFactory = mock(ExecutorFactory.class);
+    when(executorFactory.createBoundedExecutor("sync-poller"))
+        .thenReturn(mock(BoundedExecutor.class));
+
+    try (var d = mockStatic(Discovery.class);
+        var p = mockStatic(PartyInfoParser.class)) {
+      d.when(Discovery::create).thenReturn(mock(Discovery.class));
+      p.when(PartyInfoParser::create).thenReturn(mock(PartyInfoParser.class));
+
+      final SyncPoller poller =
+          new SyncPoller(executorFactory, resendPartyStore, transactionRequester, p2pClient);
+
+      assertThat(poller).isNotNull();
+      verify(executorFactory).createBoundedExecutor("sync-poller");
+    }
+  }
 }
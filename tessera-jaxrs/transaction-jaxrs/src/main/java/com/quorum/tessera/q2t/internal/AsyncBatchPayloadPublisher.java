@@ -1,5 +1,6 @@
 package com.quorum.tessera.q2t.internal;
 
+import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.threading.CancellableCountDownLatch;
@@ -8,8 +9,15 @@ import com.quorum.tessera.threading.ExecutorFactory;
 import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
 import com.quorum.tessera.transaction.publish.BatchPublishPayloadException;
 import com.quorum.tessera.transaction.publish.PayloadPublisher;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,19 +31,27 @@ public class AsyncBatchPayloadPublisher implements BatchPayloadPublisher {
 
   private final PayloadPublisher publisher;
 
+  private final Discovery discovery;
+
   public AsyncBatchPayloadPublisher(
       ExecutorFactory executorFactory,
       CancellableCountDownLatchFactory countDownLatchFactory,
-      PayloadPublisher publisher) {
-    this.executor = executorFactory.createCachedThreadPool();
+      PayloadPublisher publisher,
+      Discovery discovery) {
+    this.executor = executorFactory.createBoundedExecutor("payload-publisher");
     this.countDownLatchFactory = countDownLatchFactory;
     this.publisher = publisher;
+    this.discovery = discovery;
   }
 
   /**
    * Asynchronously strips (leaving data intended only for that particular recipient) and publishes
    * the payload to each recipient identified by the provided keys.
    *
+   * <p>Each recipient's node is looked up in its own task. Once every lookup has finished,
+   * recipients hosted on the same node are published to together, using one task and, if the node
+   * supports it, one request. Once a lookup or publish has failed, no further publishes start.
+   *
    * <p>This method blocks until all pushes return successfully; if a push fails with an exception,
    * the method exits immediately and does not wait for the remaining responses.
    *
@@ -50,18 +66,38 @@ public class AsyncBatchPayloadPublisher implements BatchPayloadPublisher {
 
     final CancellableCountDownLatch latch = countDownLatchFactory.create(recipientKeys.size());
 
+    final Map<String, List<PublicKey>> recipientKeysByNode = new ConcurrentHashMap<>();
+    final AtomicInteger remainingLookups = new AtomicInteger(recipientKeys.size());
+    final AtomicBoolean failed = new AtomicBoolean();
+
     recipientKeys.forEach(
         recipient ->
             executor.execute(
                 () -> {
                   try {
-                    final EncodedPayload outgoing =
-                        EncodedPayload.Builder.forRecipient(payload, recipient).build();
-                    publisher.publishPayload(outgoing, recipient);
-                    latch.countDown();
+                    final String url = discovery.getRemoteNodeInfo(recipient).getUrl();
+                    recipientKeysByNode.compute(
+                        url,
+                        (u, nodeRecipients) -> {
+                          final List<PublicKey> keys =
+                              Objects.requireNonNullElseGet(nodeRecipients, ArrayList::new);
+                          keys.add(recipient);
+                          return keys;
+                        });
                   } catch (RuntimeException e) {
                     LOGGER.info("unable to publish payload in batch: {}", e.getMessage());
+                    failed.set(true);
                     latch.cancelWithException(e);
+                  } finally {
+                    // the last lookup to finish starts one publish for each node
+                    if (remainingLookups.decrementAndGet() == 0) {
+                      for (List<PublicKey> nodeRecipients : recipientKeysByNode.values()) {
+                        if (failed.get()) {
+                          break;
+                        }
+                        executor.execute(() -> publish(payload, nodeRecipients, latch, failed));
+                      }
+                    }
                   }
                 }));
 
@@ -71,4 +107,37 @@ public class AsyncBatchPayloadPublisher implements BatchPayloadPublisher {
       throw new BatchPublishPayloadException(e);
     }
   }
+
+  /**
+   * Publishes to the recipients hosted on one node, counting down the latch once for each. Nothing
+   * is sent if the batch has already failed while this task was queued.
+   */
+  private void publish(
+      EncodedPayload payload,
+      List<PublicKey> nodeRecipients,
+      CancellableCountDownLatch latch,
+      AtomicBoolean failed) {
+    if (failed.get()) {
+      return;
+    }
+    try {
+      if (nodeRecipients.size() == 1) {
+        final PublicKey recipient = nodeRecipients.get(0);
+        final EncodedPayload outgoing =
+            EncodedPayload.Builder.forRecipient(payload, recipient).build();
+        publisher.publishPayload(outgoing, recipient);
+      } else {
+        final Map<PublicKey, EncodedPayload> outgoing = new LinkedHashMap<>();
+        for (PublicKey recipient : nodeRecipients) {
+          outgoing.put(recipient, EncodedPayload.Builder.forRecipient(payload, recipient).build());
+        }
+        publisher.publishPayloads(outgoing);
+      }
+      nodeRecipients.forEach(r -> latch.countDown());
+    } catch (RuntimeException e) {
+      LOGGER.info("unable to publish payload in batch: {}", e.getMessage());
+      failed.set(true);
+      latch.cancelWithException(e);
+    }
+  }
 }
@@ -27,7 +27,7 @@ public class AsyncBatchPrivacyGroupPublisher implements BatchPrivacyGroupPublish
       ExecutorFactory executorFactory,
       CancellableCountDownLatchFactory countDownLatchFactory,
       PrivacyGroupPublisher publisher) {
-    this.executor = executorFactory.createCachedThreadPool();
+    this.executor = executorFactory.createBoundedExecutor("privacy-group-publisher");
     this.countDownLatchFactory = countDownLatchFactory;
     this.publisher = publisher;
   }
@@ -1,5 +1,8 @@
 package com.quorum.tessera.q2t.internal;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.threading.CancellableCountDownLatchFactory;
 import com.quorum.tessera.threading.ExecutorFactory;
 import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
@@ -8,9 +11,13 @@ import com.quorum.tessera.transaction.publish.PayloadPublisher;
 public class BatchPayloadPublisherProvider {
 
   public static BatchPayloadPublisher provider() {
-    ExecutorFactory executorFactory = new ExecutorFactory();
+    Config config = ConfigFactory.create().getConfig();
+    ExecutorFactory executorFactory =
+        new ExecutorFactory(config.getP2PServerConfig().getProperties());
     CancellableCountDownLatchFactory countDownLatchFactory = new CancellableCountDownLatchFactory();
     PayloadPublisher payloadPublisher = PayloadPublisher.create();
-    return new AsyncBatchPayloadPublisher(executorFactory, countDownLatchFactory, payloadPublisher);
+    Discovery discovery = Discovery.create();
+    return new AsyncBatchPayloadPublisher(
+        executorFactory, countDownLatchFactory, payloadPublisher, discovery);
   }
 }
@@ -1,5 +1,7 @@
 package com.quorum.tessera.q2t.internal;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.privacygroup.publish.BatchPrivacyGroupPublisher;
 import com.quorum.tessera.privacygroup.publish.PrivacyGroupPublisher;
 import com.quorum.tessera.threading.CancellableCountDownLatchFactory;
@@ -9,7 +11,9 @@ public class BatchPrivacyGroupPublisherProvider {
 
   public static BatchPrivacyGroupPublisher provider() {
     PrivacyGroupPublisher privacyGroupPublisher = PrivacyGroupPublisher.create();
-    ExecutorFactory executorFactory = new ExecutorFactory();
+    Config config = ConfigFactory.create().getConfig();
+    ExecutorFactory executorFactory =
+        new ExecutorFactory(config.getP2PServerConfig().getProperties());
     CancellableCountDownLatchFactory countDownLatchFactory = new CancellableCountDownLatchFactory();
 
     return new AsyncBatchPrivacyGroupPublisher(
@@ -1,5 +1,6 @@
 package com.quorum.tessera.q2t.internal;
 
+import com.quorum.tessera.api.common.EncodedPayloadProvider;
 import com.quorum.tessera.config.Config;
 import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.discovery.Discovery;
@@ -16,6 +17,7 @@ public class PayloadPublisherProvider {
 
     ClientFactory clientFactory = new ClientFactory();
     Client client = clientFactory.buildFrom(config.getP2PServerConfig());
+    client.register(EncodedPayloadProvider.class);
 
     return new RestPayloadPublisher(client, partyInfoService);
   }
@@ -1,11 +1,14 @@
 package com.quorum.tessera.q2t.internal;
 
+import com.quorum.tessera.api.common.EncodedPayloadProvider;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.EncodedPayloadCodec;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.enclave.PrivacyMode;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.metrics.LatencyMetrics;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
 import com.quorum.tessera.transaction.exception.EnhancedPrivacyNotSupportedException;
 import com.quorum.tessera.transaction.exception.MandatoryRecipientsNotSupportedException;
@@ -14,12 +17,16 @@ import com.quorum.tessera.transaction.publish.PayloadPublisher;
 import com.quorum.tessera.transaction.publish.PublishPayloadException;
 import com.quorum.tessera.version.EnhancedPrivacyVersion;
 import com.quorum.tessera.version.MandatoryRecipientsVersion;
+import com.quorum.tessera.version.MultiplePushVersion;
 import jakarta.ws.rs.ProcessingException;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import org.slf4j.Logger;
@@ -45,33 +52,20 @@ public class RestPayloadPublisher implements PayloadPublisher {
     final Set<String> supportedApiVersions = remoteNodeInfo.supportedApiVersions();
     final EncodedPayloadCodec preferredCodec =
         EncodedPayloadCodec.getPreferredCodec(supportedApiVersions);
-    final PayloadEncoder payloadEncoder = PayloadEncoder.create(preferredCodec);
 
-    if (PrivacyMode.STANDARD_PRIVATE != payload.getPrivacyMode()
-        && !supportedApiVersions.contains(EnhancedPrivacyVersion.API_VERSION_2)) {
-      throw new EnhancedPrivacyNotSupportedException(
-          "Transactions with enhanced privacy is not currently supported on recipient "
-              + recipientKey.encodeToBase64());
-    }
-
-    if (PrivacyMode.MANDATORY_RECIPIENTS == payload.getPrivacyMode()
-        && !supportedApiVersions.contains(MandatoryRecipientsVersion.API_VERSION_4)) {
-      throw new MandatoryRecipientsNotSupportedException(
-          "Transactions with mandatory recipients are not currently supported on recipient "
-              + recipientKey.encodeToBase64());
-    }
+    checkPrivacyModeSupported(payload, supportedApiVersions, recipientKey);
 
     final String targetUrl = remoteNodeInfo.getUrl();
     LOGGER.info("Publishing message to {}", targetUrl);
 
-    final byte[] encoded = payloadEncoder.encode(payload);
-
+    // encoded straight into the request body by the EncodedPayloadProvider
+    final long start = System.nanoTime();
     try (Response response =
         client
             .target(targetUrl)
             .path("/push")
             .request()
-            .post(Entity.entity(encoded, MediaType.APPLICATION_OCTET_STREAM_TYPE))) {
+            .post(Entity.entity(payload, EncodedPayloadProvider.mediaType(preferredCodec)))) {
 
       if (Response.Status.OK.getStatusCode() != response.getStatus()
           && Response.Status.CREATED.getStatusCode() != response.getStatus()) {
@@ -82,6 +76,82 @@ public class RestPayloadPublisher implements PayloadPublisher {
     } catch (ProcessingException ex) {
       LOGGER.debug("", ex);
       throw new NodeOfflineException(URI.create(targetUrl));
+    } finally {
+      LatencyMetrics.histogram(LatencyMetrics.PUBLISH, targetUrl).recordSince(start);
+    }
+  }
+
+  /**
+   * Publishes the payloads to a node that hosts all of the recipients in a single request, if the
+   * node supports it. Otherwise each payload is pushed to its recipient separately.
+   */
+  @Override
+  public void publishPayloads(Map<PublicKey, EncodedPayload> payloads) {
+    if (payloads.size() < 2) {
+      payloads.forEach((recipientKey, payload) -> publishPayload(payload, recipientKey));
+      return;
+    }
+
+    final PublicKey firstRecipientKey = payloads.keySet().iterator().next();
+    final NodeInfo remoteNodeInfo = discovery.getRemoteNodeInfo(firstRecipientKey);
+    final Set<String> supportedApiVersions = remoteNodeInfo.supportedApiVersions();
+
+    if (!supportedApiVersions.contains(MultiplePushVersion.API_VERSION_6)) {
+      payloads.forEach((recipientKey, payload) -> publishPayload(payload, recipientKey));
+      return;
+    }
+
+    final EncodedPayloadCodec preferredCodec =
+        EncodedPayloadCodec.getPreferredCodec(supportedApiVersions);
+    final PayloadEncoder payloadEncoder = PayloadEncoder.create(preferredCodec);
+
+    final List<byte[]> encodedPayloads = new ArrayList<>(payloads.size());
+    payloads.forEach(
+        (recipientKey, payload) -> {
+          checkPrivacyModeSupported(payload, supportedApiVersions, recipientKey);
+          encodedPayloads.add(payloadEncoder.encode(payload));
+        });
+    final PushBatchRequest pushBatchRequest = new PushBatchRequest(encodedPayloads);
+
+    final String targetUrl = remoteNodeInfo.getUrl();
+    LOGGER.info("Publishing {} messages to {}", payloads.size(), targetUrl);
+
+    final long start = System.nanoTime();
+    try (Response response =
+        client
+            .target(targetUrl)
+            .path("/pushMultiple")
+            .request()
+            .post(Entity.entity(pushBatchRequest, MediaType.APPLICATION_JSON_TYPE))) {
+
+      if (Response.Status.OK.getStatusCode() != response.getStatus()
+          && Response.Status.CREATED.getStatusCode() != response.getStatus()) {
+        throw new PublishPayloadException("Unable to push payloads to recipient url " + targetUrl);
+      }
+
+      LOGGER.info("Published {} messages to {}", payloads.size(), targetUrl);
+    } catch (ProcessingException ex) {
+      LOGGER.debug("", ex);
+      throw new NodeOfflineException(URI.create(targetUrl));
+    } finally {
+      LatencyMetrics.histogram(LatencyMetrics.PUBLISH, targetUrl).recordSince(start);
+    }
+  }
+
+  private static void checkPrivacyModeSupported(
+      EncodedPayload payload, Set<String> supportedApiVersions, PublicKey recipientKey) {
+    if (PrivacyMode.STANDARD_PRIVATE != payload.getPrivacyMode()
+        && !supportedApiVersions.contains(EnhancedPrivacyVersion.API_VERSION_2)) {
+      throw new EnhancedPrivacyNotSupportedException(
+          "Transactions with enhanced privacy is not currently supported on recipient "
+              + recipientKey.encodeToBase64());
+    }
+
+    if (PrivacyMode.MANDATORY_RECIPIENTS == payload.getPrivacyMode()
+        && !supportedApiVersions.contains(MandatoryRecipientsVersion.API_VERSION_4)) {
+      throw new MandatoryRecipientsNotSupportedException(
+          "Transactions with mandatory recipients are not currently supported on recipient "
+              + recipientKey.encodeToBase64());
     }
   }
 }
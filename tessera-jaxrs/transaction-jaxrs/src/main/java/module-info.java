@@ -11,6 +11,7 @@ module tessera.transaction.jaxrs {
   requires tessera.enclave.api;
   requires tessera.context;
   requires tessera.jaxrs.client;
+  requires tessera.partyinfo.model;
   requires tessera.shared;
   requires jakarta.json;
   requires io.swagger.v3.oas.annotations;
@@ -3,7 +3,12 @@ package com.quorum.tessera.q2t;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
+import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.q2t.internal.BatchPayloadPublisherProvider;
 import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
 import com.quorum.tessera.transaction.publish.PayloadPublisher;
@@ -14,14 +19,26 @@ public class BatchPayloadPublisherProviderTest {
   @Test
   public void provider() {
 
-    try (var payloadPublisherMockedStatic = mockStatic(PayloadPublisher.class)) {
+    Config config = mock(Config.class);
+    when(config.getP2PServerConfig()).thenReturn(mock(ServerConfig.class));
+
+    ConfigFactory configFactory = mock(ConfigFactory.class);
+    when(configFactory.getConfig()).thenReturn(config);
+
+    try (var payloadPublisherMockedStatic = mockStatic(PayloadPublisher.class);
+        var discoveryMockedStatic = mockStatic(Discovery.class);
+        var configFactoryMockedStatic = mockStatic(ConfigFactory.class)) {
+      configFactoryMockedStatic.when(ConfigFactory::create).thenReturn(configFactory);
       payloadPublisherMockedStatic
           .when(PayloadPublisher::create)
           .thenReturn(mock(PayloadPublisher.class));
+      discoveryMockedStatic.when(Discovery::create).thenReturn(mock(Discovery.class));
 
       BatchPayloadPublisher result = BatchPayloadPublisherProvider.provider();
       assertThat(result).isNotNull();
       payloadPublisherMockedStatic.verify(PayloadPublisher::create);
+      discoveryMockedStatic.verify(Discovery::create);
+      configFactoryMockedStatic.verify(ConfigFactory::create);
     }
   }
 }
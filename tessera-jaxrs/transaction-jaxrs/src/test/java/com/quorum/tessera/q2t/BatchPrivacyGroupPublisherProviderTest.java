@@ -3,6 +3,9 @@ package com.quorum.tessera.q2t;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.privacygroup.publish.BatchPrivacyGroupPublisher;
 import com.quorum.tessera.privacygroup.publish.PrivacyGroupPublisher;
 import com.quorum.tessera.q2t.internal.BatchPrivacyGroupPublisherProvider;
@@ -15,8 +18,16 @@ public class BatchPrivacyGroupPublisherProviderTest {
 
     PrivacyGroupPublisher privacyGroupPublisher = mock(PrivacyGroupPublisher.class);
 
+    Config config = mock(Config.class);
+    when(config.getP2PServerConfig()).thenReturn(mock(ServerConfig.class));
+
+    ConfigFactory configFactory = mock(ConfigFactory.class);
+    when(configFactory.getConfig()).thenReturn(config);
+
     BatchPrivacyGroupPublisher result;
-    try (var privacyGroupPublisherMockedStatic = mockStatic(PrivacyGroupPublisher.class)) {
+    try (var privacyGroupPublisherMockedStatic = mockStatic(PrivacyGroupPublisher.class);
+        var configFactoryMockedStatic = mockStatic(ConfigFactory.class)) {
+      configFactoryMockedStatic.when(ConfigFactory::create).thenReturn(configFactory);
 
       privacyGroupPublisherMockedStatic
           .when(PrivacyGroupPublisher::create)
@@ -26,6 +37,8 @@ public class BatchPrivacyGroupPublisherProviderTest {
 
       privacyGroupPublisherMockedStatic.verify(PrivacyGroupPublisher::create);
       privacyGroupPublisherMockedStatic.verifyNoMoreInteractions();
+      configFactoryMockedStatic.verify(ConfigFactory::create);
+      configFactoryMockedStatic.verifyNoMoreInteractions();
     }
 
     assertThat(result).isNotNull();
@@ -4,8 +4,12 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.ThrowableAssert.catchThrowable;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.RecipientBox;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.partyinfo.node.NodeInfo;
+import com.quorum.tessera.threading.BoundedExecutor;
 import com.quorum.tessera.threading.CancellableCountDownLatch;
 import com.quorum.tessera.threading.CancellableCountDownLatchFactory;
 import com.quorum.tessera.threading.ExecutorFactory;
@@ -14,17 +18,18 @@ import com.quorum.tessera.transaction.publish.PayloadPublisher;
 import com.quorum.tessera.transaction.publish.PublishPayloadException;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Executor;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class AsyncBatchPayloadPublisherTest {
 
   private AsyncBatchPayloadPublisher asyncPublisher;
 
-  private Executor executor;
+  private BoundedExecutor executor;
 
   private ExecutorFactory executorFactory;
 
@@ -34,25 +39,29 @@ public class AsyncBatchPayloadPublisherTest {
 
   private PayloadPublisher publisher;
 
+  private Discovery discovery;
+
   @Before
   public void onSetup() {
     this.executorFactory = mock(ExecutorFactory.class);
-    this.executor = mock(Executor.class);
-    when(executorFactory.createCachedThreadPool()).thenReturn(executor);
+    this.executor = mock(BoundedExecutor.class);
+    when(executorFactory.createBoundedExecutor("payload-publisher")).thenReturn(executor);
 
     this.countDownLatchFactory = mock(CancellableCountDownLatchFactory.class);
     this.countDownLatch = mock(CancellableCountDownLatch.class);
     when(countDownLatchFactory.create(anyInt())).thenReturn(countDownLatch);
 
     this.publisher = mock(PayloadPublisher.class);
+    this.discovery = mock(Discovery.class);
     this.asyncPublisher =
-        new AsyncBatchPayloadPublisher(executorFactory, countDownLatchFactory, publisher);
+        new AsyncBatchPayloadPublisher(
+            executorFactory, countDownLatchFactory, publisher, discovery);
   }
 
   @After
   public void onTeardown() {
     verifyNoMoreInteractions(
-        executor, executorFactory, countDownLatch, countDownLatchFactory, publisher);
+        executor, executorFactory, countDownLatch, countDownLatchFactory, publisher, discovery);
   }
 
   @Test
@@ -63,27 +72,34 @@ public class AsyncBatchPayloadPublisherTest {
     final PublicKey otherRecipient = PublicKey.from("OTHERRECIPIENT".getBytes());
 
     final List<PublicKey> recipients = List.of(recipient, otherRecipient);
+    hostedOn("http://node1", recipient);
+    hostedOn("http://node2", otherRecipient);
 
     asyncPublisher.publishPayload(payload, recipients);
 
     verify(countDownLatchFactory).create(2);
-    verify(executorFactory).createCachedThreadPool();
+    verify(executorFactory).createBoundedExecutor("payload-publisher");
+    // the mock executor never runs the lookups, so nothing is published
     verify(executor, times(2)).execute(any(Runnable.class));
     verify(countDownLatch).await();
   }
 
   @Test
   public void publishPayloadStripsAndPublishes() throws InterruptedException {
-    final Executor realExecutor = Executors.newSingleThreadExecutor();
-    when(executorFactory.createCachedThreadPool()).thenReturn(realExecutor);
+    final BoundedExecutor realExecutor =
+        new BoundedExecutor("test", 1, 10, Executors.defaultThreadFactory());
+    when(executorFactory.createBoundedExecutor("payload-publisher")).thenReturn(realExecutor);
 
     asyncPublisher =
-        new AsyncBatchPayloadPublisher(executorFactory, countDownLatchFactory, publisher);
+        new AsyncBatchPayloadPublisher(
+            executorFactory, countDownLatchFactory, publisher, discovery);
 
     final PublicKey recipient = PublicKey.from("RECIPIENT".getBytes());
     final PublicKey otherRecipient = PublicKey.from("OTHERRECIPIENT".getBytes());
 
     final List<PublicKey> recipients = List.of(recipient, otherRecipient);
+    hostedOn("http://node1", recipient);
+    hostedOn("http://node2", otherRecipient);
 
     final EncodedPayload payload =
         EncodedPayload.Builder.create()
@@ -103,12 +119,14 @@ public class AsyncBatchPayloadPublisherTest {
 
     asyncPublisher.publishPayload(payload, recipients);
 
-    verify(executorFactory, times(2)).createCachedThreadPool();
+    verify(executorFactory, times(2)).createBoundedExecutor("payload-publisher");
     verify(countDownLatchFactory).create(2);
     verify(publisher).publishPayload(any(), eq(recipient));
     verify(publisher).publishPayload(any(), eq(otherRecipient));
     verify(countDownLatch, times(2)).countDown();
     verify(countDownLatch).await();
+    verify(discovery).getRemoteNodeInfo(recipient);
+    verify(discovery).getRemoteNodeInfo(otherRecipient);
   }
 
   @Test
@@ -118,7 +136,7 @@ public class AsyncBatchPayloadPublisherTest {
 
     asyncPublisher.publishPayload(payload, recipients);
 
-    verify(executorFactory).createCachedThreadPool();
+    verify(executorFactory).createBoundedExecutor("payload-publisher");
   }
 
   @Test
@@ -129,6 +147,8 @@ public class AsyncBatchPayloadPublisherTest {
     PublicKey otherRecipient = PublicKey.from("OTHERRECIPIENT".getBytes());
 
     List<PublicKey> recipients = List.of(recipient, otherRecipient);
+    hostedOn("http://node1", recipient);
+    hostedOn("http://node2", otherRecipient);
 
     InterruptedException cause = new InterruptedException("some exception");
 
@@ -138,7 +158,7 @@ public class AsyncBatchPayloadPublisherTest {
     assertThat(ex).isExactlyInstanceOf(BatchPublishPayloadException.class);
     assertThat(ex).hasCause(cause);
 
-    verify(executorFactory).createCachedThreadPool();
+    verify(executorFactory).createBoundedExecutor("payload-publisher");
     verify(executor, times(2)).execute(any(Runnable.class));
     verify(countDownLatchFactory).create(2);
     verify(countDownLatch).await();
@@ -146,16 +166,21 @@ public class AsyncBatchPayloadPublisherTest {
 
   @Test
   public void publishPayloadCancelsCountDownLatchIfOneTaskFails() throws InterruptedException {
-    final Executor realExecutor = Executors.newCachedThreadPool();
-    when(executorFactory.createCachedThreadPool()).thenReturn(realExecutor);
+    // a single thread runs the publishes one after the other, so the second one sees the failure
+    final BoundedExecutor realExecutor =
+        new BoundedExecutor("test", 1, 10, Executors.defaultThreadFactory());
+    when(executorFactory.createBoundedExecutor("payload-publisher")).thenReturn(realExecutor);
 
     asyncPublisher =
-        new AsyncBatchPayloadPublisher(executorFactory, countDownLatchFactory, publisher);
+        new AsyncBatchPayloadPublisher(
+            executorFactory, countDownLatchFactory, publisher, discovery);
 
     final PublicKey recipient = PublicKey.from("RECIPIENT".getBytes());
     final PublicKey otherRecipient = PublicKey.from("OTHERRECIPIENT".getBytes());
 
     final List<PublicKey> recipients = List.of(recipient, otherRecipient);
+    hostedOn("http://node1", recipient);
+    hostedOn("http://node2", otherRecipient);
 
     final EncodedPayload payload =
         EncodedPayload.Builder.create()
@@ -182,12 +207,119 @@ public class AsyncBatchPayloadPublisherTest {
 
     asyncPublisher.publishPayload(payload, recipients);
 
-    verify(executorFactory, times(2)).createCachedThreadPool();
+    verify(executorFactory, times(2)).createBoundedExecutor("payload-publisher");
     verify(countDownLatchFactory).create(2);
-    verify(publisher).publishPayload(any(), eq(recipient));
-    verify(publisher).publishPayload(any(), eq(otherRecipient));
-    verify(countDownLatch).countDown();
+    verify(publisher).publishPayload(any(), any(PublicKey.class));
     verify(countDownLatch).cancelWithException(cause);
     verify(countDownLatch).await();
+    verify(discovery).getRemoteNodeInfo(recipient);
+    verify(discovery).getRemoteNodeInfo(otherRecipient);
+  }
+
+  @Test
+  public void publishPayloadPublishesOnceToRecipientsOnSameNode() throws InterruptedException {
+    final BoundedExecutor realExecutor =
+        new BoundedExecutor("test", 1, 10, Executors.defaultThreadFactory());
+    when(executorFactory.createBoundedExecutor("payload-publisher")).thenReturn(realExecutor);
+
+    asyncPublisher =
+        new AsyncBatchPayloadPublisher(
+            executorFactory, countDownLatchFactory, publisher, discovery);
+
+    final PublicKey recipient = PublicKey.from("RECIPIENT".getBytes());
+    final PublicKey otherRecipient = PublicKey.from("OTHERRECIPIENT".getBytes());
+    final PublicKey remoteRecipient = PublicKey.from("REMOTERECIPIENT".getBytes());
+
+    final List<PublicKey> recipients = List.of(recipient, otherRecipient, remoteRecipient);
+    hostedOn("http://node1", recipient, otherRecipient);
+    hostedOn("http://node2", remoteRecipient);
+
+    final EncodedPayload payload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(mock(PublicKey.class))
+            .withRecipientKeys(recipients)
+            .withRecipientBoxes(List.of("box1".getBytes(), "box2".getBytes(), "box3".getBytes()))
+            .build();
+
+    doAnswer(
+            invocation -> {
+              // sleep main thread so publish threads can work
+              Thread.sleep(200);
+              return null;
+            })
+        .when(countDownLatch)
+        .await();
+
+    asyncPublisher.publishPayload(payload, recipients);
+
+    final ArgumentCaptor<Map<PublicKey, EncodedPayload>> captor =
+        ArgumentCaptor.forClass(Map.class);
+    verify(publisher).publishPayloads(captor.capture());
+    assertThat(captor.getValue()).containsOnlyKeys(recipient, otherRecipient);
+    assertThat(captor.getValue().get(recipient).getRecipientKeys()).containsExactly(recipient);
+    assertThat(captor.getValue().get(otherRecipient).getRecipientBoxes())
+        .extracting(RecipientBox::getData)
+        .containsExactly("box2".getBytes());
+    verify(publisher).publishPayload(any(), eq(remoteRecipient));
+
+    verify(executorFactory, times(2)).createBoundedExecutor("payload-publisher");
+    verify(countDownLatchFactory).create(3);
+    verify(countDownLatch, times(3)).countDown();
+    verify(countDownLatch).await();
+    verify(discovery).getRemoteNodeInfo(recipient);
+    verify(discovery).getRemoteNodeInfo(otherRecipient);
+    verify(discovery).getRemoteNodeInfo(remoteRecipient);
+  }
+
+  @Test
+  public void publishPayloadPublishesNothingIfLookupFails() throws InterruptedException {
+    final BoundedExecutor realExecutor =
+        new BoundedExecutor("test", 4, 10, Executors.defaultThreadFactory());
+    when(executorFactory.createBoundedExecutor("payload-publisher")).thenReturn(realExecutor);
+
+    asyncPublisher =
+        new AsyncBatchPayloadPublisher(
+            executorFactory, countDownLatchFactory, publisher, discovery);
+
+    final PublicKey recipient = PublicKey.from("RECIPIENT".getBytes());
+    final PublicKey unknownRecipient = PublicKey.from("UNKNOWNRECIPIENT".getBytes());
+
+    final List<PublicKey> recipients = List.of(recipient, unknownRecipient);
+    hostedOn("http://node1", recipient);
+    final RuntimeException cause = new RuntimeException("unknown recipient");
+    when(discovery.getRemoteNodeInfo(unknownRecipient)).thenThrow(cause);
+
+    final EncodedPayload payload =
+        EncodedPayload.Builder.create()
+            .withSenderKey(mock(PublicKey.class))
+            .withRecipientKeys(recipients)
+            .withRecipientBoxes(List.of("box1".getBytes(), "box2".getBytes()))
+            .build();
+
+    doAnswer(
+            invocation -> {
+              // sleep main thread so publish threads can work
+              Thread.sleep(200);
+              return null;
+            })
+        .when(countDownLatch)
+        .await();
+
+    asyncPublisher.publishPayload(payload, recipients);
+
+    verify(executorFactory, times(2)).createBoundedExecutor("payload-publisher");
+    verify(countDownLatchFactory).create(2);
+    verify(countDownLatch).cancelWithException(cause);
+    verify(countDownLatch).await();
+    verify(discovery).getRemoteNodeInfo(recipient);
+    verify(discovery).getRemoteNodeInfo(unknownRecipient);
+  }
+
+  private void hostedOn(String url, PublicKey... recipients) {
+    final NodeInfo nodeInfo = mock(NodeInfo.class);
+    when(nodeInfo.getUrl()).thenReturn(url);
+    for (PublicKey recipient : recipients) {
+      when(discovery.getRemoteNodeInfo(recipient)).thenReturn(nodeInfo);
+    }
   }
 }
@@ -4,12 +4,14 @@ import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.Fail.failBecauseExceptionWasNotThrown;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.api.common.EncodedPayloadProvider;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.enclave.EncodedPayloadCodec;
 import com.quorum.tessera.enclave.PayloadEncoder;
 import com.quorum.tessera.enclave.PrivacyMode;
 import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.partyinfo.model.PushBatchRequest;
 import com.quorum.tessera.partyinfo.node.NodeInfo;
 import com.quorum.tessera.partyinfo.node.Recipient;
 import com.quorum.tessera.transaction.exception.EnhancedPrivacyNotSupportedException;
@@ -17,6 +19,7 @@ import com.quorum.tessera.transaction.exception.MandatoryRecipientsNotSupportedE
 import com.quorum.tessera.transaction.publish.NodeOfflineException;
 import com.quorum.tessera.transaction.publish.PublishPayloadException;
 import com.quorum.tessera.version.EnhancedPrivacyVersion;
+import com.quorum.tessera.version.MultiplePushVersion;
 import jakarta.ws.rs.ProcessingException;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.Entity;
@@ -25,12 +28,14 @@ import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import org.assertj.core.api.Assertions;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
 public class RestPayloadPublisherTest {
@@ -86,9 +91,6 @@ public class RestPayloadPublisherTest {
 
         when(discovery.getRemoteNodeInfo(publicKey)).thenReturn(nodeInfo);
 
-        final byte[] payloadData = "Payload".getBytes();
-        when(payloadEncoder.encode(encodedPayload)).thenReturn(payloadData);
-
         WebTarget webTarget = mock(WebTarget.class);
         when(client.target(targetUrl)).thenReturn(webTarget);
         when(webTarget.path("/push")).thenReturn(webTarget);
@@ -97,7 +99,9 @@ public class RestPayloadPublisherTest {
 
         Response response = Response.status(expectedResponseStatus).build();
         when(invocationBuilder.post(
-                Entity.entity(payloadData, MediaType.APPLICATION_OCTET_STREAM_TYPE)))
+                Entity.entity(
+                    encodedPayload,
+                    EncodedPayloadProvider.mediaType(EncodedPayloadCodec.LEGACY))))
             .thenReturn(response);
         when(webTarget.request()).thenReturn(invocationBuilder);
 
@@ -118,9 +122,6 @@ public class RestPayloadPublisherTest {
     int iterations = Response.Status.values().length * PrivacyMode.values().length;
     verify(client, times(iterations)).target(targetUrl);
     verify(discovery, times(iterations)).getRemoteNodeInfo(publicKey);
-    verify(payloadEncoder, times(iterations)).encode(encodedPayload);
-    payloadEncoderFactoryFunction.verify(
-        () -> PayloadEncoder.create(any(EncodedPayloadCodec.class)), times(iterations));
   }
 
   @Test
@@ -135,8 +136,6 @@ public class RestPayloadPublisherTest {
 
       EncodedPayload encodedPayload = mock(EncodedPayload.class);
       when(encodedPayload.getPrivacyMode()).thenReturn(pair.getKey());
-      byte[] payloadData = "Some Data".getBytes();
-      when(payloadEncoder.encode(encodedPayload)).thenReturn(payloadData);
 
       PublicKey recipientKey = mock(PublicKey.class);
       NodeInfo nodeInfo = mock(NodeInfo.class);
@@ -156,9 +155,6 @@ public class RestPayloadPublisherTest {
           .hasMessageContaining("Transactions with enhanced privacy is not currently supported");
       verify(discovery).getRemoteNodeInfo(eq(recipientKey));
     }
-
-    payloadEncoderFactoryFunction.verify(
-        () -> PayloadEncoder.create(any(EncodedPayloadCodec.class)), times(2));
   }
 
   @Test
@@ -181,7 +177,6 @@ public class RestPayloadPublisherTest {
 
     final EncodedPayload payload = mock(EncodedPayload.class);
     when(payload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
-    when(payloadEncoder.encode(payload)).thenReturn("SomeData".getBytes());
 
     RestPayloadPublisher restPayloadPublisher = new RestPayloadPublisher(client, discovery);
 
@@ -192,10 +187,6 @@ public class RestPayloadPublisherTest {
       assertThat(ex).hasMessageContaining(targetUri);
       verify(client).target(targetUri);
       verify(discovery).getRemoteNodeInfo(eq(recipientKey));
-      verify(payloadEncoder).encode(payload);
-      verify(discovery).getRemoteNodeInfo(eq(recipientKey));
-      payloadEncoderFactoryFunction.verify(
-          () -> PayloadEncoder.create(any(EncodedPayloadCodec.class)));
     }
   }
 
@@ -206,8 +197,6 @@ public class RestPayloadPublisherTest {
 
     EncodedPayload encodedPayload = mock(EncodedPayload.class);
     when(encodedPayload.getPrivacyMode()).thenReturn(PrivacyMode.MANDATORY_RECIPIENTS);
-    byte[] payloadData = "Some Data".getBytes();
-    when(payloadEncoder.encode(encodedPayload)).thenReturn(payloadData);
 
     PublicKey recipientKey = mock(PublicKey.class);
     NodeInfo nodeInfo = mock(NodeInfo.class);
@@ -225,8 +214,94 @@ public class RestPayloadPublisherTest {
             "Transactions with mandatory recipients are not currently supported on recipient");
 
     verify(discovery).getRemoteNodeInfo(eq(recipientKey));
+  }
+
+  @Test
+  public void publishPayloadsToNodeThatSupportsMultiplePush() {
+    final String targetUrl = "http://someplace.com";
+    final PublicKey recipientKey = PublicKey.from("RECIPIENT".getBytes());
+    final PublicKey otherRecipientKey = PublicKey.from("OTHERRECIPIENT".getBytes());
+
+    final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(encodedPayload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    final EncodedPayload otherEncodedPayload = mock(EncodedPayload.class);
+    when(otherEncodedPayload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    when(payloadEncoder.encode(encodedPayload)).thenReturn("Payload".getBytes());
+    when(payloadEncoder.encode(otherEncodedPayload)).thenReturn("OtherPayload".getBytes());
+
+    final NodeInfo nodeInfo = mock(NodeInfo.class);
+    when(nodeInfo.supportedApiVersions())
+        .thenReturn(Set.of("4.0", "5.0", MultiplePushVersion.API_VERSION_6));
+    when(nodeInfo.getUrl()).thenReturn(targetUrl);
+    when(discovery.getRemoteNodeInfo(recipientKey)).thenReturn(nodeInfo);
+
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(client.target(targetUrl)).thenReturn(webTarget);
+    when(webTarget.path("/pushMultiple")).thenReturn(webTarget);
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(webTarget.request()).thenReturn(invocationBuilder);
+    when(invocationBuilder.post(any(Entity.class))).thenReturn(Response.status(201).build());
+
+    final Map<PublicKey, EncodedPayload> payloads = new LinkedHashMap<>();
+    payloads.put(recipientKey, encodedPayload);
+    payloads.put(otherRecipientKey, otherEncodedPayload);
+
+    payloadPublisher.publishPayloads(payloads);
+
+    final ArgumentCaptor<Entity> entityCaptor = ArgumentCaptor.forClass(Entity.class);
+    verify(invocationBuilder).post(entityCaptor.capture());
+    assertThat(entityCaptor.getValue().getMediaType()).isEqualTo(MediaType.APPLICATION_JSON_TYPE);
+    assertThat(entityCaptor.getValue().getEntity()).isInstanceOf(PushBatchRequest.class);
+    final PushBatchRequest pushBatchRequest =
+        (PushBatchRequest) entityCaptor.getValue().getEntity();
+    assertThat(pushBatchRequest.getEncodedPayloads())
+        .containsExactly("Payload".getBytes(), "OtherPayload".getBytes());
+
+    verify(client).target(targetUrl);
+    verify(discovery).getRemoteNodeInfo(recipientKey);
+    verify(payloadEncoder).encode(encodedPayload);
+    verify(payloadEncoder).encode(otherEncodedPayload);
+    payloadEncoderFactoryFunction.verify(() -> PayloadEncoder.create(EncodedPayloadCodec.CBOR));
+  }
+
+  @Test
+  public void publishPayloadsFallsBackToSinglePushes() {
+    final String targetUrl = "http://someplace.com";
+    final PublicKey recipientKey = PublicKey.from("RECIPIENT".getBytes());
+    final PublicKey otherRecipientKey = PublicKey.from("OTHERRECIPIENT".getBytes());
+
+    final EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(encodedPayload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
+    final EncodedPayload otherEncodedPayload = mock(EncodedPayload.class);
+    when(otherEncodedPayload.getPrivacyMode()).thenReturn(PrivacyMode.STANDARD_PRIVATE);
 
-    payloadEncoderFactoryFunction.verify(
-        () -> PayloadEncoder.create(any(EncodedPayloadCodec.class)));
+    final NodeInfo nodeInfo = mock(NodeInfo.class);
+    when(nodeInfo.supportedApiVersions()).thenReturn(Set.of("4.0", "5.0"));
+    when(nodeInfo.getUrl()).thenReturn(targetUrl);
+    when(discovery.getRemoteNodeInfo(recipientKey)).thenReturn(nodeInfo);
+    when(discovery.getRemoteNodeInfo(otherRecipientKey)).thenReturn(nodeInfo);
+
+    final WebTarget webTarget = mock(WebTarget.class);
+    when(client.target(targetUrl)).thenReturn(webTarget);
+    when(webTarget.path("/push")).thenReturn(webTarget);
+    final Invocation.Builder invocationBuilder = mock(Invocation.Builder.class);
+    when(webTarget.request()).thenReturn(invocationBuilder);
+    when(invocationBuilder.post(any(Entity.class)))
+        .thenReturn(Response.status(201).build(), Response.status(201).build());
+
+    final Map<PublicKey, EncodedPayload> payloads = new LinkedHashMap<>();
+    payloads.put(recipientKey, encodedPayload);
+    payloads.put(otherRecipientKey, otherEncodedPayload);
+
+    payloadPublisher.publishPayloads(payloads);
+
+    final MediaType mediaType = EncodedPayloadProvider.mediaType(EncodedPayloadCodec.LEGACY);
+    verify(invocationBuilder).post(Entity.entity(encodedPayload, mediaType));
+    verify(invocationBuilder).post(Entity.entity(otherEncodedPayload, mediaType));
+    verify(webTarget, never()).path("/pushMultiple");
+
+    verify(client, times(2)).target(targetUrl);
+    verify(discovery, times(2)).getRemoteNodeInfo(recipientKey);
+    verify(discovery).getRemoteNodeInfo(otherRecipientKey);
   }
 }
@@ -1,5 +1,7 @@
 package com.quorum.tessera.discovery;
 
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.stream.Stream;
 
@@ -11,6 +13,12 @@ public interface NetworkStore {
 
   Stream<ActiveNode> getActiveNodes();
 
+  /** Looks up the active node at the given uri without scanning every node */
+  Optional<ActiveNode> getActiveNode(NodeUri nodeUri);
+
+  /** Looks up the active node that hosts the given key without scanning every node */
+  Optional<ActiveNode> getActiveNode(PublicKey publicKey);
+
   static NetworkStore getInstance() {
     return ServiceLoader.load(NetworkStore.class).findFirst().get();
   }
@@ -3,39 +3,101 @@ package com.quorum.tessera.discovery.internal;
 import com.quorum.tessera.discovery.ActiveNode;
 import com.quorum.tessera.discovery.NetworkStore;
 import com.quorum.tessera.discovery.NodeUri;
-import java.util.Set;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Holds the active nodes indexed by both uri and hosted key, so that finding the node for a
+ * recipient does not need to scan the whole network.
+ *
+ * <p>Writes are serialised so the two indexes are updated together. Reads take no lock: a key
+ * that stays on a node while the node is replaced is mapped to the new node before it is unmapped
+ * from the old one, so it is never missing from the index. Likewise a key hosted by more than one
+ * node is moved straight to another of its nodes when the node it is mapped to drops it.
+ */
 public enum DefaultNetworkStore implements NetworkStore {
   INSTANCE;
 
-  private final Set<ActiveNode> activeNodes = ConcurrentHashMap.newKeySet();
+  private final Map<NodeUri, ActiveNode> nodesByUri = new ConcurrentHashMap<>();
+
+  private final Map<PublicKey, ActiveNode> nodesByKey = new ConcurrentHashMap<>();
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DefaultNetworkStore.class);
 
   @Override
-  public NetworkStore store(ActiveNode activeNode) {
+  public synchronized NetworkStore store(ActiveNode activeNode) {
+
+    final ActiveNode previous = nodesByUri.get(activeNode.getUri());
+    if (isUnchanged(previous, activeNode)) {
+      // keep the stored instance, so anything derived from it stays valid
+      LOGGER.debug("Node {} is unchanged", activeNode.getUri());
+      return this;
+    }
 
-    activeNodes.removeIf(a -> a.getUri().equals(activeNode.getUri()));
-    activeNodes.add(activeNode);
+    activeNode.getKeys().forEach(key -> nodesByKey.put(key, activeNode));
+    nodesByUri.put(activeNode.getUri(), activeNode);
+    if (Objects.nonNull(previous)) {
+      previous.getKeys().stream()
+          .filter(key -> !activeNode.getKeys().contains(key))
+          .forEach(key -> unindex(key, previous));
+    }
 
-    LOGGER.debug("Stored node {}. Active node count {}", activeNode.getUri(), activeNodes.size());
+    LOGGER.debug("Stored node {}. Active node count {}", activeNode.getUri(), nodesByUri.size());
     return this;
   }
 
   @Override
-  public NetworkStore remove(NodeUri nodeUri) {
-    activeNodes.removeIf(a -> a.getUri().equals(nodeUri));
-    LOGGER.debug("Removed node {}. Active node count {}", nodeUri, activeNodes.size());
+  public synchronized NetworkStore remove(NodeUri nodeUri) {
+    final ActiveNode removed = nodesByUri.remove(nodeUri);
+    if (Objects.nonNull(removed)) {
+      removed.getKeys().forEach(key -> unindex(key, removed));
+    }
+    LOGGER.debug("Removed node {}. Active node count {}", nodeUri, nodesByUri.size());
     return this;
   }
 
   @Override
   public Stream<ActiveNode> getActiveNodes() {
-    LOGGER.debug("Fetching active nodes {}", activeNodes);
-    return activeNodes.stream();
+    LOGGER.debug("Fetching active nodes {}", nodesByUri.values());
+    return nodesByUri.values().stream();
+  }
+
+  @Override
+  public Optional<ActiveNode> getActiveNode(NodeUri nodeUri) {
+    return Optional.ofNullable(nodesByUri.get(nodeUri));
+  }
+
+  @Override
+  public Optional<ActiveNode> getActiveNode(PublicKey publicKey) {
+    return Optional.ofNullable(nodesByKey.get(publicKey));
+  }
+
+  /**
+   * Removes the key from the index if it is mapped to the given node, mapping it instead to any
+   * other stored node that still hosts it
+   */
+  private void unindex(PublicKey key, ActiveNode node) {
+    final Optional<ActiveNode> otherHost =
+        nodesByUri.values().stream()
+            .filter(other -> !other.equals(node))
+            .filter(other -> other.getKeys().contains(key))
+            .findFirst();
+    if (otherHost.isPresent()) {
+      nodesByKey.replace(key, node, otherHost.get());
+    } else {
+      nodesByKey.remove(key, node);
+    }
+  }
+
+  private static boolean isUnchanged(ActiveNode previous, ActiveNode activeNode) {
+    return Objects.nonNull(previous)
+        && previous.getKeys().equals(activeNode.getKeys())
+        && previous.getSupportedVersions().equals(activeNode.getSupportedVersions());
   }
 }
@@ -13,8 +13,11 @@ import com.quorum.tessera.partyinfo.node.Recipient;
 import com.quorum.tessera.version.ApiVersion;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +30,14 @@ public class DiscoveryHelperImpl implements DiscoveryHelper {
 
   private final NetworkStore networkStore;
 
+  /**
+   * Node infos built for remote nodes, each alongside the active node it was built from. The
+   * network store keeps the same active node instance until the node changes, so a cached entry is
+   * reused for as long as its source is still the stored instance.
+   */
+  private final Map<NodeUri, Map.Entry<ActiveNode, NodeInfo>> remoteNodeInfos =
+      new ConcurrentHashMap<>();
+
   public DiscoveryHelperImpl(NetworkStore networkStore, Enclave enclave) {
     this.networkStore = networkStore;
     this.enclave = enclave;
@@ -78,51 +89,56 @@ public class DiscoveryHelperImpl implements DiscoveryHelper {
 
     final ActiveNode activeNode =
         networkStore
-            .getActiveNodes()
-            .filter(node -> node.getKeys().contains(recipientKey))
-            .findAny()
+            .getActiveNode(recipientKey)
             .orElseThrow(
                 () ->
                     new KeyNotFoundException(
                         "Recipient not found for key: " + recipientKey.encodeToBase64()));
 
-    final String nodeUrl = activeNode.getUri().asString();
+    return toNodeInfo(activeNode);
+  }
 
-    final Set<Recipient> recipients =
-        activeNode.getKeys().stream()
-            .map(k -> Recipient.of(k, nodeUrl))
-            .collect(Collectors.toSet());
+  @Override
+  public Set<NodeInfo> buildRemoteNodeInfos() {
 
-    final NodeInfo nodeInfo =
-        NodeInfo.Builder.create()
-            .withUrl(nodeUrl)
-            .withRecipients(recipients)
-            .withSupportedApiVersions(activeNode.getSupportedVersions())
-            .build();
+    final NodeUri uri = NodeUri.create(RuntimeContext.getInstance().getP2pServerUri());
 
+    final List<ActiveNode> activeNodes =
+        networkStore
+            .getActiveNodes()
+            .filter(n -> !n.getUri().equals(uri))
+            .collect(Collectors.toList());
+
+    remoteNodeInfos
+        .keySet()
+        .retainAll(activeNodes.stream().map(ActiveNode::getUri).collect(Collectors.toSet()));
+
+    return activeNodes.stream().map(this::toNodeInfo).collect(Collectors.toSet());
+  }
+
+  private NodeInfo toNodeInfo(ActiveNode activeNode) {
+    final Map.Entry<ActiveNode, NodeInfo> cached = remoteNodeInfos.get(activeNode.getUri());
+    if (Objects.nonNull(cached) && cached.getKey() == activeNode) {
+      return cached.getValue();
+    }
+
+    final NodeInfo nodeInfo = buildNodeInfo(activeNode);
+    remoteNodeInfos.put(activeNode.getUri(), Map.entry(activeNode, nodeInfo));
     return nodeInfo;
   }
 
-  @Override
-  public Set<NodeInfo> buildRemoteNodeInfos() {
+  private static NodeInfo buildNodeInfo(ActiveNode activeNode) {
+    final String nodeUrl = activeNode.getUri().asString();
 
-    final NodeUri uri = NodeUri.create(RuntimeContext.getInstance().getP2pServerUri());
+    final Set<Recipient> recipients =
+        activeNode.getKeys().stream()
+            .map(k -> Recipient.of(k, nodeUrl))
+            .collect(Collectors.toSet());
 
-    return networkStore
-        .getActiveNodes()
-        .filter(n -> !n.getUri().equals(uri))
-        .map(
-            activeNode -> {
-              String url = activeNode.getUri().asString();
-              return NodeInfo.Builder.create()
-                  .withUrl(url)
-                  .withRecipients(
-                      activeNode.getKeys().stream()
-                          .map(k -> Recipient.of(k, url))
-                          .collect(Collectors.toSet()))
-                  .withSupportedApiVersions(activeNode.getSupportedVersions())
-                  .build();
-            })
-        .collect(Collectors.toSet());
+    return NodeInfo.Builder.create()
+        .withUrl(nodeUrl)
+        .withRecipients(recipients)
+        .withSupportedApiVersions(activeNode.getSupportedVersions())
+        .build();
   }
 }
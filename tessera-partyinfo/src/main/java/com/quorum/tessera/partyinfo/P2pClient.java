@@ -7,6 +7,20 @@ public interface P2pClient {
 
   boolean sendPartyInfo(String targetUrl, byte[] data);
 
+  /**
+   * Sends partyinfo to a target, skipping the full payload if the target already holds partyinfo
+   * matching the given digest. Clients that do not support digests always send the full payload.
+   *
+   * @param targetUrl the node to send to
+   * @param data the encoded partyinfo
+   * @param senderUrl the url of the node the partyinfo describes
+   * @param digest the digest of the partyinfo
+   * @return whether the target holds the current partyinfo
+   */
+  default boolean sendPartyInfo(String targetUrl, byte[] data, String senderUrl, String digest) {
+    return sendPartyInfo(targetUrl, data);
+  }
+
   static P2pClient create() {
     return ServiceLoaderUtil.loadSingle(ServiceLoader.load(P2pClient.class));
   }
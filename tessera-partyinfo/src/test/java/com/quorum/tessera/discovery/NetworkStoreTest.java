@@ -3,6 +3,8 @@ package com.quorum.tessera.discovery;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.quorum.tessera.discovery.internal.DefaultNetworkStore;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.List;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -49,4 +51,106 @@ public class NetworkStoreTest {
 
     assertThat(networkStore.getActiveNodes().count()).isEqualTo(2L);
   }
+
+  @Test
+  public void lookUpNodeByUriAndKey() {
+    NodeUri nodeUri = NodeUri.create("http://someaddress.com");
+    PublicKey key = PublicKey.from("key".getBytes());
+    ActiveNode activeNode =
+        ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(key)).build();
+
+    networkStore.store(activeNode);
+
+    assertThat(networkStore.getActiveNode(nodeUri)).containsSame(activeNode);
+    assertThat(networkStore.getActiveNode(key)).containsSame(activeNode);
+    assertThat(networkStore.getActiveNode(NodeUri.create("http://unknown.com"))).isEmpty();
+    assertThat(networkStore.getActiveNode(PublicKey.from("unknown".getBytes()))).isEmpty();
+
+    networkStore.remove(nodeUri);
+
+    assertThat(networkStore.getActiveNode(nodeUri)).isEmpty();
+    assertThat(networkStore.getActiveNode(key)).isEmpty();
+  }
+
+  @Test
+  public void updatingNodeReindexesItsKeys() {
+    NodeUri nodeUri = NodeUri.create("http://someaddress.com");
+    PublicKey keptKey = PublicKey.from("kept".getBytes());
+    PublicKey droppedKey = PublicKey.from("dropped".getBytes());
+    PublicKey addedKey = PublicKey.from("added".getBytes());
+
+    ActiveNode original =
+        ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(keptKey, droppedKey)).build();
+    networkStore.store(original);
+    ActiveNode updated =
+        ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(keptKey, addedKey)).build();
+    networkStore.store(updated);
+
+    assertThat(networkStore.getActiveNodes()).containsExactly(updated);
+    assertThat(networkStore.getActiveNode(keptKey)).containsSame(updated);
+    assertThat(networkStore.getActiveNode(addedKey)).containsSame(updated);
+    assertThat(networkStore.getActiveNode(droppedKey)).isEmpty();
+  }
+
+  @Test
+  public void keyMovedToAnotherNodeIsNotRemovedWithTheOldNode() {
+    NodeUri nodeUri = NodeUri.create("http://someaddress.com");
+    NodeUri otherNodeUri = NodeUri.create("http://someotheraddress.com");
+    PublicKey key = PublicKey.from("key".getBytes());
+
+    networkStore.store(ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(key)).build());
+    ActiveNode otherNode =
+        ActiveNode.Builder.create().withUri(otherNodeUri).withKeys(List.of(key)).build();
+    networkStore.store(otherNode);
+
+    networkStore.remove(nodeUri);
+
+    assertThat(networkStore.getActiveNode(key)).containsSame(otherNode);
+  }
+
+  @Test
+  public void sharedKeyStaysIndexedWhileAnotherNodeHostsIt() {
+    NodeUri nodeUri = NodeUri.create("http://someaddress.com");
+    NodeUri otherNodeUri = NodeUri.create("http://someotheraddress.com");
+    PublicKey key = PublicKey.from("key".getBytes());
+
+    ActiveNode node = ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(key)).build();
+    networkStore.store(node);
+    networkStore.store(
+        ActiveNode.Builder.create().withUri(otherNodeUri).withKeys(List.of(key)).build());
+
+    // the node the key is mapped to stops hosting it
+    ActiveNode otherNodeWithoutKey = ActiveNode.Builder.create().withUri(otherNodeUri).build();
+    networkStore.store(otherNodeWithoutKey);
+    assertThat(networkStore.getActiveNode(key)).containsSame(node);
+
+    // and after it hosts the key again, it is removed
+    ActiveNode otherNode =
+        ActiveNode.Builder.create().withUri(otherNodeUri).withKeys(List.of(key)).build();
+    networkStore.store(otherNode);
+    assertThat(networkStore.getActiveNode(key)).containsSame(otherNode);
+    networkStore.remove(otherNodeUri);
+    assertThat(networkStore.getActiveNode(key)).containsSame(node);
+
+    networkStore.remove(nodeUri);
+    assertThat(networkStore.getActiveNode(key)).isEmpty();
+  }
+
+  @Test
+  public void storingUnchangedNodeKeepsStoredInstance() {
+    NodeUri nodeUri = NodeUri.create("http://someaddress.com");
+    PublicKey key = PublicKey.from("key".getBytes());
+    ActiveNode activeNode =
+        ActiveNode.Builder.create()
+            .withUri(nodeUri)
+            .withKeys(List.of(key))
+            .withSupportedVersions(List.of("v1"))
+            .build();
+
+    networkStore.store(activeNode);
+    networkStore.store(ActiveNode.Builder.from(activeNode).build());
+
+    assertThat(networkStore.getActiveNode(nodeUri)).containsSame(activeNode);
+    assertThat(networkStore.getActiveNode(key)).containsSame(activeNode);
+  }
 }
@@ -17,6 +17,7 @@ import com.quorum.tessera.partyinfo.node.NodeInfo;
 import com.quorum.tessera.partyinfo.node.Recipient;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -159,7 +160,7 @@ public class DiscoveryHelperTest {
     when(activeNode.getKeys()).thenReturn(Set.of(key, anotherKey));
     when(activeNode.getSupportedVersions()).thenReturn(Set.of("v1", "v2"));
 
-    when(networkStore.getActiveNodes()).thenReturn(Stream.of(activeNode));
+    when(networkStore.getActiveNode(key)).thenReturn(Optional.of(activeNode));
 
     final NodeInfo result = discoveryHelper.buildRemoteNodeInfo(key);
 
@@ -167,27 +168,44 @@ public class DiscoveryHelperTest {
     assertThat(result.getUrl()).isEqualTo(url);
     assertThat(result.getRecipients()).containsExactlyInAnyOrder(recipient, sameNodeDifferentKey);
     assertThat(result.supportedApiVersions()).containsExactlyInAnyOrder("v1", "v2");
-    verify(networkStore).getActiveNodes();
+    verify(networkStore).getActiveNode(key);
   }
 
   @Test
-  public void recipientKeyNotFound() {
-    String url = "http://nodeurl.com/";
+  public void buildRemoteNodeInfoIsCachedUntilNodeChanges() {
 
+    final NodeUri nodeUri = NodeUri.create("http://nodeurl.com/");
     final PublicKey key = PublicKey.from("key".getBytes());
     final PublicKey anotherKey = PublicKey.from("anotherKey".getBytes());
 
-    ActiveNode activeNode = mock(ActiveNode.class);
-    when(activeNode.getUri()).thenReturn(NodeUri.create(url));
-    when(activeNode.getKeys()).thenReturn(Set.of(key));
-    when(activeNode.getSupportedVersions()).thenReturn(Set.of("v1", "v2"));
+    final ActiveNode activeNode =
+        ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(key)).build();
+    final ActiveNode updatedNode =
+        ActiveNode.Builder.create().withUri(nodeUri).withKeys(List.of(key, anotherKey)).build();
 
-    when(networkStore.getActiveNodes()).thenReturn(Stream.of(activeNode));
+    when(networkStore.getActiveNode(key))
+        .thenReturn(Optional.of(activeNode), Optional.of(activeNode), Optional.of(updatedNode));
+
+    final NodeInfo first = discoveryHelper.buildRemoteNodeInfo(key);
+    final NodeInfo second = discoveryHelper.buildRemoteNodeInfo(key);
+    final NodeInfo afterUpdate = discoveryHelper.buildRemoteNodeInfo(key);
+
+    assertThat(second).isSameAs(first);
+    assertThat(afterUpdate).isNotSameAs(first);
+    assertThat(afterUpdate.getRecipients()).hasSize(2);
+    verify(networkStore, times(3)).getActiveNode(key);
+  }
+
+  @Test
+  public void recipientKeyNotFound() {
+    final PublicKey anotherKey = PublicKey.from("anotherKey".getBytes());
+
+    when(networkStore.getActiveNode(anotherKey)).thenReturn(Optional.empty());
 
     assertThatExceptionOfType(KeyNotFoundException.class)
         .isThrownBy(() -> discoveryHelper.buildRemoteNodeInfo(anotherKey));
 
-    verify(networkStore).getActiveNodes();
+    verify(networkStore).getActiveNode(anotherKey);
   }
 
   @Test
@@ -3,6 +3,7 @@ package com.quorum.tessera.recovery.internal;
 import static java.util.stream.Collectors.toList;
 
 import com.quorum.tessera.data.staging.StagingEntityDAO;
+import com.quorum.tessera.data.staging.StagingGraph;
 import com.quorum.tessera.data.staging.StagingTransaction;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.EncodedPayload;
@@ -16,6 +17,9 @@ import com.quorum.tessera.transaction.exception.PrivacyViolationException;
 import com.quorum.tessera.version.EnhancedPrivacyVersion;
 import jakarta.persistence.PersistenceException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
@@ -30,6 +34,8 @@ class RecoveryImpl implements Recovery {
 
   private static final int BATCH_SIZE = 10000;
 
+  static final long DEFAULT_MAX_IN_MEMORY_STAGING_SIZE = Runtime.getRuntime().maxMemory() / 2;
+
   private final StagingEntityDAO stagingEntityDAO;
 
   private final Discovery discovery;
@@ -38,15 +44,59 @@ class RecoveryImpl implements Recovery {
 
   private final TransactionManager transactionManager;
 
+  private final long maxInMemoryStagingSize;
+
+  private final Executor executor;
+
   RecoveryImpl(
       StagingEntityDAO stagingEntityDAO,
       Discovery discovery,
       BatchTransactionRequester transactionRequester,
       TransactionManager transactionManager) {
+    this(
+        stagingEntityDAO,
+        discovery,
+        transactionRequester,
+        transactionManager,
+        DEFAULT_MAX_IN_MEMORY_STAGING_SIZE);
+  }
+
+  /**
+   * @param maxInMemoryStagingSize the most heap, in bytes, that staging may use to hold the
+   *     dependency graph; larger graphs are staged with the slower, query based fallback
+   */
+  RecoveryImpl(
+      StagingEntityDAO stagingEntityDAO,
+      Discovery discovery,
+      BatchTransactionRequester transactionRequester,
+      TransactionManager transactionManager,
+      long maxInMemoryStagingSize) {
+    this(
+        stagingEntityDAO,
+        discovery,
+        transactionRequester,
+        transactionManager,
+        maxInMemoryStagingSize,
+        Runnable::run);
+  }
+
+  /**
+   * @param executor runs the requests to each remote node, and the sync of the transactions within
+   *     a validation stage
+   */
+  RecoveryImpl(
+      StagingEntityDAO stagingEntityDAO,
+      Discovery discovery,
+      BatchTransactionRequester transactionRequester,
+      TransactionManager transactionManager,
+      long maxInMemoryStagingSize,
+      Executor executor) {
     this.stagingEntityDAO = Objects.requireNonNull(stagingEntityDAO);
     this.discovery = Objects.requireNonNull(discovery);
     this.transactionRequester = Objects.requireNonNull(transactionRequester);
     this.transactionManager = Objects.requireNonNull(transactionManager);
+    this.maxInMemoryStagingSize = maxInMemoryStagingSize;
+    this.executor = Objects.requireNonNull(executor);
   }
 
   @Override
@@ -64,11 +114,26 @@ class RecoveryImpl implements Recovery {
             !nodeInfo.supportedApiVersions().contains(EnhancedPrivacyVersion.API_VERSION_2)
                 && transactionRequester.requestAllTransactionsFromLegacyNode(nodeInfo.getUrl());
 
-    final long failures =
+    final long startTime = System.nanoTime();
+
+    final List<CompletableFuture<Boolean>> results =
         remoteNodeInfos.stream()
-            .filter(sendRequestsToNode.or(sendRequestsToLegacyNode).negate())
-            .peek(p -> LOGGER.warn("Fail resend request to {}", p.getUrl()))
-            .count();
+            .map(
+                nodeInfo ->
+                    CompletableFuture.supplyAsync(
+                        () -> {
+                          if (sendRequestsToNode.or(sendRequestsToLegacyNode).test(nodeInfo)) {
+                            return true;
+                          }
+                          LOGGER.warn("Fail resend request to {}", nodeInfo.getUrl());
+                          return false;
+                        },
+                        executor))
+            .collect(toList());
+
+    final long failures = join(results).stream().filter(success -> !success).count();
+
+    logThroughput("Requested resends from", remoteNodeInfos.size(), "nodes", startTime);
 
     if (failures > 0) {
       if (failures == remoteNodeInfos.size()) {
@@ -82,13 +147,30 @@ class RecoveryImpl implements Recovery {
   @Override
   public RecoveryResult stage() {
 
-    final AtomicLong stage = new AtomicLong(0);
-
-    while (stagingEntityDAO.updateStageForBatch(BATCH_SIZE, stage.incrementAndGet()) != 0) {}
+    final long startTime = System.nanoTime();
 
     final long totalCount = stagingEntityDAO.countAll();
+    final long graphSize =
+        StagingGraph.estimateSize(totalCount, stagingEntityDAO.countAllAffected());
+
+    if (graphSize <= maxInMemoryStagingSize) {
+      final int staged = stagingEntityDAO.updateStagesInMemory(BATCH_SIZE);
+      LOGGER.debug("Staged {} of {} transactions in memory", staged, totalCount);
+    } else {
+      LOGGER.info(
+          "Staging graph needs about {} MB, more than the {} MB allowed, so staging with queries",
+          graphSize / (1024 * 1024),
+          maxInMemoryStagingSize / (1024 * 1024));
+
+      final AtomicLong stage = new AtomicLong(0);
+
+      while (stagingEntityDAO.updateStageForBatch(BATCH_SIZE, stage.incrementAndGet()) != 0) {}
+    }
+
     final long validatedCount = stagingEntityDAO.countStaged();
 
+    logThroughput("Staged", validatedCount, "transactions", startTime);
+
     if (validatedCount < totalCount) {
       if (validatedCount == 0) {
         return RecoveryResult.FAILURE;
@@ -101,6 +183,8 @@ class RecoveryImpl implements Recovery {
   @Override
   public RecoveryResult sync() {
 
+    final long startTime = System.nanoTime();
+
     final AtomicInteger payloadCount = new AtomicInteger(0);
     final AtomicInteger syncFailureCount = new AtomicInteger(0);
 
@@ -111,29 +195,29 @@ class RecoveryImpl implements Recovery {
       final List<StagingTransaction> transactions =
           stagingEntityDAO.retrieveTransactionBatchOrderByStageAndHash(offset, maxResult);
 
-      final Map<String, List<StagingTransaction>> grouped =
-          transactions.stream()
-              .collect(
-                  Collectors.groupingBy(StagingTransaction::getHash, LinkedHashMap::new, toList()));
-
-      grouped.forEach(
-          (key, value) ->
-              value.stream()
-                  .filter(
-                      t -> {
-                        payloadCount.incrementAndGet();
-                        EncodedPayload encodedPayload = t.getEncodedPayload();
-                        try {
-                          transactionManager.storePayload(encodedPayload);
-                        } catch (PrivacyViolationException | PersistenceException ex) {
-                          LOGGER.error("An error occurred during batch resend sync stage.", ex);
-                          syncFailureCount.incrementAndGet();
-                        }
-                        return PrivacyMode.PRIVATE_STATE_VALIDATION == t.getPrivacyMode();
-                      })
-                  .findFirst());
+      // A stage only depends on earlier ones, so the transactions within it are stored in
+      // parallel, while the versions of a single transaction are still stored in order
+      for (List<StagingTransaction> stageTransactions : splitByStage(transactions)) {
+
+        final Map<String, List<StagingTransaction>> grouped =
+            stageTransactions.stream()
+                .collect(
+                    Collectors.groupingBy(
+                        StagingTransaction::getHash, LinkedHashMap::new, toList()));
+
+        join(
+            grouped.values().stream()
+                .map(
+                    versions ->
+                        CompletableFuture.runAsync(
+                            () -> syncVersions(versions, payloadCount, syncFailureCount),
+                            executor))
+                .collect(toList()));
+      }
     }
 
+    logThroughput("Synchronised", payloadCount.get(), "transactions", startTime);
+
     if (syncFailureCount.get() > 0) {
       LOGGER.warn(
           "There have been issues during the synchronisation process. "
@@ -146,6 +230,71 @@ class RecoveryImpl implements Recovery {
     return RecoveryResult.SUCCESS;
   }
 
+  /**
+   * Stores each version of a transaction in turn, stopping after the first with private state
+   * validation
+   */
+  private void syncVersions(
+      List<StagingTransaction> versions,
+      AtomicInteger payloadCount,
+      AtomicInteger syncFailureCount) {
+    versions.stream()
+        .filter(
+            t -> {
+              payloadCount.incrementAndGet();
+              EncodedPayload encodedPayload = t.getEncodedPayload();
+              try {
+                transactionManager.storePayload(encodedPayload);
+              } catch (PrivacyViolationException | PersistenceException ex) {
+                LOGGER.error("An error occurred during batch resend sync stage.", ex);
+                syncFailureCount.incrementAndGet();
+              }
+              return PrivacyMode.PRIVATE_STATE_VALIDATION == t.getPrivacyMode();
+            })
+        .findFirst();
+  }
+
+  /** Splits transactions ordered by stage into runs that share the same stage */
+  private static List<List<StagingTransaction>> splitByStage(
+      List<StagingTransaction> transactions) {
+    final List<List<StagingTransaction>> stages = new ArrayList<>();
+    List<StagingTransaction> current = null;
+    Long currentStage = null;
+    for (StagingTransaction transaction : transactions) {
+      if (current == null || !Objects.equals(currentStage, transaction.getValidationStage())) {
+        current = new ArrayList<>();
+        stages.add(current);
+        currentStage = transaction.getValidationStage();
+      }
+      current.add(transaction);
+    }
+    return stages;
+  }
+
+  /** Waits for every task, rethrowing the first unchecked exception any of them threw */
+  private static <T> List<T> join(List<CompletableFuture<T>> futures) {
+    try {
+      return futures.stream().map(CompletableFuture::join).collect(toList());
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+  }
+
+  private static void logThroughput(String action, long count, String unit, long startTime) {
+    final long durationMillis = (System.nanoTime() - startTime) / 1000000;
+    LOGGER.info(
+        "{} {} {} in {} ms ({} {} per second)",
+        action,
+        count,
+        unit,
+        durationMillis,
+        durationMillis == 0 ? count : count * 1000 / durationMillis,
+        unit);
+  }
+
   @Override
   public int recover() {
 
@@ -1,10 +1,14 @@
 package com.quorum.tessera.recovery.internal;
 
+import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.data.staging.StagingEntityDAO;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.recovery.Recovery;
 import com.quorum.tessera.recovery.resend.BatchTransactionRequester;
+import com.quorum.tessera.threading.ExecutorFactory;
 import com.quorum.tessera.transaction.TransactionManager;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class RecoveryProvider {
 
@@ -16,7 +20,16 @@ public class RecoveryProvider {
 
     TransactionManager transactionManager = TransactionManager.create();
 
+    final Map<String, String> properties =
+        ConfigFactory.create().getConfig().getP2PServerConfig().getProperties();
+    final Executor executor = new ExecutorFactory(properties).createBoundedExecutor("recovery");
+
     return new RecoveryImpl(
-        stagingEntityDAO, discovery, batchTransactionRequester, transactionManager);
+        stagingEntityDAO,
+        discovery,
+        batchTransactionRequester,
+        transactionManager,
+        RecoveryImpl.DEFAULT_MAX_IN_MEMORY_STAGING_SIZE,
+        executor);
   }
 }
@@ -1,8 +1,41 @@
 package com.quorum.tessera.recovery.workflow;
 
+/**
+ * Runs a transaction through the resend stages.
+ *
+ * <p>{@link #execute} runs every stage in one go. Workflows that are fed from a pipeline split this
+ * into {@link #prepare}, which can run for several transactions at once, and {@link #publish},
+ * which is called for each transaction in the order they were read. By default all the work is
+ * done in {@link #publish}.
+ */
 public interface BatchWorkflow extends BatchWorkflowAction {
   @Override
   boolean execute(BatchWorkflowContext context);
 
+  /**
+   * Runs the stages that check a transaction and prepare its payloads for the recipient. These
+   * only touch the given context, so can run for several transactions at once.
+   *
+   * @return false if the transaction is not to be published
+   */
+  default boolean prepare(BatchWorkflowContext context) {
+    return true;
+  }
+
+  /**
+   * Adds a prepared transaction to the batch being built, or accounts for one that was filtered
+   * out, pushing the batch once it is complete. Must be called once per transaction, in the order
+   * the transactions were read.
+   *
+   * @param prepared the outcome of {@link #prepare} for the context
+   * @return whether the transaction was published
+   */
+  default boolean publish(BatchWorkflowContext context, boolean prepared) {
+    return prepared && execute(context);
+  }
+
+  /** Waits for batches that are still being pushed, rethrowing the first failure */
+  default void awaitPublished() {}
+
   long getPublishedMessageCount();
 }
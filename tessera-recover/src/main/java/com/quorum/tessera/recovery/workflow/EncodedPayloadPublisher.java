@@ -4,9 +4,21 @@ import com.quorum.tessera.enclave.EncodedPayload;
 import com.quorum.tessera.recovery.resend.ResendBatchPublisher;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+/**
+ * Groups prepared payloads into batches and pushes them to the recipient.
+ *
+ * <p>Given an executor, batches are pushed in the background, with at most the given number in
+ * flight at once, so that the next batch can be read and prepared while the last one is being sent.
+ * Batches may then arrive out of order, which the recipient's staging area allows for. The first
+ * failed push is thrown from the next call, or from {@link #awaitPublished()}.
+ */
 public class EncodedPayloadPublisher implements BatchWorkflowAction {
 
   private String targetUrl;
@@ -15,11 +27,27 @@ public class EncodedPayloadPublisher implements BatchWorkflowAction {
 
   private final ResendBatchPublisher resendBatchPublisher;
 
+  private final Executor executor;
+
+  private final int maxInFlightBatches;
+
+  private final Semaphore inFlightBatches;
+
+  private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
   private long messageCounter = 0L;
 
   public EncodedPayloadPublisher(ResendBatchPublisher resendBatchPublisher) {
+    this(resendBatchPublisher, null, 1);
+  }
+
+  public EncodedPayloadPublisher(
+      ResendBatchPublisher resendBatchPublisher, Executor executor, int maxInFlightBatches) {
     this.resendBatchPublisher = resendBatchPublisher;
     this.payloads = new ArrayList<>();
+    this.executor = executor;
+    this.maxInFlightBatches = Math.max(1, maxInFlightBatches);
+    this.inFlightBatches = new Semaphore(this.maxInFlightBatches);
   }
 
   @Override
@@ -59,13 +87,54 @@ public class EncodedPayloadPublisher implements BatchWorkflowAction {
     while (allPayloads.size() > batchSize) {
       final List<EncodedPayload> sublistPayloads =
           new ArrayList<>(allPayloads.subList(0, batchSize));
-      resendBatchPublisher.publishBatch(sublistPayloads, targetUrl);
+      publishBatch(sublistPayloads);
       allPayloads = allPayloads.subList(batchSize, allPayloads.size());
     }
     // one final push for the last batch
-    resendBatchPublisher.publishBatch(allPayloads, targetUrl);
+    publishBatch(new ArrayList<>(allPayloads));
 
     messageCounter += payloads.size();
     payloads.clear();
   }
+
+  private void publishBatch(final List<EncodedPayload> batch) {
+    if (Objects.isNull(executor)) {
+      resendBatchPublisher.publishBatch(batch, targetUrl);
+      return;
+    }
+
+    throwIfFailed();
+    inFlightBatches.acquireUninterruptibly();
+
+    final String url = targetUrl;
+    try {
+      executor.execute(
+          () -> {
+            try {
+              resendBatchPublisher.publishBatch(batch, url);
+            } catch (RuntimeException ex) {
+              failure.compareAndSet(null, ex);
+            } finally {
+              inFlightBatches.release();
+            }
+          });
+    } catch (RuntimeException ex) {
+      inFlightBatches.release();
+      throw ex;
+    }
+  }
+
+  /** Waits until every batch handed to the executor has been pushed */
+  public void awaitPublished() {
+    inFlightBatches.acquireUninterruptibly(maxInFlightBatches);
+    inFlightBatches.release(maxInFlightBatches);
+    throwIfFailed();
+  }
+
+  private void throwIfFailed() {
+    final RuntimeException ex = failure.get();
+    if (Objects.nonNull(ex)) {
+      throw ex;
+    }
+  }
 }
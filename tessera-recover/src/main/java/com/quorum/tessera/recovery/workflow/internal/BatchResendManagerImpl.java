@@ -1,5 +1,6 @@
 package com.quorum.tessera.recovery.workflow.internal;
 
+import com.quorum.tessera.data.EncryptedTransaction;
 import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.data.staging.StagingEntityDAO;
 import com.quorum.tessera.data.staging.StagingTransactionUtils;
@@ -11,13 +12,34 @@ import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.BatchWorkflow;
 import com.quorum.tessera.recovery.workflow.BatchWorkflowContext;
 import com.quorum.tessera.recovery.workflow.BatchWorkflowFactory;
+import java.util.ArrayDeque;
 import java.util.Base64;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.IntStream;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * Resends stored transactions to a recipient as a pipeline.
+ *
+ * <p>The calling thread pages transactions out of the database and hands each one to the workflow
+ * executor to be checked and prepared, keeping up to the pipeline depth of transactions in
+ * progress. Prepared transactions are then passed to the workflow in the order they were read, so
+ * that batches fill up, and the published count adds up, the same as if each transaction were
+ * handled in turn. The workflow pushes full batches in the background, so the database and the
+ * network are kept busy at the same time.
+ */
 public class BatchResendManagerImpl implements BatchResendManager {
 
+  /** Server config property for the number of transactions read ahead of publishing */
+  public static final String PIPELINE_DEPTH = "resendPipelineDepth";
+
+  static final int DEFAULT_PIPELINE_DEPTH = 64;
+
   private final StagingEntityDAO stagingEntityDAO;
 
   private final EncryptedTransactionDAO encryptedTransactionDAO;
@@ -26,21 +48,39 @@ public class BatchResendManagerImpl implements BatchResendManager {
 
   private final BatchWorkflowFactory batchWorkflowFactory;
 
+  private final Executor workflowExecutor;
+
+  private final int pipelineDepth;
+
   public BatchResendManagerImpl(
       StagingEntityDAO stagingEntityDAO,
       EncryptedTransactionDAO encryptedTransactionDAO,
       int maxResults,
       BatchWorkflowFactory batchWorkflowFactory) {
+    this(
+        stagingEntityDAO,
+        encryptedTransactionDAO,
+        maxResults,
+        batchWorkflowFactory,
+        Runnable::run,
+        1);
+  }
+
+  public BatchResendManagerImpl(
+      StagingEntityDAO stagingEntityDAO,
+      EncryptedTransactionDAO encryptedTransactionDAO,
+      int maxResults,
+      BatchWorkflowFactory batchWorkflowFactory,
+      Executor workflowExecutor,
+      int pipelineDepth) {
 
     this.stagingEntityDAO = Objects.requireNonNull(stagingEntityDAO);
     this.encryptedTransactionDAO = Objects.requireNonNull(encryptedTransactionDAO);
     this.maxResults = maxResults;
 
     this.batchWorkflowFactory = batchWorkflowFactory;
-  }
-
-  static int calculateBatchCount(long maxResults, long total) {
-    return (int) Math.ceil((double) total / maxResults);
+    this.workflowExecutor = Objects.requireNonNull(workflowExecutor);
+    this.pipelineDepth = Math.max(1, pipelineDepth);
   }
 
   @Override
@@ -50,28 +90,98 @@ public class BatchResendManagerImpl implements BatchResendManager {
     final byte[] publicKeyData = Base64.getDecoder().decode(request.getPublicKey());
     final PublicKey recipientPublicKey = PublicKey.from(publicKeyData);
 
-    final long transactionCount = encryptedTransactionDAO.transactionCount();
-    final long batchCount = calculateBatchCount(maxResults, transactionCount);
+    final boolean indexed = encryptedTransactionDAO.isRecipientIndexComplete();
+    final long transactionCount =
+        indexed
+            ? encryptedTransactionDAO.transactionCountForRecipient(recipientPublicKey)
+            : encryptedTransactionDAO.transactionCount();
 
     final BatchWorkflow batchWorkflow = batchWorkflowFactory.create(transactionCount);
 
-    IntStream.range(0, (int) batchCount)
-        .map(i -> i * maxResults)
-        .mapToObj(offset -> encryptedTransactionDAO.retrieveTransactions(offset, maxResults))
-        .flatMap(List::stream)
-        .forEach(
-            encryptedTransaction -> {
-              final BatchWorkflowContext context = new BatchWorkflowContext();
-              context.setEncryptedTransaction(encryptedTransaction);
-              context.setEncodedPayload(encryptedTransaction.getPayload());
-              context.setRecipientKey(recipientPublicKey);
-              context.setBatchSize(batchSize);
-              batchWorkflow.execute(context);
-            });
+    final Deque<PreparedTransaction> inProgress = new ArrayDeque<>(pipelineDepth);
+
+    try (Stream<EncryptedTransaction> transactions =
+        indexed ? indexedTransactions(recipientPublicKey) : allTransactions()) {
+
+      final Iterator<EncryptedTransaction> iterator = transactions.iterator();
+      while (iterator.hasNext()) {
+        final EncryptedTransaction encryptedTransaction = iterator.next();
+
+        final BatchWorkflowContext context = new BatchWorkflowContext();
+        context.setEncryptedTransaction(encryptedTransaction);
+        context.setEncodedPayload(encryptedTransaction.getPayload());
+        context.setRecipientKey(recipientPublicKey);
+        context.setBatchSize(batchSize);
+
+        inProgress.add(
+            new PreparedTransaction(
+                context,
+                CompletableFuture.supplyAsync(
+                    () -> batchWorkflow.prepare(context), workflowExecutor)));
+
+        if (inProgress.size() >= pipelineDepth) {
+          publishOldest(inProgress, batchWorkflow);
+        }
+      }
+    }
+
+    while (!inProgress.isEmpty()) {
+      publishOldest(inProgress, batchWorkflow);
+    }
+    batchWorkflow.awaitPublished();
 
     return ResendBatchResponse.from(batchWorkflow.getPublishedMessageCount());
   }
 
+  private static void publishOldest(
+      Deque<PreparedTransaction> inProgress, BatchWorkflow batchWorkflow) {
+    final PreparedTransaction oldest = inProgress.remove();
+
+    final boolean prepared;
+    try {
+      prepared = oldest.outcome.join();
+    } catch (CompletionException ex) {
+      // rethrow what the workflow stage threw, as it would have been without the pipeline
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw ex;
+    }
+
+    batchWorkflow.publish(oldest.context, prepared);
+  }
+
+  private static final class PreparedTransaction {
+
+    private final BatchWorkflowContext context;
+
+    private final CompletableFuture<Boolean> outcome;
+
+    private PreparedTransaction(BatchWorkflowContext context, CompletableFuture<Boolean> outcome) {
+      this.context = context;
+      this.outcome = outcome;
+    }
+  }
+
+  /** Loads only the transactions the recipient index lists for the given key */
+  private Stream<EncryptedTransaction> indexedTransactions(PublicKey key) {
+    return encryptedTransactionDAO
+        .streamHashesForRecipient(key, maxResults)
+        .map(encryptedTransactionDAO::findByHashes)
+        .flatMap(List::stream);
+  }
+
+  /**
+   * Scans every stored transaction, backfilling the recipient index as it goes so that later
+   * resends can use {@link #indexedTransactions}
+   */
+  private Stream<EncryptedTransaction> allTransactions() {
+    return encryptedTransactionDAO
+        .streamTransactions(maxResults)
+        .peek(encryptedTransactionDAO::indexRecipients)
+        .flatMap(List::stream);
+  }
+
   @Override
   public synchronized void storeResendBatch(PushBatchRequest request) {
     request.getEncodedPayloads().stream()
@@ -1,9 +1,13 @@
 package com.quorum.tessera.recovery.workflow.internal;
 
+import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.data.staging.StagingEntityDAO;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.BatchWorkflowFactory;
+import com.quorum.tessera.threading.ExecutorFactory;
+import java.util.Map;
+import java.util.concurrent.Executor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,10 +33,38 @@ public class BatchResendManagerProvider {
 
     BatchWorkflowFactory batchWorkflowFactory = BatchWorkflowFactory.create();
 
+    final Map<String, String> properties =
+        ConfigFactory.create().getConfig().getP2PServerConfig().getProperties();
+    final Executor workflowExecutor =
+        new ExecutorFactory(properties).createBoundedExecutor("batch-resend");
+
     BatchResendManager batchResendManager =
         new BatchResendManagerImpl(
-            stagingEntityDAO, encryptedTransactionDAO, defaultMaxResults, batchWorkflowFactory);
+            stagingEntityDAO,
+            encryptedTransactionDAO,
+            defaultMaxResults,
+            batchWorkflowFactory,
+            workflowExecutor,
+            intProperty(
+                properties,
+                BatchResendManagerImpl.PIPELINE_DEPTH,
+                BatchResendManagerImpl.DEFAULT_PIPELINE_DEPTH));
 
     return BatchResendManagerHolder.INSTANCE.setBatchResendManager(batchResendManager);
   }
+
+  static int intProperty(Map<String, String> properties, String property, int defaultValue) {
+    try {
+      final int value =
+          Integer.parseInt(properties.getOrDefault(property, String.valueOf(defaultValue)));
+      if (value > 0) {
+        return value;
+      }
+    } catch (NumberFormatException ex) {
+      // fall through to the warning below
+    }
+    LOGGER.warn(
+        "Not able to parse configured property {}. Will use default value instead", property);
+    return defaultValue;
+  }
 }
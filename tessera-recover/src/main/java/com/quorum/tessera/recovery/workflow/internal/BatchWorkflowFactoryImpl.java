@@ -6,6 +6,7 @@ import com.quorum.tessera.recovery.resend.ResendBatchPublisher;
 import com.quorum.tessera.recovery.workflow.*;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
@@ -17,11 +18,30 @@ class BatchWorkflowFactoryImpl implements BatchWorkflowFactory {
 
   private final ResendBatchPublisher resendBatchPublisher;
 
+  private final Executor publishExecutor;
+
+  private final int maxInFlightBatches;
+
   BatchWorkflowFactoryImpl(
       Enclave enclave, Discovery discovery, ResendBatchPublisher resendBatchPublisher) {
+    this(enclave, discovery, resendBatchPublisher, null, 1);
+  }
+
+  /**
+   * @param publishExecutor runs the batch pushes, or null to push each batch on the calling thread
+   * @param maxInFlightBatches the number of batches each workflow may be pushing at once
+   */
+  BatchWorkflowFactoryImpl(
+      Enclave enclave,
+      Discovery discovery,
+      ResendBatchPublisher resendBatchPublisher,
+      Executor publishExecutor,
+      int maxInFlightBatches) {
     this.enclave = Objects.requireNonNull(enclave);
     this.discovery = Objects.requireNonNull(discovery);
     this.resendBatchPublisher = Objects.requireNonNull(resendBatchPublisher);
+    this.publishExecutor = publishExecutor;
+    this.maxInFlightBatches = maxInFlightBatches;
   }
 
   @Override
@@ -36,7 +56,7 @@ class BatchWorkflowFactoryImpl implements BatchWorkflowFactory {
         new SearchRecipientKeyForPayload(enclave);
     SenderIsNotRecipient senderIsNotRecipient = new SenderIsNotRecipient(enclave);
     EncodedPayloadPublisher encodedPayloadPublisher =
-        new EncodedPayloadPublisher(resendBatchPublisher);
+        new EncodedPayloadPublisher(resendBatchPublisher, publishExecutor, maxInFlightBatches);
 
     List<BatchWorkflowAction> handlers =
         List.of(
@@ -45,8 +65,7 @@ class BatchWorkflowFactoryImpl implements BatchWorkflowFactory {
             preparePayloadForRecipient,
             searchRecipientKeyForPayload,
             findRecipientFromPartyInfo,
-            senderIsNotRecipient,
-            encodedPayloadPublisher);
+            senderIsNotRecipient);
 
     return new BatchWorkflow() {
 
@@ -54,17 +73,31 @@ class BatchWorkflowFactoryImpl implements BatchWorkflowFactory {
 
       @Override
       public boolean execute(BatchWorkflowContext context) {
+        return publish(context, prepare(context));
+      }
 
-        context.setExpectedTotal(filteredMessageCount.get());
-
-        boolean outcome =
-            handlers.stream().filter(Predicate.not(h -> h.execute(context))).findFirst().isEmpty();
+      @Override
+      public boolean prepare(BatchWorkflowContext context) {
+        return handlers.stream()
+            .filter(Predicate.not(h -> h.execute(context)))
+            .findFirst()
+            .isEmpty();
+      }
 
-        if (!outcome) {
-          context.setExpectedTotal(filteredMessageCount.decrementAndGet());
-          encodedPayloadPublisher.checkOutstandingPayloads(context);
+      @Override
+      public boolean publish(BatchWorkflowContext context, boolean prepared) {
+        if (prepared) {
+          context.setExpectedTotal(filteredMessageCount.get());
+          return encodedPayloadPublisher.execute(context);
         }
-        return outcome;
+        context.setExpectedTotal(filteredMessageCount.decrementAndGet());
+        encodedPayloadPublisher.checkOutstandingPayloads(context);
+        return false;
+      }
+
+      @Override
+      public void awaitPublished() {
+        encodedPayloadPublisher.awaitPublished();
       }
 
       @Override
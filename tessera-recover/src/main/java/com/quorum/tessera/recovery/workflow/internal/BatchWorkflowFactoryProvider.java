@@ -1,18 +1,38 @@
 package com.quorum.tessera.recovery.workflow.internal;
 
+import com.quorum.tessera.config.ConfigFactory;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.recovery.resend.ResendBatchPublisher;
 import com.quorum.tessera.recovery.workflow.BatchWorkflowFactory;
+import com.quorum.tessera.threading.ExecutorFactory;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 public class BatchWorkflowFactoryProvider {
 
+  /** Server config property for the number of batches a resend may be pushing at once */
+  public static final String MAX_IN_FLIGHT_BATCHES = "resendMaxInFlightBatches";
+
+  static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 4;
+
   public static BatchWorkflowFactory provider() {
 
     Enclave enclave = Enclave.create();
     Discovery discovery = Discovery.create();
     ResendBatchPublisher resendBatchPublisher = ResendBatchPublisher.create();
 
-    return new BatchWorkflowFactoryImpl(enclave, discovery, resendBatchPublisher);
+    final Map<String, String> properties =
+        ConfigFactory.create().getConfig().getP2PServerConfig().getProperties();
+    final Executor publishExecutor =
+        new ExecutorFactory(properties).createBoundedExecutor("resend-publisher");
+
+    return new BatchWorkflowFactoryImpl(
+        enclave,
+        discovery,
+        resendBatchPublisher,
+        publishExecutor,
+        BatchResendManagerProvider.intProperty(
+            properties, MAX_IN_FLIGHT_BATCHES, DEFAULT_MAX_IN_FLIGHT_BATCHES));
   }
 }
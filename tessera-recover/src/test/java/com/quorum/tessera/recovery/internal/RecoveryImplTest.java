@@ -1,6 +1,7 @@
 package com.quorum.tessera.recovery.internal;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.data.MessageHash;
@@ -17,6 +18,8 @@ import com.quorum.tessera.transaction.TransactionManager;
 import com.quorum.tessera.transaction.exception.PrivacyViolationException;
 import jakarta.persistence.PersistenceException;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -47,7 +50,7 @@ public class RecoveryImplTest extends RecoveryTestCase {
     transactionManager = mock(TransactionManager.class);
 
     this.recovery =
-        new RecoveryImpl(stagingEntityDAO, discovery, transactionRequester, transactionManager);
+        new RecoveryImpl(stagingEntityDAO, discovery, transactionRequester, transactionManager, 0);
   }
 
   @After
@@ -76,6 +79,29 @@ public class RecoveryImplTest extends RecoveryTestCase {
     verify(discovery).getRemoteNodeInfos();
   }
 
+  @Test
+  public void testRequestEachNodeThroughExecutor() {
+
+    final AtomicInteger executed = new AtomicInteger();
+    final Executor executor =
+        task -> {
+          executed.incrementAndGet();
+          task.run();
+        };
+    final Recovery concurrentRecovery =
+        new RecoveryImpl(
+            stagingEntityDAO, discovery, transactionRequester, transactionManager, 0, executor);
+
+    when(transactionRequester.requestAllTransactionsFromLegacyNode(anyString())).thenReturn(true);
+
+    assertThat(concurrentRecovery.request()).isEqualTo(RecoveryResult.SUCCESS);
+    assertThat(executed).hasValue(4);
+
+    verify(transactionRequester, times(2)).requestAllTransactionsFromNode(anyString());
+    verify(transactionRequester, times(2)).requestAllTransactionsFromLegacyNode(anyString());
+    verify(discovery).getRemoteNodeInfos();
+  }
+
   @Test
   public void testRequestPartialSuccess() {
 
@@ -123,6 +149,51 @@ public class RecoveryImplTest extends RecoveryTestCase {
 
     verify(stagingEntityDAO, times(3)).updateStageForBatch(anyInt(), anyLong());
     verify(stagingEntityDAO).countAll();
+    verify(stagingEntityDAO).countAllAffected();
+    verify(stagingEntityDAO).countStaged();
+  }
+
+  @Test
+  public void testStagingInMemory() {
+
+    final Recovery inMemoryRecovery =
+        new RecoveryImpl(
+            stagingEntityDAO, discovery, transactionRequester, transactionManager, 1024 * 1024);
+
+    when(stagingEntityDAO.countAll()).thenReturn(2L);
+    when(stagingEntityDAO.countAllAffected()).thenReturn(1L);
+    when(stagingEntityDAO.updateStagesInMemory(anyInt())).thenReturn(2);
+    when(stagingEntityDAO.countStaged()).thenReturn(2L);
+
+    RecoveryResult result = inMemoryRecovery.stage();
+
+    assertThat(result).isEqualTo(RecoveryResult.SUCCESS);
+
+    verify(stagingEntityDAO).updateStagesInMemory(anyInt());
+    verify(stagingEntityDAO).countAll();
+    verify(stagingEntityDAO).countAllAffected();
+    verify(stagingEntityDAO).countStaged();
+  }
+
+  @Test
+  public void testStagingFallsBackToQueriesWhenGraphIsTooLarge() {
+
+    final Recovery smallRecovery =
+        new RecoveryImpl(
+            stagingEntityDAO, discovery, transactionRequester, transactionManager, 100);
+
+    when(stagingEntityDAO.countAll()).thenReturn(2L);
+    when(stagingEntityDAO.countAllAffected()).thenReturn(1L);
+    when(stagingEntityDAO.updateStageForBatch(anyInt(), anyLong())).thenReturn(0);
+    when(stagingEntityDAO.countStaged()).thenReturn(2L);
+
+    RecoveryResult result = smallRecovery.stage();
+
+    assertThat(result).isEqualTo(RecoveryResult.SUCCESS);
+
+    verify(stagingEntityDAO).updateStageForBatch(anyInt(), anyLong());
+    verify(stagingEntityDAO).countAll();
+    verify(stagingEntityDAO).countAllAffected();
     verify(stagingEntityDAO).countStaged();
   }
 
@@ -139,6 +210,7 @@ public class RecoveryImplTest extends RecoveryTestCase {
 
     verify(stagingEntityDAO).updateStageForBatch(anyInt(), anyLong());
     verify(stagingEntityDAO).countAll();
+    verify(stagingEntityDAO).countAllAffected();
     verify(stagingEntityDAO).countStaged();
   }
 
@@ -156,6 +228,7 @@ public class RecoveryImplTest extends RecoveryTestCase {
 
     verify(stagingEntityDAO).updateStageForBatch(anyInt(), anyLong());
     verify(stagingEntityDAO).countAll();
+    verify(stagingEntityDAO).countAllAffected();
     verify(stagingEntityDAO).countStaged();
   }
 
@@ -224,6 +297,78 @@ public class RecoveryImplTest extends RecoveryTestCase {
     verify(transactionManager).storePayload(encodedPayload2);
   }
 
+  @Test
+  public void testSyncStoresEachStageThroughExecutorInOrder() {
+
+    final AtomicInteger executed = new AtomicInteger();
+    final Executor executor =
+        task -> {
+          executed.incrementAndGet();
+          task.run();
+        };
+    final Recovery concurrentRecovery =
+        new RecoveryImpl(
+            stagingEntityDAO, discovery, transactionRequester, transactionManager, 0, executor);
+
+    StagingTransaction first = mock(StagingTransaction.class);
+    StagingTransaction second = mock(StagingTransaction.class);
+    StagingTransaction dependent = mock(StagingTransaction.class);
+    when(first.getHash()).thenReturn("TXN1");
+    when(second.getHash()).thenReturn("TXN2");
+    when(dependent.getHash()).thenReturn("TXN3");
+    when(first.getValidationStage()).thenReturn(1L);
+    when(second.getValidationStage()).thenReturn(1L);
+    when(dependent.getValidationStage()).thenReturn(2L);
+
+    EncodedPayload firstPayload = mock(EncodedPayload.class);
+    EncodedPayload secondPayload = mock(EncodedPayload.class);
+    EncodedPayload dependentPayload = mock(EncodedPayload.class);
+    when(first.getEncodedPayload()).thenReturn(firstPayload);
+    when(second.getEncodedPayload()).thenReturn(secondPayload);
+    when(dependent.getEncodedPayload()).thenReturn(dependentPayload);
+
+    when(stagingEntityDAO.retrieveTransactionBatchOrderByStageAndHash(anyInt(), anyInt()))
+        .thenReturn(List.of(first, second, dependent));
+    when(stagingEntityDAO.countAll()).thenReturn(3L);
+
+    RecoveryResult result = concurrentRecovery.sync();
+
+    assertThat(result).isEqualTo(RecoveryResult.SUCCESS);
+    assertThat(executed).hasValue(3);
+
+    verify(stagingEntityDAO).retrieveTransactionBatchOrderByStageAndHash(anyInt(), anyInt());
+    verify(stagingEntityDAO, times(2)).countAll();
+
+    final var inOrder = inOrder(transactionManager);
+    inOrder.verify(transactionManager).storePayload(firstPayload);
+    inOrder.verify(transactionManager).storePayload(secondPayload);
+    inOrder.verify(transactionManager).storePayload(dependentPayload);
+  }
+
+  @Test
+  public void testSyncRethrowsUnexpectedErrors() {
+
+    StagingTransaction version1 = mock(StagingTransaction.class);
+    when(version1.getHash()).thenReturn("TXN1");
+    EncodedPayload encodedPayload = mock(EncodedPayload.class);
+    when(version1.getEncodedPayload()).thenReturn(encodedPayload);
+
+    when(stagingEntityDAO.retrieveTransactionBatchOrderByStageAndHash(anyInt(), anyInt()))
+        .thenReturn(List.of(version1));
+    when(stagingEntityDAO.countAll()).thenReturn(1L);
+
+    final IllegalStateException error = new IllegalStateException("boom");
+    when(transactionManager.storePayload(encodedPayload)).thenThrow(error);
+
+    final Throwable ex = catchThrowable(() -> recovery.sync());
+
+    assertThat(ex).isSameAs(error);
+
+    verify(stagingEntityDAO).retrieveTransactionBatchOrderByStageAndHash(anyInt(), anyInt());
+    verify(stagingEntityDAO).countAll();
+    verify(transactionManager).storePayload(encodedPayload);
+  }
+
   @Test
   public void testSyncFailed() {
 
@@ -3,11 +3,15 @@ package com.quorum.tessera.recovery.internal;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.data.staging.StagingEntityDAO;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.recovery.Recovery;
 import com.quorum.tessera.recovery.resend.BatchTransactionRequester;
 import com.quorum.tessera.transaction.TransactionManager;
+import java.util.Map;
 import org.junit.Test;
 
 public class RecoveryProviderTest {
@@ -23,7 +27,9 @@ public class RecoveryProviderTest {
     try (var staticStagingEntityDAO = mockStatic(StagingEntityDAO.class);
         var staticDiscovery = mockStatic(Discovery.class);
         var staticBatchTransactionRequester = mockStatic(BatchTransactionRequester.class);
-        var staticTransactionManager = mockStatic(TransactionManager.class)) {
+        var staticTransactionManager = mockStatic(TransactionManager.class);
+        var staticConfigFactory = mockStatic(ConfigFactory.class)) {
+      staticConfigFactory.when(ConfigFactory::create).thenReturn(configFactory());
 
       staticStagingEntityDAO
           .when(StagingEntityDAO::create)
@@ -54,6 +60,18 @@ public class RecoveryProviderTest {
 
       staticTransactionManager.verify(TransactionManager::create);
       staticTransactionManager.verifyNoMoreInteractions();
+
+      staticConfigFactory.verify(ConfigFactory::create);
     }
   }
+
+  private static ConfigFactory configFactory() {
+    final ServerConfig serverConfig = mock(ServerConfig.class);
+    when(serverConfig.getProperties()).thenReturn(Map.of());
+    final Config config = mock(Config.class);
+    when(config.getP2PServerConfig()).thenReturn(serverConfig);
+    final ConfigFactory configFactory = mock(ConfigFactory.class);
+    when(configFactory.getConfig()).thenReturn(config);
+    return configFactory;
+  }
 }
@@ -1,6 +1,7 @@
 package com.quorum.tessera.recovery.workflow;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.enclave.EncodedPayload;
@@ -8,6 +9,9 @@ import com.quorum.tessera.encryption.PublicKey;
 import com.quorum.tessera.partyinfo.node.Recipient;
 import com.quorum.tessera.recovery.resend.ResendBatchPublisher;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.IntStream;
 import org.junit.After;
 import org.junit.Before;
@@ -209,4 +213,64 @@ public class EncodedPayloadPublisherTest {
     verify(resendBatchPublisher, times(3)).publishBatch(batchTwo, "http://junit.com");
     verify(resendBatchPublisher).publishBatch(leftovers, "http://junit.com");
   }
+
+  @Test
+  public void batchesArePushedOnExecutorAndAwaited() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    final EncodedPayloadPublisher asyncPublisher =
+        new EncodedPayloadPublisher(resendBatchPublisher, executor, 2);
+
+    final CountDownLatch release = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              release.await();
+              return null;
+            })
+        .when(resendBatchPublisher)
+        .publishBatch(anyList(), anyString());
+
+    final BatchWorkflowContext context = context(2, 9L);
+    try {
+      IntStream.range(0, 4).forEach(i -> asyncPublisher.execute(context));
+
+      // both batches are in flight, so the caller was not held up by the slow pushes
+      assertThat(asyncPublisher.getPublishedCount()).isEqualTo(4);
+
+      release.countDown();
+      asyncPublisher.awaitPublished();
+    } finally {
+      executor.shutdown();
+    }
+
+    verify(resendBatchPublisher, times(2)).publishBatch(anyList(), eq("http://junit.com"));
+  }
+
+  @Test
+  public void failedPushIsRethrownWhenAwaited() {
+    final EncodedPayloadPublisher asyncPublisher =
+        new EncodedPayloadPublisher(resendBatchPublisher, Runnable::run, 2);
+
+    final RuntimeException failure = new RuntimeException("OUCH");
+    doThrow(failure).when(resendBatchPublisher).publishBatch(anyList(), anyString());
+
+    final BatchWorkflowContext context = context(1, 9L);
+    asyncPublisher.execute(context);
+
+    assertThatThrownBy(asyncPublisher::awaitPublished).isSameAs(failure);
+    assertThatThrownBy(() -> asyncPublisher.execute(context)).isSameAs(failure);
+
+    verify(resendBatchPublisher).publishBatch(anyList(), eq("http://junit.com"));
+  }
+
+  private static BatchWorkflowContext context(int batchSize, long expectedTotal) {
+    final BatchWorkflowContext context = new BatchWorkflowContext();
+    context.setBatchSize(batchSize);
+    context.setExpectedTotal(expectedTotal);
+    context.setPayloadsToPublish(Set.of(mock(EncodedPayload.class)));
+    context.setRecipientKey(mock(PublicKey.class));
+    final Recipient recipient = mock(Recipient.class);
+    when(recipient.getUrl()).thenReturn("http://junit.com");
+    context.setRecipient(recipient);
+    return context;
+  }
 }
@@ -3,13 +3,14 @@ package com.quorum.tessera.recovery.workflow.internal;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.AdditionalMatchers.gt;
-import static org.mockito.AdditionalMatchers.lt;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.Mockito.*;
 
 import com.quorum.tessera.base64.Base64Codec;
 import com.quorum.tessera.data.EncryptedTransaction;
 import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.data.PageCursor;
 import com.quorum.tessera.data.staging.StagingEntityDAO;
 import com.quorum.tessera.data.staging.StagingTransaction;
 import com.quorum.tessera.enclave.*;
@@ -22,9 +23,12 @@ import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.BatchWorkflow;
 import com.quorum.tessera.recovery.workflow.BatchWorkflowContext;
 import com.quorum.tessera.recovery.workflow.BatchWorkflowFactory;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.junit.After;
@@ -73,16 +77,10 @@ public class BatchResendManagerImplTest {
     ResendBatchRequest request =
         ResendBatchRequest.Builder.create().withBatchSize(3).withPublicKey(KEY_STRING).build();
 
-    List<EncryptedTransaction> transactions =
-        IntStream.range(0, 5)
-            .mapToObj(i -> mock(EncryptedTransaction.class))
-            .collect(Collectors.toUnmodifiableList());
 
     when(encryptedTransactionDAO.transactionCount()).thenReturn(101L);
 
-    when(encryptedTransactionDAO.retrieveTransactions(lt(100), anyInt())).thenReturn(transactions);
-    when(encryptedTransactionDAO.retrieveTransactions(gt(99), anyInt()))
-        .thenReturn(singletonList(mock(EncryptedTransaction.class)));
+    stubTransactionPages(101);
 
     BatchWorkflow batchWorkflow = mock(BatchWorkflow.class);
     when(batchWorkflow.getPublishedMessageCount()).thenReturn(999L);
@@ -94,9 +92,14 @@ public class BatchResendManagerImplTest {
     assertThat(result.getTotal()).isEqualTo(999L);
     verify(batchWorkflow).getPublishedMessageCount();
 
-    verify(batchWorkflow, times(101)).execute(any(BatchWorkflowContext.class));
+    verify(batchWorkflow, times(101)).prepare(any(BatchWorkflowContext.class));
+    verify(batchWorkflow, times(101)).publish(any(BatchWorkflowContext.class), eq(false));
+    verify(batchWorkflow).awaitPublished();
 
-    verify(encryptedTransactionDAO, times(21)).retrieveTransactions(anyInt(), anyInt());
+    verify(encryptedTransactionDAO).streamTransactions(5);
+    verify(encryptedTransactionDAO, times(21)).retrieveTransactions(any(PageCursor.class), eq(5));
+    verify(encryptedTransactionDAO, times(21)).indexRecipients(anyList());
+    verify(encryptedTransactionDAO).isRecipientIndexComplete();
 
     verify(encryptedTransactionDAO).transactionCount();
 
@@ -109,10 +112,6 @@ public class BatchResendManagerImplTest {
     final ResendBatchRequest request =
         ResendBatchRequest.Builder.create().withPublicKey(KEY_STRING).build();
 
-    List<EncryptedTransaction> transactions =
-        IntStream.range(0, 5)
-            .mapToObj(i -> mock(EncryptedTransaction.class))
-            .collect(Collectors.toUnmodifiableList());
 
     when(encryptedTransactionDAO.transactionCount()).thenReturn(101L);
 
@@ -123,17 +122,20 @@ public class BatchResendManagerImplTest {
 
     when(batchWorkflowFactory.create(101L)).thenReturn(batchWorkflow);
 
-    when(encryptedTransactionDAO.retrieveTransactions(lt(100), anyInt())).thenReturn(transactions);
-    when(encryptedTransactionDAO.retrieveTransactions(gt(99), anyInt()))
-        .thenReturn(List.of(mock(EncryptedTransaction.class)));
+    stubTransactionPages(101);
 
     final ResendBatchResponse result = manager.resendBatch(request);
 
     assertThat(result.getTotal()).isEqualTo(999L);
 
-    verify(batchWorkflow, times(101)).execute(any(BatchWorkflowContext.class));
+    verify(batchWorkflow, times(101)).prepare(any(BatchWorkflowContext.class));
+    verify(batchWorkflow, times(101)).publish(any(BatchWorkflowContext.class), eq(false));
+    verify(batchWorkflow).awaitPublished();
 
-    verify(encryptedTransactionDAO, times(21)).retrieveTransactions(anyInt(), anyInt());
+    verify(encryptedTransactionDAO).streamTransactions(5);
+    verify(encryptedTransactionDAO, times(21)).retrieveTransactions(any(PageCursor.class), eq(5));
+    verify(encryptedTransactionDAO, times(21)).indexRecipients(anyList());
+    verify(encryptedTransactionDAO).isRecipientIndexComplete();
     verify(encryptedTransactionDAO).transactionCount();
 
     verify(batchWorkflowFactory).create(101L);
@@ -148,16 +150,10 @@ public class BatchResendManagerImplTest {
             .withPublicKey(KEY_STRING)
             .build();
 
-    List<EncryptedTransaction> transactions =
-        IntStream.range(0, 5)
-            .mapToObj(i -> mock(EncryptedTransaction.class))
-            .collect(Collectors.toUnmodifiableList());
 
     when(encryptedTransactionDAO.transactionCount()).thenReturn(101L);
 
-    when(encryptedTransactionDAO.retrieveTransactions(lt(100), anyInt())).thenReturn(transactions);
-    when(encryptedTransactionDAO.retrieveTransactions(gt(99), anyInt()))
-        .thenReturn(singletonList(mock(EncryptedTransaction.class)));
+    stubTransactionPages(101);
 
     final BatchWorkflow batchWorkflow = mock(BatchWorkflow.class);
     when(batchWorkflow.getPublishedMessageCount()).thenReturn(999L);
@@ -166,9 +162,14 @@ public class BatchResendManagerImplTest {
     final ResendBatchResponse result = manager.resendBatch(request);
     assertThat(result.getTotal()).isEqualTo(999L);
 
-    verify(batchWorkflow, times(101)).execute(any(BatchWorkflowContext.class));
+    verify(batchWorkflow, times(101)).prepare(any(BatchWorkflowContext.class));
+    verify(batchWorkflow, times(101)).publish(any(BatchWorkflowContext.class), eq(false));
+    verify(batchWorkflow).awaitPublished();
 
-    verify(encryptedTransactionDAO, times(21)).retrieveTransactions(anyInt(), anyInt());
+    verify(encryptedTransactionDAO).streamTransactions(5);
+    verify(encryptedTransactionDAO, times(21)).retrieveTransactions(any(PageCursor.class), eq(5));
+    verify(encryptedTransactionDAO, times(21)).indexRecipients(anyList());
+    verify(encryptedTransactionDAO).isRecipientIndexComplete();
 
     verify(encryptedTransactionDAO).transactionCount();
 
@@ -176,31 +177,151 @@ public class BatchResendManagerImplTest {
   }
 
   @Test
-  public void createWithMinimalConstructor() {
-    assertThat(
-            new BatchResendManagerImpl(
-                stagingEntityDAO, encryptedTransactionDAO, 1, mock(BatchWorkflowFactory.class)))
-        .isNotNull();
+  public void resendBatchUsesRecipientIndexWhenComplete() {
+
+    final ResendBatchRequest request =
+        ResendBatchRequest.Builder.create().withBatchSize(3).withPublicKey(KEY_STRING).build();
+
+    final List<MessageHash> hashes =
+        IntStream.range(0, 5)
+            .mapToObj(i -> new MessageHash(new byte[] {(byte) i}))
+            .collect(Collectors.toUnmodifiableList());
+    final List<EncryptedTransaction> transactions =
+        IntStream.range(0, 5)
+            .mapToObj(i -> mock(EncryptedTransaction.class))
+            .collect(Collectors.toUnmodifiableList());
+
+    when(encryptedTransactionDAO.isRecipientIndexComplete()).thenReturn(true);
+    when(encryptedTransactionDAO.transactionCountForRecipient(publicKey)).thenReturn(7L);
+    when(encryptedTransactionDAO.streamHashesForRecipient(publicKey, 5)).thenCallRealMethod();
+    when(encryptedTransactionDAO.findHashesForRecipient(publicKey, null, 5)).thenReturn(hashes);
+    when(encryptedTransactionDAO.findHashesForRecipient(publicKey, hashes.get(4), 5))
+        .thenReturn(hashes.subList(0, 2));
+    when(encryptedTransactionDAO.findByHashes(hashes)).thenReturn(transactions);
+    when(encryptedTransactionDAO.findByHashes(hashes.subList(0, 2)))
+        .thenReturn(transactions.subList(0, 2));
+
+    final BatchWorkflow batchWorkflow = mock(BatchWorkflow.class);
+    when(batchWorkflow.getPublishedMessageCount()).thenReturn(7L);
+    when(batchWorkflowFactory.create(7L)).thenReturn(batchWorkflow);
+
+    final ResendBatchResponse result = manager.resendBatch(request);
+
+    assertThat(result.getTotal()).isEqualTo(7L);
+    verify(batchWorkflow, times(7)).prepare(any(BatchWorkflowContext.class));
+    verify(batchWorkflow, times(7)).publish(any(BatchWorkflowContext.class), eq(false));
+    verify(batchWorkflow).awaitPublished();
+    verify(batchWorkflow).getPublishedMessageCount();
+
+    verify(encryptedTransactionDAO).isRecipientIndexComplete();
+    verify(encryptedTransactionDAO).transactionCountForRecipient(publicKey);
+    verify(encryptedTransactionDAO).streamHashesForRecipient(publicKey, 5);
+    verify(encryptedTransactionDAO).findHashesForRecipient(publicKey, null, 5);
+    verify(encryptedTransactionDAO).findHashesForRecipient(publicKey, hashes.get(4), 5);
+    verify(encryptedTransactionDAO, times(2)).findByHashes(anyCollection());
+    verify(batchWorkflowFactory).create(7L);
   }
 
   @Test
-  public void calculateBatchCount() {
-    long numberOfRecords = 10;
-    long maxResults = 3;
+  public void pipelinedResendPublishesInReadOrder() throws Exception {
 
-    int batchCount = BatchResendManagerImpl.calculateBatchCount(maxResults, numberOfRecords);
+    final ResendBatchRequest request =
+        ResendBatchRequest.Builder.create().withBatchSize(3).withPublicKey(KEY_STRING).build();
+
+    when(encryptedTransactionDAO.transactionCount()).thenReturn(101L);
+    stubTransactionPages(101);
 
-    assertThat(batchCount).isEqualTo(4);
+    final List<MessageHash> published = new ArrayList<>();
+    final BatchWorkflow batchWorkflow = mock(BatchWorkflow.class);
+    when(batchWorkflow.prepare(any(BatchWorkflowContext.class)))
+        .thenAnswer(
+            invocation -> {
+              // later transactions finish preparing first, which must not reorder publishing
+              final BatchWorkflowContext context = invocation.getArgument(0);
+              final String hash =
+                  new String(context.getEncryptedTransaction().getHash().getHashBytes());
+              final int index = Integer.parseInt(hash.substring(2));
+              Thread.sleep(index % 3);
+              return index % 2 == 0;
+            });
+    when(batchWorkflow.publish(any(BatchWorkflowContext.class), anyBoolean()))
+        .thenAnswer(
+            invocation -> {
+              final BatchWorkflowContext context = invocation.getArgument(0);
+              published.add(context.getEncryptedTransaction().getHash());
+              return invocation.getArgument(1);
+            });
+    when(batchWorkflow.getPublishedMessageCount()).thenReturn(51L);
+    when(batchWorkflowFactory.create(101L)).thenReturn(batchWorkflow);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final BatchResendManager pipelined =
+          new BatchResendManagerImpl(
+              stagingEntityDAO, encryptedTransactionDAO, 5, batchWorkflowFactory, executor, 8);
+
+      final ResendBatchResponse result = pipelined.resendBatch(request);
+
+      assertThat(result.getTotal()).isEqualTo(51L);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(published)
+        .containsExactlyElementsOf(
+            IntStream.range(0, 101)
+                .mapToObj(i -> new MessageHash(("tx" + i).getBytes()))
+                .collect(Collectors.toList()));
+
+    verify(batchWorkflow, times(101)).prepare(any(BatchWorkflowContext.class));
+    verify(batchWorkflow, times(51)).publish(any(BatchWorkflowContext.class), eq(true));
+    verify(batchWorkflow, times(50)).publish(any(BatchWorkflowContext.class), eq(false));
+    verify(batchWorkflow).awaitPublished();
+    verify(batchWorkflow).getPublishedMessageCount();
+
+    verify(encryptedTransactionDAO).streamTransactions(5);
+    verify(encryptedTransactionDAO, times(21)).retrieveTransactions(any(PageCursor.class), eq(5));
+    verify(encryptedTransactionDAO, times(21)).indexRecipients(anyList());
+    verify(encryptedTransactionDAO).isRecipientIndexComplete();
+    verify(encryptedTransactionDAO).transactionCount();
+    verify(batchWorkflowFactory).create(101L);
   }
 
   @Test
-  public void calculateBatchCountTotalLowerThanBatchSizeIsSingleBatch() {
-    long numberOfRecords = 100;
-    long maxResults = 10;
+  public void failureWhilePreparingIsRethrown() {
+
+    final ResendBatchRequest request =
+        ResendBatchRequest.Builder.create().withBatchSize(3).withPublicKey(KEY_STRING).build();
+
+    when(encryptedTransactionDAO.transactionCount()).thenReturn(101L);
+    stubTransactionPages(101);
 
-    int batchCount = BatchResendManagerImpl.calculateBatchCount(maxResults, numberOfRecords);
+    final BatchWorkflow batchWorkflow = mock(BatchWorkflow.class);
+    when(batchWorkflow.prepare(any(BatchWorkflowContext.class)))
+        .thenThrow(new EnclaveNotAvailableException());
+    when(batchWorkflowFactory.create(101L)).thenReturn(batchWorkflow);
+
+    final Throwable ex = catchThrowable(() -> manager.resendBatch(request));
+
+    assertThat(ex).isExactlyInstanceOf(EnclaveNotAvailableException.class);
+
+    verify(batchWorkflow).prepare(any(BatchWorkflowContext.class));
+    verifyNoMoreInteractions(batchWorkflow);
 
-    assertThat(batchCount).isEqualTo(10);
+    verify(encryptedTransactionDAO).streamTransactions(5);
+    verify(encryptedTransactionDAO).retrieveTransactions(any(PageCursor.class), eq(5));
+    verify(encryptedTransactionDAO).indexRecipients(anyList());
+    verify(encryptedTransactionDAO).isRecipientIndexComplete();
+    verify(encryptedTransactionDAO).transactionCount();
+    verify(batchWorkflowFactory).create(101L);
+  }
+
+  @Test
+  public void createWithMinimalConstructor() {
+    assertThat(
+            new BatchResendManagerImpl(
+                stagingEntityDAO, encryptedTransactionDAO, 1, mock(BatchWorkflowFactory.class)))
+        .isNotNull();
   }
 
   @Test
@@ -271,4 +392,20 @@ public class BatchResendManagerImplTest {
       payloadDigestMockedStatic.verifyNoMoreInteractions();
     }
   }
+
+  private void stubTransactionPages(int total) {
+    final List<List<EncryptedTransaction>> pages =
+        IntStream.range(0, (total + 4) / 5)
+            .mapToObj(
+                page ->
+                    IntStream.range(page * 5, Math.min(total, page * 5 + 5))
+                        .mapToObj(i -> new MessageHash(("tx" + i).getBytes()))
+                        .map(hash -> new EncryptedTransaction(hash, null))
+                        .collect(Collectors.toUnmodifiableList()))
+            .collect(Collectors.toList());
+
+    when(encryptedTransactionDAO.streamTransactions(anyInt())).thenCallRealMethod();
+    when(encryptedTransactionDAO.retrieveTransactions(any(PageCursor.class), anyInt()))
+        .thenReturn(pages.get(0), pages.subList(1, pages.size()).toArray(List[]::new));
+  }
 }
@@ -3,10 +3,14 @@ package com.quorum.tessera.recovery.workflow.internal;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.data.staging.StagingEntityDAO;
 import com.quorum.tessera.recovery.workflow.BatchResendManager;
 import com.quorum.tessera.recovery.workflow.BatchWorkflowFactory;
+import java.util.Map;
 import org.junit.Test;
 
 public class BatchResendManagerProviderTest {
@@ -21,7 +25,9 @@ public class BatchResendManagerProviderTest {
 
     try (var staticEncryptedTransactionDAO = mockStatic(EncryptedTransactionDAO.class);
         var staticStagingEntityDAO = mockStatic(StagingEntityDAO.class);
-        var staticBatchWorkflowFactory = mockStatic(BatchWorkflowFactory.class); ) {
+        var staticBatchWorkflowFactory = mockStatic(BatchWorkflowFactory.class);
+        var staticConfigFactory = mockStatic(ConfigFactory.class)) {
+      staticConfigFactory.when(ConfigFactory::create).thenReturn(configFactory());
 
       staticEncryptedTransactionDAO
           .when(EncryptedTransactionDAO::create)
@@ -40,6 +46,8 @@ public class BatchResendManagerProviderTest {
       staticStagingEntityDAO.verify(StagingEntityDAO::create);
       staticBatchWorkflowFactory.verify(BatchWorkflowFactory::create);
 
+      staticConfigFactory.verify(ConfigFactory::create);
+
       staticEncryptedTransactionDAO.verifyNoMoreInteractions();
       staticStagingEntityDAO.verifyNoMoreInteractions();
       staticBatchWorkflowFactory.verifyNoMoreInteractions();
@@ -51,4 +59,24 @@ public class BatchResendManagerProviderTest {
       assertThat(BatchResendManagerProvider.provider()).isSameAs(batchResendManager);
     }
   }
+
+  @Test
+  public void intPropertyFallsBackToDefaultWhenInvalid() {
+    final Map<String, String> properties = Map.of("valid", "8", "zero", "0", "text", "lots");
+
+    assertThat(BatchResendManagerProvider.intProperty(properties, "valid", 64)).isEqualTo(8);
+    assertThat(BatchResendManagerProvider.intProperty(properties, "zero", 64)).isEqualTo(64);
+    assertThat(BatchResendManagerProvider.intProperty(properties, "text", 64)).isEqualTo(64);
+    assertThat(BatchResendManagerProvider.intProperty(properties, "missing", 64)).isEqualTo(64);
+  }
+
+  private static ConfigFactory configFactory() {
+    final ServerConfig serverConfig = mock(ServerConfig.class);
+    when(serverConfig.getProperties()).thenReturn(Map.of());
+    final Config config = mock(Config.class);
+    when(config.getP2PServerConfig()).thenReturn(serverConfig);
+    final ConfigFactory configFactory = mock(ConfigFactory.class);
+    when(configFactory.getConfig()).thenReturn(config);
+    return configFactory;
+  }
 }
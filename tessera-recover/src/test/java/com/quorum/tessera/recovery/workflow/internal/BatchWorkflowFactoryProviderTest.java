@@ -3,10 +3,14 @@ package com.quorum.tessera.recovery.workflow.internal;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
+import com.quorum.tessera.config.Config;
+import com.quorum.tessera.config.ConfigFactory;
+import com.quorum.tessera.config.ServerConfig;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.recovery.resend.ResendBatchPublisher;
 import com.quorum.tessera.recovery.workflow.BatchWorkflowFactory;
+import java.util.Map;
 import org.junit.Test;
 
 public class BatchWorkflowFactoryProviderTest {
@@ -21,7 +25,9 @@ public class BatchWorkflowFactoryProviderTest {
 
     try (var staticEnclave = mockStatic(Enclave.class);
         var staticDiscovery = mockStatic(Discovery.class);
-        var staticResendBatchPublisher = mockStatic(ResendBatchPublisher.class)) {
+        var staticResendBatchPublisher = mockStatic(ResendBatchPublisher.class);
+        var staticConfigFactory = mockStatic(ConfigFactory.class)) {
+      staticConfigFactory.when(ConfigFactory::create).thenReturn(configFactory());
       staticEnclave.when(Enclave::create).thenReturn(mock(Enclave.class));
       staticDiscovery.when(Discovery::create).thenReturn(mock(Discovery.class));
       staticResendBatchPublisher
@@ -37,9 +43,21 @@ public class BatchWorkflowFactoryProviderTest {
       staticDiscovery.verify(Discovery::create);
       staticResendBatchPublisher.verify(ResendBatchPublisher::create);
 
+      staticConfigFactory.verify(ConfigFactory::create);
+
       staticEnclave.verifyNoMoreInteractions();
       staticDiscovery.verifyNoMoreInteractions();
       staticResendBatchPublisher.verifyNoMoreInteractions();
     }
   }
+
+  private static ConfigFactory configFactory() {
+    final ServerConfig serverConfig = mock(ServerConfig.class);
+    when(serverConfig.getProperties()).thenReturn(Map.of());
+    final Config config = mock(Config.class);
+    when(config.getP2PServerConfig()).thenReturn(serverConfig);
+    final ConfigFactory configFactory = mock(ConfigFactory.class);
+    when(configFactory.getConfig()).thenReturn(config);
+    return configFactory;
+  }
 }
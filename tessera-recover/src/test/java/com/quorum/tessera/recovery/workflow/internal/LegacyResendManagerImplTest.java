@@ -8,6 +8,7 @@ import static org.mockito.Mockito.*;
 import com.quorum.tessera.data.EncryptedTransaction;
 import com.quorum.tessera.data.EncryptedTransactionDAO;
 import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.data.PageCursor;
 import com.quorum.tessera.discovery.Discovery;
 import com.quorum.tessera.enclave.Enclave;
 import com.quorum.tessera.enclave.EncodedPayload;
@@ -192,17 +193,57 @@ public class LegacyResendManagerImplTest {
     // We are not testing the workflow itself, only that the workflow gets the right amount of
     // transactions
 
-    when(dao.transactionCount()).thenReturn(2L);
-    when(dao.retrieveTransactions(0, 1)).thenReturn(List.of(new EncryptedTransaction()));
-    when(dao.retrieveTransactions(1, 1)).thenReturn(List.of(new EncryptedTransaction()));
+    final EncryptedTransaction first =
+        new EncryptedTransaction(new MessageHash("first".getBytes()), null);
+    final EncryptedTransaction second =
+        new EncryptedTransaction(new MessageHash("second".getBytes()), null);
+
+    when(dao.streamTransactions(1)).thenCallRealMethod();
+    when(dao.retrieveTransactions(any(PageCursor.class), eq(1)))
+        .thenReturn(List.of(first), List.of(second), List.of());
 
     final ResendResponse response = resendManager.resend(request);
     assertThat(response).isNotNull();
     assertThat(response.getPayload()).isNull();
 
     verify(enclave, times(2)).status();
-    verify(dao).transactionCount();
-    verify(dao).retrieveTransactions(0, 1);
-    verify(dao).retrieveTransactions(1, 1);
+    verify(dao).streamTransactions(1);
+    verify(dao, times(3)).retrieveTransactions(any(PageCursor.class), eq(1));
+    verify(dao, times(2)).indexRecipients(anyList());
+    verify(dao).isRecipientIndexComplete();
+  }
+
+  @Test
+  public void performResendAllUsesRecipientIndexWhenComplete() {
+    final PublicKey targetResendKey = PublicKey.from("target".getBytes());
+    final ResendRequest request =
+        ResendRequest.Builder.create()
+            .withType(ResendRequest.ResendRequestType.ALL)
+            .withRecipient(targetResendKey)
+            .build();
+
+    final MessageHash firstHash = new MessageHash("first".getBytes());
+    final MessageHash secondHash = new MessageHash("second".getBytes());
+
+    when(dao.isRecipientIndexComplete()).thenReturn(true);
+    when(dao.streamHashesForRecipient(targetResendKey, 1)).thenCallRealMethod();
+    when(dao.findHashesForRecipient(targetResendKey, null, 1)).thenReturn(List.of(firstHash));
+    when(dao.findHashesForRecipient(targetResendKey, firstHash, 1))
+        .thenReturn(List.of(secondHash));
+    when(dao.findHashesForRecipient(targetResendKey, secondHash, 1)).thenReturn(List.of());
+    when(dao.findByHashes(List.of(firstHash))).thenReturn(List.of(new EncryptedTransaction()));
+    when(dao.findByHashes(List.of(secondHash))).thenReturn(List.of(new EncryptedTransaction()));
+
+    final ResendResponse response = resendManager.resend(request);
+    assertThat(response).isNotNull();
+
+    verify(enclave, times(2)).status();
+    verify(dao).isRecipientIndexComplete();
+    verify(dao).streamHashesForRecipient(targetResendKey, 1);
+    verify(dao).findHashesForRecipient(targetResendKey, null, 1);
+    verify(dao).findHashesForRecipient(targetResendKey, firstHash, 1);
+    verify(dao).findHashesForRecipient(targetResendKey, secondHash, 1);
+    verify(dao).findByHashes(List.of(firstHash));
+    verify(dao).findByHashes(List.of(secondHash));
   }
 }
@@ -0,0 +1,85 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.encryption.Encryptor;
+import com.quorum.tessera.encryption.EncryptorFactory;
+import com.quorum.tessera.encryption.KeyPair;
+import com.quorum.tessera.encryption.Nonce;
+import com.quorum.tessera.encryption.SharedKey;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the primitives of each {@link Encryptor}: the key agreement, and sealing and opening a
+ * message both with and without a precomputed shared key.
+ *
+ * <p>NACL is {@code Jnacl}, CUSTOM is {@code Kalium} and EC is {@code EllipticalCurveEncryptor}.
+ * The CUSTOM (kalium) encryptor requires libsodium to be installed on the host.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EncryptorBenchmark {
+
+  @Param({"NACL", "CUSTOM", "EC"})
+  public String encryptorType;
+
+  @Param({"32", "1024", "16384", "262144"})
+  public int payloadSize;
+
+  private Encryptor encryptor;
+
+  private KeyPair sender;
+
+  private KeyPair recipient;
+
+  private SharedKey sharedKey;
+
+  private Nonce nonce;
+
+  private byte[] message;
+
+  private byte[] sealed;
+
+  private byte[] sealedAfterPrecomputation;
+
+  @Setup
+  public void setUp() {
+    encryptor = EncryptorFactory.newFactory(encryptorType).create();
+    sender = encryptor.generateNewKeys();
+    recipient = encryptor.generateNewKeys();
+    sharedKey = encryptor.computeSharedKey(recipient.getPublicKey(), sender.getPrivateKey());
+    nonce = encryptor.randomNonce();
+
+    message = new byte[payloadSize];
+    new Random(payloadSize).nextBytes(message);
+
+    sealed = encryptor.seal(message, nonce, recipient.getPublicKey(), sender.getPrivateKey());
+    sealedAfterPrecomputation = encryptor.sealAfterPrecomputation(message, nonce, sharedKey);
+  }
+
+  @Benchmark
+  public SharedKey computeSharedKey() {
+    return encryptor.computeSharedKey(recipient.getPublicKey(), sender.getPrivateKey());
+  }
+
+  @Benchmark
+  public byte[] seal() {
+    return encryptor.seal(message, nonce, recipient.getPublicKey(), sender.getPrivateKey());
+  }
+
+  @Benchmark
+  public byte[] open() {
+    return encryptor.open(sealed, nonce, sender.getPublicKey(), recipient.getPrivateKey());
+  }
+
+  @Benchmark
+  public byte[] sealAfterPrecomputation() {
+    return encryptor.sealAfterPrecomputation(message, nonce, sharedKey);
+  }
+
+  @Benchmark
+  public byte[] openAfterPrecomputation() {
+    return encryptor.openAfterPrecomputation(sealedAfterPrecomputation, nonce, sharedKey);
+  }
+}
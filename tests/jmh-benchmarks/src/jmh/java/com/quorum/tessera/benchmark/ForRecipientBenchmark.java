@@ -0,0 +1,41 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.PrivacyMode;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link EncodedPayload.Builder#forRecipient}, which strips a payload down to a single
+ * recipient before it is pushed to that recipient's node. The last recipient is chosen so the
+ * lookup of its box has to scan the whole recipient list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ForRecipientBenchmark {
+
+  @Param({"1", "10", "50", "200"})
+  public int recipientCount;
+
+  @Param({"STANDARD_PRIVATE", "PRIVATE_STATE_VALIDATION"})
+  public PrivacyMode privacyMode;
+
+  private EncodedPayload payload;
+
+  private PublicKey recipient;
+
+  @Setup
+  public void setUp() {
+    payload = Payloads.create(recipientCount, 1024, privacyMode);
+    final List<PublicKey> recipients = payload.getRecipientKeys();
+    recipient = recipients.get(recipients.size() - 1);
+  }
+
+  @Benchmark
+  public EncodedPayload forRecipient() {
+    return EncodedPayload.Builder.forRecipient(payload, recipient).build();
+  }
+}
@@ -0,0 +1,54 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.enclave.CBOREncoder;
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.PayloadEncoder;
+import com.quorum.tessera.enclave.PayloadEncoderImpl;
+import com.quorum.tessera.enclave.PrivacyMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the legacy binary {@link PayloadEncoderImpl} with the {@link CBOREncoder}, encoding and
+ * decoding the same payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadEncodingBenchmark {
+
+  @Param({"LEGACY", "CBOR"})
+  public String codec;
+
+  @Param({"1", "10", "100"})
+  public int recipientCount;
+
+  @Param({"1024", "65536"})
+  public int cipherTextSize;
+
+  @Param({"STANDARD_PRIVATE", "PRIVATE_STATE_VALIDATION"})
+  public PrivacyMode privacyMode;
+
+  private PayloadEncoder encoder;
+
+  private EncodedPayload payload;
+
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() {
+    encoder = "CBOR".equals(codec) ? new CBOREncoder() : new PayloadEncoderImpl();
+    payload = Payloads.create(recipientCount, cipherTextSize, privacyMode);
+    encoded = encoder.encode(payload);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return encoder.encode(payload);
+  }
+
+  @Benchmark
+  public EncodedPayload decode() {
+    return encoder.decode(encoded);
+  }
+}
@@ -0,0 +1,63 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.PrivacyMode;
+import com.quorum.tessera.enclave.TxHash;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/** Builds payloads of random bytes, shaped like those the enclave creates */
+final class Payloads {
+
+  private Payloads() {}
+
+  /**
+   * @param recipientCount the number of recipient keys and boxes
+   * @param cipherTextSize the length of the cipher text
+   * @param privacyMode the privacy mode; private state validation payloads also get an execution
+   *     hash and two affected contract transactions
+   */
+  static EncodedPayload create(int recipientCount, int cipherTextSize, PrivacyMode privacyMode) {
+    final Random random = new Random(recipientCount * 31L + cipherTextSize);
+
+    final List<PublicKey> recipients =
+        IntStream.range(0, recipientCount)
+            .mapToObj(i -> PublicKey.from(bytes(random, 32)))
+            .collect(Collectors.toList());
+    final List<byte[]> boxes =
+        IntStream.range(0, recipientCount)
+            .mapToObj(i -> bytes(random, 48))
+            .collect(Collectors.toList());
+
+    final EncodedPayload.Builder builder =
+        EncodedPayload.Builder.create()
+            .withSenderKey(PublicKey.from(bytes(random, 32)))
+            .withCipherText(bytes(random, cipherTextSize))
+            .withCipherTextNonce(bytes(random, 24))
+            .withRecipientNonce(bytes(random, 24))
+            .withRecipientKeys(recipients)
+            .withRecipientBoxes(boxes)
+            .withPrivacyMode(privacyMode);
+
+    if (privacyMode == PrivacyMode.PRIVATE_STATE_VALIDATION) {
+      builder
+          .withExecHash(bytes(random, 64))
+          .withAffectedContractTransactions(
+              Map.of(
+                  new TxHash(bytes(random, 64)), bytes(random, 32),
+                  new TxHash(bytes(random, 64)), bytes(random, 32)));
+    }
+
+    return builder.build();
+  }
+
+  private static byte[] bytes(Random random, int length) {
+    final byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    return bytes;
+  }
+}
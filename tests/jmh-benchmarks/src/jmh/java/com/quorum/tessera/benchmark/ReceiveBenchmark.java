@@ -0,0 +1,145 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.data.EncryptedRawTransactionDAO;
+import com.quorum.tessera.data.EncryptedTransaction;
+import com.quorum.tessera.data.EncryptedTransactionDAO;
+import com.quorum.tessera.data.MessageHash;
+import com.quorum.tessera.enclave.EnclaveImpl;
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.PayloadDigest;
+import com.quorum.tessera.enclave.PrivacyMetadata;
+import com.quorum.tessera.enclave.RecipientBoxSealer;
+import com.quorum.tessera.enclave.SharedKeyCache;
+import com.quorum.tessera.encryption.Encryptor;
+import com.quorum.tessera.encryption.EncryptorFactory;
+import com.quorum.tessera.encryption.KeyManagerImpl;
+import com.quorum.tessera.encryption.KeyPair;
+import com.quorum.tessera.encryption.PublicKey;
+import com.quorum.tessera.transaction.PrivacyHelper;
+import com.quorum.tessera.transaction.ReceiveRequest;
+import com.quorum.tessera.transaction.ReceiveResponse;
+import com.quorum.tessera.transaction.TransactionManager;
+import com.quorum.tessera.transaction.internal.TransactionManagerImpl;
+import com.quorum.tessera.transaction.publish.BatchPayloadPublisher;
+import com.quorum.tessera.transaction.resend.ResendManager;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link TransactionManagerImpl#receive} on a node hosting many keys, where the stored
+ * payload is addressed to the last of them.
+ *
+ * <p>{@code LISTED} payloads carry the recipient key alongside its box, {@code LEGACY} payloads
+ * only carry the box and so have to be trial decrypted with each hosted key. The shared key cache
+ * is disabled so every decryption attempt includes the key agreement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReceiveBenchmark {
+
+  @Param({"100"})
+  public int hostedKeyCount;
+
+  @Param({"LISTED", "LEGACY"})
+  public String storedAs;
+
+  @Param({"true", "false"})
+  public boolean recipientSupplied;
+
+  private TransactionManager transactionManager;
+
+  private ReceiveRequest request;
+
+  @Setup
+  public void setUp() {
+    final Encryptor encryptor = EncryptorFactory.newFactory("NACL").create();
+
+    final List<KeyPair> hostedKeys =
+        IntStream.range(0, hostedKeyCount)
+            .mapToObj(i -> encryptor.generateNewKeys())
+            .collect(Collectors.toList());
+    final EnclaveImpl enclave =
+        new EnclaveImpl(
+            encryptor,
+            new KeyManagerImpl(hostedKeys, Set.of()),
+            SharedKeyCache.disabled(),
+            RecipientBoxSealer.sequential());
+
+    // the key a search over the hosted keys would reach last
+    final PublicKey recipient = List.copyOf(enclave.getPublicKeys()).get(hostedKeyCount - 1);
+
+    final KeyPair senderKeys = encryptor.generateNewKeys();
+    final EnclaveImpl senderEnclave =
+        new EnclaveImpl(
+            encryptor,
+            new KeyManagerImpl(List.of(senderKeys), Set.of()),
+            SharedKeyCache.disabled(),
+            RecipientBoxSealer.sequential());
+    final EncodedPayload sent =
+        senderEnclave.encryptPayload(
+            new byte[1024],
+            senderKeys.getPublicKey(),
+            List.of(recipient),
+            PrivacyMetadata.Builder.forStandardPrivate().build());
+
+    final EncodedPayload received = EncodedPayload.Builder.forRecipient(sent, recipient).build();
+    final EncodedPayload stored =
+        "LEGACY".equals(storedAs)
+            ? EncodedPayload.Builder.from(received).withNewRecipientKeys(List.of()).build()
+            : received;
+
+    final MessageHash hash = new MessageHash(new byte[64]);
+    final EncryptedTransaction transaction = new EncryptedTransaction(hash, stored);
+
+    final EncryptedTransactionDAO encryptedTransactionDAO =
+        (EncryptedTransactionDAO)
+            Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {EncryptedTransactionDAO.class},
+                (proxy, method, args) -> {
+                  if ("retrieveByHash".equals(method.getName())) {
+                    return Optional.of(transaction);
+                  }
+                  throw new UnsupportedOperationException(method.getName());
+                });
+
+    transactionManager =
+        new TransactionManagerImpl(
+            enclave,
+            encryptedTransactionDAO,
+            unsupported(EncryptedRawTransactionDAO.class),
+            unsupported(ResendManager.class),
+            unsupported(BatchPayloadPublisher.class),
+            unsupported(PrivacyHelper.class),
+            unsupported(PayloadDigest.class));
+
+    final ReceiveRequest.Builder requestBuilder =
+        ReceiveRequest.Builder.create().withTransactionHash(hash);
+    if (recipientSupplied) {
+      requestBuilder.withRecipient(recipient);
+    }
+    request = requestBuilder.build();
+  }
+
+  @Benchmark
+  public ReceiveResponse receive() {
+    return transactionManager.receive(request);
+  }
+
+  private static <T> T unsupported(final Class<T> type) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            ReceiveBenchmark.class.getClassLoader(),
+            new Class<?>[] {type},
+            (proxy, method, args) -> {
+              throw new UnsupportedOperationException(method.getName());
+            }));
+  }
+}
@@ -0,0 +1,87 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.enclave.EnclaveImpl;
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.PrivacyMetadata;
+import com.quorum.tessera.enclave.RecipientBoxSealer;
+import com.quorum.tessera.enclave.SharedKeyCache;
+import com.quorum.tessera.encryption.Encryptor;
+import com.quorum.tessera.encryption.EncryptorFactory;
+import com.quorum.tessera.encryption.KeyManagerImpl;
+import com.quorum.tessera.encryption.KeyPair;
+import com.quorum.tessera.encryption.PublicKey;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@link EnclaveImpl#encryptPayload} with sequential and parallel recipient box sealing,
+ * to find the recipient count at which parallel sealing starts to pay off for each encryptor.
+ *
+ * <p>The shared key cache is disabled so every recipient box includes the key agreement. The
+ * CUSTOM (kalium) encryptor requires libsodium to be installed on the host.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RecipientSealingBenchmark {
+
+  @Param({"NACL", "CUSTOM", "EC"})
+  public String encryptorType;
+
+  @Param({"1", "5", "10", "20", "50", "100", "200"})
+  public int recipientCount;
+
+  @Param({"SEQUENTIAL", "PARALLEL"})
+  public String sealing;
+
+  private EnclaveImpl enclave;
+
+  private RecipientBoxSealer sealer;
+
+  private PublicKey sender;
+
+  private List<PublicKey> recipients;
+
+  private final byte[] message = new byte[1024];
+
+  private final PrivacyMetadata privacyMetadata =
+      PrivacyMetadata.Builder.forStandardPrivate().build();
+
+  @Setup
+  public void setUp() {
+    final Encryptor encryptor = EncryptorFactory.newFactory(encryptorType).create();
+    final KeyPair senderKeys = encryptor.generateNewKeys();
+
+    sender = senderKeys.getPublicKey();
+    recipients =
+        IntStream.range(0, recipientCount)
+            .mapToObj(i -> encryptor.generateNewKeys().getPublicKey())
+            .collect(Collectors.toList());
+
+    sealer =
+        "PARALLEL".equals(sealing)
+            ? RecipientBoxSealer.parallel(1, Runtime.getRuntime().availableProcessors())
+            : RecipientBoxSealer.sequential();
+
+    enclave =
+        new EnclaveImpl(
+            encryptor,
+            new KeyManagerImpl(List.of(senderKeys), Set.of()),
+            SharedKeyCache.disabled(),
+            sealer);
+  }
+
+  @TearDown
+  public void tearDown() {
+    sealer.shutdown();
+  }
+
+  @Benchmark
+  public EncodedPayload encryptPayload() {
+    return enclave.encryptPayload(message, sender, recipients, privacyMetadata);
+  }
+}
@@ -0,0 +1,128 @@
+package com.quorum.tessera.benchmark;
+
+import com.quorum.tessera.enclave.EnclaveImpl;
+import com.quorum.tessera.enclave.EncodedPayload;
+import com.quorum.tessera.enclave.PrivacyMetadata;
+import com.quorum.tessera.enclave.RecipientBoxSealer;
+import com.quorum.tessera.enclave.SharedKeyCache;
+import com.quorum.tessera.enclave.rest.EnclaveApplication;
+import com.quorum.tessera.enclave.rest.RestfulEnclaveClient;
+import com.quorum.tessera.encryption.Encryptor;
+import com.quorum.tessera.encryption.EncryptorFactory;
+import com.quorum.tessera.encryption.KeyManagerImpl;
+import com.quorum.tessera.encryption.KeyPair;
+import com.quorum.tessera.encryption.PublicKey;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures calls from {@link RestfulEnclaveClient} to an enclave server running in the same
+ * process, comparing the JSON protocol with one call per request against the CBOR protocol that
+ * batches concurrent calls.
+ *
+ * <p>The enclave uses the NACL encryptor with the shared key cache enabled, so that the numbers
+ * are dominated by serialisation and transport rather than by key agreement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class RemoteEnclaveBenchmark {
+
+  @Param({"JSON", "BINARY"})
+  public String protocol;
+
+  @Param({"1", "10"})
+  public int recipientCount;
+
+  @Param({"1024"})
+  public int messageSize;
+
+  private HttpServer server;
+
+  private Client client;
+
+  private ExecutorService statusExecutor;
+
+  private RestfulEnclaveClient enclaveClient;
+
+  private PublicKey sender;
+
+  private List<PublicKey> recipients;
+
+  private byte[] message;
+
+  private EncodedPayload payload;
+
+  private final PrivacyMetadata privacyMetadata =
+      PrivacyMetadata.Builder.forStandardPrivate().build();
+
+  @Setup
+  public void setUp() {
+    final Encryptor encryptor = EncryptorFactory.newFactory("NACL").create();
+    final KeyPair senderKeys = encryptor.generateNewKeys();
+
+    sender = senderKeys.getPublicKey();
+    recipients =
+        Stream.concat(
+                Stream.of(sender),
+                Stream.generate(() -> encryptor.generateNewKeys().getPublicKey())
+                    .limit(recipientCount - 1))
+            .collect(Collectors.toList());
+    message = new byte[messageSize];
+
+    final EnclaveImpl enclave =
+        new EnclaveImpl(
+            encryptor,
+            new KeyManagerImpl(List.of(senderKeys), Set.of()),
+            SharedKeyCache.create(Map.of()),
+            RecipientBoxSealer.sequential());
+    payload = enclave.encryptPayload(message, sender, recipients, privacyMetadata);
+
+    final URI uri = URI.create("http://localhost:18099/");
+    server =
+        GrizzlyHttpServerFactory.createHttpServer(
+            uri, ResourceConfig.forApplication(new EnclaveApplication(enclave)));
+
+    client = ClientBuilder.newClient();
+    statusExecutor = Executors.newSingleThreadExecutor();
+    enclaveClient =
+        new RestfulEnclaveClient(
+            client,
+            uri,
+            statusExecutor,
+            RestfulEnclaveClient.DEFAULT_KEY_REFRESH_INTERVAL,
+            "BINARY".equals(protocol) ? RestfulEnclaveClient.DEFAULT_MAX_BATCH_SIZE : 0,
+            RestfulEnclaveClient.DEFAULT_MAX_IN_FLIGHT_BATCHES);
+  }
+
+  @TearDown
+  public void tearDown() {
+    client.close();
+    statusExecutor.shutdown();
+    server.shutdownNow();
+  }
+
+  @Benchmark
+  public EncodedPayload encryptPayload() {
+    return enclaveClient.encryptPayload(message, sender, recipients, privacyMetadata);
+  }
+
+  @Benchmark
+  public byte[] unencryptTransaction() {
+    return enclaveClient.unencryptTransaction(payload, sender);
+  }
+}